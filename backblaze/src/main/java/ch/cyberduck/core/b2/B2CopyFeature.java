@@ -48,6 +48,7 @@ public class B2CopyFeature implements Copy {
             final B2FileResponse response = session.getClient().copyFile(fileid.getFileid(source, new DisabledListProgressListener()),
                 fileid.getFileid(containerService.getContainer(target), new DisabledListProgressListener()),
                 containerService.getKey(target));
+            fileid.cache(target, response.getFileId());
             return new Path(target.getParent(), target.getName(), target.getType(), new B2AttributesFinderFeature(session, fileid).toAttributes(response));
         }
         catch(B2ApiException e) {
@@ -76,10 +76,12 @@ public class B2DeleteFeature implements Delete {
                     catch(IOException e) {
                         throw new DefaultIOExceptionMappingService().map(e);
                     }
+                    this.fileid.cache(file, null);
                 }
                 else if(file.isFile()) {
                     try {
                         session.getClient().deleteFileVersion(containerService.getKey(file), fileid.getFileid(file, new DisabledListProgressListener()));
+                        fileid.cache(file, null);
                     }
                     catch(B2ApiException e) {
                         throw new B2ExceptionMappingService().map("Cannot delete {0}", e, file);
@@ -96,6 +98,7 @@ public class B2DeleteFeature implements Delete {
                     callback.delete(file);
                     // Finally delete bucket itself
                     session.getClient().deleteBucket(fileid.getFileid(file, new DisabledListProgressListener()));
+                    fileid.cache(file, null);
                 }
             }
             catch(B2ApiException e) {
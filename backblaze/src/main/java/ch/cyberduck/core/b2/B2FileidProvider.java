@@ -25,7 +25,7 @@ import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
-import ch.cyberduck.core.features.IdProvider;
+import ch.cyberduck.core.shared.CachingFileidProvider;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -36,7 +36,7 @@ import synapticloop.b2.response.B2BucketResponse;
 import synapticloop.b2.response.B2FileInfoResponse;
 import synapticloop.b2.response.B2ListFilesResponse;
 
-public class B2FileidProvider implements IdProvider {
+public class B2FileidProvider extends CachingFileidProvider {
 
     private final PathContainerService containerService
         = new B2PathContainerService();
@@ -46,6 +46,7 @@ public class B2FileidProvider implements IdProvider {
     private Cache<Path> cache = PathCache.empty();
 
     public B2FileidProvider(final B2Session session) {
+        super(session.getHost());
         this.session = session;
     }
 
@@ -54,6 +55,11 @@ public class B2FileidProvider implements IdProvider {
         if(StringUtils.isNotBlank(file.attributes().getVersionId())) {
             return file.attributes().getVersionId();
         }
+        return super.getFileid(file, listener);
+    }
+
+    @Override
+    protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
         try {
             if(cache.isCached(file.getParent())) {
                 final AttributedList<Path> list = cache.get(file.getParent());
@@ -99,11 +105,6 @@ public class B2FileidProvider implements IdProvider {
         }
     }
 
-    protected String set(final Path file, final String id) {
-        file.attributes().setVersionId(id);
-        return id;
-    }
-
     @Override
     public B2FileidProvider withCache(final Cache<Path> cache) {
         this.cache = cache;
@@ -195,6 +195,7 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
                 checksums.add(part.getContentSha1());
             }
             final B2FinishLargeFileResponse response = session.getClient().finishLargeFileUpload(status.getVersion().id, checksums.toArray(new String[checksums.size()]));
+            fileid.cache(file, status.getVersion().id);
             if(log.isInfoEnabled()) {
                 log.info(String.format("Finished large file upload %s with %d parts", file, completed.size()));
             }
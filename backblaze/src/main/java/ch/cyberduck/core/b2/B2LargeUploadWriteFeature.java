@@ -149,6 +149,7 @@ public class B2LargeUploadWriteFeature implements MultipartWrite<VersionId> {
                         log.debug(String.format("Upload finished for %s with response %s", file, response));
                     }
                     overall.setVersion(new VersionId(response.getFileId()));
+                    fileid.cache(file, response.getFileId());
                 }
                 else {
                     if(0 == partNumber) {
@@ -221,6 +222,7 @@ public class B2LargeUploadWriteFeature implements MultipartWrite<VersionId> {
                         checksums.add(part.getContentSha1());
                     }
                     session.getClient().finishLargeFileUpload(overall.getVersion().id, checksums.toArray(new String[checksums.size()]));
+                    fileid.cache(file, overall.getVersion().id);
                     if(log.isInfoEnabled()) {
                         log.info(String.format("Finished large file upload %s with %d parts", file, completed.size()));
                     }
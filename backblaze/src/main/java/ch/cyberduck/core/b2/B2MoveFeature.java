@@ -42,6 +42,7 @@ public class B2MoveFeature implements Move {
     public Path move(final Path source, final Path target, final TransferStatus status, final Delete.Callback delete, final ConnectionCallback callback) throws BackgroundException {
         final Path copy = new B2CopyFeature(session, fileid).copy(source, target, status.length(source.attributes().getSize()), callback);
         new B2DeleteFeature(session, fileid).delete(Collections.singletonList(new Path(source)), callback, delete);
+        fileid.cache(target, copy.attributes().getVersionId());
         return copy;
     }
 
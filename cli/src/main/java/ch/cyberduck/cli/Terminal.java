@@ -71,6 +71,7 @@ import ch.cyberduck.core.transfer.TransferPrompt;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.core.vault.LoadingVaultLookupListener;
 import ch.cyberduck.core.vault.VaultRegistryFactory;
+import ch.cyberduck.core.worker.ConcurrentDeleteWorker;
 import ch.cyberduck.core.worker.CreateDirectoryWorker;
 import ch.cyberduck.core.worker.DeleteWorker;
 import ch.cyberduck.core.worker.HomeFinderWorker;
@@ -102,7 +103,7 @@ public class Terminal {
     private final Preferences preferences;
     private final TerminalController controller;
     private final TerminalPromptReader reader;
-    private final Cache<Path> cache;
+    private Cache<Path> cache;
     private final ProgressListener progress;
     private final TranscriptListener transcript;
 
@@ -253,6 +254,9 @@ public class Terminal {
             }
             final String uri = input.getOptionValue(action.name());
             final Host host = new CommandLineUriParser(input, protocols).parse(uri);
+            if(preferences.getBoolean("browser.cache.persistent")) {
+                cache = new PersistentPathCache(host);
+            }
             final LoginConnectionService connect = new LoginConnectionService(new TerminalLoginService(input
             ), new TerminalLoginCallback(reader), new TerminalHostKeyVerifier(reader), progress);
             source = SessionPoolFactory.create(connect, transcript, cache, host,
@@ -333,6 +337,10 @@ public class Terminal {
         finally {
             this.disconnect(source);
             this.disconnect(destination);
+            if(cache instanceof PersistentPathCache) {
+                // Save listings and stop writer before exit
+                ((PersistentPathCache) cache).shutdown();
+            }
         }
         return Exit.failure;
     }
@@ -435,10 +443,10 @@ public class Terminal {
         }
         final DeleteWorker worker;
         if(StringUtils.containsAny(remote.getName(), '*')) {
-            worker = new DeleteWorker(new TerminalLoginCallback(reader), files, cache, new DownloadGlobFilter(remote.getName()), progress);
+            worker = new ConcurrentDeleteWorker(session, new TerminalLoginCallback(reader), files, cache, new DownloadGlobFilter(remote.getName()), progress);
         }
         else {
-            worker = new DeleteWorker(new TerminalLoginCallback(reader), files, cache, progress);
+            worker = new ConcurrentDeleteWorker(session, new TerminalLoginCallback(reader), files, cache, progress);
         }
         final SessionBackgroundAction<List<Path>> action = new TerminalBackgroundAction<List<Path>>(controller, session, worker);
         try {
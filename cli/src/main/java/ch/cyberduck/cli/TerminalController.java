@@ -21,7 +21,11 @@ package ch.cyberduck.cli;
 import ch.cyberduck.core.AbstractController;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.TranscriptListener;
+import ch.cyberduck.core.threading.BackgroundAction;
 import ch.cyberduck.core.threading.MainAction;
+import ch.cyberduck.core.threading.TransferBackgroundExecutor;
+
+import java.util.concurrent.Future;
 
 public class TerminalController extends AbstractController {
 
@@ -35,6 +39,12 @@ public class TerminalController extends AbstractController {
         this.progress = progress;
     }
 
+    @Override
+    public <T> Future<T> background(final BackgroundAction<T> action) {
+        // Wait for slot in transfer queue with priority of transfer
+        return this.background(action, new TransferBackgroundExecutor());
+    }
+
     @Override
     public void invoke(final MainAction runnable, final boolean wait) {
         runnable.run();
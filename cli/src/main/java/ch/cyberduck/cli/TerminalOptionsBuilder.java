@@ -20,12 +20,14 @@ package ch.cyberduck.cli;
 
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
+import ch.cyberduck.core.transfer.TransferScheduler;
 
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.OptionGroup;
 import org.apache.commons.cli.Options;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 public final class TerminalOptionsBuilder {
@@ -134,6 +136,10 @@ public final class TerminalOptionsBuilder {
             .longOpt(Params.throttle.name())
             .desc("Throttle bandwidth")
             .hasArg().argName("bytes per second").build());
+        options.addOption(Option.builder()
+            .longOpt(Params.priority.name())
+            .desc(String.format("Order in transfer queue and share of bandwidth. One of %s", Arrays.toString(TransferScheduler.Priority.values())))
+            .hasArg().argName("priority").build());
         options.addOption(Option.builder()
             .longOpt(Params.nochecksum.name())
             .desc("Skip verifying checksum").build());
@@ -191,6 +197,7 @@ public final class TerminalOptionsBuilder {
         udt,
         parallel,
         throttle,
+        priority,
         nochecksum,
         nokeychain,
         vault,
@@ -25,9 +25,11 @@ import ch.cyberduck.core.ProtocolFactory;
 import ch.cyberduck.core.exception.HostParserException;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
+import ch.cyberduck.core.transfer.TransferScheduler;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
@@ -99,6 +101,14 @@ public class TerminalOptionsInputValidator {
                     break;
             }
         }
+        if(input.hasOption(TerminalOptionsBuilder.Params.priority.name())) {
+            final String arg = input.getOptionValue(TerminalOptionsBuilder.Params.priority.name());
+            if(!EnumUtils.isValidEnum(TransferScheduler.Priority.class, arg)) {
+                console.printf("Invalid argument '%s' for option %s. Must be one of %s%n",
+                    arg, TerminalOptionsBuilder.Params.priority.name(), Arrays.toString(TransferScheduler.Priority.values()));
+                return false;
+            }
+        }
         // Validate arguments
         switch(action) {
             case list:
@@ -26,6 +26,7 @@ import ch.cyberduck.core.transfer.DownloadTransfer;
 import ch.cyberduck.core.transfer.SyncTransfer;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferScheduler;
 import ch.cyberduck.core.transfer.UploadTransfer;
 import ch.cyberduck.core.transfer.download.DownloadFilterOptions;
 import ch.cyberduck.core.transfer.upload.UploadFilterOptions;
@@ -81,6 +82,9 @@ public final class TerminalTransferFactory {
                 //
             }
         }
+        if(input.hasOption(TerminalOptionsBuilder.Params.priority.name())) {
+            transfer.setPriority(TransferScheduler.Priority.valueOf(input.getOptionValue(TerminalOptionsBuilder.Params.priority.name())));
+        }
         return transfer;
     }
 }
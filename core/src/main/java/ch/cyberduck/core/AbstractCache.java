@@ -22,32 +22,76 @@ import ch.cyberduck.core.cache.LRUCache;
 
 import org.apache.log4j.Logger;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
 
 public abstract class AbstractCache<T extends Referenceable> implements Cache<T> {
     private static final Logger log = Logger.getLogger(AbstractCache.class);
 
     private final LRUCache<T, AttributedList<T>> impl;
 
+    /**
+     * Index from reference of cached item to the directory listing containing it. Maintained when listings are
+     * added, replaced, evicted or removed and therefore bounded by the number of items in cached listings.
+     */
+    private final Map<CacheReference<?>, AttributedList<T>> index = new ConcurrentHashMap<>();
+    /**
+     * Version of cached listings when indexed to only scan listings modified since
+     */
+    private final Map<AttributedList<T>, Object> versions = Collections.synchronizedMap(new IdentityHashMap<>());
+
     public AbstractCache(int size) {
+        final RemovalListener<T, AttributedList<T>> listener = notification -> this.unindex(notification.getValue());
         if(size == Integer.MAX_VALUE) {
             // Unlimited
-            impl = LRUCache.build();
+            impl = LRUCache.build(listener);
         }
         else {
             // Will inflate to the given size
-            impl = LRUCache.build(size);
+            impl = LRUCache.build(listener, size);
         }
     }
 
+    /**
+     * @param weight  Maximum total weight of cached directory listings
+     * @param weigher Estimated size of directory listing when cached
+     */
+    protected AbstractCache(final long weight, final Weigher<T, AttributedList<T>> weigher) {
+        final RemovalListener<T, AttributedList<T>> listener = notification -> this.unindex(notification.getValue());
+        impl = LRUCache.build(listener, weight, weigher);
+    }
+
+    /**
+     * Lookup in listing resolved from index of references for listings added with {@link #put(Referenceable,
+     * AttributedList)}. Falls back to scan listings modified after they were cached for items added since.
+     *
+     * @return Null if not part of any cached listing
+     */
     @Override
     public T lookup(final CacheReference<T> reference) {
-        for(AttributedList<T> entry : impl.asMap().values()) {
-            final T f = entry.find(reference);
-            if(null == f) {
+        final AttributedList<T> indexed = index.get(reference);
+        if(null != indexed) {
+            final T f = indexed.find(reference);
+            if(null != f) {
+                return f;
+            }
+            // Removed from listing since cached
+            index.remove(reference, indexed);
+        }
+        for(AttributedList<T> list : impl.asMap().values()) {
+            if(list.version() == versions.get(list)) {
+                // Not modified since indexed
                 continue;
             }
-            return f;
+            final T f = list.find(reference);
+            if(null != f) {
+                return f;
+            }
         }
         log.warn(String.format("Lookup failed for %s in cache", reference));
         return null;
@@ -123,6 +167,15 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         }
         final AttributedList<T> replaced = impl.get(reference);
         impl.put(reference, children);
+        if(null != reference && null != children) {
+            // Modifications while indexing are found by scanning
+            final Object version = children.version();
+            // After removal of entries from replaced listing
+            for(T f : children) {
+                index.put(this.reference(f), children);
+            }
+            versions.put(children, version);
+        }
         if(null == replaced) {
             // Not previously in cache
             return AttributedList.emptyList();
@@ -169,6 +222,23 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             log.info(String.format("Clear cache %s", this));
         }
         impl.clear();
+        index.clear();
+        versions.clear();
+    }
+
+    /**
+     * Remove index entries still pointing to listing no longer cached
+     *
+     * @param list Replaced, evicted or removed directory listing
+     */
+    private void unindex(final AttributedList<T> list) {
+        if(null == list) {
+            return;
+        }
+        versions.remove(list);
+        for(T f : list) {
+            index.remove(this.reference(f), list);
+        }
     }
 
     @Override
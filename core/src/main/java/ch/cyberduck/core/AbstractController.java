@@ -20,6 +20,7 @@ package ch.cyberduck.core;
 
 import ch.cyberduck.core.threading.BackgroundAction;
 import ch.cyberduck.core.threading.BackgroundActionRegistry;
+import ch.cyberduck.core.threading.BackgroundExecutor;
 import ch.cyberduck.core.threading.DefaultBackgroundExecutor;
 import ch.cyberduck.core.threading.MainAction;
 
@@ -64,11 +65,19 @@ public abstract class AbstractController implements Controller {
      */
     @Override
     public <T> Future<T> background(final BackgroundAction<T> action) {
+        return this.background(action, DefaultBackgroundExecutor.get());
+    }
+
+    /**
+     * @param action   The runnable to execute in a secondary thread
+     * @param executor Executor to schedule action with
+     */
+    protected <T> Future<T> background(final BackgroundAction<T> action, final BackgroundExecutor executor) {
         if(registry.contains(action)) {
             log.warn(String.format("Skip duplicate background action %s found in registry", action));
             return ConcurrentUtils.constantFuture(null);
         }
-        return DefaultBackgroundExecutor.get().execute(this, registry, action);
+        return executor.execute(this, registry, action);
     }
 
     /**
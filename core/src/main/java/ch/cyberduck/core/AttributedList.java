@@ -20,16 +20,28 @@ package ch.cyberduck.core;
 
 import org.apache.log4j.Logger;
 
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 /**
  * A sortable list with a map to lookup values by key.
+ * <p>
+ * Elements are kept in an array that is only ever appended to in place. Readers work on an immutable snapshot of
+ * array and size and never lock, iterators are not affected by concurrent modifications. Adding to the end does not
+ * copy the array while all other modifications replace it. Lookups of paths use an index by reference with the same
+ * identity as {@link Path#equals(Object)} built on first use and kept up to date on modifications. Elements not found
+ * in the index because their reference changed after being added are found by scanning the list.
  */
 public class AttributedList<E extends Referenceable> implements Iterable<E> {
     private static final Logger log = Logger.getLogger(AttributedList.class);
@@ -51,8 +63,29 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         }
     };
 
-    private final List<E> impl
-        = new CopyOnWriteArrayList<>();
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Guards modifications
+     */
+    private final Object lock = new Object();
+
+    private volatile Snapshot snapshot = new Snapshot(new Object[0], 0);
+
+    /**
+     * Lookup by reference built on demand mapping to the first of equal elements
+     */
+    private volatile Map<CacheReference<?>, E> index;
+
+    /**
+     * Reference each element was indexed with by identity of element. Guarded by lock.
+     */
+    private Map<Object, CacheReference<?>> keys;
+
+    /**
+     * Index contains equal elements and is discarded on modifications changing their order. Guarded by lock.
+     */
+    private boolean duplicates;
 
     /**
      * Metadata of file listing
@@ -91,11 +124,33 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public boolean add(final E e) {
-        return impl.add(e);
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            Object[] elements = current.elements;
+            if(current.size == elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(DEFAULT_CAPACITY, current.size + (current.size >> 1)));
+            }
+            // Slot is not visible in any previous snapshot
+            elements[current.size] = e;
+            this.index(e);
+            snapshot = new Snapshot(elements, current.size + 1);
+        }
+        return true;
     }
 
     public void add(final int index, final E e) {
-        impl.add(index, e);
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            if(index < 0 || index > current.size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d for size %d", index, current.size));
+            }
+            final Object[] elements = new Object[Math.max(DEFAULT_CAPACITY, current.size + 1 + (current.size >> 1))];
+            System.arraycopy(current.elements, 0, elements, 0, index);
+            elements[index] = e;
+            System.arraycopy(current.elements, index, elements, index + 1, current.size - index);
+            this.insert(e);
+            snapshot = new Snapshot(elements, current.size + 1);
+        }
     }
 
     public boolean addAll(final Iterable<? extends E> c) {
@@ -106,43 +161,45 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public E get(final int index) {
-        return impl.get(index);
+        return snapshot.get(index);
     }
 
     public E get(final E reference) {
-        final int index = impl.indexOf(reference);
+        if(reference instanceof Path) {
+            // Same identity as equals
+            final E found = this.lookup(reference(reference));
+            if(null != found && found.equals(reference)) {
+                return found;
+            }
+        }
+        final Snapshot current = snapshot;
+        final int index = current.indexOf(reference);
         if(-1 == index) {
             return null;
         }
-        return impl.get(index);
+        return current.get(index);
     }
 
     public void set(final int i, final E e) {
-        impl.set(i, e);
-    }
-
-    @Override
-    public Iterator<E> iterator() {
-        return impl.iterator();
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            if(i < 0 || i >= current.size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d for size %d", i, current.size));
+            }
+            final Object[] elements = Arrays.copyOf(current.elements, current.elements.length);
+            this.unindex(current.get(i));
+            elements[i] = e;
+            this.insert(e);
+            snapshot = new Snapshot(elements, current.size);
+        }
     }
 
     /**
-     * The CopyOnWriteArrayList iterator does not support remove but the sort implementation
-     * makes use of it. Provide our own implementation here to circumvent.
-     *
-     * @param copy       The list copy to sort
-     * @param comparator The comparator to use
-     * @see java.util.Collections#sort(java.util.List, java.util.Comparator)
-     * @see java.util.concurrent.CopyOnWriteArrayList#iterator()
+     * @return Iterator on a snapshot of the list not reflecting later modifications. Does not support remove.
      */
-    private void doSort(final List<E> copy, final Comparator<E> comparator) {
-        if(null == comparator) {
-            return;
-        }
-        if(log.isDebugEnabled()) {
-            log.debug(String.format("Sort list %s with comparator %s", this, comparator));
-        }
-        copy.sort(comparator);
+    @Override
+    public Iterator<E> iterator() {
+        return snapshot.iterator();
     }
 
     /**
@@ -162,17 +219,31 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @param filter     Filter
      * @return Filtered list sorted with comparator
      */
+    @SuppressWarnings("unchecked")
     public AttributedList<E> filter(final Comparator<E> comparator, final Filter<E> filter) {
-        final AttributedList<E> filtered = new AttributedList<>(impl);
+        final Snapshot current = snapshot;
+        final Object[] elements = Arrays.copyOf(current.elements, current.size);
         if(null != comparator) {
-            this.doSort(filtered.impl, comparator);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Sort list %s with comparator %s", this, comparator));
+            }
+            Arrays.sort(elements, (Comparator) comparator);
         }
+        int size = elements.length;
         if(null != filter) {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Filter list %s with filter %s", this, filter));
             }
-            filtered.impl.removeIf(e -> !filter.accept(e));
+            size = 0;
+            for(Object e : elements) {
+                if(filter.accept((E) e)) {
+                    elements[size++] = e;
+                }
+            }
+            Arrays.fill(elements, size, elements.length, null);
         }
+        final AttributedList<E> filtered = new AttributedList<>();
+        filtered.snapshot = new Snapshot(elements, size);
         return filtered;
     }
 
@@ -180,49 +251,230 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * Clear the list and all references.
      */
     public void clear() {
-        impl.clear();
+        synchronized(lock) {
+            index = null;
+            keys = null;
+            snapshot = new Snapshot(new Object[0], 0);
+        }
     }
 
     public boolean isEmpty() {
-        return impl.isEmpty();
+        return snapshot.size == 0;
     }
 
     public int size() {
-        return impl.size();
+        return snapshot.size;
     }
 
     public boolean contains(final E e) {
-        return impl.contains(e);
+        return this.get(e) != null;
     }
 
     public E find(final Predicate<E> predicate) {
-        final Optional<E> optional = impl.stream().filter(predicate).findFirst();
-        return optional.orElse(null);
+        if(predicate instanceof CacheReference) {
+            final E found = this.lookup((CacheReference<?>) predicate);
+            if(null != found && predicate.test(found)) {
+                return found;
+            }
+        }
+        for(E e : this) {
+            if(predicate.test(e)) {
+                return e;
+            }
+        }
+        return null;
     }
 
     @SuppressWarnings("unchecked")
     public E[] toArray() {
-        return (E[]) impl.toArray(new Referenceable[impl.size()]);
+        final Snapshot current = snapshot;
+        final Referenceable[] array = new Referenceable[current.size];
+        System.arraycopy(current.elements, 0, array, 0, current.size);
+        return (E[]) array;
     }
 
+    /**
+     * @return Modifiable view backed by this list
+     */
     public List<E> toList() {
-        return impl;
+        return new View();
+    }
+
+    /**
+     * @return Changes with every modification of the list
+     */
+    Object version() {
+        return snapshot;
     }
 
     public int indexOf(final E e) {
-        return impl.indexOf(e);
+        return snapshot.indexOf(e);
     }
 
     public void remove(final int index) {
-        impl.remove(index);
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            if(index < 0 || index >= current.size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d for size %d", index, current.size));
+            }
+            final Object[] elements = new Object[current.elements.length];
+            System.arraycopy(current.elements, 0, elements, 0, index);
+            System.arraycopy(current.elements, index + 1, elements, index, current.size - index - 1);
+            this.unindex(current.get(index));
+            snapshot = new Snapshot(elements, current.size - 1);
+        }
     }
 
     public boolean remove(final E e) {
-        return impl.remove(e);
+        synchronized(lock) {
+            final int index = snapshot.indexOf(e);
+            if(-1 == index) {
+                return false;
+            }
+            this.remove(index);
+            return true;
+        }
     }
 
-    public boolean removeAll(final java.util.Collection<E> e) {
-        return impl.removeAll(e);
+    public boolean removeAll(final Collection<E> e) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            final Object[] elements = new Object[current.elements.length];
+            int size = 0;
+            for(int i = 0; i < current.size; i++) {
+                if(!e.contains(current.elements[i])) {
+                    elements[size++] = current.elements[i];
+                }
+                else {
+                    this.unindex(current.get(i));
+                }
+            }
+            if(size == current.size) {
+                return false;
+            }
+            snapshot = new Snapshot(elements, size);
+            return true;
+        }
+    }
+
+    /**
+     * Sort in place
+     *
+     * @param comparator The comparator to use
+     */
+    @SuppressWarnings("unchecked")
+    private void sort(final Comparator<? super E> comparator) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            final Object[] elements = Arrays.copyOf(current.elements, current.elements.length);
+            Arrays.sort(elements, 0, current.size, (Comparator) comparator);
+            if(duplicates) {
+                // First of equal elements may change
+                index = null;
+                keys = null;
+            }
+            snapshot = new Snapshot(elements, current.size);
+        }
+    }
+
+    /**
+     * Add appended element to index. Must hold lock.
+     */
+    private void index(final E e) {
+        final Map<CacheReference<?>, E> index = this.index;
+        if(null != index) {
+            final CacheReference<?> reference = reference(e);
+            if(null != reference) {
+                if(null == index.putIfAbsent(reference, e)) {
+                    keys.put(e, reference);
+                }
+                else {
+                    duplicates = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Add element inserted at any position to index. Must hold lock.
+     */
+    private void insert(final E e) {
+        final Map<CacheReference<?>, E> index = this.index;
+        if(null != index) {
+            final CacheReference<?> reference = reference(e);
+            if(null != reference) {
+                if(index.containsKey(reference)) {
+                    // May be inserted before equal element
+                    this.index = null;
+                    this.keys = null;
+                }
+                else {
+                    index.put(reference, e);
+                    keys.put(e, reference);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove element from index by identity with the reference it was indexed with. Must hold lock.
+     */
+    private void unindex(final E e) {
+        final Map<CacheReference<?>, E> index = this.index;
+        if(null != index) {
+            if(duplicates) {
+                // Equal element may remain
+                this.index = null;
+                this.keys = null;
+                return;
+            }
+            final CacheReference<?> reference = keys.remove(e);
+            if(null != reference) {
+                index.remove(reference, e);
+            }
+        }
+    }
+
+    /**
+     * @param reference Cache reference
+     * @return First element indexed with reference or null if not found. The reference of the element may have
+     * changed since.
+     */
+    private E lookup(final CacheReference<?> reference) {
+        Map<CacheReference<?>, E> index = this.index;
+        if(null == index) {
+            synchronized(lock) {
+                index = this.index;
+                if(null == index) {
+                    index = new ConcurrentHashMap<>();
+                    keys = new IdentityHashMap<>();
+                    duplicates = false;
+                    for(E e : this) {
+                        final CacheReference<?> key = reference(e);
+                        if(null != key) {
+                            if(null == index.putIfAbsent(key, e)) {
+                                keys.put(e, key);
+                            }
+                            else {
+                                duplicates = true;
+                            }
+                        }
+                    }
+                    this.index = index;
+                }
+            }
+        }
+        return index.get(reference);
+    }
+
+    /**
+     * @return Reference to index element with or null for elements only found by scanning the list
+     */
+    private static CacheReference<?> reference(final Object e) {
+        if(e instanceof Path) {
+            return new DefaultPathPredicate((Path) e);
+        }
+        return null;
     }
 
     @Override
@@ -234,11 +486,135 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
             return false;
         }
         final AttributedList<?> that = (AttributedList<?>) o;
-        return Objects.equals(impl, that.impl);
+        final AttributedList<?>.Snapshot other = that.snapshot;
+        final Snapshot current = snapshot;
+        if(current.size != other.size) {
+            return false;
+        }
+        for(int i = 0; i < current.size; i++) {
+            if(!Objects.equals(current.elements[i], other.elements[i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(impl);
+        final Snapshot current = snapshot;
+        int result = 1;
+        for(int i = 0; i < current.size; i++) {
+            result = 31 * result + Objects.hashCode(current.elements[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Elements up to size are never modified once published
+     */
+    private final class Snapshot implements Iterable<E> {
+        private final Object[] elements;
+        private final int size;
+
+        public Snapshot(final Object[] elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E get(final int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d for size %d", index, size));
+            }
+            return (E) elements[index];
+        }
+
+        public int indexOf(final Object e) {
+            for(int i = 0; i < size; i++) {
+                if(Objects.equals(e, elements[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int cursor = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < size;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if(cursor >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return (E) elements[cursor++];
+                }
+            };
+        }
+    }
+
+    /**
+     * List view with modifications written through
+     */
+    private final class View extends AbstractList<E> implements RandomAccess {
+        @Override
+        public E get(final int index) {
+            return AttributedList.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return AttributedList.this.size();
+        }
+
+        @Override
+        public E set(final int index, final E element) {
+            synchronized(lock) {
+                final E previous = AttributedList.this.get(index);
+                AttributedList.this.set(index, element);
+                return previous;
+            }
+        }
+
+        @Override
+        public void add(final int index, final E element) {
+            if(index == this.size()) {
+                AttributedList.this.add(element);
+            }
+            else {
+                AttributedList.this.add(index, element);
+            }
+        }
+
+        @Override
+        public E remove(final int index) {
+            synchronized(lock) {
+                final E previous = AttributedList.this.get(index);
+                AttributedList.this.remove(index);
+                return previous;
+            }
+        }
+
+        @Override
+        public void clear() {
+            AttributedList.this.clear();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return AttributedList.this.iterator();
+        }
+
+        @Override
+        public void sort(final Comparator<? super E> c) {
+            AttributedList.this.sort(c);
+        }
     }
 }
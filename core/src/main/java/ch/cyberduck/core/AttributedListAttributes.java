@@ -38,6 +38,11 @@ public class AttributedListAttributes<E> {
      */
     private Long timestamp;
 
+    /**
+     * Cursor of server change feed this snapshot is current with
+     */
+    private volatile String cursor;
+
     /**
      * Initialize with default values
      *
@@ -69,6 +74,14 @@ public class AttributedListAttributes<E> {
         return this;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(final String cursor) {
+        this.cursor = cursor;
+    }
+
     /**
      * @return true if the listing should be superseded
      */
@@ -0,0 +1,260 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.Changes;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Update a cached directory listing with changes reported by the server since it was listed instead of listing
+ * the directory again. Every cached listing records the cursor of the change feed it is current with. Changes are
+ * applied to all cached listings current with the same cursor. The cursor is saved with the listing in the cache of
+ * the host. A new listing reuses the cursor of the cached parent directory listing obtained before and only requests
+ * the current cursor from the server when the parent is not cached or its cursor is no longer valid.
+ */
+public class ChangesListService implements ListService {
+    private static final Logger log = Logger.getLogger(ChangesListService.class);
+
+    private final ListService proxy;
+    private final Changes changes;
+
+    private Cache<Path> cache = PathCache.empty();
+
+    public ChangesListService(final ListService proxy, final Changes changes) {
+        this.proxy = proxy;
+        this.changes = changes;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(!changes.isSupported(directory)) {
+            return proxy.list(directory, listener);
+        }
+        boolean expired = false;
+        if(cache.isCached(directory)) {
+            final String cursor = cache.get(directory).attributes().getCursor();
+            if(null != cursor) {
+                try {
+                    final Changes.Changeset changeset = changes.changes(directory, cursor, listener);
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Apply %s to cached listings for %s", changeset, directory));
+                    }
+                    this.apply(cursor, changeset);
+                    if(cache.isCached(directory)) {
+                        final AttributedList<Path> list = cache.get(directory);
+                        listener.chunk(directory, list);
+                        return list;
+                    }
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Cached listing for %s removed by changes", directory));
+                    }
+                }
+                catch(NotfoundException e) {
+                    log.warn(String.format("Cursor %s for %s no longer valid. %s", cursor, directory, e.getMessage()));
+                    expired = true;
+                }
+                catch(UnsupportedException e) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Changes not supported for %s", directory));
+                    }
+                }
+                catch(ConnectionCanceledException e) {
+                    throw e;
+                }
+                catch(BackgroundException e) {
+                    log.warn(String.format("Failure retrieving changes for %s. %s", directory, e.getMessage()));
+                }
+            }
+        }
+        // Obtain cursor prior listing to not miss any changes
+        final String cursor = expired ? this.getCursor(directory) : this.getParentCursor(directory);
+        final AttributedList<Path> list = proxy.list(directory, listener);
+        list.attributes().setCursor(cursor);
+        return list;
+    }
+
+    /**
+     * @return Cursor of cached parent listing obtained before or current cursor from server
+     */
+    protected String getParentCursor(final Path directory) throws BackgroundException {
+        if(!directory.isRoot()) {
+            final Path parent = directory.getParent();
+            if(cache.isCached(parent)) {
+                final String cursor = cache.get(parent).attributes().getCursor();
+                if(null != cursor) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Reuse cursor %s of parent %s for %s", cursor, parent, directory));
+                    }
+                    return cursor;
+                }
+            }
+        }
+        return this.getCursor(directory);
+    }
+
+    /**
+     * @return Current cursor from server
+     */
+    protected String getCursor(final Path directory) throws BackgroundException {
+        try {
+            return changes.getCursor(directory);
+        }
+        catch(UnsupportedException e) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Changes not supported for %s", directory));
+            }
+            return null;
+        }
+        catch(ConnectionCanceledException e) {
+            throw e;
+        }
+        catch(BackgroundException e) {
+            log.warn(String.format("Failure retrieving cursor for %s. %s", directory, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Apply changes to all cached listings current with cursor and mark them current with the cursor of the changeset
+     *
+     * @param cursor    Cursor changes were retrieved from
+     * @param changeset Changes in order
+     */
+    protected void apply(final String cursor, final Changes.Changeset changeset) {
+        final Map<Path, AttributedList<Path>> listings = new HashMap<>();
+        final Map<SimplePathPredicate, Path> directories = new HashMap<>();
+        // Parent directory of files in listings by file ID and path
+        final Map<String, Path> ids = new HashMap<>();
+        final Map<SimplePathPredicate, Path> files = new HashMap<>();
+        for(Map.Entry<Path, AttributedList<Path>> entry : cache.asMap().entrySet()) {
+            final Path directory = entry.getKey();
+            if(directory.getType().contains(Path.Type.decrypted) || directory.getType().contains(Path.Type.vault)) {
+                // Changes are reported for encrypted files only
+                continue;
+            }
+            if(!StringUtils.equals(cursor, entry.getValue().attributes().getCursor())) {
+                continue;
+            }
+            listings.put(directory, entry.getValue());
+            directories.put(new SimplePathPredicate(directory), directory);
+            for(Path file : entry.getValue()) {
+                this.index(ids, files, directory, file);
+            }
+        }
+        final Set<Path> modified = new HashSet<>();
+        final Set<Path> removed = new HashSet<>();
+        for(Changes.Change change : changeset.getChanges()) {
+            // Remove from previous location
+            final Path parent = null == change.getId() ?
+                files.get(new SimplePathPredicate(change.getFile())) : ids.get(change.getId());
+            if(null != parent && listings.containsKey(parent)) {
+                final AttributedList<Path> list = this.modify(listings, modified, parent);
+                final Path previous = null == change.getId() ?
+                    list.find(new SimplePathPredicate(change.getFile())) :
+                    list.find(file -> StringUtils.equals(change.getId(), file.attributes().getVersionId()));
+                if(null != previous) {
+                    list.remove(list.indexOf(previous));
+                    files.remove(new SimplePathPredicate(previous));
+                    if(null != previous.attributes().getVersionId()) {
+                        ids.remove(previous.attributes().getVersionId());
+                    }
+                    if(previous.isDirectory()) {
+                        // Listings of previous location
+                        for(Path directory : new ArrayList<>(listings.keySet())) {
+                            if(new SimplePathPredicate(previous).test(directory) || directory.isChild(previous)) {
+                                listings.remove(directory);
+                                directories.remove(new SimplePathPredicate(directory));
+                                removed.add(directory);
+                            }
+                        }
+                    }
+                }
+            }
+            if(Changes.Change.Type.modified == change.getType()) {
+                final Path file = change.getFile();
+                final Path directory = directories.get(new SimplePathPredicate(file.getParent()));
+                if(null != directory) {
+                    final AttributedList<Path> list = this.modify(listings, modified, directory);
+                    if(null == change.getId()) {
+                        final Path existing = list.find(new SimplePathPredicate(file));
+                        if(null != existing) {
+                            list.remove(list.indexOf(existing));
+                        }
+                    }
+                    list.add(file);
+                    this.index(ids, files, directory, file);
+                }
+            }
+        }
+        for(Path directory : removed) {
+            cache.remove(directory);
+        }
+        for(Map.Entry<Path, AttributedList<Path>> entry : listings.entrySet()) {
+            entry.getValue().attributes().setCursor(changeset.getCursor());
+            // Save with updated cursor
+            cache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void index(final Map<String, Path> ids, final Map<SimplePathPredicate, Path> files, final Path directory, final Path file) {
+        files.put(new SimplePathPredicate(file), directory);
+        if(StringUtils.isNotBlank(file.attributes().getVersionId())) {
+            ids.put(file.attributes().getVersionId(), directory);
+        }
+    }
+
+    /**
+     * @return Copy of cached listing to modify
+     */
+    private AttributedList<Path> modify(final Map<Path, AttributedList<Path>> listings, final Set<Path> modified, final Path directory) {
+        if(modified.add(directory)) {
+            final AttributedList<Path> copy = new AttributedList<>(listings.get(directory));
+            listings.put(directory, copy);
+            return copy;
+        }
+        return listings.get(directory);
+    }
+
+    @Override
+    public ListService withCache(final Cache<Path> cache) {
+        this.cache = cache;
+        proxy.withCache(cache);
+        changes.withCache(cache);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ChangesListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append(", changes=").append(changes);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -34,7 +34,12 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
      */
     protected Path parent;
     /**
-     * The absolute remote path
+     * Filename relative to parent or absolute path without parent
+     */
+    private String name;
+    /**
+     * The absolute remote path. Computed from the parent on first use and not allocated for paths in large
+     * listings never queried for their absolute path.
      */
     private String path;
     /**
@@ -53,6 +58,7 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
 
     public Path(final Path copy) {
         this.parent = copy.parent;
+        this.name = copy.name;
         this.path = copy.path;
         this.symlink = copy.symlink;
         this.type = EnumSet.copyOf(copy.type);
@@ -129,22 +135,21 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
 
     private void _setPath(final Path parent, final String name) {
         this.parent = parent;
+        this.name = name;
+        this.path = null;
+    }
+
+    private String toAbsolute() {
         if(null == parent) {
-            this.path = name;
+            return name;
         }
-        else {
-            if(parent.isRoot()) {
-                this.path = parent.getAbsolute() + name;
-            }
-            else {
-                if(name.startsWith(String.valueOf(DELIMITER))) {
-                    this.path = parent.getAbsolute() + name;
-                }
-                else {
-                    this.path = parent.getAbsolute() + Path.DELIMITER + name;
-                }
-            }
+        if(parent.isRoot()) {
+            return parent.getAbsolute() + name;
         }
+        if(name.startsWith(String.valueOf(DELIMITER))) {
+            return parent.getAbsolute() + name;
+        }
+        return parent.getAbsolute() + Path.DELIMITER + name;
     }
 
     @Override
@@ -176,6 +181,17 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
         return type.contains(Type.symboliclink);
     }
 
+    @Override
+    public boolean isRoot() {
+        if(null != path) {
+            return String.valueOf(DELIMITER).equals(path);
+        }
+        if(null == parent) {
+            return String.valueOf(DELIMITER).equals(name);
+        }
+        return name.isEmpty() && parent.isRoot();
+    }
+
     @Override
     public char getDelimiter() {
         return String.valueOf(DELIMITER).charAt(0);
@@ -209,9 +225,8 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
         if(this.isRoot()) {
             return String.valueOf(DELIMITER);
         }
-        final String abs = this.getAbsolute();
-        int index = abs.lastIndexOf(DELIMITER);
-        return abs.substring(index + 1);
+        // Name may contain delimiter
+        return name.substring(name.lastIndexOf(DELIMITER) + 1);
     }
 
     /**
@@ -219,6 +234,9 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
      */
     @Override
     public String getAbsolute() {
+        if(null == path) {
+            path = this.toAbsolute();
+        }
         return path;
     }
 
@@ -264,7 +282,7 @@ public class Path extends AbstractPath implements Referenceable, Serializable {
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Path{");
-        sb.append("path='").append(path).append('\'');
+        sb.append("path='").append(this.getAbsolute()).append('\'');
         sb.append(", type=").append(type);
         sb.append('}');
         return sb.toString();
@@ -61,8 +61,6 @@ public class PathAttributes extends Attributes implements Serializable {
 
     private Permission permission = Permission.EMPTY;
 
-    private Acl acl = Acl.EMPTY;
-
     /**
      * MD5 checksum
      */
@@ -73,31 +71,11 @@ public class PathAttributes extends Attributes implements Serializable {
      */
     private String etag;
 
-    /**
-     * Redundancy level if available
-     */
-    private String storageClass;
-
-    /**
-     * Server side encryption (SSE) algorithm and key or null
-     */
-    private Encryption.Algorithm encryption = Encryption.Algorithm.NONE;
-
     /**
      * Unique identifier for a given version of a file
      */
     private String versionId;
 
-    /**
-     * References to previous versions if any
-     */
-    private AttributedList<Path> versions = AttributedList.emptyList();
-
-    /**
-     * Lock id
-     */
-    private String lockId;
-
     /**
      * Should be hidden in the browser by default
      */
@@ -118,35 +96,72 @@ public class PathAttributes extends Attributes implements Serializable {
     private String region;
 
     /**
-     *
-     */
-    private String displayname;
-
-    private DescriptiveUrl link = DescriptiveUrl.EMPTY;
-
-    /**
-     * HTTP headers
-     */
-    private Map<String, String> metadata = Collections.emptyMap();
-
-    /**
-     * Cryptomator vault
-     */
-    private Path vault;
-    /**
-     * Cryptomator decrypted path
-     */
-    private Path decrypted;
-    /**
-     * Cryptomator encrypted path.
-     */
-    private Path encrypted;
-    /**
-     * Unique identifier for cryptomator
-     */
-    private String directoryId;
+     * Attributes only set for some protocols or files allocated when first set to reduce memory footprint of
+     * large listings
+     */
+    private Extended extended;
+
+    private static final class Extended {
+        private Acl acl = Acl.EMPTY;
+        /**
+         * Redundancy level if available
+         */
+        private String storageClass;
+        /**
+         * Server side encryption (SSE) algorithm and key or null
+         */
+        private Encryption.Algorithm encryption = Encryption.Algorithm.NONE;
+        /**
+         * References to previous versions if any
+         */
+        private AttributedList<Path> versions = AttributedList.emptyList();
+        /**
+         * Lock id
+         */
+        private String lockId;
+        private String displayname;
+        private DescriptiveUrl link = DescriptiveUrl.EMPTY;
+        /**
+         * HTTP headers
+         */
+        private Map<String, String> metadata = Collections.emptyMap();
+        /**
+         * Cryptomator vault
+         */
+        private Path vault;
+        /**
+         * Cryptomator decrypted path
+         */
+        private Path decrypted;
+        /**
+         * Cryptomator encrypted path.
+         */
+        private Path encrypted;
+        /**
+         * Unique identifier for cryptomator
+         */
+        private String directoryId;
+        private Map<String, String> custom = Collections.emptyMap();
+
+        public Extended() {
+        }
 
-    private Map<String, String> custom = Collections.emptyMap();
+        public Extended(final Extended copy) {
+            acl = copy.acl;
+            storageClass = copy.storageClass;
+            encryption = copy.encryption;
+            versions = copy.versions;
+            lockId = copy.lockId;
+            displayname = copy.displayname;
+            link = copy.link;
+            metadata = copy.metadata;
+            vault = copy.vault;
+            decrypted = copy.decrypted;
+            encrypted = copy.encrypted;
+            directoryId = copy.directoryId;
+            custom = copy.custom;
+        }
+    }
 
     public PathAttributes() {
     }
@@ -159,26 +174,14 @@ public class PathAttributes extends Attributes implements Serializable {
         owner = copy.owner;
         group = copy.group;
         permission = copy.permission;
-        acl = copy.acl;
         checksum = copy.checksum;
         etag = copy.etag;
-        storageClass = copy.storageClass;
-        encryption = copy.encryption;
         versionId = copy.versionId;
-        versions = copy.versions;
-        lockId = copy.lockId;
         duplicate = copy.duplicate;
         hidden = copy.hidden;
         revision = copy.revision;
         region = copy.region;
-        displayname = copy.displayname;
-        link = copy.link;
-        metadata = copy.metadata;
-        custom = copy.custom;
-        vault = copy.vault;
-        decrypted = copy.decrypted;
-        encrypted = copy.encrypted;
-        directoryId = copy.directoryId;
+        extended = null == copy.extended ? null : new Extended(copy.extended);
     }
 
     @Override
@@ -192,6 +195,7 @@ public class PathAttributes extends Attributes implements Serializable {
         if(revision != null) {
             dict.setStringForKey(String.valueOf(revision), "Revision");
         }
+        final AttributedList<Path> versions = this.getVersions();
         if(!versions.isEmpty()) {
             dict.setListForKey(versions.toList(), "Versions");
         }
@@ -201,9 +205,11 @@ public class PathAttributes extends Attributes implements Serializable {
         if(permission != Permission.EMPTY) {
             dict.setObjectForKey(permission, "Permission");
         }
+        final Acl acl = this.getAcl();
         if(acl != Acl.EMPTY) {
             dict.setObjectForKey(acl, "Acl");
         }
+        final DescriptiveUrl link = this.getLink();
         if(link != DescriptiveUrl.EMPTY) {
             dict.setStringForKey(link.getUrl(), "Link");
         }
@@ -216,8 +222,8 @@ public class PathAttributes extends Attributes implements Serializable {
         if(StringUtils.isNotBlank(versionId)) {
             dict.setStringForKey(versionId, "Version");
         }
-        if(StringUtils.isNotBlank(lockId)) {
-            dict.setStringForKey(lockId, "Lock Id");
+        if(StringUtils.isNotBlank(this.getLockId())) {
+            dict.setStringForKey(this.getLockId(), "Lock Id");
         }
         if(duplicate != null) {
             dict.setStringForKey(String.valueOf(duplicate), "Duplicate");
@@ -228,9 +234,10 @@ public class PathAttributes extends Attributes implements Serializable {
         if(StringUtils.isNotBlank(region)) {
             dict.setStringForKey(region, "Region");
         }
-        if(StringUtils.isNotBlank(storageClass)) {
-            dict.setStringForKey(storageClass, "Storage Class");
+        if(StringUtils.isNotBlank(this.getStorageClass())) {
+            dict.setStringForKey(this.getStorageClass(), "Storage Class");
         }
+        final Path vault = this.getVault();
         if(vault != null) {
             if(vault.attributes() == this) {
                 log.debug(String.format("Skip serializing vault attribute %s to avoid recursion", vault));
@@ -300,11 +307,14 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public Acl getAcl() {
-        return acl;
+        return null == extended ? Acl.EMPTY : extended.acl;
     }
 
     public void setAcl(final Acl acl) {
-        this.acl = acl;
+        if(null == extended && Acl.EMPTY == acl) {
+            return;
+        }
+        this.extended().acl = acl;
     }
 
     @Override
@@ -346,22 +356,28 @@ public class PathAttributes extends Attributes implements Serializable {
      * @return Storage redundancy identifier.
      */
     public String getStorageClass() {
-        return storageClass;
+        return null == extended ? null : extended.storageClass;
     }
 
     /**
      * @param storageClass Storage redundancy identifier.
      */
     public void setStorageClass(final String storageClass) {
-        this.storageClass = storageClass;
+        if(null == extended && null == storageClass) {
+            return;
+        }
+        this.extended().storageClass = storageClass;
     }
 
     public Encryption.Algorithm getEncryption() {
-        return encryption;
+        return null == extended ? Encryption.Algorithm.NONE : extended.encryption;
     }
 
     public void setEncryption(final Encryption.Algorithm encryption) {
-        this.encryption = encryption;
+        if(null == extended && Encryption.Algorithm.NONE == encryption) {
+            return;
+        }
+        this.extended().encryption = encryption;
     }
 
     /**
@@ -388,28 +404,37 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public AttributedList<Path> getVersions() {
-        return versions;
+        return null == extended ? AttributedList.emptyList() : extended.versions;
     }
 
     public void setVersions(final AttributedList<Path> versions) {
-        this.versions = versions;
+        if(null == extended && AttributedList.<Path>emptyList() == versions) {
+            return;
+        }
+        this.extended().versions = versions;
     }
 
     public String getLockId() {
-        return lockId;
+        return null == extended ? null : extended.lockId;
     }
 
     public PathAttributes setLockId(final String lockId) {
-        this.lockId = lockId;
+        if(null == extended && null == lockId) {
+            return this;
+        }
+        this.extended().lockId = lockId;
         return this;
     }
 
     public String getDirectoryId() {
-        return directoryId;
+        return null == extended ? null : extended.directoryId;
     }
 
     public void setDirectoryId(final String directoryId) {
-        this.directoryId = directoryId;
+        if(null == extended && null == directoryId) {
+            return;
+        }
+        this.extended().directoryId = directoryId;
     }
 
     /**
@@ -427,30 +452,39 @@ public class PathAttributes extends Attributes implements Serializable {
      * @return Null if path is missing flag encrypted
      */
     public Path getDecrypted() {
-        return decrypted;
+        return null == extended ? null : extended.decrypted;
     }
 
     public void setDecrypted(final Path decrypted) {
-        this.decrypted = decrypted;
+        if(null == extended && null == decrypted) {
+            return;
+        }
+        this.extended().decrypted = decrypted;
     }
 
     /**
      * @return Null if path is missing flag decrypted
      */
     public Path getEncrypted() {
-        return encrypted;
+        return null == extended ? null : extended.encrypted;
     }
 
     public void setEncrypted(final Path encrypted) {
-        this.encrypted = encrypted;
+        if(null == extended && null == encrypted) {
+            return;
+        }
+        this.extended().encrypted = encrypted;
     }
 
     public void setVault(final Path vault) {
-        this.vault = vault;
+        if(null == extended && null == vault) {
+            return;
+        }
+        this.extended().vault = vault;
     }
 
     public Path getVault() {
-        return vault;
+        return null == extended ? null : extended.vault;
     }
 
     /**
@@ -481,11 +515,14 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public Map<String, String> getMetadata() {
-        return metadata;
+        return null == extended ? Collections.emptyMap() : extended.metadata;
     }
 
     public void setMetadata(final Map<String, String> metadata) {
-        this.metadata = metadata;
+        if(null == extended && Collections.<String, String>emptyMap() == metadata) {
+            return;
+        }
+        this.extended().metadata = metadata;
     }
 
     public String getRegion() {
@@ -497,35 +534,52 @@ public class PathAttributes extends Attributes implements Serializable {
     }
 
     public String getDisplayname() {
-        return displayname;
+        return null == extended ? null : extended.displayname;
     }
 
     public void setDisplayname(final String displayname) {
-        this.displayname = displayname;
+        if(null == extended && null == displayname) {
+            return;
+        }
+        this.extended().displayname = displayname;
     }
 
     public DescriptiveUrl getLink() {
-        return link;
+        return null == extended ? DescriptiveUrl.EMPTY : extended.link;
     }
 
     public void setLink(final DescriptiveUrl link) {
-        this.link = link;
+        if(null == extended && DescriptiveUrl.EMPTY == link) {
+            return;
+        }
+        this.extended().link = link;
     }
 
     public Map<String, String> getCustom() {
-        return custom;
+        return null == extended ? Collections.emptyMap() : extended.custom;
     }
 
     public void setCustom(final Map<String, String> custom) {
-        this.custom = custom;
+        if(null == extended && Collections.<String, String>emptyMap() == custom) {
+            return;
+        }
+        this.extended().custom = custom;
     }
 
     public PathAttributes withCustom(final String key, final String value) {
-        custom = new HashMap<>(custom);
+        final Map<String, String> custom = new HashMap<>(this.getCustom());
         custom.put(key, value);
+        this.setCustom(custom);
         return this;
     }
 
+    private Extended extended() {
+        if(null == extended) {
+            extended = new Extended();
+        }
+        return extended;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if(this == o) {
@@ -547,7 +601,7 @@ public class PathAttributes extends Attributes implements Serializable {
         if(!Objects.equals(permission, that.permission)) {
             return false;
         }
-        if(!Objects.equals(acl, that.acl)) {
+        if(!Objects.equals(this.getAcl(), that.getAcl())) {
             return false;
         }
         if(!Objects.equals(versionId, that.versionId)) {
@@ -556,7 +610,7 @@ public class PathAttributes extends Attributes implements Serializable {
         if(!Objects.equals(revision, that.revision)) {
             return false;
         }
-        if(!Objects.equals(versions, that.versions)) {
+        if(!Objects.equals(this.getVersions(), that.getVersions())) {
             return false;
         }
         if(!Objects.equals(region, that.region)) {
@@ -570,10 +624,12 @@ public class PathAttributes extends Attributes implements Serializable {
         int result = (int) (size ^ (size >>> 32));
         result = 31 * result + (int) (modified ^ (modified >>> 32));
         result = 31 * result + (permission != null ? permission.hashCode() : 0);
+        final Acl acl = this.getAcl();
         result = 31 * result + (acl != null ? acl.hashCode() : 0);
         result = 31 * result + (checksum != null ? checksum.hashCode() : 0);
         result = 31 * result + (versionId != null ? versionId.hashCode() : 0);
         result = 31 * result + (revision != null ? revision.hashCode() : 0);
+        final AttributedList<Path> versions = this.getVersions();
         result = 31 * result + (versions != null ? versions.hashCode() : 0);
         result = 31 * result + (region != null ? region.hashCode() : 0);
         return result;
@@ -589,19 +645,19 @@ public class PathAttributes extends Attributes implements Serializable {
         sb.append(", owner='").append(owner).append('\'');
         sb.append(", group='").append(group).append('\'');
         sb.append(", permission=").append(permission);
-        sb.append(", acl=").append(acl);
+        sb.append(", acl=").append(this.getAcl());
         sb.append(", checksum='").append(checksum).append('\'');
         sb.append(", etag='").append(etag).append('\'');
-        sb.append(", storageClass='").append(storageClass).append('\'');
-        sb.append(", encryption='").append(encryption).append('\'');
+        sb.append(", storageClass='").append(this.getStorageClass()).append('\'');
+        sb.append(", encryption='").append(this.getEncryption()).append('\'');
         sb.append(", versionId='").append(versionId).append('\'');
-        sb.append(", lockId='").append(lockId).append('\'');
+        sb.append(", lockId='").append(this.getLockId()).append('\'');
         sb.append(", duplicate=").append(duplicate);
         sb.append(", hidden=").append(hidden);
         sb.append(", revision=").append(revision);
-        sb.append(", versions=").append(versions);
+        sb.append(", versions=").append(this.getVersions());
         sb.append(", region='").append(region).append('\'');
-        sb.append(", metadata=").append(metadata);
+        sb.append(", metadata=").append(this.getMetadata());
         sb.append('}');
         return sb.toString();
     }
@@ -17,6 +17,8 @@ package ch.cyberduck.core;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import com.google.common.cache.Weigher;
+
 public class PathCache extends AbstractCache<Path> {
 
     private static final PathCache EMPTY = new PathCache(0) {
@@ -34,6 +36,10 @@ public class PathCache extends AbstractCache<Path> {
         super(size);
     }
 
+    protected PathCache(final long weight, final Weigher<Path, AttributedList<Path>> weigher) {
+        super(weight, weigher);
+    }
+
     @Override
     public CacheReference<?> reference(final Path file) {
         return new DefaultPathPredicate(file);
@@ -24,6 +24,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.log4j.Logger;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * Encapsulating UNIX file permissions.
  */
@@ -60,6 +62,12 @@ public class Permission implements Serializable {
         }
     };
     private static final Logger log = Logger.getLogger(Permission.class);
+
+    /**
+     * Canonical instances for permissions in listings indexed by mode with one slot for every combination of bits
+     */
+    private static final AtomicReferenceArray<Permission> canonical = new AtomicReferenceArray<>(010000);
+
     private Action user;
     private Action group;
     private Action other;
@@ -102,6 +110,27 @@ public class Permission implements Serializable {
         this.set(u, g, o, stickybit, setuid, setgid);
     }
 
+    /**
+     * Share instances with the same mode between files in large listings. The returned instance is immutable and
+     * must be copied before changing any mode.
+     *
+     * @param permission Permission parsed for file
+     * @return Canonical instance for mode
+     */
+    public static Permission intern(final Permission permission) {
+        if(null == permission || permission.getClass() != Permission.class) {
+            // Already interned or constant
+            return permission;
+        }
+        final int mode = permission.toInteger();
+        final Permission existing = canonical.get(mode);
+        if(null != existing) {
+            return existing;
+        }
+        canonical.compareAndSet(mode, null, new Immutable(permission));
+        return canonical.get(mode);
+    }
+
     /**
      * Modes may be absolute or symbolic.  An absolute mode is an octal number constructed from the sum of one or more of the following values:
      * <p/>
@@ -378,6 +407,45 @@ public class Permission implements Serializable {
         return toInteger();
     }
 
+    /**
+     * Interned instance shared between files
+     */
+    private static final class Immutable extends Permission {
+        public Immutable(final Permission other) {
+            super(other);
+        }
+
+        @Override
+        public void setUser(final Action user) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setGroup(final Action group) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOther(final Action other) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setSetuid(final boolean setuid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setSetgid(final boolean setgid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setSticky(final boolean sticky) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     /**
      * POSIX style
      */
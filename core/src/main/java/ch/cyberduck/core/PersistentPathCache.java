@@ -0,0 +1,434 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.cache.AttributesListingValidator;
+import ch.cyberduck.core.cache.ListingValidator;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.preferences.LocalSupportDirectoryFinderFactory;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.serializer.PathDictionary;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.dd.plist.BinaryPropertyListParser;
+import com.dd.plist.BinaryPropertyListWriter;
+import com.dd.plist.NSArray;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.NSObject;
+import com.dd.plist.PropertyListFormatException;
+
+/**
+ * Directory listing cache saving listings in binary property list format to disk to be reused in later sessions
+ * to the same host. Only the most recently used listings are kept in memory limited by the total number of files
+ * contained. A saved listing is only read from disk when queried with {@link #isCached(Path)} or {@link #get(Path)}
+ * and only used when the validator confirms the directory has not changed since. It is discarded only when known to be
+ * outdated and kept for later queries when the directory is missing attributes to compare. Listings are written to disk in the
+ * background with only the latest of multiple updates to the same directory written. The writer thread is stopped
+ * when the cache is cleared after all pending changes are written.
+ */
+public class PersistentPathCache extends PathCache {
+    private static final Logger log = Logger.getLogger(PersistentPathCache.class);
+
+    /**
+     * Version of file format
+     */
+    private static final String VERSION = "1";
+
+    private final Local folder;
+    private final ListingValidator validator;
+
+    /**
+     * Guards pending, saved and writer
+     */
+    private final Object lock = new Object();
+    /**
+     * Changes not yet written to disk by file name
+     */
+    private final Map<String, Pending> pending = new HashMap<>();
+    /**
+     * File names of saved listings including pending changes. Read from folder on first access.
+     */
+    private Set<String> saved;
+    /**
+     * Single thread writing listings to disk in order. Created on first change and stopped when cleared.
+     */
+    private ThreadPool writer;
+
+    public PersistentPathCache(final Host host) {
+        this(host, PreferencesFactory.get().getLong("browser.cache.persistent.size"),
+            new AttributesListingValidator(host.getProtocol().getDirectoryTimestamp()));
+    }
+
+    /**
+     * @param host      Listings are saved per host and username
+     * @param size      Maximum number of files in directory listings to keep in memory
+     * @param validator Validation of saved listing with directory attributes
+     */
+    public PersistentPathCache(final Host host, final long size, final ListingValidator validator) {
+        this(LocalFactory.get(LocalFactory.get(LocalSupportDirectoryFinderFactory.get().find(), "Listings"),
+            DigestUtils.sha256Hex(new HostUrlProvider().withUsername(true).withPath(false).get(host))), size, validator);
+    }
+
+    public PersistentPathCache(final Local folder, final long size, final ListingValidator validator) {
+        // Weigh listing by number of files with empty listings counted as one
+        super(size, (directory, children) -> children.size() + 1);
+        this.folder = folder;
+        this.validator = validator;
+    }
+
+    @Override
+    public boolean isCached(final Path directory) {
+        if(super.containsKey(directory)) {
+            return true;
+        }
+        return this.load(directory) != null;
+    }
+
+    /**
+     * Wait for pending changes to be written to disk
+     */
+    public void flush() {
+        final Future<Object> written;
+        synchronized(lock) {
+            if(null == writer) {
+                return;
+            }
+            written = writer.execute(() -> null);
+        }
+        try {
+            written.get();
+        }
+        catch(InterruptedException | ExecutionException e) {
+            log.warn(String.format("Failure waiting for listings to be saved. %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Write pending changes to disk and stop writer thread
+     */
+    public void shutdown() {
+        final ThreadPool pool;
+        synchronized(lock) {
+            pool = writer;
+            writer = null;
+        }
+        if(null == pool) {
+            return;
+        }
+        pool.shutdown(true);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.shutdown();
+    }
+
+    @Override
+    public AttributedList<Path> get(final Path directory) {
+        if(null == directory) {
+            return AttributedList.emptyList();
+        }
+        if(super.containsKey(directory)) {
+            return super.get(directory);
+        }
+        final AttributedList<Path> list = this.load(directory);
+        if(null == list) {
+            return AttributedList.emptyList();
+        }
+        return list;
+    }
+
+    @Override
+    public AttributedList<Path> put(final Path directory, final AttributedList<Path> children) {
+        final AttributedList<Path> replaced = super.put(directory, children);
+        this.save(directory, children);
+        return replaced;
+    }
+
+    @Override
+    public AttributedList<Path> remove(final Path directory) {
+        this.delete(directory);
+        return super.remove(directory);
+    }
+
+    @Override
+    public void invalidate(final Path directory) {
+        this.delete(directory);
+        super.invalidate(directory);
+    }
+
+    /**
+     * Read saved listing into memory
+     *
+     * @return Null if no valid listing is saved
+     */
+    private AttributedList<Path> load(final Path directory) {
+        if(!this.isPersistable(directory)) {
+            return null;
+        }
+        final String name = this.toName(directory);
+        synchronized(lock) {
+            if(!this.saved().contains(name)) {
+                return null;
+            }
+            final Pending change = pending.get(name);
+            if(change != null) {
+                // Not yet written to disk
+                if(!this.validate(directory, change.directory.attributes())) {
+                    return null;
+                }
+                super.put(directory, change.children);
+                return change.children;
+            }
+        }
+        final Local file = LocalFactory.get(folder, name);
+        final NSDictionary dict;
+        try (InputStream in = file.getInputStream()) {
+            final NSObject parsed = BinaryPropertyListParser.parse(in);
+            if(!(parsed instanceof NSDictionary)) {
+                log.warn(String.format("Invalid content in %s", file));
+                this.delete(directory);
+                return null;
+            }
+            dict = (NSDictionary) parsed;
+        }
+        catch(IOException | PropertyListFormatException | AccessDeniedException e) {
+            log.warn(String.format("Failure reading saved listing %s. %s", file, e.getMessage()));
+            this.delete(directory);
+            return null;
+        }
+        if(!VERSION.equals(this.toString(dict.objectForKey("Version")))) {
+            this.delete(directory);
+            return null;
+        }
+        final PathDictionary deserializer = new PathDictionary();
+        final Path cached = deserializer.deserialize(dict.objectForKey("Directory"));
+        if(null == cached) {
+            this.delete(directory);
+            return null;
+        }
+        if(!this.validate(directory, cached.attributes())) {
+            return null;
+        }
+        final AttributedList<Path> list = new AttributedList<>();
+        final NSObject children = dict.objectForKey("Children");
+        if(children instanceof NSArray) {
+            for(NSObject child : ((NSArray) children).getArray()) {
+                final Path f = deserializer.deserialize(child);
+                if(null == f) {
+                    continue;
+                }
+                // Child of directory instance passed
+                final Path entry = new Path(directory, f.getName(), f.getType(), f.attributes());
+                entry.setSymlinkTarget(f.getSymlinkTarget());
+                list.add(entry);
+            }
+        }
+        final String timestamp = this.toString(dict.objectForKey("Timestamp"));
+        if(timestamp != null) {
+            list.attributes().setTimestamp(Long.valueOf(timestamp));
+        }
+        // Cursor of change feed the listing is current with
+        list.attributes().setCursor(this.toString(dict.objectForKey("Cursor")));
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Loaded %d saved files for %s from %s", list.size(), directory, file));
+        }
+        super.put(directory, list);
+        return list;
+    }
+
+    /**
+     * Delete saved listing only when outdated
+     *
+     * @return True if saved listing can be used
+     */
+    private boolean validate(final Path directory, final PathAttributes cached) {
+        if(validator.validate(directory, cached)) {
+            return true;
+        }
+        if(validator.isComparable(directory, cached)) {
+            this.delete(directory);
+        }
+        else {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip saved listing for %s missing attributes to validate", directory));
+            }
+        }
+        return false;
+    }
+
+    private void save(final Path directory, final AttributedList<Path> children) {
+        if(null == directory || null == children || !this.isPersistable(directory)) {
+            return;
+        }
+        this.schedule(this.toName(directory), new Pending(directory, children));
+    }
+
+    private void delete(final Path directory) {
+        if(null == directory) {
+            return;
+        }
+        this.schedule(this.toName(directory), new Pending(directory, null));
+    }
+
+    /**
+     * Replace any change for the same file not yet written
+     */
+    private void schedule(final String name, final Pending change) {
+        synchronized(lock) {
+            final Set<String> saved = this.saved();
+            if(null == change.children) {
+                if(!saved.remove(name) && !pending.containsKey(name)) {
+                    // Nothing saved
+                    return;
+                }
+            }
+            else {
+                saved.add(name);
+            }
+            if(null == pending.put(name, change)) {
+                if(null == writer) {
+                    writer = ThreadPoolFactory.get("listings", 1, ThreadPool.Priority.low);
+                }
+                writer.execute(() -> {
+                    this.write(name);
+                    return null;
+                });
+            }
+        }
+    }
+
+    /**
+     * Write latest change for file on writer thread
+     */
+    private void write(final String name) {
+        final Pending change;
+        synchronized(lock) {
+            change = pending.remove(name);
+        }
+        if(null == change) {
+            return;
+        }
+        final Local file = LocalFactory.get(folder, name);
+        if(null == change.children) {
+            if(file.exists()) {
+                try {
+                    file.delete();
+                }
+                catch(AccessDeniedException | NotfoundException e) {
+                    log.warn(String.format("Failure deleting saved listing %s. %s", file, e.getMessage()));
+                }
+            }
+            return;
+        }
+        final Path directory = change.directory;
+        final AttributedList<Path> children = change.children;
+        final NSDictionary dict = new NSDictionary();
+        dict.put("Version", VERSION);
+        dict.put("Directory", directory.<NSDictionary>serialize(SerializerFactory.get()));
+        final NSArray list = new NSArray(children.size());
+        int i = 0;
+        for(Path child : children) {
+            list.setValue(i++, child.<NSDictionary>serialize(SerializerFactory.get()));
+        }
+        dict.put("Children", list);
+        if(children.attributes().getTimestamp() != null) {
+            dict.put("Timestamp", String.valueOf(children.attributes().getTimestamp()));
+        }
+        if(children.attributes().getCursor() != null) {
+            dict.put("Cursor", children.attributes().getCursor());
+        }
+        // Replace atomically not to leave partially written file
+        final Local temporary = LocalFactory.get(folder, String.format("%s.tmp", name));
+        try {
+            folder.mkdir();
+            try (OutputStream out = temporary.getOutputStream(false)) {
+                BinaryPropertyListWriter.write(out, dict);
+            }
+            temporary.rename(file);
+        }
+        catch(IOException | AccessDeniedException e) {
+            log.warn(String.format("Failure saving listing for %s to %s. %s", directory, file, e.getMessage()));
+        }
+    }
+
+    private Set<String> saved() {
+        if(null == saved) {
+            saved = new HashSet<>();
+            if(folder.exists()) {
+                try {
+                    for(Local file : folder.list()) {
+                        saved.add(file.getName());
+                    }
+                }
+                catch(AccessDeniedException e) {
+                    log.warn(String.format("Failure reading saved listings in %s. %s", folder, e.getMessage()));
+                }
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Never save decrypted listings of vaults
+     */
+    private boolean isPersistable(final Path directory) {
+        if(null == directory) {
+            return false;
+        }
+        if(directory.getType().contains(Path.Type.decrypted) || directory.getType().contains(Path.Type.vault)) {
+            return false;
+        }
+        return null == directory.attributes().getVault();
+    }
+
+    private String toName(final Path directory) {
+        return DigestUtils.sha256Hex(new DefaultPathPredicate(directory).toString());
+    }
+
+    private String toString(final NSObject value) {
+        return null == value ? null : value.toJavaObject().toString();
+    }
+
+    private static final class Pending {
+        private final Path directory;
+        /**
+         * Null to delete saved listing
+         */
+        private final AttributedList<Path> children;
+
+        public Pending(final Path directory, final AttributedList<Path> children) {
+            this.directory = directory;
+            this.children = children;
+        }
+    }
+}
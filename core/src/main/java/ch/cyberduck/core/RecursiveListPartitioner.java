@@ -0,0 +1,70 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Split result of recursive listing into listings by directory. Parent directories only implied by the path of a
+ * file are added as placeholders to the listing of their parent.
+ */
+public class RecursiveListPartitioner {
+
+    /**
+     * @param directory Directory listed
+     * @param files     All files and directories below directory
+     * @return Listing for directory and every subdirectory
+     */
+    public Map<Path, AttributedList<Path>> partition(final Path directory, final AttributedList<Path> files) {
+        final Map<Path, AttributedList<Path>> listings = new LinkedHashMap<>();
+        listings.put(directory, new AttributedList<>());
+        for(Path file : files) {
+            if(file.isDirectory()) {
+                if(listings.containsKey(file)) {
+                    // Already added as parent of previous file
+                    continue;
+                }
+                listings.put(file, new AttributedList<>());
+            }
+            this.parent(listings, directory, file).add(file);
+        }
+        return listings;
+    }
+
+    /**
+     * @return Listing of parent directory added to its own parent if missing
+     */
+    private AttributedList<Path> parent(final Map<Path, AttributedList<Path>> listings, final Path directory, final Path file) {
+        final Path parent = file.getParent();
+        final AttributedList<Path> list = listings.get(parent);
+        if(null != list) {
+            return list;
+        }
+        if(parent.isRoot() || !parent.isChild(directory)) {
+            // Outside of directory listed
+            return listings.get(directory);
+        }
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setRegion(file.attributes().getRegion());
+        final Path placeholder = new Path(parent.getAbsolute(), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
+        final AttributedList<Path> children = new AttributedList<>();
+        listings.put(placeholder, children);
+        this.parent(listings, directory, placeholder).add(placeholder);
+        return children;
+    }
+}
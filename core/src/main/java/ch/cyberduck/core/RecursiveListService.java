@@ -0,0 +1,31 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * List all files below a directory at once without a request for every subdirectory
+ */
+public interface RecursiveListService {
+    /**
+     * @param directory Directory
+     * @param listener  Notification listener
+     * @return All files and directories below directory. Directories without placeholder object are not included.
+     * @throws ch.cyberduck.core.exception.UnsupportedException Directory must be listed by subdirectory instead
+     */
+    AttributedList<Path> list(Path directory, ListProgressListener listener) throws BackgroundException;
+}
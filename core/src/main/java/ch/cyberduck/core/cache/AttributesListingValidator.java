@@ -0,0 +1,86 @@
+package ch.cyberduck.core.cache;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Protocol;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.util.Objects;
+
+/**
+ * Compare ETag, revision or modification date of directory with the attributes saved with the listing. Listings
+ * are never validated when the directory has none of these attributes set. The modification date is only compared
+ * for protocols where the timestamp of a directory changes implicitly when its contents changes.
+ */
+public class AttributesListingValidator implements ListingValidator {
+    private static final Logger log = Logger.getLogger(AttributesListingValidator.class);
+
+    private final Protocol.DirectoryTimestamp timestamp;
+
+    public AttributesListingValidator() {
+        this(Protocol.DirectoryTimestamp.explicit);
+    }
+
+    /**
+     * @param timestamp Directory timestamp behaviour of protocol
+     */
+    public AttributesListingValidator(final Protocol.DirectoryTimestamp timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public boolean validate(final Path directory, final PathAttributes cached) {
+        final PathAttributes attributes = directory.attributes();
+        if(StringUtils.isNotBlank(attributes.getETag()) && StringUtils.isNotBlank(cached.getETag())) {
+            return this.log(directory, StringUtils.equals(attributes.getETag(), cached.getETag()));
+        }
+        if(attributes.getRevision() != null && cached.getRevision() != null) {
+            return this.log(directory, Objects.equals(attributes.getRevision(), cached.getRevision()));
+        }
+        if(timestamp == Protocol.DirectoryTimestamp.implicit
+            && attributes.getModificationDate() > 0 && cached.getModificationDate() > 0) {
+            return this.log(directory, attributes.getModificationDate() == cached.getModificationDate());
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Missing attributes to validate listing for %s", directory));
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isComparable(final Path directory, final PathAttributes cached) {
+        final PathAttributes attributes = directory.attributes();
+        if(StringUtils.isNotBlank(attributes.getETag()) && StringUtils.isNotBlank(cached.getETag())) {
+            return true;
+        }
+        if(attributes.getRevision() != null && cached.getRevision() != null) {
+            return true;
+        }
+        return timestamp == Protocol.DirectoryTimestamp.implicit
+            && attributes.getModificationDate() > 0 && cached.getModificationDate() > 0;
+    }
+
+    private boolean log(final Path directory, final boolean valid) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Saved listing for %s is %s", directory, valid ? "valid" : "outdated"));
+        }
+        return valid;
+    }
+}
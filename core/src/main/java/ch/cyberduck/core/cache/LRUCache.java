@@ -28,6 +28,7 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
 public class LRUCache<Key, Value> {
@@ -50,7 +51,7 @@ public class LRUCache<Key, Value> {
     }
 
     public static <Key, Value> LRUCache<Key, Value> usingLoader(final Function<Key, Value> loader, final RemovalListener<Key, Value> listener, final long maximumSize, final long expireDuration) {
-        return new LRUCache<>(loader, listener, maximumSize, expireDuration);
+        return new LRUCache<>(loader, listener, maximumSize, null, expireDuration);
     }
 
     public static <Key, Value> LRUCache<Key, Value> build() {
@@ -70,12 +71,20 @@ public class LRUCache<Key, Value> {
     }
 
     public static <Key, Value> LRUCache<Key, Value> build(final RemovalListener<Key, Value> listener, final long maximumSize, final long expireDuration) {
-        return new LRUCache<>(null, listener, maximumSize, expireDuration);
+        return new LRUCache<>(null, listener, maximumSize, null, expireDuration);
+    }
+
+    /**
+     * @param maximumWeight Maximum total weight of all entries
+     * @param weigher       Weight of entry computed when added
+     */
+    public static <Key, Value> LRUCache<Key, Value> build(final RemovalListener<Key, Value> listener, final long maximumWeight, final Weigher<Key, Value> weigher) {
+        return new LRUCache<>(null, listener, maximumWeight, weigher, -1L);
     }
 
     private final Cache<Key, Value> delegate;
 
-    private LRUCache(final Function<Key, Value> loader, final RemovalListener<Key, Value> listener, final long maximumSize, final long expireDuration) {
+    private LRUCache(final Function<Key, Value> loader, final RemovalListener<Key, Value> listener, final long maximumSize, final Weigher<Key, Value> weigher, final long expireDuration) {
         final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
         if(listener != null) {
             builder.removalListener(new RemovalListener<Key, Value>() {
@@ -89,7 +98,12 @@ public class LRUCache<Key, Value> {
             });
         }
         if(maximumSize > 0) {
-            builder.maximumSize(maximumSize);
+            if(weigher != null) {
+                builder.maximumWeight(maximumSize).weigher(weigher);
+            }
+            else {
+                builder.maximumSize(maximumSize);
+            }
         }
         if(expireDuration > 0) {
             builder.expireAfterAccess(expireDuration, TimeUnit.MILLISECONDS);
@@ -0,0 +1,37 @@
+package ch.cyberduck.core.cache;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+
+public interface ListingValidator {
+    /**
+     * @param directory Directory with attributes currently known
+     * @param cached    Attributes of directory when listing was saved
+     * @return True if the saved directory listing can be used without listing the directory again
+     */
+    boolean validate(Path directory, PathAttributes cached);
+
+    /**
+     * @param directory Directory with attributes currently known
+     * @param cached    Attributes of directory when listing was saved
+     * @return False if attributes to compare are missing and a listing not validated is not known to be outdated
+     */
+    default boolean isComparable(Path directory, PathAttributes cached) {
+        return true;
+    }
+}
@@ -0,0 +1,155 @@
+package ch.cyberduck.core.features;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Incremental listing of files changed on the server since a previous state referenced by a cursor
+ */
+public interface Changes {
+
+    /**
+     * @param directory Directory
+     * @return True if changes to files below directory are reported by the feed
+     */
+    boolean isSupported(Path directory);
+
+    /**
+     * @param directory Directory
+     * @return Cursor referencing the current state of the feed without retrieving any changes
+     */
+    String getCursor(Path directory) throws BackgroundException;
+
+    /**
+     * @param directory Directory
+     * @param cursor    Cursor previously obtained
+     * @param listener  Notification listener
+     * @return All changes since cursor in order with cursor to continue from
+     * @throws ch.cyberduck.core.exception.NotfoundException Cursor is no longer valid and directories must be listed again
+     */
+    Changeset changes(Path directory, String cursor, ListProgressListener listener) throws BackgroundException;
+
+    /**
+     * @param cache Cached listings to resolve parent directories by file ID
+     */
+    Changes withCache(Cache<Path> cache);
+
+    final class Change {
+        public enum Type {
+            /**
+             * Added, modified, renamed or moved
+             */
+            modified,
+            deleted
+        }
+
+        private final Type type;
+        /**
+         * Null if location is not known
+         */
+        private final Path file;
+        /**
+         * Null if file is only identified by path
+         */
+        private final String id;
+
+        /**
+         * @param file File with attributes at new location
+         */
+        public static Change modified(final Path file) {
+            return new Change(Type.modified, file, file.attributes().getVersionId());
+        }
+
+        /**
+         * @param file File at previous location
+         */
+        public static Change deleted(final Path file) {
+            return new Change(Type.deleted, file, file.attributes().getVersionId());
+        }
+
+        /**
+         * @param id File ID of deleted file or file moved to a location that cannot be resolved
+         */
+        public static Change deleted(final String id) {
+            return new Change(Type.deleted, null, id);
+        }
+
+        private Change(final Type type, final Path file, final String id) {
+            this.type = type;
+            this.file = file;
+            this.id = id;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Change{");
+            sb.append("type=").append(type);
+            sb.append(", file=").append(file);
+            sb.append(", id='").append(id).append('\'');
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+
+    final class Changeset {
+        private final List<Change> changes;
+        private final String cursor;
+
+        public Changeset(final List<Change> changes, final String cursor) {
+            this.changes = changes;
+            this.cursor = cursor;
+        }
+
+        public List<Change> getChanges() {
+            return Collections.unmodifiableList(changes);
+        }
+
+        /**
+         * @return Cursor to continue from
+         */
+        public String getCursor() {
+            return cursor;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Changeset{");
+            sb.append("changes=").append(changes.size());
+            sb.append(", cursor='").append(cursor).append('\'');
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
@@ -41,6 +41,14 @@ public interface Delete {
 
     boolean isRecursive();
 
+    /**
+     * @return Number of files to pass at once to fill requests deleting multiple files or 1 if files are deleted one
+     * by one
+     */
+    default int getBatchSize() {
+        return 1;
+    }
+
     interface Callback {
         void delete(Path file);
     }
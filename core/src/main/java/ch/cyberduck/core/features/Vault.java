@@ -25,6 +25,11 @@ import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.vault.DisabledVault;
 import ch.cyberduck.core.vault.VaultCredentials;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
 public interface Vault {
 
     /**
@@ -77,6 +82,27 @@ public interface Vault {
      */
     Path decrypt(Session<?> session, Path file) throws BackgroundException;
 
+    /**
+     * Decrypt files of a directory listing at once
+     *
+     * @param files Encrypted files or directory metadata files
+     * @return Decrypted human readable path or failure for each file in order of files
+     */
+    default List<Future<Path>> decrypt(final Session<?> session, final List<Path> files) {
+        final List<Future<Path>> decrypted = new ArrayList<>(files.size());
+        for(Path file : files) {
+            final CompletableFuture<Path> future = new CompletableFuture<>();
+            try {
+                future.complete(this.decrypt(session, file));
+            }
+            catch(BackgroundException e) {
+                future.completeExceptionally(e);
+            }
+            decrypted.add(future);
+        }
+        return decrypted;
+    }
+
     long toCiphertextSize(long cleartextFileSize);
 
     long toCleartextSize(long ciphertextFileSize) throws BackgroundException;
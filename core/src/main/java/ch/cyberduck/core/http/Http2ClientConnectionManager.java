@@ -0,0 +1,270 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Scheme;
+
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http2.impl.nio.ProtocolNegotiationException;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequester;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Multiplex requests as concurrent streams on a single HTTP/2 connection per target host instead of leasing a
+ * connection per request from a pool. Connections are only multiplexed for direct routes and when the server selects
+ * HTTP/2 with ALPN in the TLS handshake. Requests to other routes and servers not supporting HTTP/2 are delegated to
+ * the HTTP/1.1 connection pool.
+ */
+public class Http2ClientConnectionManager implements HttpClientConnectionManager {
+    private static final Logger log = Logger.getLogger(Http2ClientConnectionManager.class);
+
+    private final HttpClientConnectionManager delegate;
+    private final H2MultiplexingRequester requester;
+
+    /**
+     * Maximum number of concurrent streams per target
+     */
+    private final int streams;
+    private final int connectTimeout;
+    private final int window;
+    private final int buffer;
+    /**
+     * Use HTTP/2 with prior knowledge for plain connections
+     */
+    private final boolean cleartext;
+
+    private final Map<HttpHost, Semaphore> permits = new ConcurrentHashMap<>();
+    /**
+     * Targets failing to negotiate HTTP/2
+     */
+    private final Set<HttpHost> fallback = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param delegate       HTTP/1.1 connection pool
+     * @param requester      Started requester with connection pool for HTTP/2 connections
+     * @param streams        Maximum number of concurrent streams per target
+     * @param connectTimeout Timeout in milliseconds to establish connection
+     * @param window         Receive buffer size for response entity
+     * @param buffer         Send buffer size for request entity
+     * @param cleartext      Use HTTP/2 with prior knowledge for plain connections
+     */
+    public Http2ClientConnectionManager(final HttpClientConnectionManager delegate, final H2MultiplexingRequester requester,
+                                        final int streams, final int connectTimeout, final int window, final int buffer,
+                                        final boolean cleartext) {
+        this.delegate = delegate;
+        this.requester = requester;
+        this.streams = streams;
+        this.connectTimeout = connectTimeout;
+        this.window = window;
+        this.buffer = buffer;
+        this.cleartext = cleartext;
+    }
+
+    /**
+     * @return False if requests to route cannot be multiplexed
+     */
+    protected boolean isMultiplexed(final HttpRoute route) {
+        if(route.getProxyHost() != null) {
+            return false;
+        }
+        if(fallback.contains(route.getTargetHost())) {
+            return false;
+        }
+        if(Scheme.https.name().equals(route.getTargetHost().getSchemeName())) {
+            return true;
+        }
+        return cleartext;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        if(!this.isMultiplexed(route)) {
+            return delegate.requestConnection(route, state);
+        }
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                final HttpHost target = route.getTargetHost();
+                final Http2StreamClientConnection connection;
+                try {
+                    final IOSession session = connect(target, connectTimeout);
+                    connection = acquire(target, timeout, unit);
+                    connection.bind(session);
+                }
+                catch(ProtocolNegotiationException e) {
+                    log.warn(String.format("Failure negotiating HTTP/2 with %s. %s", target, e.getMessage()));
+                    fallback.add(target);
+                    return delegate.requestConnection(route, state).get(timeout, unit);
+                }
+                catch(IOException e) {
+                    // Fail when connecting
+                    final Http2StreamClientConnection failed = acquire(target, timeout, unit);
+                    failed.fail(e);
+                    return failed;
+                }
+                return connection;
+            }
+
+            @Override
+            public boolean cancel() {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Wait for permit to open stream to target
+     */
+    private Http2StreamClientConnection acquire(final HttpHost target, final long timeout, final TimeUnit unit) throws InterruptedException, ConnectionPoolTimeoutException {
+        final Semaphore semaphore = permits.computeIfAbsent(target, k -> new Semaphore(streams, true));
+        if(timeout > 0) {
+            if(!semaphore.tryAcquire(timeout, unit)) {
+                throw new ConnectionPoolTimeoutException(String.format("Timeout waiting for stream to %s", target));
+            }
+        }
+        else {
+            semaphore.acquire();
+        }
+        return new Http2StreamClientConnection(requester, this.toTarget(target), semaphore, window, buffer);
+    }
+
+    /**
+     * @return Shared connection to target
+     */
+    private IOSession connect(final HttpHost target, final int timeout) throws IOException {
+        final Future<IOSession> future = requester.getConnPool().getSession(this.toTarget(target), Timeout.ofMilliseconds(timeout), null);
+        try {
+            if(timeout > 0) {
+                return future.get(timeout, TimeUnit.MILLISECONDS);
+            }
+            return future.get();
+        }
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        catch(TimeoutException e) {
+            future.cancel(true);
+            throw new ConnectTimeoutException(String.format("Connect to %s timed out", target));
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * @return Target with port omitted if default for scheme to match authority of requests
+     */
+    private org.apache.hc.core5.http.HttpHost toTarget(final HttpHost target) {
+        final URIScheme scheme = URIScheme.HTTPS.same(target.getSchemeName()) ? URIScheme.HTTPS : URIScheme.HTTP;
+        final int port = target.getPort() == (URIScheme.HTTPS == scheme ? 443 : 80) ? -1 : target.getPort();
+        return new org.apache.hc.core5.http.HttpHost(scheme.id, target.getHostName(), port);
+    }
+
+    @Override
+    public void releaseConnection(final HttpClientConnection connection, final Object state, final long validDuration, final TimeUnit unit) {
+        if(connection instanceof Http2StreamClientConnection) {
+            ((Http2StreamClientConnection) connection).release();
+        }
+        else {
+            delegate.releaseConnection(connection, state, validDuration, unit);
+        }
+    }
+
+    @Override
+    public void connect(final HttpClientConnection connection, final HttpRoute route, final int connectTimeout, final HttpContext context) throws IOException {
+        if(connection instanceof Http2StreamClientConnection) {
+            final Http2StreamClientConnection stream = (Http2StreamClientConnection) connection;
+            if(stream.getFailure() != null) {
+                throw stream.getFailure();
+            }
+            stream.bind(this.connect(route.getTargetHost(), connectTimeout));
+        }
+        else {
+            delegate.connect(connection, route, connectTimeout, context);
+        }
+    }
+
+    @Override
+    public void upgrade(final HttpClientConnection connection, final HttpRoute route, final HttpContext context) throws IOException {
+        if(connection instanceof Http2StreamClientConnection) {
+            return;
+        }
+        delegate.upgrade(connection, route, context);
+    }
+
+    @Override
+    public void routeComplete(final HttpClientConnection connection, final HttpRoute route, final HttpContext context) throws IOException {
+        if(connection instanceof Http2StreamClientConnection) {
+            return;
+        }
+        delegate.routeComplete(connection, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(final long idletime, final TimeUnit unit) {
+        requester.closeIdle(TimeValue.of(idletime, unit));
+        delegate.closeIdleConnections(idletime, unit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Shutdown requester %s", requester));
+        }
+        requester.close(CloseMode.GRACEFUL);
+        delegate.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Http2ClientConnectionManager{");
+        sb.append("streams=").append(streams);
+        sb.append(", fallback=").append(fallback);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,602 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.RequestChannel;
+import org.apache.hc.core5.http.nio.support.classic.ContentInputStream;
+import org.apache.hc.core5.http.nio.support.classic.ContentOutputStream;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+import org.apache.hc.core5.http.nio.support.classic.SharedOutputBuffer;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequester;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.ProtocolIOSession;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpInetConnection;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.impl.HttpConnectionMetricsImpl;
+import org.apache.http.impl.io.HttpTransportMetricsImpl;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.log4j.Logger;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Client connection for a single request exchanged as a stream on a shared HTTP/2 connection. Messages are converted
+ * between HttpClient and the HTTP/2 codec. The request entity is written and the response entity is read on the
+ * calling thread through buffers shared with the I/O reactor. The socket timeout applies to every read from the
+ * response entity of the stream as the shared connection is not idle while other streams are active.
+ */
+public class Http2StreamClientConnection implements HttpClientConnection, HttpInetConnection {
+    private static final Logger log = Logger.getLogger(Http2StreamClientConnection.class);
+
+    private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+
+    /**
+     * Connection specific header fields not allowed in HTTP/2 messages
+     */
+    private static final Set<String> CONNECTION_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade", "host", "expect", "te"));
+
+    private final H2MultiplexingRequester requester;
+    private final org.apache.hc.core5.http.HttpHost target;
+    /**
+     * Permit for concurrent stream released with connection
+     */
+    private final Semaphore streams;
+    private final int window;
+    private final int buffer;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private IOSession session;
+    /**
+     * Failure establishing connection
+     */
+    private IOException failure;
+    private int timeout;
+
+    private Exchange exchange;
+    private Cancellable cancellable;
+    private boolean shutdown;
+
+    /**
+     * @param target  Target host of shared connection
+     * @param streams Permit already acquired for this stream
+     * @param window  Receive buffer size for response entity
+     * @param buffer  Send buffer size for request entity
+     */
+    public Http2StreamClientConnection(final H2MultiplexingRequester requester, final org.apache.hc.core5.http.HttpHost target,
+                                       final Semaphore streams, final int window, final int buffer) {
+        this.requester = requester;
+        this.target = target;
+        this.streams = streams;
+        this.window = window;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @param session Shared connection to exchange stream on
+     */
+    public void bind(final IOSession session) {
+        this.session = session;
+        this.failure = null;
+    }
+
+    /**
+     * @param failure Failure establishing shared connection
+     */
+    public void fail(final IOException failure) {
+        this.failure = failure;
+    }
+
+    public IOException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public boolean isResponseAvailable(final int timeout) throws IOException {
+        if(null == exchange) {
+            return false;
+        }
+        if(!exchange.executed) {
+            // Exchange for request with entity is only started when entity is sent. No interim response for
+            // expect-continue handshake as the header is not sent
+            return false;
+        }
+        try {
+            return exchange.received.await(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void sendRequestHeader(final HttpRequest request) throws HttpException, IOException {
+        this.ensureOpen();
+        final BasicHttpRequest message = new BasicHttpRequest(request.getRequestLine().getMethod(), target,
+            request.getRequestLine().getUri());
+        for(Header header : request.getAllHeaders()) {
+            if(CONNECTION_HEADERS.contains(StringUtils.lowerCase(header.getName(), Locale.ROOT))) {
+                continue;
+            }
+            message.addHeader(header.getName(), header.getValue());
+        }
+        if(request instanceof HttpEntityEnclosingRequest && ((HttpEntityEnclosingRequest) request).getEntity() != null) {
+            // Start exchange when entity is sent
+            exchange = new Exchange(message, new EntityDetailsAdapter(((HttpEntityEnclosingRequest) request).getEntity()),
+                new SharedOutputBuffer(buffer), new SharedInputBuffer(window));
+        }
+        else {
+            exchange = new Exchange(message, null, null, new SharedInputBuffer(window));
+            this.execute();
+        }
+    }
+
+    @Override
+    public void sendRequestEntity(final HttpEntityEnclosingRequest request) throws HttpException, IOException {
+        final HttpEntity entity = request.getEntity();
+        if(null == entity) {
+            return;
+        }
+        this.execute();
+        try (OutputStream out = new ContentOutputStream(exchange.output)) {
+            entity.writeTo(out);
+        }
+    }
+
+    private void execute() {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Execute request %s on stream of %s", exchange.request, target));
+        }
+        exchange.executed = true;
+        cancellable = requester.execute(exchange, Timeout.ofMilliseconds(timeout), HttpCoreContext.create());
+        exchange.cancellable = cancellable;
+    }
+
+    @Override
+    public HttpResponse receiveResponseHeader() throws HttpException, IOException {
+        final org.apache.hc.core5.http.HttpResponse head = exchange.await(timeout);
+        final int code = head.getCode();
+        final BasicHttpResponse response = new BasicHttpResponse(new BasicStatusLine(HTTP_2, code,
+            StringUtils.isNotBlank(head.getReasonPhrase()) ? head.getReasonPhrase() :
+                EnglishReasonPhraseCatalog.INSTANCE.getReason(code, Locale.ENGLISH)));
+        for(org.apache.hc.core5.http.Header header : head.getHeaders()) {
+            response.addHeader(header.getName(), header.getValue());
+        }
+        return response;
+    }
+
+    @Override
+    public void receiveResponseEntity(final HttpResponse response) throws HttpException, IOException {
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        final EntityDetails details = exchange.details;
+        if(null == details) {
+            entity.setContentLength(0L);
+        }
+        else {
+            entity.setContentLength(details.getContentLength());
+            entity.setChunked(details.isChunked());
+        }
+        entity.setContentType(response.getFirstHeader(HttpHeaders.CONTENT_TYPE));
+        entity.setContentEncoding(response.getFirstHeader(HttpHeaders.CONTENT_ENCODING));
+        entity.setContent(exchange.input(timeout));
+        response.setEntity(entity);
+    }
+
+    @Override
+    public void flush() {
+        //
+    }
+
+    /**
+     * Reset stream if response has not been received completely
+     */
+    @Override
+    public void close() {
+        if(exchange != null && !exchange.complete) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Cancel incomplete exchange %s", exchange.request));
+            }
+            if(cancellable != null) {
+                cancellable.cancel();
+            }
+            exchange.failed(new ConnectionClosedException("Stream closed"));
+        }
+        shutdown = true;
+    }
+
+    @Override
+    public void shutdown() {
+        this.close();
+    }
+
+    /**
+     * Return permit for stream
+     */
+    public void release() {
+        this.close();
+        if(released.compareAndSet(false, true)) {
+            streams.release();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !shutdown && session != null && session.isOpen();
+    }
+
+    @Override
+    public boolean isStale() {
+        return !this.isOpen();
+    }
+
+    private void ensureOpen() throws IOException {
+        if(!this.isOpen()) {
+            throw new ConnectionClosedException("Connection is closed");
+        }
+    }
+
+    @Override
+    public void setSocketTimeout(final int timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int getSocketTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public HttpConnectionMetrics getMetrics() {
+        return new HttpConnectionMetricsImpl(new HttpTransportMetricsImpl(), new HttpTransportMetricsImpl());
+    }
+
+    public SSLSession getSSLSession() {
+        if(session instanceof ProtocolIOSession) {
+            final TlsDetails details = ((ProtocolIOSession) session).getTlsDetails();
+            if(details != null) {
+                return details.getSSLSession();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InetAddress getLocalAddress() {
+        return null == session ? null : this.toAddress(session.getLocalAddress());
+    }
+
+    @Override
+    public int getLocalPort() {
+        return null == session ? -1 : this.toPort(session.getLocalAddress());
+    }
+
+    @Override
+    public InetAddress getRemoteAddress() {
+        return null == session ? null : this.toAddress(session.getRemoteAddress());
+    }
+
+    @Override
+    public int getRemotePort() {
+        return null == session ? -1 : this.toPort(session.getRemoteAddress());
+    }
+
+    private InetAddress toAddress(final SocketAddress address) {
+        return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getAddress() : null;
+    }
+
+    private int toPort(final SocketAddress address) {
+        return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getPort() : -1;
+    }
+
+    /**
+     * Exchange of single request and response with state shared between the calling thread and the I/O reactor
+     */
+    private static final class Exchange implements AsyncClientExchangeHandler {
+        private final org.apache.hc.core5.http.HttpRequest request;
+        private final EntityDetails entity;
+        private final SharedOutputBuffer output;
+        private final SharedInputBuffer input;
+
+        private final CountDownLatch received = new CountDownLatch(1);
+        /**
+         * Notified when data or end of stream is received
+         */
+        private final Object arrival = new Object();
+
+        /**
+         * Request submitted on stream
+         */
+        private boolean executed;
+        /**
+         * Reset stream
+         */
+        private volatile Cancellable cancellable;
+
+        private volatile org.apache.hc.core5.http.HttpResponse response;
+        private volatile EntityDetails details;
+        private volatile Exception failure;
+        /**
+         * End of response stream received
+         */
+        private volatile boolean complete;
+
+        public Exchange(final org.apache.hc.core5.http.HttpRequest request, final EntityDetails entity,
+                        final SharedOutputBuffer output, final SharedInputBuffer input) {
+            this.request = request;
+            this.entity = entity;
+            this.output = output;
+            this.input = input;
+        }
+
+        @Override
+        public void produceRequest(final RequestChannel channel, final org.apache.hc.core5.http.protocol.HttpContext context) throws org.apache.hc.core5.http.HttpException, IOException {
+            channel.sendRequest(request, entity, context);
+        }
+
+        @Override
+        public int available() {
+            return null == output ? 0 : output.length();
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            output.flush(channel);
+        }
+
+        @Override
+        public void consumeInformation(final org.apache.hc.core5.http.HttpResponse response, final org.apache.hc.core5.http.protocol.HttpContext context) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Ignore informational response %d for %s", response.getCode(), request));
+            }
+        }
+
+        @Override
+        public void consumeResponse(final org.apache.hc.core5.http.HttpResponse response, final EntityDetails details,
+                                    final org.apache.hc.core5.http.protocol.HttpContext context) {
+            this.response = response;
+            this.details = details;
+            if(null == details) {
+                complete = true;
+                input.markEndStream();
+            }
+            received.countDown();
+        }
+
+        @Override
+        public void updateCapacity(final CapacityChannel channel) throws IOException {
+            input.updateCapacity(channel);
+        }
+
+        @Override
+        public void consume(final ByteBuffer src) {
+            input.fill(src);
+            this.signal();
+        }
+
+        @Override
+        public void streamEnd(final List<? extends org.apache.hc.core5.http.Header> trailers) {
+            complete = true;
+            input.markEndStream();
+            this.signal();
+        }
+
+        private void signal() {
+            synchronized(arrival) {
+                arrival.notifyAll();
+            }
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            if(null == failure) {
+                failure = cause;
+            }
+            // Wake up threads blocked reading or writing
+            input.abort();
+            if(output != null) {
+                output.abort();
+            }
+            received.countDown();
+            this.signal();
+        }
+
+        @Override
+        public void cancel() {
+            this.failed(new InterruptedIOException("Request cancelled"));
+        }
+
+        @Override
+        public void releaseResources() {
+            if(!complete) {
+                this.failed(new ConnectionClosedException("Premature end of stream"));
+            }
+        }
+
+        public org.apache.hc.core5.http.HttpResponse await(final int timeout) throws IOException {
+            try {
+                if(timeout > 0) {
+                    if(!received.await(timeout, TimeUnit.MILLISECONDS)) {
+                        throw new SocketTimeoutException("Read timed out");
+                    }
+                }
+                else {
+                    received.await();
+                }
+            }
+            catch(InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            if(null == response) {
+                throw this.toException();
+            }
+            return response;
+        }
+
+        private IOException toException() {
+            if(failure instanceof IOException) {
+                return (IOException) failure;
+            }
+            return new IOException(null == failure ? "Stream closed" : failure.getMessage(), failure);
+        }
+
+        /**
+         * Wait for data on stream
+         *
+         * @param timeout Milliseconds to wait for data or zero to block in read
+         * @throws SocketTimeoutException No data received within timeout. Stream is reset.
+         */
+        private void awaitInput(final int timeout) throws IOException {
+            if(timeout <= 0) {
+                return;
+            }
+            final long deadline = System.currentTimeMillis() + timeout;
+            synchronized(arrival) {
+                while(!input.hasData() && !input.isEndStream() && null == failure) {
+                    final long remaining = deadline - System.currentTimeMillis();
+                    if(remaining <= 0) {
+                        final SocketTimeoutException e = new SocketTimeoutException("Read timed out");
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Reset stream for %s with no data received within %d ms", request, timeout));
+                        }
+                        this.failed(e);
+                        if(cancellable != null) {
+                            cancellable.cancel();
+                        }
+                        throw e;
+                    }
+                    try {
+                        arrival.wait(remaining);
+                    }
+                    catch(InterruptedException e) {
+                        throw new InterruptedIOException(e.getMessage());
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param timeout Milliseconds to wait for data in every read
+         * @return Response entity failing with the cause of a stream reset instead of a premature end of stream
+         */
+        public InputStream input(final int timeout) {
+            return new ContentInputStream(input) {
+                @Override
+                public int read() throws IOException {
+                    awaitInput(timeout);
+                    return this.verify(super.read());
+                }
+
+                @Override
+                public int read(final byte[] b, final int off, final int len) throws IOException {
+                    awaitInput(timeout);
+                    return this.verify(super.read(b, off, len));
+                }
+
+                private int verify(final int result) throws IOException {
+                    if(-1 == result && !complete) {
+                        throw toException();
+                    }
+                    return result;
+                }
+            };
+        }
+    }
+
+    private static final class EntityDetailsAdapter implements EntityDetails {
+        private final HttpEntity entity;
+
+        public EntityDetailsAdapter(final HttpEntity entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public long getContentLength() {
+            return entity.getContentLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return null == entity.getContentType() ? null : entity.getContentType().getValue();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return null == entity.getContentEncoding() ? null : entity.getContentEncoding().getValue();
+        }
+
+        @Override
+        public boolean isChunked() {
+            return entity.getContentLength() < 0;
+        }
+
+        @Override
+        public Set<String> getTrailerNames() {
+            return Collections.emptySet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Http2StreamClientConnection{");
+        sb.append("target=").append(target);
+        sb.append(", session=").append(session);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -17,6 +17,7 @@ package ch.cyberduck.core.http;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.FactoryException;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.LoginCallback;
 import ch.cyberduck.core.PreferencesUseragentProvider;
@@ -28,10 +29,27 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.proxy.Proxy;
 import ch.cyberduck.core.proxy.ProxyFinder;
 import ch.cyberduck.core.proxy.ProxySocketFactory;
+import ch.cyberduck.core.random.SecureRandomProviderFactory;
 import ch.cyberduck.core.ssl.CustomTrustSSLProtocolSocketFactory;
+import ch.cyberduck.core.ssl.EngineHostnameDelegatingTrustManager;
 import ch.cyberduck.core.ssl.ThreadLocalHostnameDelegatingTrustManager;
 import ch.cyberduck.core.ssl.X509KeyManager;
+import ch.cyberduck.core.ssl.X509TrustManager;
 
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.protocol.HttpProcessorBuilder;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequester;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequesterBootstrap;
+import org.apache.hc.core5.http2.protocol.H2RequestConnControl;
+import org.apache.hc.core5.http2.protocol.H2RequestContent;
+import org.apache.hc.core5.http2.protocol.H2RequestTargetHost;
+import org.apache.hc.core5.http2.ssl.H2ClientTlsStrategy;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
+import org.apache.hc.core5.util.Timeout;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.client.config.AuthSchemes;
@@ -40,6 +58,7 @@ import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -57,10 +76,18 @@ import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.protocol.HttpContext;
 import org.apache.log4j.Logger;
 
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.nio.charset.Charset;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class HttpConnectionPoolBuilder {
     private static final Logger log = Logger.getLogger(HttpConnectionPoolBuilder.class);
@@ -69,6 +96,8 @@ public class HttpConnectionPoolBuilder {
     private final ConnectionSocketFactory socketFactory;
     private final ConnectionSocketFactory sslSocketFactory;
     private final Host host;
+    private final X509TrustManager trust;
+    private final X509KeyManager key;
 
     public HttpConnectionPoolBuilder(final Host host,
                                      final ThreadLocalHostnameDelegatingTrustManager trust,
@@ -110,15 +139,29 @@ public class HttpConnectionPoolBuilder {
                 trust.setTarget(host.getHostName());
                 return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
             }
-        });
+        }, trust, key);
     }
 
     public HttpConnectionPoolBuilder(final Host host,
                                      final ConnectionSocketFactory socketFactory,
                                      final ConnectionSocketFactory sslSocketFactory) {
+        this(host, socketFactory, sslSocketFactory, null, null);
+    }
+
+    /**
+     * @param trust Verifying trusts for HTTP/2 connections or null to use HTTP/1.1 only
+     * @param key   Key manager for client certificate selection on HTTP/2 connections
+     */
+    public HttpConnectionPoolBuilder(final Host host,
+                                     final ConnectionSocketFactory socketFactory,
+                                     final ConnectionSocketFactory sslSocketFactory,
+                                     final X509TrustManager trust,
+                                     final X509KeyManager key) {
         this.host = host;
         this.socketFactory = socketFactory;
         this.sslSocketFactory = sslSocketFactory;
+        this.trust = trust;
+        this.key = key;
     }
 
     /**
@@ -167,7 +210,14 @@ public class HttpConnectionPoolBuilder {
         configuration.setRequestExecutor(new LoggingHttpRequestExecutor(listener));
         // Always register HTTP for possible use with proxy. Contains a number of protocol properties such as the
         // default port and the socket factory to be used to create the java.net.Socket instances for the given protocol
-        configuration.setConnectionManager(this.createConnectionManager(this.createRegistry()));
+        final PoolingHttpClientConnectionManager pool = this.createConnectionManager(this.createRegistry());
+        if(preferences.getBoolean("http.h2.enable") && Proxy.Type.DIRECT == proxy.getType() && trust != null) {
+            // Multiplex requests on HTTP/2 connections with fallback to pool
+            configuration.setConnectionManager(this.createMultiplexingConnectionManager(pool));
+        }
+        else {
+            configuration.setConnectionManager(pool);
+        }
         configuration.setDefaultAuthSchemeRegistry(RegistryBuilder.<AuthSchemeProvider>create()
             .register(AuthSchemes.BASIC, new BasicSchemeFactory(
                 Charset.forName(preferences.getProperty("http.credentials.charset"))))
@@ -183,6 +233,88 @@ public class HttpConnectionPoolBuilder {
         return configuration;
     }
 
+    /**
+     * @param pool HTTP/1.1 connection pool for routes not multiplexed
+     * @return Connection manager multiplexing requests as streams on HTTP/2 connections
+     */
+    public Http2ClientConnectionManager createMultiplexingConnectionManager(final HttpClientConnectionManager pool) {
+        final int timeout = preferences.getInteger("connection.timeout.seconds") * 1000;
+        final int window = preferences.getInteger("http.h2.window.size");
+        final H2MultiplexingRequester requester = H2MultiplexingRequesterBootstrap.bootstrap()
+            .setIOReactorConfig(IOReactorConfig.custom()
+                .setIoThreadCount(1)
+                .setSoTimeout(Timeout.ofMilliseconds(timeout))
+                .setTcpNoDelay(true)
+                .build())
+            .setH2Config(H2Config.custom()
+                .setPushEnabled(false)
+                .setInitialWindowSize(window)
+                .build())
+            // Request headers are added by HttpClient
+            .setHttpProcessor(HttpProcessorBuilder.create()
+                .add(H2RequestContent.INSTANCE)
+                .add(H2RequestTargetHost.INSTANCE)
+                .add(H2RequestConnControl.INSTANCE)
+                .build())
+            .setTlsStrategy(this.createTlsStrategy())
+            .setStrictALPNHandshake(true)
+            .create();
+        requester.start();
+        return new Http2ClientConnectionManager(pool, requester,
+            preferences.getInteger("http.h2.streams.max"), timeout, window, preferences.getInteger("http.socket.buffer"),
+            preferences.getBoolean("http.h2.cleartext.enable"));
+    }
+
+    /**
+     * @return TLS with application protocol negotiation verifying certificates with trust manager of session
+     */
+    protected TlsStrategy createTlsStrategy() {
+        final SSLContext context;
+        try {
+            context = SSLContext.getInstance("TLS");
+            context.init(new KeyManager[]{key}, new TrustManager[]{new EngineHostnameDelegatingTrustManager(trust)},
+                SecureRandomProviderFactory.get().provide());
+        }
+        catch(NoSuchAlgorithmException | KeyManagementException e) {
+            throw new FactoryException(e.getMessage(), e);
+        }
+        final String[] protocols = preferences.getProperty("connection.ssl.protocols").split(",");
+        final List<String> blacklist = preferences.getList("connection.ssl.cipher.blacklist");
+        final AtomicBoolean initializer = new AtomicBoolean(false);
+        return new H2ClientTlsStrategy(context, (endpoint, engine) -> {
+            try {
+                engine.setEnabledProtocols(protocols);
+                if(!blacklist.isEmpty()) {
+                    engine.setEnabledCipherSuites(Arrays.stream(engine.getEnabledCipherSuites())
+                        .filter(cipher -> !blacklist.contains(cipher)).toArray(String[]::new));
+                }
+            }
+            catch(Exception e) {
+                log.warn(String.format("Failed to configure SSL parameters %s", e.getMessage()));
+            }
+        }, null) {
+            @Override
+            public void upgrade(final TransportSecurityLayer session, final NamedEndpoint endpoint, final Object attachment,
+                                final Timeout timeout, final FutureCallback<TransportSecurityLayer> callback) {
+                if(initializer.compareAndSet(false, true)) {
+                    try {
+                        // Load trust and key store before handshake
+                        trust.init();
+                        key.init();
+                    }
+                    catch(IOException e) {
+                        initializer.set(false);
+                        if(callback != null) {
+                            callback.failed(e);
+                        }
+                        return;
+                    }
+                }
+                super.upgrade(session, endpoint, attachment, timeout, callback);
+            }
+        };
+    }
+
     public RequestConfig createRequestConfig(final int timeout) {
         return RequestConfig.custom()
             .setRedirectsEnabled(true)
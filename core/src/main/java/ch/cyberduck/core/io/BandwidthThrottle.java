@@ -2,6 +2,9 @@ package ch.cyberduck.core.io;
 
 import org.apache.log4j.Logger;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Limits throughput of a stream to at most N bytes per T seconds.  Mutable and
  * thread-safe.<p>
@@ -19,11 +22,13 @@ import org.apache.log4j.Logger;
  *      }
  * </pre>
  * <p/>
- * This class works by allowing exactly N bytes to be sent every T seconds.  If
- * the number of bytes for a given window have been exceeded, subsequent calls
- * to request(..) will block.  The default value of T is 100 milliseconds.
- * Smaller window values T allow fairer bandwidth sharing and less noticeable
- * pauses but may decrease efficiency slightly.<p>
+ * This class works as a token bucket refilled continuously at the rate set.  Up
+ * to the bytes of one tick T can be sent without delay after the throttle has
+ * been idle, after that calls to request(..) will block.  The default value of
+ * T is 100 milliseconds.  Permits are reserved by advancing a single atomic
+ * timestamp without locking and threads wait outside of any monitor for their
+ * reservation.  Small requests are served from a batch of permits reserved per
+ * thread to reduce contention when the throttle is shared by many streams.<p>
  * <p/>
  * Note that throttles are <i>not</i> cumulative.  In the future, this may allow
  * enable fancier control.  Also, BandwidthThrottle may be able delegate to
@@ -46,11 +51,19 @@ public final class BandwidthThrottle {
      * The value of T, in milliseconds.
      */
     private static final int MILLIS_PER_TICK = 1000 / TICKS_PER_SECOND;
+    /**
+     * Maximum number of permits reserved at once for a thread
+     */
+    private static final int BATCH = 8192;
 
     /**
      * The bytes to send per tick.  Modified by setThrottle.
      */
     private volatile int bytesPerTick;
+    /**
+     * Nanoseconds to send a single byte at the current rate
+     */
+    private volatile double nanosPerByte;
 
     /**
      * Whether or not we're only allowing bandwidth to be used every other
@@ -59,13 +72,14 @@ public final class BandwidthThrottle {
     private volatile boolean switching = false;
 
     /**
-     * The number of bytes remaining in this window.
+     * Time in nanoseconds when all bytes granted so far have been sent at the current rate
      */
-    private int availableBytes;
+    private final AtomicLong horizon = new AtomicLong(System.nanoTime());
+
     /**
-     * The system time when the window is reset so more bytes can be sent.
+     * Permits reserved by the current thread not yet requested
      */
-    private long nextTickTime;
+    private final ThreadLocal<int[]> reserved = ThreadLocal.withInitial(() -> new int[1]);
 
     /**
      * Creates a new bandwidth throttle at the given throttle rate.
@@ -107,6 +121,16 @@ public final class BandwidthThrottle {
      */
     private float rate = UNLIMITED;
 
+    /**
+     * Bytes per second assigned from shared bandwidth budget
+     */
+    private float share = UNLIMITED;
+
+    /**
+     * Lower of rate and share enforced
+     */
+    private volatile float limit = UNLIMITED;
+
     /**
      * Sets the throttle to the given throttle rate.  The default windows size
      * T is used.  The bytes per windows N is calculated from bytesPerSecond.
@@ -123,11 +147,8 @@ public final class BandwidthThrottle {
                 log.debug(String.format("Set rate to %s bytes per second", bytesPerSecond));
             }
             rate = bytesPerSecond;
-            bytesPerTick = (int) (bytesPerSecond / TICKS_PER_SECOND);
-        }
-        if(switching) {
-            this.fixBytesPerTick(true);
         }
+        this.update();
     }
 
     /**
@@ -138,34 +159,55 @@ public final class BandwidthThrottle {
     }
 
     /**
-     * Sets whether or not this throttle is switching bandwidth on/off.
+     * Limit to bandwidth assigned from a budget shared with other throttles in addition to the rate set
+     *
+     * @param bytesPerSecond Share in bytes per second or UNLIMITED
      */
-    public void setSwitching(boolean switching) {
-        log.debug("setSwitching:" + switching);
-        if(this.switching != switching) {
-            fixBytesPerTick(switching);
+    public void setShare(float bytesPerSecond) {
+        if(bytesPerSecond < 0) {
+            share = UNLIMITED;
         }
-        this.switching = switching;
+        else {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Set share to %s bytes per second", bytesPerSecond));
+            }
+            share = bytesPerSecond;
+        }
+        this.update();
     }
 
     /**
-     * Modifies bytesPerTick to either be double or half of what it was.
-     * This is necessary because of the 'switching', which can effectively
-     * reduce or raise the amount of data transferred.
+     * @return Bandwidth in bytes per second assigned from shared budget
      */
-    private void fixBytesPerTick(boolean raise) {
-        int newBytesPerTick = bytesPerTick;
-        if(raise) {
-            newBytesPerTick *= 2;
+    public float getShare() {
+        return share;
+    }
+
+    private void update() {
+        if(UNLIMITED == rate) {
+            limit = share;
+        }
+        else if(UNLIMITED == share) {
+            limit = rate;
         }
         else {
-            newBytesPerTick /= 2;
+            limit = Math.min(rate, share);
         }
-        if(newBytesPerTick < 0) // overflowed?
-        {
-            newBytesPerTick = Integer.MAX_VALUE;
+        if(UNLIMITED != limit) {
+            // Allow double the bandwidth when only sending every other second
+            final float effective = Math.max(1f, switching ? limit * 2 : limit);
+            bytesPerTick = (int) Math.min(Integer.MAX_VALUE, effective / TICKS_PER_SECOND);
+            nanosPerByte = TimeUnit.SECONDS.toNanos(1) / (double) effective;
         }
-        bytesPerTick = newBytesPerTick;
+    }
+
+    /**
+     * Sets whether or not this throttle is switching bandwidth on/off.
+     */
+    public void setSwitching(boolean switching) {
+        log.debug("setSwitching:" + switching);
+        this.switching = switching;
+        this.update();
     }
 
     /**
@@ -176,54 +218,65 @@ public final class BandwidthThrottle {
      * @return the number of bytes the sender is expected to send, which
      *         is always greater than one and less than or equal to desired
      */
-    public synchronized int request(int desired) {
-        if(UNLIMITED == rate) {
+    public int request(int desired) {
+        if(UNLIMITED == limit) {
             return desired;
         }
-        waitForBandwidth();
-        int result = Math.min(desired, availableBytes);
-        availableBytes -= result;
+        final int[] batch = reserved.get();
+        if(batch[0] == 0) {
+            final int tick = Math.max(1, bytesPerTick);
+            // Reserve more than requested for small writes
+            final int permits = Math.min(tick, Math.max(desired, BATCH));
+            this.waitForBandwidth(permits);
+            batch[0] = permits;
+        }
+        final int result = Math.min(desired, batch[0]);
+        batch[0] -= result;
         return result;
     }
 
     /**
-     * Waits until data is _availableBytes.
+     * Reserve permits and wait until they can be used
+     *
+     * @param permits Number of bytes to send
      */
-    private void waitForBandwidth() {
+    private void waitForBandwidth(final int permits) {
+        if(switching) {
+            final long now = System.currentTimeMillis();
+            if(((now / 1000) % 2) != 0) {
+                // Wait for the next second
+                this.sleep(TimeUnit.MILLISECONDS.toNanos(1000 - (now % 1000)));
+            }
+        }
+        final long cost = (long) (permits * nanosPerByte);
+        // Allow to send up to a tick without delay after being idle
+        final long burst = TimeUnit.MILLISECONDS.toNanos(MILLIS_PER_TICK);
+        long now;
+        long next;
         while(true) {
-            long now = System.currentTimeMillis();
-            updateWindow(now);
-            if(availableBytes != 0) {
+            now = System.nanoTime();
+            final long current = horizon.get();
+            next = Math.max(current, now - burst) + cost;
+            if(horizon.compareAndSet(current, next)) {
                 break;
             }
-            try {
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Throttling bandwidth for %d milliseconds", nextTickTime - now));
-                }
-                Thread.sleep(nextTickTime - now);
-            }
-            catch(InterruptedException e) {
-                log.error(e.getMessage(), e);
-            }
+        }
+        final long delay = next - burst - now;
+        if(delay > 0) {
+            this.sleep(delay);
         }
     }
 
-    /**
-     * Updates _availableBytes and _nextTickTime if possible.
-     */
-    private void updateWindow(long now) {
-        if(now >= nextTickTime) {
-            if(!switching || ((now / 1000) % 2) == 0) {
-                availableBytes = bytesPerTick;
-                nextTickTime = now + MILLIS_PER_TICK;
-            }
-            else {
-                availableBytes = 0;
-                // the next tick time is the time we'll hit
-                // the next second.
-                long diff = 1000 - (now % 1000);
-                nextTickTime = now + diff;
-            }
+    private void sleep(final long nanos) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Throttling bandwidth for %d milliseconds", TimeUnit.NANOSECONDS.toMillis(nanos)));
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+        catch(InterruptedException e) {
+            log.error(e.getMessage(), e);
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -246,4 +299,4 @@ public final class BandwidthThrottle {
     public int hashCode() {
         return (rate != +0.0f ? Float.floatToIntBits(rate) : 0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reusable transfer buffers by length shared between concurrent transfers. Buffers returned are kept up to a maximum
+ * number of bytes in total and otherwise left for garbage collection.
+ */
+public final class ByteArrayPool {
+
+    private static final class Holder {
+        private static final ByteArrayPool instance
+            = new ByteArrayPool(PreferencesFactory.get().getLong("connection.chunksize.pool.bytes"));
+    }
+
+    public static ByteArrayPool get() {
+        return Holder.instance;
+    }
+
+    private final Map<Integer, Queue<byte[]>> available = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of bytes to keep
+     */
+    private final long capacity;
+    private final AtomicLong retained = new AtomicLong();
+
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    /**
+     * @param capacity Maximum number of bytes in buffers to keep for reuse. Zero to disable pooling.
+     */
+    public ByteArrayPool(final long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param length Buffer size
+     * @return Buffer from pool or newly allocated if none available with given length. Content is undefined.
+     */
+    public byte[] acquire(final int length) {
+        final Queue<byte[]> queue = available.get(length);
+        if(queue != null) {
+            final byte[] buffer = queue.poll();
+            if(buffer != null) {
+                retained.addAndGet(-length);
+                reuses.incrementAndGet();
+                return buffer;
+            }
+        }
+        allocations.incrementAndGet();
+        allocated.addAndGet(length);
+        return new byte[length];
+    }
+
+    /**
+     * @param buffer Buffer no longer used by caller
+     */
+    public void release(final byte[] buffer) {
+        if(null == buffer) {
+            return;
+        }
+        if(retained.addAndGet(buffer.length) > capacity) {
+            // Discard
+            retained.addAndGet(-buffer.length);
+            return;
+        }
+        available.computeIfAbsent(buffer.length, length -> new ConcurrentLinkedQueue<>()).offer(buffer);
+    }
+
+    /**
+     * @return Number of buffers newly allocated
+     */
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    /**
+     * @return Number of bytes in buffers newly allocated
+     */
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    /**
+     * @return Number of buffers taken from pool
+     */
+    public long getReuses() {
+        return reuses.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ByteArrayPool{");
+        sb.append("capacity=").append(capacity);
+        sb.append(", retained=").append(retained);
+        sb.append(", allocations=").append(allocations);
+        sb.append(", allocated=").append(allocated);
+        sb.append(", reuses=").append(reuses);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -20,7 +20,6 @@ import org.apache.log4j.Logger;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MemorySegementingOutputStream extends SegmentingOutputStream {
@@ -51,14 +50,14 @@ public class MemorySegementingOutputStream extends SegmentingOutputStream {
         buffer.reset();
         for(int offset = 0; offset < content.length; offset += threshold) {
             int len = Math.min(threshold, content.length - offset);
-            final byte[] bytes = Arrays.copyOfRange(content, offset, offset + len);
+            // Write segments without copy of content
             if(len < threshold) {
                 // Write to start of buffer
-                this.write(bytes);
+                this.write(content, offset, len);
             }
             else {
                 // Write out
-                proxy.write(bytes);
+                proxy.write(content, offset, len);
             }
         }
     }
@@ -45,6 +45,8 @@ public final class StreamCopier {
     private Integer chunksize
             = PreferencesFactory.get().getInteger("connection.chunksize");
 
+    private ByteArrayPool pool = ByteArrayPool.get();
+
     private Long offset = 0L;
 
     private Long limit = -1L;
@@ -59,6 +61,11 @@ public final class StreamCopier {
         return this;
     }
 
+    public StreamCopier withPool(final ByteArrayPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
     public StreamCopier withListener(final StreamListener listener) {
         this.listener = new BytecountStreamListener(listener);
         return this;
@@ -85,12 +92,12 @@ public final class StreamCopier {
      * @param out The stream to write to
      */
     public void transfer(final InputStream in, final OutputStream out) throws BackgroundException {
+        final byte[] buffer = pool.acquire(chunksize);
         try {
             try {
                 if(offset > 0) {
                     skip(in, offset);
                 }
-                final byte[] buffer = new byte[chunksize];
                 long total = 0;
                 int len = chunksize;
                 if(limit > 0 && limit < chunksize) {
@@ -148,6 +155,9 @@ public final class StreamCopier {
             listener.recv(-recv);
             throw e;
         }
+        finally {
+            pool.release(buffer);
+        }
         cancel.validate();
     }
 
@@ -41,6 +41,29 @@ public class ThrottledInputStream extends ProxyInputStream {
         this.throttle = throttle;
     }
 
+    /**
+     * Read a single byte from the delegate stream, possibly blocking if
+     * necessary to ensure that throughput doesn't exceed the limits.
+     *
+     * @throws IOException if an I/O error occurs on the InputStream.
+     */
+    @Override
+    public int read() throws IOException {
+        throttle.request(1);
+        return delegate.read();
+    }
+
+    /**
+     * Read an array of bytes from this InputStream.
+     *
+     * @param data the bytes to read.
+     * @throws IOException if an I/O error occurs on the InputStream.
+     */
+    @Override
+    public int read(byte[] data) throws IOException {
+        return this.read(data, 0, data.length);
+    }
+
     /**
      * Read an array of bytes from this InputStream.
      *
@@ -58,6 +58,18 @@ public class ThrottledOutputStream extends ProxyOutputStream {
         delegate.write(b);
     }
 
+    /**
+     * Write all bytes to the delegate stream, possibly blocking if necessary
+     * to ensure that throughput doesn't exceed the limits.
+     *
+     * @param data the bytes to write.
+     * @throws IOException if an I/O error occurs on the OutputStream.
+     */
+    @Override
+    public void write(byte[] data) throws IOException {
+        this.write(data, 0, data.length);
+    }
+
     /**
      * Write bytes[offset...offset+totalLength-1] to the delegate stream,
      * possibly blocking if necessary to ensure that throughput doesn't exceed
@@ -313,6 +313,22 @@ public abstract class Preferences implements Locales {
         this.setDefault("transfer.cache.size", String.valueOf(100));
         this.setDefault("icon.cache.size", String.valueOf(200));
         this.setDefault("preferences.cache.size", String.valueOf(1000));
+        /*
+          Maximum number of file IDs resolved from path to cache per session
+         */
+        this.setDefault("fileid.cache.size", String.valueOf(10000));
+        /*
+          Save directory listings to disk to reuse in later sessions when validated with directory attributes
+         */
+        this.setDefault("browser.cache.persistent", String.valueOf(false));
+        /*
+          Maximum number of files in saved directory listings kept in memory
+         */
+        this.setDefault("browser.cache.persistent.size", String.valueOf(100000));
+        /*
+          Update cached directory listings with changes reported by the server instead of listing again
+         */
+        this.setDefault("browser.cache.changes.enable", String.valueOf(false));
 
         /*
           Caching NS* proxy instances.
@@ -324,6 +340,11 @@ public abstract class Preferences implements Locales {
          */
         this.setDefault("browser.list.limit.directory", String.valueOf(5000));
         this.setDefault("browser.list.limit.container", String.valueOf(100));
+        /*
+          Maximum number of concurrent directory listings for recursive search with stateless protocols. Set to 1 to
+          search sequentially with the browser connection
+         */
+        this.setDefault("browser.search.concurrency", String.valueOf(5));
 
         this.setDefault("info.toolbar.selected", String.valueOf(0));
         this.setDefault("preferences.toolbar.selected", String.valueOf(0));
@@ -517,6 +538,8 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.download.segments", String.valueOf(true));
         this.setDefault("queue.download.segments.threshold", String.valueOf(10L * 1024L * 1024L));
         this.setDefault("queue.download.segments.size", String.valueOf(5L * 1024L * 1024L));
+        // Write segments at their offset into preallocated target file instead of concatenating part files
+        this.setDefault("queue.download.segments.inplace", String.valueOf(false));
 
         /*
           Open completed downloads
@@ -558,11 +581,47 @@ public abstract class Preferences implements Locales {
           Bandwidth throttle download stream
          */
         this.setDefault("queue.download.bandwidth.bytes", String.valueOf(-1));
+        /*
+          Bandwidth shared by all running transfers weighted by priority
+         */
+        this.setDefault("queue.bandwidth.global.bytes", String.valueOf(-1));
 
         /*
          * Concurrent connections for single transfer and maximum number of concurrent transfers in transfer list
          */
         this.setDefault("queue.connections.limit", String.valueOf(2));
+        /*
+          Adjust number of concurrent connections for single transfer from measured throughput and connection failures
+          starting with queue.connections.limit
+         */
+        this.setDefault("queue.connections.adaptive.enable", String.valueOf(false));
+        this.setDefault("queue.connections.adaptive.limit", String.valueOf(10));
+        this.setDefault("queue.connections.adaptive.interval", String.valueOf(2000L));
+        this.setDefault("queue.connections.adaptive.gain", String.valueOf(0.05d));
+        this.setDefault("queue.connections.adaptive.hold", String.valueOf(10));
+        /*
+          Start transferring files while the remaining tree is still being prepared. Total size is a running estimate.
+         */
+        this.setDefault("queue.transfer.pipeline.enable", String.valueOf(false));
+        /*
+          Write status of completed files to disk when the number of files in a transfer exceeds the threshold
+         */
+        this.setDefault("queue.transfer.table.spill.enable", String.valueOf(false));
+        this.setDefault("queue.transfer.table.spill.threshold", String.valueOf(10000));
+        /*
+          Number of directory listings kept in memory when writing transfer status to disk
+         */
+        this.setDefault("queue.transfer.table.spill.cache", String.valueOf(1000));
+        /*
+          Connections for concurrent listing and deletion of files in recursive delete with stateless protocols. Set to 1
+          to delete sequentially with the browser connection
+         */
+        this.setDefault("delete.concurrency", String.valueOf(5));
+        /*
+          Minimum number of files passed at once to the delete feature. Raised to fill requests of features deleting
+          multiple files with a single request
+         */
+        this.setDefault("delete.batch.size", String.valueOf(100));
         {
             final StringBuilder options = new StringBuilder();
             options.append(1).append(",");
@@ -590,6 +649,14 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.prompt.upload.action.default", TransferAction.overwrite.name());
         this.setDefault("queue.prompt.copy.action.default", TransferAction.overwrite.name());
         this.setDefault("queue.prompt.move.action.default", TransferAction.overwrite.name());
+        /*
+          Save checksums of local files for comparison in synchronization to only hash files modified since.
+          Index saved for folder is deleted when not used within time to live.
+         */
+        this.setDefault("queue.sync.checksum.index.enable", String.valueOf(true));
+        this.setDefault("queue.sync.checksum.index.size", String.valueOf(1000));
+        this.setDefault("queue.sync.checksum.index.ttl", String.valueOf(30L * 24 * 60 * 60 * 1000)); // 30 days
+        this.setDefault("queue.sync.checksum.concurrency", String.valueOf(Runtime.getRuntime().availableProcessors()));
 
         this.setDefault("queue.transcript.open", String.valueOf(false));
         this.setDefault("queue.transcript.size.height", String.valueOf(200));
@@ -612,6 +679,22 @@ public abstract class Preferences implements Locales {
         this.setDefault("http.socket.buffer", String.valueOf(8192));
         this.setDefault("http.credentials.charset", "ISO-8859-1");
         this.setDefault("http.request.uri.normalize", String.valueOf(false));
+        /*
+          Multiplex requests on HTTP/2 connections negotiated with ALPN
+         */
+        this.setDefault("http.h2.enable", String.valueOf(false));
+        /*
+          Use HTTP/2 with prior knowledge for plain connections
+         */
+        this.setDefault("http.h2.cleartext.enable", String.valueOf(false));
+        /*
+          Maximum number of concurrent streams per host replacing http.connections.route
+         */
+        this.setDefault("http.h2.streams.max", String.valueOf(100));
+        /*
+          Flow control window and receive buffer per stream
+         */
+        this.setDefault("http.h2.window.size", String.valueOf(1048576));
 
         /*
           Enable or disable verification that the remote host taking part
@@ -624,6 +707,11 @@ public abstract class Preferences implements Locales {
         this.setDefault("ftp.parser.multiline.strict", String.valueOf(false));
         this.setDefault("ftp.parser.reply.strict", String.valueOf(false));
         this.setDefault("ftp.parser.mlsd.perm.enable", String.valueOf(false));
+        /*
+          Number of files parsed from listing before notifying browser and maximum interval in milliseconds
+         */
+        this.setDefault("ftp.listing.chunksize", String.valueOf(1000));
+        this.setDefault("ftp.listing.chunk.interval", String.valueOf(500L));
 
         /*
           Send LIST -a
@@ -683,6 +771,10 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("s3.listing.chunksize", String.valueOf(1000));
         this.setDefault("s3.listing.concurrency", String.valueOf(25));
+        /*
+          List all keys below a prefix without delimiter for transfers and size calculation
+         */
+        this.setDefault("s3.listing.recursive.enable", String.valueOf(true));
 
         this.setDefault("s3.upload.multipart", String.valueOf(true));
         this.setDefault("s3.upload.multipart.concurrency", String.valueOf(10));
@@ -698,6 +790,8 @@ public abstract class Preferences implements Locales {
         this.setDefault("s3.copy.multipart.size", String.valueOf(100L * 1024L * 1024L)); // 100MB
 
         this.setDefault("s3.upload.expect-continue", String.valueOf(true));
+        // Send UNSIGNED-PAYLOAD with AWS4 signature over TLS instead of reading content twice to compute SHA-256 hash
+        this.setDefault("s3.upload.payload.unsigned", String.valueOf(false));
 
         /*
           Transfer thresholds for qloudsonic.io
@@ -750,6 +844,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("s3.lifecycle.delete.options", "1 7 10 30 60 180 360 720");
 
         this.setDefault("s3.delete.multiple.partition", String.valueOf(1000));
+        /*
+          Number of multiple object delete requests in flight
+         */
+        this.setDefault("s3.delete.multiple.concurrency", String.valueOf(10));
 
         this.setDefault("azure.metadata.default", StringUtils.EMPTY);
         this.setDefault("azure.listing.chunksize", String.valueOf(1000));
@@ -858,6 +956,16 @@ public abstract class Preferences implements Locales {
         this.setDefault("webdav.microsoftiis.header.translate", String.valueOf(true));
 
         this.setDefault("webdav.list.handler.sax", String.valueOf(true));
+        /*
+          List recursively with PROPFIND depth infinity and fallback to concurrent requests with depth 1
+         */
+        this.setDefault("webdav.listing.recursive.enable", String.valueOf(true));
+        this.setDefault("webdav.listing.recursive.concurrency", String.valueOf(5));
+        /*
+          Number of files or milliseconds elapsed parsing PROPFIND response before passing files to listener
+         */
+        this.setDefault("webdav.listing.chunksize", String.valueOf(1000));
+        this.setDefault("webdav.listing.chunksize.interval", String.valueOf(500L));
 
         this.setDefault("analytics.provider.qloudstat.setup", "https://qloudstat.com/configuration/add");
         this.setDefault("analytics.provider.qloudstat.iam.policy",
@@ -1026,6 +1134,10 @@ public abstract class Preferences implements Locales {
           Transfer read buffer size
          */
         this.setDefault("connection.chunksize", String.valueOf(32768));
+        /*
+          Maximum number of bytes in transfer buffers kept for reuse
+         */
+        this.setDefault("connection.chunksize.pool.bytes", String.valueOf(4194304));
         /*
           Buffer size for wrapped buffered streams
          */
@@ -1125,6 +1237,27 @@ public abstract class Preferences implements Locales {
         this.setDefault("cryptomator.enable", String.valueOf(true));
         this.setDefault("cryptomator.vault.version", String.valueOf(6));
         this.setDefault("cryptomator.vault.autodetect", String.valueOf(true));
+        /*
+          Number of threads shared to encrypt and decrypt file content chunks and filenames
+         */
+        this.setDefault("cryptomator.vault.chunks.threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        /*
+          Number of file content chunks in progress per stream. Chunks are processed on the calling thread if 1
+         */
+        this.setDefault("cryptomator.vault.chunks.window", String.valueOf(2 * Runtime.getRuntime().availableProcessors()));
+        /*
+          Number of encrypted and decrypted filenames cached each
+         */
+        this.setDefault("cryptomator.cache.size", String.valueOf(5000));
+        this.setDefault("cryptomator.cache.directoryid.size", String.valueOf(250));
+        /*
+          Minimum number of filenames in a directory listing to decrypt per worker thread
+         */
+        this.setDefault("cryptomator.vault.list.batch.size", String.valueOf(250));
+        /*
+          Number of metadata files of shortened filenames read concurrently when decrypting a directory listing
+         */
+        this.setDefault("cryptomator.vault.list.inflate.threads", String.valueOf(5));
     }
 
     protected void setLogging() {
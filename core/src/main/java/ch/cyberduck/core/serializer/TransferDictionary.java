@@ -30,6 +30,7 @@ import ch.cyberduck.core.transfer.SyncTransfer;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
 import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferScheduler;
 import ch.cyberduck.core.transfer.UploadTransfer;
 
 import org.apache.log4j.Logger;
@@ -226,6 +227,15 @@ public class TransferDictionary {
         if(bandwidthObj != null) {
             transfer.getBandwidth().setRate(Float.parseFloat(bandwidthObj.toString()));
         }
+        final String priorityObj = dict.stringForKey("Priority");
+        if(priorityObj != null) {
+            try {
+                transfer.setPriority(TransferScheduler.Priority.valueOf(priorityObj));
+            }
+            catch(IllegalArgumentException e) {
+                log.warn(String.format("Unknown priority %s", priorityObj));
+            }
+        }
         return transfer;
     }
 }
@@ -0,0 +1,258 @@
+package ch.cyberduck.core.shared;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.features.IdProvider;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches resolved file IDs by path. Concurrent lookups for the same path wait for a single remote lookup
+ * in progress. Implementations must invalidate entries when files are moved or deleted and update entries with
+ * file IDs returned when writing, copying or listing files. Providers created for the same bookmark share cached
+ * file IDs and lookups in progress across all sessions connected.
+ */
+public abstract class CachingFileidProvider implements IdProvider {
+    private static final Logger log = Logger.getLogger(CachingFileidProvider.class);
+
+    /**
+     * Shared by all sessions of a bookmark
+     */
+    private static final Map<Host, State> shared
+        = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LRUCache<SimplePathPredicate, Entry> cache;
+
+    /**
+     * Lookups in progress
+     */
+    private final ConcurrentMap<SimplePathPredicate, CompletableFuture<String>> pending;
+
+    /**
+     * Incremented on every invalidation to discard results of lookups started before
+     */
+    private final AtomicLong generation;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * @param host Bookmark to share cache with other sessions
+     */
+    public CachingFileidProvider(final Host host) {
+        this(shared.computeIfAbsent(host, h -> new State(PreferencesFactory.get().getLong("fileid.cache.size"))));
+    }
+
+    /**
+     * @param size Maximum number of file IDs to cache
+     */
+    public CachingFileidProvider(final long size) {
+        this(new State(size));
+    }
+
+    private CachingFileidProvider(final State state) {
+        this.cache = state.cache;
+        this.pending = state.pending;
+        this.generation = state.generation;
+        this.hits = state.hits;
+        this.misses = state.misses;
+    }
+
+    @Override
+    public String getFileid(final Path file, final ListProgressListener listener) throws BackgroundException {
+        final SimplePathPredicate key = new SimplePathPredicate(file);
+        final Entry cached = cache.get(key);
+        if(cached != null) {
+            hits.incrementAndGet();
+            return this.set(file, cached.id);
+        }
+        final CompletableFuture<String> lookup = new CompletableFuture<>();
+        final CompletableFuture<String> existing = pending.putIfAbsent(key, lookup);
+        if(existing != null) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Await lookup in progress for %s", file));
+            }
+            hits.incrementAndGet();
+            return this.set(file, this.await(existing));
+        }
+        misses.incrementAndGet();
+        final long start = generation.get();
+        try {
+            final String id = this.resolve(file, listener);
+            if(start == generation.get()) {
+                // Keep file ID added from server response while lookup was in progress
+                cache.asMap().putIfAbsent(key, new Entry(file, id));
+            }
+            lookup.complete(id);
+            return id;
+        }
+        catch(BackgroundException | RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            pending.remove(key, lookup);
+        }
+    }
+
+    private String await(final CompletableFuture<String> lookup) throws BackgroundException {
+        try {
+            return lookup.get();
+        }
+        catch(InterruptedException e) {
+            throw new ConnectionCanceledException(e);
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof BackgroundException) {
+                throw (BackgroundException) e.getCause();
+            }
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BackgroundException(e.getCause());
+        }
+    }
+
+    /**
+     * Lookup file ID from server not found in cache
+     *
+     * @param file     File
+     * @param listener Listing progress
+     * @return File ID
+     */
+    protected abstract String resolve(Path file, ListProgressListener listener) throws BackgroundException;
+
+    /**
+     * Save file ID in file attributes
+     *
+     * @param file File
+     * @param id   File ID
+     * @return File ID
+     */
+    protected String set(final Path file, final String id) {
+        file.attributes().setVersionId(id);
+        return id;
+    }
+
+    /**
+     * Add file ID known from server response or remove from cache. Takes precedence over results of lookups in
+     * progress.
+     *
+     * @param file File
+     * @param id   File ID or null to invalidate file and any children
+     */
+    public void cache(final Path file, final String id) {
+        if(null == id) {
+            this.invalidate(file);
+        }
+        else {
+            cache.put(new SimplePathPredicate(file), new Entry(file, id));
+        }
+    }
+
+    /**
+     * Remove file ID from cache. For directories including all cached children.
+     *
+     * @param file File moved or deleted
+     */
+    public void invalidate(final Path file) {
+        generation.incrementAndGet();
+        cache.remove(new SimplePathPredicate(file));
+        if(file.isDirectory()) {
+            for(Map.Entry<SimplePathPredicate, Entry> entry : cache.asMap().entrySet()) {
+                if(entry.getValue().file.isChild(file)) {
+                    cache.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all file IDs from cache
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * @return Number of file IDs found in cache or obtained from lookup in progress
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of file IDs resolved from server
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static final class State {
+        private final LRUCache<SimplePathPredicate, Entry> cache;
+        private final ConcurrentMap<SimplePathPredicate, CompletableFuture<String>> pending
+            = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        public State(final long size) {
+            this.cache = LRUCache.build(size);
+        }
+    }
+
+    private static final class Entry {
+        /**
+         * Path without attributes to test for children
+         */
+        private final Path file;
+        private final String id;
+
+        public Entry(final Path file, final String id) {
+            this.file = new Path(file.getAbsolute(), EnumSet.copyOf(file.getType()));
+            this.id = id;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CachingFileidProvider{");
+        sb.append("size=").append(cache.size());
+        sb.append(", hits=").append(hits);
+        sb.append(", misses=").append(misses);
+        sb.append('}');
+        return sb.toString();
+    }
+}
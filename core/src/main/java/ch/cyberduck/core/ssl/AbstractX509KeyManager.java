@@ -20,6 +20,7 @@ package ch.cyberduck.core.ssl;
 
 import org.apache.log4j.Logger;
 
+import javax.net.ssl.SSLEngine;
 import javax.net.ssl.X509ExtendedKeyManager;
 import javax.security.auth.x500.X500Principal;
 import java.net.Socket;
@@ -64,6 +65,15 @@ public abstract class AbstractX509KeyManager extends X509ExtendedKeyManager impl
         return Collections.emptyList();
     }
 
+    /**
+     * Select alias for connection using SSL engine as with asynchronous HTTP/2 transport. Defaults to selection
+     * applicable to any socket.
+     */
+    @Override
+    public String chooseEngineClientAlias(final String[] keyTypes, final Principal[] issuers, final SSLEngine engine) {
+        return this.chooseClientAlias(keyTypes, issuers, null);
+    }
+
     @Override
     public String chooseServerAlias(String s, Principal[] principals, Socket socket) {
         return null;
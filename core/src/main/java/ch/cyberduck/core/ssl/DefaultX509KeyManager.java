@@ -22,6 +22,8 @@ import org.apache.log4j.Logger;
 
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
 import java.io.IOException;
 import java.net.Socket;
 import java.security.KeyStore;
@@ -147,6 +149,21 @@ public class DefaultX509KeyManager extends AbstractX509KeyManager implements X50
         return manager.chooseClientAlias(keyType, issuers, socket);
     }
 
+    @Override
+    public String chooseEngineClientAlias(final String[] keyType, final Principal[] issuers, final SSLEngine engine) {
+        final javax.net.ssl.X509KeyManager manager;
+        try {
+            manager = this.getKeystore();
+        }
+        catch(IOException e) {
+            return null;
+        }
+        if(manager instanceof X509ExtendedKeyManager) {
+            return ((X509ExtendedKeyManager) manager).chooseEngineClientAlias(keyType, issuers, engine);
+        }
+        return manager.chooseClientAlias(keyType, issuers, null);
+    }
+
     @Override
     public String[] getServerAliases(final String keyType, final Principal[] issuers) {
         final javax.net.ssl.X509KeyManager manager;
@@ -0,0 +1,79 @@
+package ch.cyberduck.core.ssl;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+/**
+ * Verify certificates for the peer host of the engine performing the handshake. Handshakes of connections to
+ * different hosts are interleaved on the threads of a non blocking I/O reactor where a target hostname set as thread
+ * local cannot be used.
+ */
+public class EngineHostnameDelegatingTrustManager extends X509ExtendedTrustManager {
+
+    private final X509TrustManager delegate;
+
+    public EngineHostnameDelegatingTrustManager(final X509TrustManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] certs, final String cipher, final SSLEngine engine) throws CertificateException {
+        delegate.verify(engine.getPeerHost(), certs, cipher);
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] certs, final String cipher, final SSLEngine engine) throws CertificateException {
+        delegate.verify(engine.getPeerHost(), certs, cipher);
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] certs, final String cipher, final Socket socket) throws CertificateException {
+        delegate.checkClientTrusted(certs, cipher);
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] certs, final String cipher, final Socket socket) throws CertificateException {
+        delegate.checkServerTrusted(certs, cipher);
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] certs, final String cipher) throws CertificateException {
+        delegate.checkClientTrusted(certs, cipher);
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] certs, final String cipher) throws CertificateException {
+        delegate.checkServerTrusted(certs, cipher);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("EngineHostnameDelegatingTrustManager{");
+        sb.append("delegate=").append(delegate);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -22,6 +22,7 @@ import ch.cyberduck.core.CertificateIdentityCallback;
 import ch.cyberduck.core.CertificateStore;
 import ch.cyberduck.core.Host;
 
+import javax.net.ssl.SSLEngine;
 import java.net.Socket;
 import java.security.Principal;
 import java.util.ArrayList;
@@ -56,6 +57,20 @@ public class KeychainX509KeyManager extends CertificateStoreX509KeyManager imple
         return this.save(key, s);
     }
 
+    @Override
+    public String chooseEngineClientAlias(final String[] keyTypes, final Principal[] issuers, final SSLEngine engine) {
+        final Key key = new Key(engine.getPeerHost(), engine.getPeerPort(), issuers);
+        final String alias = this.find(key);
+        if(alias != null) {
+            return alias;
+        }
+        final String s = super.chooseEngineClientAlias(keyTypes, issuers, engine);
+        if(null == s) {
+            return null;
+        }
+        return this.save(key, s);
+    }
+
     @Override
     public List<String> list() {
         if(aliases.isEmpty()) {
@@ -0,0 +1,441 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.LocalSupportDirectoryFinderFactory;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.collections4.map.AbstractLinkedMap;
+import org.apache.commons.collections4.map.LRUMap;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dd.plist.BinaryPropertyListParser;
+import com.dd.plist.BinaryPropertyListWriter;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.NSObject;
+import com.dd.plist.PropertyListFormatException;
+
+/**
+ * Checksums of local files saved to disk to be reused for later comparisons as long as size, modification date and
+ * inode of the file are unchanged. Entries are saved in binary property list format with one file per local folder
+ * to only load and write the index for folders compared. Saved indexes not loaded or written within the time to live
+ * are deleted on first use.
+ */
+public class ChecksumIndex {
+    private static final Logger log = Logger.getLogger(ChecksumIndex.class);
+
+    /**
+     * Version of file format
+     */
+    private static final String VERSION = "1";
+
+    private final Local folder;
+    /**
+     * Milliseconds since last use after which saved index of folder is deleted
+     */
+    private final long ttl;
+
+    /**
+     * Index loaded from disk by local folder. Modified entries are saved when evicted.
+     */
+    private final LRUMap<String, Directory> directories;
+    /**
+     * Saved indexes checked for expiry
+     */
+    private boolean expired;
+
+    public ChecksumIndex() {
+        this(LocalFactory.get(LocalSupportDirectoryFinderFactory.get().find(), "Checksums"),
+            PreferencesFactory.get().getInteger("queue.sync.checksum.index.size"));
+    }
+
+    /**
+     * @param folder Folder to save index
+     * @param size   Maximum number of folders to keep in memory
+     */
+    public ChecksumIndex(final Local folder, final int size) {
+        this(folder, size, PreferencesFactory.get().getLong("queue.sync.checksum.index.ttl"));
+    }
+
+    /**
+     * @param folder Folder to save index
+     * @param size   Maximum number of folders to keep in memory
+     * @param ttl    Milliseconds to keep saved index of folder not used
+     */
+    public ChecksumIndex(final Local folder, final int size, final long ttl) {
+        this.folder = folder;
+        this.ttl = ttl;
+        this.directories = new LRUMap<String, Directory>(size) {
+            @Override
+            protected boolean removeLRU(final AbstractLinkedMap.LinkEntry<String, Directory> entry) {
+                save(entry.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param file      Local file
+     * @param algorithm Hash algorithm
+     * @return Saved checksum or null if missing or the file has changed since
+     */
+    public Checksum get(final Local file, final HashAlgorithm algorithm) {
+        final Fingerprint fingerprint = this.fingerprint(file);
+        if(null == fingerprint) {
+            return null;
+        }
+        return this.get(file, fingerprint, algorithm);
+    }
+
+    private Checksum get(final Local file, final Fingerprint fingerprint, final HashAlgorithm algorithm) {
+        final Directory directory = this.directory(file.getParent());
+        final Entry entry = directory.entries.get(file.getName());
+        if(null == entry) {
+            return null;
+        }
+        if(!entry.fingerprint.equals(fingerprint)) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Invalidate checksum for modified file %s", file));
+            }
+            directory.entries.remove(file.getName());
+            directory.modified = true;
+            return null;
+        }
+        if(entry.checksum.algorithm != algorithm) {
+            return null;
+        }
+        return entry.checksum;
+    }
+
+    /**
+     * Lookup checksum in index or compute and save hash for file
+     *
+     * @param file      Local file
+     * @param algorithm Hash algorithm
+     * @return Checksum of file contents
+     */
+    public Checksum compute(final Local file, final HashAlgorithm algorithm) throws BackgroundException {
+        // Read attributes before reading contents to detect modifications during hashing on next lookup
+        final Fingerprint fingerprint = this.fingerprint(file);
+        if(null != fingerprint) {
+            final Checksum saved = this.get(file, fingerprint, algorithm);
+            if(null != saved) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Use saved checksum %s for %s", saved, file));
+                }
+                return saved;
+            }
+        }
+        final Checksum checksum = ChecksumComputeFactory.get(algorithm).compute(file.getInputStream(), new TransferStatus());
+        if(null != fingerprint && Checksum.NONE != checksum) {
+            final Directory directory = this.directory(file.getParent());
+            directory.entries.put(file.getName(), new Entry(fingerprint, checksum));
+            directory.modified = true;
+        }
+        return checksum;
+    }
+
+    /**
+     * Remove saved checksum for file
+     */
+    public void invalidate(final Local file) {
+        final Directory directory = this.directory(file.getParent());
+        if(null != directory.entries.remove(file.getName())) {
+            directory.modified = true;
+        }
+    }
+
+    /**
+     * Save modified entries to disk
+     */
+    public void flush() {
+        final List<Directory> modified = new ArrayList<>();
+        synchronized(directories) {
+            for(Directory directory : directories.values()) {
+                if(directory.modified) {
+                    modified.add(directory);
+                }
+            }
+        }
+        for(Directory directory : modified) {
+            this.save(directory);
+        }
+    }
+
+    /**
+     * @return Null if attributes cannot be read
+     */
+    private Fingerprint fingerprint(final Local file) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(Paths.get(file.getAbsolute()), BasicFileAttributes.class);
+            if(!attributes.isRegularFile()) {
+                return null;
+            }
+            // Not available on all platforms
+            final Object inode = attributes.fileKey();
+            return new Fingerprint(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                null == inode ? null : inode.toString());
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading attributes of %s. %s", file, e.getMessage()));
+            return null;
+        }
+    }
+
+    private Directory directory(final Local parent) {
+        synchronized(directories) {
+            if(!expired) {
+                this.expire();
+                expired = true;
+            }
+            Directory directory = directories.get(parent.getAbsolute());
+            if(null == directory) {
+                directory = this.load(parent);
+                directories.put(parent.getAbsolute(), directory);
+            }
+            return directory;
+        }
+    }
+
+    /**
+     * Delete saved indexes not loaded or written within time to live
+     */
+    private void expire() {
+        if(!folder.exists()) {
+            return;
+        }
+        final long threshold = System.currentTimeMillis() - ttl;
+        try {
+            int count = 0;
+            for(Local file : folder.list()) {
+                final long modified = file.attributes().getModificationDate();
+                if(modified > 0 && modified < threshold) {
+                    try {
+                        file.delete();
+                        count++;
+                    }
+                    catch(AccessDeniedException | NotfoundException e) {
+                        log.warn(String.format("Failure deleting expired checksum index %s. %s", file, e.getMessage()));
+                    }
+                }
+            }
+            if(count > 0) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Deleted %d expired checksum indexes in %s", count, folder));
+                }
+            }
+        }
+        catch(AccessDeniedException e) {
+            log.warn(String.format("Failure reading checksum indexes in %s. %s", folder, e.getMessage()));
+        }
+    }
+
+    private Directory load(final Local parent) {
+        final Directory directory = new Directory(parent);
+        final Local file = this.toFile(parent);
+        if(!file.exists()) {
+            return directory;
+        }
+        try (InputStream in = file.getInputStream()) {
+            final NSObject parsed = BinaryPropertyListParser.parse(in);
+            if(!(parsed instanceof NSDictionary)) {
+                log.warn(String.format("Invalid content in %s", file));
+                return directory;
+            }
+            final NSDictionary dict = (NSDictionary) parsed;
+            if(!VERSION.equals(this.toString(dict.objectForKey("Version")))) {
+                return directory;
+            }
+            final NSObject files = dict.objectForKey("Files");
+            if(files instanceof NSDictionary) {
+                for(Map.Entry<String, NSObject> entry : ((NSDictionary) files).entrySet()) {
+                    if(!(entry.getValue() instanceof NSDictionary)) {
+                        continue;
+                    }
+                    final NSDictionary value = (NSDictionary) entry.getValue();
+                    try {
+                        directory.entries.put(entry.getKey(), new Entry(
+                            new Fingerprint(
+                                Long.parseLong(this.toString(value.objectForKey("Size"))),
+                                Long.parseLong(this.toString(value.objectForKey("Modified"))),
+                                this.toString(value.objectForKey("Inode"))),
+                            new Checksum(HashAlgorithm.valueOf(this.toString(value.objectForKey("Algorithm"))),
+                                this.toString(value.objectForKey("Hash")))));
+                    }
+                    catch(IllegalArgumentException | NullPointerException e) {
+                        log.warn(String.format("Skip invalid entry %s in %s", entry.getKey(), file));
+                    }
+                }
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Loaded %d checksums for %s from %s", directory.entries.size(), parent, file));
+            }
+        }
+        catch(IOException | PropertyListFormatException | AccessDeniedException e) {
+            log.warn(String.format("Failure reading checksum index %s. %s", file, e.getMessage()));
+            return directory;
+        }
+        try {
+            // Mark as used not to expire
+            file.attributes().setModificationDate(System.currentTimeMillis());
+        }
+        catch(AccessDeniedException e) {
+            log.warn(String.format("Failure updating timestamp of %s. %s", file, e.getMessage()));
+        }
+        return directory;
+    }
+
+    private void save(final Directory directory) {
+        synchronized(directory) {
+            this.write(directory);
+        }
+    }
+
+    private void write(final Directory directory) {
+        final NSDictionary dict = new NSDictionary();
+        dict.put("Version", VERSION);
+        final NSDictionary files = new NSDictionary();
+        // Clear flag before serializing to not lose concurrent modifications
+        directory.modified = false;
+        for(Map.Entry<String, Entry> entry : directory.entries.entrySet()) {
+            final NSDictionary value = new NSDictionary();
+            value.put("Size", String.valueOf(entry.getValue().fingerprint.size));
+            value.put("Modified", String.valueOf(entry.getValue().fingerprint.modified));
+            if(null != entry.getValue().fingerprint.inode) {
+                value.put("Inode", entry.getValue().fingerprint.inode);
+            }
+            value.put("Algorithm", entry.getValue().checksum.algorithm.name());
+            value.put("Hash", entry.getValue().checksum.hash);
+            files.put(entry.getKey(), value);
+        }
+        dict.put("Files", files);
+        final Local file = this.toFile(directory.folder);
+        try {
+            if(directory.entries.isEmpty()) {
+                if(file.exists()) {
+                    file.delete();
+                }
+                return;
+            }
+            folder.mkdir();
+            try (OutputStream out = file.getOutputStream(false)) {
+                BinaryPropertyListWriter.write(out, dict);
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Saved %d checksums for %s to %s", directory.entries.size(), directory.folder, file));
+            }
+        }
+        catch(IOException | AccessDeniedException | NotfoundException e) {
+            log.warn(String.format("Failure saving checksum index for %s to %s. %s", directory.folder, file, e.getMessage()));
+        }
+    }
+
+    private Local toFile(final Local parent) {
+        return LocalFactory.get(folder, DigestUtils.sha256Hex(parent.getAbsolute()));
+    }
+
+    private String toString(final NSObject value) {
+        return null == value ? null : value.toJavaObject().toString();
+    }
+
+    private static final class Directory {
+        private final Local folder;
+        /**
+         * Saved checksums by filename
+         */
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private volatile boolean modified;
+
+        public Directory(final Local folder) {
+            this.folder = folder;
+        }
+    }
+
+    private static final class Entry {
+        private final Fingerprint fingerprint;
+        private final Checksum checksum;
+
+        public Entry(final Fingerprint fingerprint, final Checksum checksum) {
+            this.fingerprint = fingerprint;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Attributes of local file at the time of hashing
+     */
+    private static final class Fingerprint {
+        private final long size;
+        private final long modified;
+        private final String inode;
+
+        public Fingerprint(final long size, final long modified, final String inode) {
+            this.size = size;
+            this.modified = modified;
+            this.inode = inode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof Fingerprint)) {
+                return false;
+            }
+            final Fingerprint that = (Fingerprint) o;
+            return size == that.size &&
+                modified == that.modified &&
+                Objects.equals(inode, that.inode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, modified, inode);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ChecksumIndex{");
+        sb.append("folder=").append(folder);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -50,6 +50,11 @@ public class ComparisonServiceFilter implements ComparePathFilter {
 
     private Cache<Path> cache = PathCache.empty();
 
+    /**
+     * Saved or prefetched checksums of local files
+     */
+    private ConcurrentChecksumCompute checksums;
+
     public ComparisonServiceFilter(final Session<?> session, final TimeZone tz, final ProgressListener listener) {
         this.finder = session.getFeature(Find.class, new DefaultFindFeature(session));
         this.attribute = session.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(session));
@@ -74,6 +79,11 @@ public class ComparisonServiceFilter implements ComparePathFilter {
         return this;
     }
 
+    public ComparisonServiceFilter withChecksums(final ConcurrentChecksumCompute checksums) {
+        this.checksums = checksums;
+        return this;
+    }
+
     @Override
     public Comparison compare(final Path file, final Local local) throws BackgroundException {
         if(local.exists()) {
@@ -93,8 +103,13 @@ public class ComparisonServiceFilter implements ComparePathFilter {
                 if(Checksum.NONE != attributes.getChecksum()) {
                     // MD5/ETag Checksum is supported
                     progress.message(MessageFormat.format(LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
-                    local.attributes().setChecksum(ChecksumComputeFactory.get(attributes.getChecksum().algorithm)
-                        .compute(local.getInputStream(), new TransferStatus()));
+                    if(null == checksums) {
+                        local.attributes().setChecksum(ChecksumComputeFactory.get(attributes.getChecksum().algorithm)
+                            .compute(local.getInputStream(), new TransferStatus()));
+                    }
+                    else {
+                        local.attributes().setChecksum(checksums.compute(local, attributes.getChecksum().algorithm));
+                    }
                     switch(checksum.compare(attributes, local.attributes())) {
                         case equal:
                             // Decision is available
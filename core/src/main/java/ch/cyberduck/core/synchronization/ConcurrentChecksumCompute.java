@@ -0,0 +1,146 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+
+import org.apache.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Hash local files in parallel ahead of comparison. Checksums are looked up in the index first and only files not
+ * indexed or modified since are read.
+ */
+public class ConcurrentChecksumCompute {
+    private static final Logger log = Logger.getLogger(ConcurrentChecksumCompute.class);
+
+    private final ChecksumIndex index;
+    private final int concurrency;
+
+    /**
+     * Pending hashing by absolute path of local file
+     */
+    private final Map<String, Future<Checksum>> pending = new ConcurrentHashMap<>();
+
+    private ThreadPool pool;
+
+    public ConcurrentChecksumCompute(final ChecksumIndex index) {
+        this(index, PreferencesFactory.get().getInteger("queue.sync.checksum.concurrency"));
+    }
+
+    /**
+     * @param index       Saved checksums
+     * @param concurrency Number of files to hash in parallel
+     */
+    public ConcurrentChecksumCompute(final ChecksumIndex index, final int concurrency) {
+        this.index = index;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Start hashing file in background if not found in index
+     *
+     * @param file      Local file
+     * @param algorithm Hash algorithm of remote checksum
+     */
+    public void prefetch(final Local file, final HashAlgorithm algorithm) {
+        if(null != index.get(file, algorithm)) {
+            return;
+        }
+        final ThreadPool executor = this.pool();
+        pending.computeIfAbsent(file.getAbsolute(), key -> {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Schedule hashing of %s with %s", file, algorithm));
+            }
+            return executor.execute(() -> index.compute(file, algorithm));
+        });
+    }
+
+    /**
+     * @param file      Local file
+     * @param algorithm Hash algorithm of remote checksum
+     * @return Checksum computed in background or from index
+     */
+    public Checksum compute(final Local file, final HashAlgorithm algorithm) throws BackgroundException {
+        final Future<Checksum> future = pending.remove(file.getAbsolute());
+        if(null != future) {
+            try {
+                final Checksum checksum = future.get();
+                if(checksum.algorithm == algorithm) {
+                    return checksum;
+                }
+            }
+            catch(InterruptedException | CancellationException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            catch(ExecutionException e) {
+                if(e.getCause() instanceof BackgroundException) {
+                    throw (BackgroundException) e.getCause();
+                }
+                throw new DefaultExceptionMappingService().map(e.getCause());
+            }
+        }
+        return index.compute(file, algorithm);
+    }
+
+    /**
+     * Cancel pending hashing and save index
+     */
+    public void shutdown() {
+        synchronized(this) {
+            if(pool != null) {
+                pool.shutdown(false);
+                pool = null;
+            }
+        }
+        for(Future<Checksum> future : pending.values()) {
+            future.cancel(true);
+        }
+        pending.clear();
+        index.flush();
+    }
+
+    private synchronized ThreadPool pool() {
+        if(null == pool) {
+            pool = ThreadPoolFactory.get(String.format("%s-checksum", new AlphanumericRandomStringService().random()), concurrency);
+        }
+        return pool;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConcurrentChecksumCompute{");
+        sb.append("index=").append(index);
+        sb.append(", concurrency=").append(concurrency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -31,6 +31,7 @@ import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferListener;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPrompt;
+import ch.cyberduck.core.transfer.TransferSchedulerFactory;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.core.worker.ConcurrentTransferWorker;
 
@@ -176,12 +177,23 @@ public class TransferBackgroundAction extends TransferWorkerBackgroundAction<Boo
         prompt.message(message);
     }
 
+    @Override
+    public void cancel() {
+        super.cancel();
+        // Drop from queue if not yet started
+        TransferSchedulerFactory.get().remove(transfer);
+    }
+
     public void finish() {
         super.finish();
-        progressTimer.cancel(false);
+        if(progressTimer != null) {
+            progressTimer.cancel(false);
+        }
         transfer.stop();
         listener.transferDidStop(transfer);
-        timerPool.shutdown();
+        if(timerPool != null) {
+            timerPool.shutdown();
+        }
     }
 
     @Override
@@ -0,0 +1,83 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Controller;
+import ch.cyberduck.core.transfer.TransferScheduler;
+import ch.cyberduck.core.transfer.TransferSchedulerFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.Future;
+
+/**
+ * Schedule transfer actions with the shared transfer scheduler to wait for a slot without blocking a thread. Other
+ * actions are run with the default executor.
+ */
+public class TransferBackgroundExecutor implements BackgroundExecutor {
+    private static final Logger log = Logger.getLogger(TransferBackgroundExecutor.class);
+
+    private final TransferScheduler scheduler;
+    private final BackgroundExecutor proxy;
+
+    public TransferBackgroundExecutor() {
+        this(TransferSchedulerFactory.get(), DefaultBackgroundExecutor.get());
+    }
+
+    public TransferBackgroundExecutor(final TransferScheduler scheduler, final BackgroundExecutor proxy) {
+        this.scheduler = scheduler;
+        this.proxy = proxy;
+    }
+
+    @Override
+    public <T> Future<T> execute(final Controller controller, final BackgroundActionRegistry registry, final BackgroundAction<T> action) {
+        if(action instanceof TransferBackgroundAction) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Schedule transfer action %s", action));
+            }
+            final TransferBackgroundAction transfer = (TransferBackgroundAction) action;
+            // Add action to registry of controller. Will be removed automatically when stopped
+            registry.add(action);
+            action.init();
+            return scheduler.submit(transfer.getTransfer(), transfer.getTransfer().getPriority(), new BackgroundCallable<T>(action, controller) {
+                @Override
+                public T call() {
+                    if(action.isCanceled()) {
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Finish action %s canceled in queue", action));
+                        }
+                        // Removed from queue before started. Release sessions and update transfer collection
+                        action.finish();
+                        controller.invoke(new ControllerMainAction(controller) {
+                            @Override
+                            public void run() {
+                                action.cleanup();
+                            }
+                        });
+                        return null;
+                    }
+                    return super.call();
+                }
+            }, transfer);
+        }
+        return proxy.execute(controller, registry, action);
+    }
+
+    @Override
+    public void shutdown() {
+        // Scheduler is shared between controllers
+    }
+}
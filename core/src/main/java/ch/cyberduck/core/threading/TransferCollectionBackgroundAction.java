@@ -25,20 +25,15 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferListener;
 import ch.cyberduck.core.transfer.TransferOptions;
-import ch.cyberduck.core.transfer.TransferQueue;
-import ch.cyberduck.core.transfer.TransferQueueFactory;
 
 import org.apache.log4j.Logger;
 
 public class TransferCollectionBackgroundAction extends TransferBackgroundAction {
     private static final Logger log = Logger.getLogger(TransferCollectionBackgroundAction.class);
 
-    private final TransferQueue queue = TransferQueueFactory.get();
-
     private final SessionPool source;
     private final SessionPool destination;
     private final Transfer transfer;
-    private final ProgressListener listener;
 
     public TransferCollectionBackgroundAction(final Controller controller,
                                               final SessionPool source,
@@ -51,15 +46,6 @@ public class TransferCollectionBackgroundAction extends TransferBackgroundAction
         this.source = source;
         this.destination = destination;
         this.transfer = transfer;
-        this.listener = listener;
-    }
-
-    @Override
-    public void prepare() {
-        // Update status to running
-        super.prepare();
-        // Wait for slot in queue
-        queue.add(transfer, listener);
     }
 
     @Override
@@ -68,7 +54,6 @@ public class TransferCollectionBackgroundAction extends TransferBackgroundAction
             log.debug(String.format("Cancel background action for transfer %s", transfer));
         }
         super.cancel();
-        queue.remove(transfer);
     }
 
     @Override
@@ -77,7 +62,6 @@ public class TransferCollectionBackgroundAction extends TransferBackgroundAction
             log.debug(String.format("Finish background action for transfer %s", transfer));
         }
         super.finish();
-        queue.remove(transfer);
         source.shutdown();
         destination.shutdown();
     }
@@ -0,0 +1,230 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Number of concurrent connections for a transfer adjusted from throughput, latency and failures measured in sample
+ * windows. Similar to congestion control the limit is doubled while below the threshold and then increased by one
+ * connection as long as throughput improves. Without improvement connections are removed until throughput drops to
+ * find the smallest number of connections for the maximum throughput. On connection failures the limit is halved
+ * and a failure directly following an increase is assumed to be a connection limit of the server not to exceed again.
+ */
+public class AdaptiveConnectionLimit {
+    private static final Logger log = Logger.getLogger(AdaptiveConnectionLimit.class);
+
+    private enum Direction {
+        increase,
+        decrease,
+        none
+    }
+
+    private static final int MINIMUM = 1;
+
+    private final Speedometer meter;
+
+    /**
+     * Minimum duration of sample window in milliseconds
+     */
+    private final long interval;
+    /**
+     * Minimum relative throughput improvement to keep an added connection
+     */
+    private final double gain;
+    /**
+     * Number of sample windows to keep limit after finding best number of connections or failure
+     */
+    private final int hold;
+
+    private int limit;
+    /**
+     * Maximum number of connections allowed by configuration or learned from failures
+     */
+    private int ceiling;
+    private int threshold;
+
+    private long timestamp;
+    private Direction direction = Direction.none;
+    private int holding = 0;
+
+    /**
+     * Throughput in bytes per millisecond of previous sample window
+     */
+    private double throughput = 0d;
+    /**
+     * Average task duration in milliseconds of previous sample window
+     */
+    private double latency = 0d;
+
+    private int failures = 0;
+    private int completed = 0;
+    private long duration = 0L;
+
+    public AdaptiveConnectionLimit(final int initial, final int maximum) {
+        this(initial, maximum, System.currentTimeMillis(),
+            PreferencesFactory.get().getLong("queue.connections.adaptive.interval"),
+            PreferencesFactory.get().getDouble("queue.connections.adaptive.gain"),
+            PreferencesFactory.get().getInteger("queue.connections.adaptive.hold"));
+    }
+
+    /**
+     * @param initial   Initial number of connections
+     * @param maximum   Maximum number of connections
+     * @param timestamp Start of first sample window
+     * @param interval  Minimum duration of sample window in milliseconds
+     * @param gain      Minimum relative throughput improvement to keep an added connection
+     * @param hold      Number of sample windows to keep limit after finding best number of connections or failure
+     */
+    public AdaptiveConnectionLimit(final int initial, final int maximum, final long timestamp,
+                                   final long interval, final double gain, final int hold) {
+        this.ceiling = Math.max(MINIMUM, maximum);
+        this.limit = Math.max(MINIMUM, Math.min(initial, ceiling));
+        this.threshold = ceiling;
+        this.timestamp = timestamp;
+        this.interval = interval;
+        this.gain = gain;
+        this.hold = hold;
+        this.meter = new Speedometer(timestamp, false);
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param duration Time in milliseconds to complete task
+     */
+    public synchronized void success(final long duration) {
+        this.completed++;
+        this.duration += duration;
+    }
+
+    /**
+     * Connection failure or throttling by server
+     */
+    public synchronized void failure() {
+        this.failures++;
+    }
+
+    /**
+     * Adjust limit if sample window has elapsed
+     *
+     * @param time        Current timestamp
+     * @param transferred Bytes transferred in total
+     * @return Number of connections to use
+     */
+    public synchronized int sample(final long time, final long transferred) {
+        if(time - timestamp < interval) {
+            return limit;
+        }
+        final double speed = meter.getSpeed(time, transferred, true);
+        final double average = completed > 0 ? (double) duration / completed : latency;
+        timestamp = time;
+        final int previous = limit;
+        if(failures > 0) {
+            if(direction == Direction.increase) {
+                // Added connection exceeds limit of server
+                ceiling = Math.max(MINIMUM, limit - 1);
+                limit = ceiling;
+            }
+            else {
+                limit = Math.max(MINIMUM, limit / 2);
+            }
+            threshold = limit;
+            direction = Direction.none;
+            holding = hold;
+        }
+        else if(speed == 0d && completed == 0) {
+            // Idle
+            direction = Direction.none;
+        }
+        else if(holding > 0) {
+            holding--;
+            direction = Direction.none;
+        }
+        else if(direction == Direction.increase) {
+            if(speed < throughput * (1 + gain)) {
+                // No improvement with added connection. Look for smaller number of connections with same throughput
+                limit = Math.max(MINIMUM, limit - 1);
+                threshold = limit;
+                direction = Direction.decrease;
+            }
+            else {
+                this.increase();
+            }
+        }
+        else if(direction == Direction.decrease) {
+            if(speed < throughput * (1 - gain)) {
+                // Throughput dropped with removed connection
+                limit = Math.min(ceiling, limit + 1);
+                threshold = limit;
+                direction = Direction.none;
+                holding = hold;
+            }
+            else if(limit > MINIMUM) {
+                limit--;
+            }
+            else {
+                direction = Direction.none;
+            }
+        }
+        else if(latency > 0d && average > latency * 2 && speed <= throughput) {
+            // Queuing delay without throughput improvement
+            limit = Math.max(MINIMUM, limit - 1);
+            threshold = limit;
+            direction = Direction.decrease;
+        }
+        else {
+            this.increase();
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Sample with %.1f bytes/ms, %.1f ms latency and %d failures changed limit from %d to %d",
+                speed, average, failures, previous, limit));
+        }
+        throughput = speed;
+        latency = average;
+        failures = 0;
+        completed = 0;
+        duration = 0L;
+        return limit;
+    }
+
+    /**
+     * Double number of connections below threshold and add single connection otherwise
+     */
+    private void increase() {
+        if(limit < ceiling) {
+            limit = limit < threshold ? Math.min(Math.min(threshold, ceiling), limit * 2) : limit + 1;
+            direction = Direction.increase;
+        }
+        else {
+            direction = Direction.none;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AdaptiveConnectionLimit{");
+        sb.append("limit=").append(limit);
+        sb.append(", ceiling=").append(ceiling);
+        sb.append(", threshold=").append(threshold);
+        sb.append('}');
+        return sb.toString();
+    }
+}
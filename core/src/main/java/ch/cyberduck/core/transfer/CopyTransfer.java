@@ -117,6 +117,7 @@ public class CopyTransfer extends Transfer {
         if(bandwidth != null) {
             dict.setStringForKey(String.valueOf(bandwidth.getRate()), "Bandwidth");
         }
+        dict.setStringForKey(priority.name(), "Priority");
         return dict.getSerialized();
     }
 
@@ -19,6 +19,7 @@ package ch.cyberduck.core.transfer;
 
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ChangesListService;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.Host;
@@ -30,9 +31,13 @@ import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.RecursiveListPartitioner;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
 import ch.cyberduck.core.features.Bulk;
+import ch.cyberduck.core.features.Changes;
 import ch.cyberduck.core.features.Download;
 import ch.cyberduck.core.filter.DownloadDuplicateFilter;
 import ch.cyberduck.core.filter.DownloadRegexFilter;
@@ -64,6 +69,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DownloadTransfer extends Transfer {
     private static final Logger log = Logger.getLogger(DownloadTransfer.class);
@@ -77,6 +83,12 @@ public class DownloadTransfer extends Transfer {
 
     private final DownloadSymlinkResolver symlinkResolver;
 
+    /**
+     * Listings of subdirectories obtained from recursive listing not yet requested. Only kept for a single run.
+     */
+    private final Map<Path, AttributedList<Path>> prefetched
+        = new ConcurrentHashMap<>();
+
     private DownloadFilterOptions options;
 
     public DownloadTransfer(final Host host, final Path root, final Local local) {
@@ -135,11 +147,11 @@ public class DownloadTransfer extends Transfer {
         }
         else {
             final AttributedList<Path> list;
-            if(cache.isCached(directory)) {
+            if(cache.isValid(directory)) {
                 list = cache.get(directory);
             }
             else {
-                list = session.getFeature(ListService.class).list(directory, listener);
+                list = this.list(session, directory, listener);
                 cache.put(directory, list);
             }
             final List<TransferItem> children = new ArrayList<TransferItem>();
@@ -151,6 +163,44 @@ public class DownloadTransfer extends Transfer {
         }
     }
 
+    /**
+     * List all subdirectories at once if supported by the protocol
+     */
+    private AttributedList<Path> list(final Session<?> session, final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> list = prefetched.remove(directory);
+        if(null != list) {
+            return list;
+        }
+        final Changes changes = PreferencesFactory.get().getBoolean("browser.cache.changes.enable") ?
+            session.getFeature(Changes.class) : null;
+        if(null != changes && cache.isCached(directory)) {
+            // Update listing from previous run with changes only
+            return new ChangesListService(session.getFeature(ListService.class), changes).withCache(cache).list(directory, listener);
+        }
+        final RecursiveListService feature = session.getFeature(RecursiveListService.class);
+        if(null != feature) {
+            try {
+                final Map<Path, AttributedList<Path>> listings = new RecursiveListPartitioner().partition(directory,
+                    feature.list(directory, listener));
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Recursive listing of %s with %d directories", directory, listings.size()));
+                }
+                prefetched.putAll(listings);
+                return prefetched.remove(directory);
+            }
+            catch(UnsupportedException e) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Recursive listing not supported for %s", directory));
+                }
+            }
+        }
+        if(null != changes) {
+            // Save cursor with listing
+            return new ChangesListService(session.getFeature(ListService.class), changes).withCache(cache).list(directory, listener);
+        }
+        return session.getFeature(ListService.class).list(directory, listener);
+    }
+
     @Override
     public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
         final DownloadFilterOptions o = (null == options ? new DownloadFilterOptions() : options);
@@ -228,6 +278,8 @@ public class DownloadTransfer extends Transfer {
     @Override
     public void stop() {
         cache.clear();
+        // Discard listings not requested in this run
+        prefetched.clear();
         super.stop();
     }
 
@@ -245,6 +297,7 @@ public class DownloadTransfer extends Transfer {
     public void post(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
         final Bulk<?> feature = source.getFeature(Bulk.class);
         feature.post(Type.download, files, callback);
+        prefetched.clear();
         super.post(source, destination, files, callback);
     }
 
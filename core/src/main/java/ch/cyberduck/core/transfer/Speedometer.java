@@ -28,6 +28,7 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Speedometer {
 
@@ -37,14 +38,9 @@ public class Speedometer {
     private SizeFormatter sizeFormatter = SizeFormatterFactory.get();
 
     /**
-     * The time to start counting bytes transferred
+     * The time to start counting bytes transferred and initial data already transferred
      */
-    private long timestamp;
-
-    /**
-     * Initial data already transferred
-     */
-    private long last = 0L;
+    private final AtomicReference<Sample> sample;
 
     /**
      * Formatter for remaining time
@@ -57,11 +53,10 @@ public class Speedometer {
 
     public Speedometer(final long timestamp) {
         this(timestamp, PreferencesFactory.get().getBoolean("browser.filesize.decimal"));
-        this.timestamp = timestamp;
     }
 
     public Speedometer(final long timestamp, final boolean decimal) {
-        this.timestamp = timestamp;
+        this.sample = new AtomicReference<>(new Sample(timestamp, 0L));
         this.sizeFormatter = SizeFormatterFactory.get(decimal);
     }
 
@@ -90,18 +85,22 @@ public class Speedometer {
      * @return Bytes transferred in period
      */
     protected Double getSpeed(final long time, final long transferred, final boolean reset) {
-        // Number of seconds data was actually transferred
-        final long elapsed = time - timestamp;
-        if(elapsed > 0) {
-            final long differential = transferred - last;
+        while(true) {
+            final Sample previous = sample.get();
+            // Number of seconds data was actually transferred
+            final long elapsed = time - previous.timestamp;
+            if(elapsed <= 0) {
+                return 0d;
+            }
             // No reset for overall speed
-            if(reset) {
-                this.reset(time, transferred);
+            if(reset && !sample.compareAndSet(previous, new Sample(time, transferred))) {
+                // Concurrent reset
+                continue;
             }
+            final long differential = transferred - previous.transferred;
             // The throughput is usually measured in bits per second
             return (double) differential / elapsed;
         }
-        return 0d;
     }
 
     /**
@@ -164,7 +163,16 @@ public class Speedometer {
     }
 
     public void reset(final Long timestamp, final Long transferred) {
-        this.timestamp = timestamp;
-        this.last = transferred;
+        sample.set(new Sample(timestamp, transferred));
+    }
+
+    private static final class Sample {
+        private final long timestamp;
+        private final long transferred;
+
+        public Sample(final long timestamp, final long transferred) {
+            this.timestamp = timestamp;
+            this.transferred = transferred;
+        }
     }
 }
@@ -0,0 +1,764 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Acl;
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.VersionId;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.local.TemporaryFileServiceFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transfer status table keeping a bounded working set in memory. When the working set exceeds the threshold, entries
+ * updated with a completed transfer status are written to an append only file and read back on lookup. Both key and
+ * status are written to disk with only the hash code of the key and the offset of the record kept in memory. The
+ * remote file of the key is read back with the attributes compared when preparing a transfer. Items pending or in
+ * progress are never written to disk as their status is still referenced and modified by the transfer worker. Entries
+ * for symbolic links, files in a vault or referencing an access control list, metadata, nonce generator or lock are
+ * kept in memory as well. The working set is a concurrent map read and updated without locking with only access to
+ * entries on disk serialized. Failure writing to disk keeps all further entries in memory.
+ */
+public class SpillingTransferStatusMap extends AbstractMap<TransferItem, TransferStatus> {
+    private static final Logger log = Logger.getLogger(SpillingTransferStatusMap.class);
+
+    /**
+     * Number of entries in memory before completed entries are written to disk
+     */
+    private final int threshold;
+    /**
+     * Working set
+     */
+    private final Map<TransferItem, TransferStatus> memory = new ConcurrentHashMap<>();
+    /**
+     * Keys in working set updated with completed status
+     */
+    private final Set<TransferItem> completed = ConcurrentHashMap.newKeySet();
+    /**
+     * Guards entries written to disk
+     */
+    private final Object lock = new Object();
+    /**
+     * Hash code of keys of entries written to disk with offsets of records in store
+     */
+    private final Map<Integer, long[]> offsets = new HashMap<>();
+    /**
+     * Number of entries written to disk. Incremented before the entry is removed from the working set
+     */
+    private volatile int spilled;
+    /**
+     * Set when writing to disk failed
+     */
+    private volatile boolean failure;
+    private final Local file;
+
+    private RandomAccessFile store;
+
+    public SpillingTransferStatusMap(final int threshold) {
+        this(threshold, TemporaryFileServiceFactory.get().create(new AlphanumericRandomStringService().random()));
+    }
+
+    public SpillingTransferStatusMap(final int threshold, final Local file) {
+        this.threshold = threshold;
+        this.file = file;
+    }
+
+    /**
+     * @throws UncheckedIOException Failure reading replaced entry from disk
+     */
+    @Override
+    public TransferStatus put(final TransferItem key, final TransferStatus value) {
+        TransferStatus previous = memory.put(key, value);
+        if(value.isComplete()) {
+            completed.add(key);
+        }
+        else {
+            completed.remove(key);
+        }
+        if(null == previous && spilled > 0) {
+            synchronized(lock) {
+                // Replace entry on disk
+                previous = value(this.find(key, true));
+            }
+        }
+        if(memory.size() >= threshold && !failure) {
+            this.spill();
+        }
+        return previous;
+    }
+
+    @Override
+    public TransferStatus replace(final TransferItem key, final TransferStatus value) {
+        if(this.containsKey(key)) {
+            return this.put(key, value);
+        }
+        return null;
+    }
+
+    /**
+     * @throws UncheckedIOException Failure reading entry from disk
+     */
+    @Override
+    public TransferStatus get(final Object key) {
+        final TransferStatus status = memory.get(key);
+        if(null != status) {
+            return status;
+        }
+        if(0 == spilled) {
+            return null;
+        }
+        synchronized(lock) {
+            return value(this.find(key, false));
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException Failure reading entry from disk
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        if(memory.containsKey(key)) {
+            return true;
+        }
+        if(0 == spilled) {
+            return false;
+        }
+        synchronized(lock) {
+            return null != this.find(key, false);
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException Failure reading entry from disk
+     */
+    @Override
+    public TransferStatus remove(final Object key) {
+        final TransferStatus status = memory.remove(key);
+        if(null != status) {
+            completed.remove(key);
+            return status;
+        }
+        if(0 == spilled) {
+            return null;
+        }
+        synchronized(lock) {
+            return value(this.find(key, true));
+        }
+    }
+
+    @Override
+    public int size() {
+        return memory.size() + spilled;
+    }
+
+    @Override
+    public void clear() {
+        synchronized(lock) {
+            memory.clear();
+            completed.clear();
+            offsets.clear();
+            spilled = 0;
+            failure = false;
+            if(null != store) {
+                try {
+                    store.close();
+                }
+                catch(IOException e) {
+                    log.warn(String.format("Failure closing %s. %s", file, e.getMessage()));
+                }
+                store = null;
+                try {
+                    file.delete();
+                }
+                catch(AccessDeniedException | NotfoundException e) {
+                    log.warn(String.format("Failure deleting %s. %s", file, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<TransferItem, TransferStatus>> entrySet() {
+        return new AbstractSet<Entry<TransferItem, TransferStatus>>() {
+            @Override
+            public Iterator<Entry<TransferItem, TransferStatus>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return SpillingTransferStatusMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * @return Number of entries written to disk
+     */
+    public int getSpilled() {
+        return spilled;
+    }
+
+    private static TransferStatus value(final Entry<TransferItem, TransferStatus> entry) {
+        return null == entry ? null : entry.getValue();
+    }
+
+    /**
+     * Must be called holding lock
+     *
+     * @param key    Key of entry
+     * @param remove Remove entry from disk if found
+     * @return Entry read from disk or null if not written to disk
+     */
+    private Entry<TransferItem, TransferStatus> find(final Object key, final boolean remove) {
+        if(null == key) {
+            return null;
+        }
+        final long[] candidates = offsets.get(key.hashCode());
+        if(null == candidates) {
+            return null;
+        }
+        for(long offset : candidates) {
+            final Entry<TransferItem, TransferStatus> entry = this.read(offset);
+            if(key.equals(entry.getKey())) {
+                if(remove) {
+                    this.unindex(key, offset);
+                    spilled--;
+                }
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void index(final Object key, final long offset) {
+        final long[] candidates = offsets.get(key.hashCode());
+        if(null == candidates) {
+            offsets.put(key.hashCode(), new long[]{offset});
+        }
+        else {
+            final long[] extended = Arrays.copyOf(candidates, candidates.length + 1);
+            extended[candidates.length] = offset;
+            offsets.put(key.hashCode(), extended);
+        }
+    }
+
+    private void unindex(final Object key, final long offset) {
+        final long[] candidates = offsets.get(key.hashCode());
+        if(null == candidates) {
+            return;
+        }
+        if(candidates.length == 1) {
+            offsets.remove(key.hashCode());
+        }
+        else {
+            final long[] remaining = new long[candidates.length - 1];
+            for(int i = 0, j = 0; i < candidates.length; i++) {
+                if(candidates[i] != offset) {
+                    remaining[j++] = candidates[i];
+                }
+            }
+            offsets.put(key.hashCode(), remaining);
+        }
+    }
+
+    /**
+     * Write entries updated with completed status from working set to disk
+     */
+    private void spill() {
+        synchronized(lock) {
+            if(memory.size() < threshold) {
+                // Written by concurrent caller
+                return;
+            }
+            int count = 0;
+            for(Iterator<TransferItem> iter = completed.iterator(); iter.hasNext(); ) {
+                final TransferItem key = iter.next();
+                iter.remove();
+                final TransferStatus status = memory.get(key);
+                if(null == status || !status.isComplete()) {
+                    continue;
+                }
+                if(!isSpillable(key) || !isSpillable(status)) {
+                    continue;
+                }
+                final long offset;
+                try {
+                    offset = this.write(key, status);
+                }
+                catch(IOException e) {
+                    log.warn(String.format("Failure writing to %s. Keep entries in memory. %s", file, e.getMessage()));
+                    completed.add(key);
+                    failure = true;
+                    break;
+                }
+                // Readable from disk before removed from working set
+                this.index(key, offset);
+                spilled++;
+                if(!memory.remove(key, status)) {
+                    // Replaced or removed concurrently
+                    this.unindex(key, offset);
+                    spilled--;
+                    continue;
+                }
+                count++;
+            }
+            if(count > 0) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Wrote %d completed entries to %s with %d entries remaining in memory", count, file, memory.size()));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Offset of record in store
+     */
+    private long write(final TransferItem key, final TransferStatus status) throws IOException {
+        if(null == store) {
+            store = new RandomAccessFile(file.getAbsolute(), "rw");
+        }
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(buffer);
+        this.write(out, key);
+        this.write(out, status);
+        out.flush();
+        final long offset = store.length();
+        store.seek(offset);
+        store.writeInt(buffer.size());
+        store.write(buffer.toByteArray());
+        return offset;
+    }
+
+    private Entry<TransferItem, TransferStatus> read(final long offset) {
+        try {
+            store.seek(offset);
+            final byte[] record = new byte[store.readInt()];
+            store.readFully(record);
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            final TransferItem key = this.readItem(in);
+            return new SimpleImmutableEntry<>(key, this.readStatus(in));
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return False if key references attributes that are not written to disk
+     */
+    private static boolean isSpillable(final TransferItem key) {
+        if(null == key.remote || key.remote.isSymbolicLink()) {
+            return false;
+        }
+        final PathAttributes attributes = key.remote.attributes();
+        if(attributes.getVault() != null || attributes.getDecrypted() != null || attributes.getEncrypted() != null
+            || attributes.getDirectoryId() != null) {
+            // Required to resolve file in vault
+            return false;
+        }
+        if(attributes.getAcl() != Acl.EMPTY || !attributes.getMetadata().isEmpty() || !attributes.getCustom().isEmpty()) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return False if status references state that cannot be written to disk
+     */
+    private static boolean isSpillable(final TransferStatus status) {
+        if(status.getAcl() != Acl.EMPTY) {
+            return false;
+        }
+        if(status.getNonces() != null || status.getLockId() != null) {
+            return false;
+        }
+        if(status.isSegmented()) {
+            for(TransferStatus segment : status.getSegments()) {
+                if(!isSpillable(segment)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void write(final DataOutputStream out, final TransferItem item) throws IOException {
+        this.write(out, item.remote);
+        this.write(out, item.remote.attributes());
+        this.writeNullable(out, item.remote.attributes().getRegion());
+        this.writeNullable(out, item.local);
+        this.writeNullable(out, item.lockId);
+        this.write(out, null == item.checksum ? Checksum.NONE : item.checksum);
+    }
+
+    private TransferItem readItem(final DataInputStream in) throws IOException {
+        final Path file = this.readPath(in);
+        PathAttributes attributes = this.readAttributes(in);
+        if(PathAttributes.EMPTY == attributes) {
+            attributes = new PathAttributes();
+        }
+        attributes.setRegion(this.readNullable(in));
+        final String local = this.readNullable(in);
+        return new TransferItem(new Path(file.getAbsolute(), file.getType(), attributes),
+            null == local ? null : LocalFactory.get(local), this.readNullable(in), this.readChecksum(in));
+    }
+
+    private void write(final DataOutputStream out, final TransferStatus status) throws IOException {
+        out.writeLong(status.getLength());
+        out.writeLong(status.getOffset());
+        out.writeBoolean(status.isExists());
+        out.writeBoolean(status.isAppend());
+        out.writeBoolean(status.isSegment());
+        out.writeBoolean(status.isPositional());
+        out.writeBoolean(status.isRejected());
+        out.writeBoolean(status.isHidden());
+        out.writeBoolean(status.isComplete());
+        this.writeNullable(out, status.getRename().remote);
+        this.writeNullable(out, status.getRename().local);
+        this.writeNullable(out, status.getDisplayname().remote);
+        this.writeNullable(out, status.getDisplayname().local);
+        this.write(out, status.getChecksum());
+        this.writeNullable(out, status.getMime());
+        this.write(out, status.getRemote());
+        this.write(out, status.getPermission());
+        this.writeNullable(out, status.getEncryption().algorithm);
+        this.writeNullable(out, status.getEncryption().key);
+        this.writeNullable(out, status.getStorageClass());
+        out.writeBoolean(null != status.getTimestamp());
+        if(null != status.getTimestamp()) {
+            out.writeLong(status.getTimestamp());
+        }
+        this.write(out, status.getParameters());
+        this.write(out, status.getMetadata());
+        out.writeBoolean(null != status.getPart());
+        if(null != status.getPart()) {
+            out.writeInt(status.getPart());
+        }
+        this.write(out, status.getHeader());
+        this.write(out, status.getFilekey());
+        out.writeBoolean(null != status.getVersion());
+        if(null != status.getVersion()) {
+            this.writeNullable(out, status.getVersion().id);
+        }
+        out.writeInt(status.isSegmented() ? status.getSegments().size() : 0);
+        if(status.isSegmented()) {
+            for(TransferStatus segment : status.getSegments()) {
+                this.write(out, segment);
+            }
+        }
+    }
+
+    private TransferStatus readStatus(final DataInputStream in) throws IOException {
+        final TransferStatus status = new TransferStatus().length(in.readLong());
+        status.setOffset(in.readLong());
+        status.setExists(in.readBoolean());
+        status.setAppend(in.readBoolean());
+        status.setSegment(in.readBoolean());
+        status.setPositional(in.readBoolean());
+        status.setRejected(in.readBoolean());
+        status.setHidden(in.readBoolean());
+        if(in.readBoolean()) {
+            status.setComplete();
+        }
+        else {
+            status.setFailure();
+        }
+        if(in.readBoolean()) {
+            status.rename(this.readPath(in));
+        }
+        final String rename = this.readNullable(in);
+        if(null != rename) {
+            status.rename(LocalFactory.get(rename));
+        }
+        if(in.readBoolean()) {
+            status.withDisplayname(this.readPath(in));
+        }
+        final String displayname = this.readNullable(in);
+        if(null != displayname) {
+            status.withDisplayname(LocalFactory.get(displayname));
+        }
+        status.setChecksum(this.readChecksum(in));
+        status.setMime(this.readNullable(in));
+        status.setRemote(this.readAttributes(in));
+        status.setPermission(this.readPermission(in));
+        final String algorithm = this.readNullable(in);
+        final String key = this.readNullable(in);
+        if(null != algorithm || null != key) {
+            status.setEncryption(new Encryption.Algorithm(algorithm, key));
+        }
+        status.setStorageClass(this.readNullable(in));
+        if(in.readBoolean()) {
+            status.setTimestamp(in.readLong());
+        }
+        status.setParameters(this.readMap(in));
+        status.setMetadata(this.readMap(in));
+        if(in.readBoolean()) {
+            status.setPart(in.readInt());
+        }
+        status.setHeader(this.readBuffer(in));
+        status.setFilekey(this.readBuffer(in));
+        if(in.readBoolean()) {
+            status.setVersion(new VersionId(this.readNullable(in)));
+        }
+        final int segments = in.readInt();
+        if(segments > 0) {
+            final List<TransferStatus> list = new ArrayList<>(segments);
+            for(int i = 0; i < segments; i++) {
+                list.add(this.readStatus(in));
+            }
+            status.withSegments(list);
+        }
+        return status;
+    }
+
+    private void write(final DataOutputStream out, final Path file) throws IOException {
+        out.writeUTF(file.getAbsolute());
+        int type = 0;
+        for(Path.Type t : file.getType()) {
+            type |= 1 << t.ordinal();
+        }
+        out.writeInt(type);
+        out.writeUTF(StringUtils.defaultString(file.attributes().getVersionId()));
+    }
+
+    private Path readPath(final DataInputStream in) throws IOException {
+        final String remote = in.readUTF();
+        final int bits = in.readInt();
+        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+        for(Path.Type t : Path.Type.values()) {
+            if((bits & 1 << t.ordinal()) != 0) {
+                type.add(t);
+            }
+        }
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setVersionId(StringUtils.trimToNull(in.readUTF()));
+        return new Path(remote, type, attributes);
+    }
+
+    private void writeNullable(final DataOutputStream out, final Path file) throws IOException {
+        out.writeBoolean(null != file);
+        if(null != file) {
+            this.write(out, file);
+        }
+    }
+
+    private void writeNullable(final DataOutputStream out, final Local file) throws IOException {
+        this.writeNullable(out, null == file ? null : file.getAbsolute());
+    }
+
+    private void writeNullable(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(null != value);
+        if(null != value) {
+            out.writeUTF(value);
+        }
+    }
+
+    private String readNullable(final DataInputStream in) throws IOException {
+        if(in.readBoolean()) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    private void write(final DataOutputStream out, final Checksum checksum) throws IOException {
+        this.writeNullable(out, null == checksum.algorithm ? null : checksum.algorithm.name());
+        this.writeNullable(out, checksum.hash);
+    }
+
+    private Checksum readChecksum(final DataInputStream in) throws IOException {
+        final String algorithm = this.readNullable(in);
+        final String hash = this.readNullable(in);
+        if(null == algorithm && null == hash) {
+            return Checksum.NONE;
+        }
+        return new Checksum(null == algorithm ? null : HashAlgorithm.valueOf(algorithm), hash);
+    }
+
+    /**
+     * Remote attributes are only read when preparing the transfer and are reduced to the properties compared
+     * with the local file
+     */
+    private void write(final DataOutputStream out, final PathAttributes attributes) throws IOException {
+        out.writeBoolean(attributes != PathAttributes.EMPTY);
+        if(attributes != PathAttributes.EMPTY) {
+            out.writeLong(attributes.getSize());
+            out.writeLong(attributes.getModificationDate());
+            this.write(out, attributes.getChecksum());
+            this.writeNullable(out, attributes.getVersionId());
+            this.writeNullable(out, attributes.getETag());
+            this.write(out, attributes.getPermission());
+        }
+    }
+
+    private PathAttributes readAttributes(final DataInputStream in) throws IOException {
+        if(!in.readBoolean()) {
+            return PathAttributes.EMPTY;
+        }
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setSize(in.readLong());
+        attributes.setModificationDate(in.readLong());
+        attributes.setChecksum(this.readChecksum(in));
+        attributes.setVersionId(this.readNullable(in));
+        attributes.setETag(this.readNullable(in));
+        attributes.setPermission(this.readPermission(in));
+        return attributes;
+    }
+
+    private void write(final DataOutputStream out, final Permission permission) throws IOException {
+        this.writeNullable(out, permission == Permission.EMPTY ? null : permission.getMode());
+    }
+
+    private Permission readPermission(final DataInputStream in) throws IOException {
+        final String mode = this.readNullable(in);
+        return null == mode ? Permission.EMPTY : new Permission(mode);
+    }
+
+    private void write(final DataOutputStream out, final Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for(Entry<String, String> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            this.writeNullable(out, entry.getValue());
+        }
+    }
+
+    private Map<String, String> readMap(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        if(0 == size) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> map = new LinkedHashMap<>(size);
+        for(int i = 0; i < size; i++) {
+            map.put(in.readUTF(), this.readNullable(in));
+        }
+        return map;
+    }
+
+    private void write(final DataOutputStream out, final ByteBuffer buffer) throws IOException {
+        out.writeBoolean(null != buffer);
+        if(null != buffer) {
+            final ByteBuffer copy = buffer.duplicate();
+            copy.clear();
+            final byte[] content = new byte[copy.capacity()];
+            copy.get(content);
+            out.writeInt(content.length);
+            out.write(content);
+            out.writeInt(buffer.position());
+            out.writeInt(buffer.limit());
+        }
+    }
+
+    private ByteBuffer readBuffer(final DataInputStream in) throws IOException {
+        if(!in.readBoolean()) {
+            return null;
+        }
+        final byte[] content = new byte[in.readInt()];
+        in.readFully(content);
+        final ByteBuffer buffer = ByteBuffer.wrap(content);
+        final int position = in.readInt();
+        buffer.limit(in.readInt());
+        buffer.position(position);
+        return buffer;
+    }
+
+    /**
+     * Iterate over snapshot of working set followed by entries on disk
+     */
+    private final class EntryIterator implements Iterator<Entry<TransferItem, TransferStatus>> {
+        private final Iterator<Entry<TransferItem, TransferStatus>> hot;
+        private final long[] cold;
+        private int cursor;
+
+        public EntryIterator() {
+            synchronized(lock) {
+                final List<Entry<TransferItem, TransferStatus>> snapshot = new ArrayList<>(memory.size());
+                for(Entry<TransferItem, TransferStatus> entry : memory.entrySet()) {
+                    snapshot.add(new SimpleImmutableEntry<>(entry));
+                }
+                this.hot = snapshot.iterator();
+                this.cold = new long[spilled];
+                int i = 0;
+                for(long[] candidates : offsets.values()) {
+                    for(long offset : candidates) {
+                        cold[i++] = offset;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hot.hasNext() || cursor < cold.length;
+        }
+
+        @Override
+        public Entry<TransferItem, TransferStatus> next() {
+            if(hot.hasNext()) {
+                return hot.next();
+            }
+            if(cursor < cold.length) {
+                synchronized(lock) {
+                    return read(cold[cursor++]);
+                }
+            }
+            throw new NoSuchElementException();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SpillingTransferStatusMap{");
+        sb.append("file=").append(file);
+        sb.append(", memory=").append(memory.size());
+        sb.append(", spilled=").append(spilled);
+        sb.append('}');
+        return sb.toString();
+    }
+}
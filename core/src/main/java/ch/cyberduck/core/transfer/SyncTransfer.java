@@ -31,13 +31,16 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.serializer.Serializer;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.synchronization.CachingComparisonServiceFilter;
+import ch.cyberduck.core.synchronization.ChecksumIndex;
 import ch.cyberduck.core.synchronization.Comparison;
 import ch.cyberduck.core.synchronization.ComparisonServiceFilter;
+import ch.cyberduck.core.synchronization.ConcurrentChecksumCompute;
 import ch.cyberduck.core.transfer.synchronisation.SynchronizationPathFilter;
 
 import org.apache.commons.collections4.map.LRUMap;
@@ -76,6 +79,12 @@ public class SyncTransfer extends Transfer {
     private final Map<TransferItem, Comparison> comparisons = Collections.synchronizedMap(new LRUMap<TransferItem, Comparison>(
         PreferencesFactory.get().getInteger("transfer.cache.size")));
 
+    /**
+     * Hash local files ahead of comparison with checksums saved from previous runs
+     */
+    private final ConcurrentChecksumCompute checksums = PreferencesFactory.get().getBoolean("queue.sync.checksum.index.enable") ?
+        new ConcurrentChecksumCompute(new ChecksumIndex()) : null;
+
     public SyncTransfer(final Host host, final TransferItem item) {
         this(host, item, TransferAction.callback);
     }
@@ -124,6 +133,7 @@ public class SyncTransfer extends Transfer {
         if(action != null) {
             dict.setStringForKey(action.name(), "Action");
         }
+        dict.setStringForKey(priority.name(), "Priority");
         return dict.getSerialized();
     }
 
@@ -158,7 +168,7 @@ public class SyncTransfer extends Transfer {
         // Set chosen action (upload, download, mirror) from prompt
         return new SynchronizationPathFilter(
             comparison = new CachingComparisonServiceFilter(
-                new ComparisonServiceFilter(source, source.getHost().getTimezone(), listener).withCache(cache)
+                new ComparisonServiceFilter(source, source.getHost().getTimezone(), listener).withCache(cache).withChecksums(checksums)
             ).withCache(comparisons),
             download.filter(source, destination, TransferAction.overwrite, listener),
             upload.filter(source, destination, TransferAction.overwrite, listener),
@@ -198,9 +208,35 @@ public class SyncTransfer extends Transfer {
         if(local.exists()) {
             children.addAll(upload.list(session, directory, local, listener));
         }
+        if(checksums != null) {
+            for(TransferItem child : children) {
+                this.prefetch(child);
+            }
+        }
         return new ArrayList<TransferItem>(children);
     }
 
+    /**
+     * Start hashing local file if comparison will require its checksum
+     */
+    private void prefetch(final TransferItem item) {
+        if(!item.remote.isFile()) {
+            return;
+        }
+        final Checksum checksum = item.remote.attributes().getChecksum();
+        if(Checksum.NONE == checksum) {
+            return;
+        }
+        if(!item.local.exists()) {
+            return;
+        }
+        if(item.remote.attributes().getSize() != item.local.attributes().getSize()) {
+            // Decided by size without checksum
+            return;
+        }
+        checksums.prefetch(item.local, checksum.algorithm);
+    }
+
     @Override
     public TransferAction action(final Session<?> source, final Session<?> destination, final boolean resumeRequested, final boolean reloadRequested,
                                  final TransferPrompt prompt, final ListProgressListener listener) {
@@ -256,8 +292,19 @@ public class SyncTransfer extends Transfer {
     public void stop() {
         download.stop();
         upload.stop();
-        cache.clear();
+        for(Path directory : new ArrayList<>(cache.asMap().keySet())) {
+            if(null == cache.get(directory).attributes().getCursor()) {
+                cache.remove(directory);
+            }
+            else {
+                // Keep to update with changes only in next run
+                cache.invalidate(directory);
+            }
+        }
         comparisons.clear();
+        if(checksums != null) {
+            checksums.shutdown();
+        }
         super.stop();
     }
 
@@ -49,10 +49,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class Transfer implements Serializable {
     private static final Logger log = Logger.getLogger(Transfer.class);
 
+    private static final AtomicReferenceFieldUpdater<Transfer, LongAdder> TRANSFERRED
+        = AtomicReferenceFieldUpdater.newUpdater(Transfer.class, LongAdder.class, "transferred");
+
     /**
      * Files and folders initially selected to be part of this transfer
      */
@@ -66,7 +71,7 @@ public abstract class Transfer implements Serializable {
     /**
      * The number bytes already transferred of the files in the <code>queue</code> or null if unknown
      */
-    private AtomicLong transferred;
+    private volatile LongAdder transferred;
 
     private final Map<Local, Object> locks = new HashMap<>();
 
@@ -115,6 +120,10 @@ public abstract class Transfer implements Serializable {
      */
     protected BandwidthThrottle bandwidth;
 
+    /**
+     * Order in transfer queue and weight of share in global bandwidth
+     */
+    protected TransferScheduler.Priority priority = TransferScheduler.Priority.normal;
 
     /**
      * The transfer has been reset
@@ -189,6 +198,7 @@ public abstract class Transfer implements Serializable {
         if(bandwidth != null) {
             dict.setStringForKey(String.valueOf(bandwidth.getRate()), "Bandwidth");
         }
+        dict.setStringForKey(priority.name(), "Priority");
         return dict.getSerialized();
     }
 
@@ -213,6 +223,14 @@ public abstract class Transfer implements Serializable {
         return bandwidth;
     }
 
+    public TransferScheduler.Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(final TransferScheduler.Priority priority) {
+        this.priority = priority;
+    }
+
     /**
      * @return Time when transfer did end
      */
@@ -321,10 +339,14 @@ public abstract class Transfer implements Serializable {
                 switch(this.getType()) {
                     case download:
                         final Local directory = item.local.getParent();
-                        locks.put(directory, directory.lock(true));
+                        if(!locks.containsKey(directory)) {
+                            locks.put(directory, directory.lock(true));
+                        }
                         break;
                     case upload:
-                        locks.put(item.local, item.local.lock(true));
+                        if(!locks.containsKey(item.local)) {
+                            locks.put(item.local, item.local.lock(true));
+                        }
                         break;
                 }
             }
@@ -449,21 +471,24 @@ public abstract class Transfer implements Serializable {
      * @return The number of bytes transferred of all files.
      */
     public Long getTransferred() {
-        if(null == transferred) {
+        final LongAdder counter = transferred;
+        if(null == counter) {
             return 0L;
         }
-        return transferred.get();
+        return counter.sum();
     }
 
     public void addTransferred(final long bytes) {
-        if(null == transferred) {
-            // Initialize
-            transferred = new AtomicLong(0L);
+        LongAdder counter = transferred;
+        while(null == counter) {
+            // Initialize once when segments start concurrently
+            TRANSFERRED.compareAndSet(this, null, new LongAdder());
+            counter = transferred;
         }
         // Allow decrement for failed segments
-        transferred.addAndGet(bytes);
+        counter.add(bytes);
         if(log.isTraceEnabled()) {
-            log.trace(String.format("Transferred set to %d bytes", transferred.get()));
+            log.trace(String.format("Transferred set to %d bytes", counter.sum()));
         }
     }
 
@@ -488,11 +513,9 @@ public abstract class Transfer implements Serializable {
     }
 
     public void setTransferred(final Long bytes) {
-        if(null == transferred) {
-            // Initialize
-            transferred = new AtomicLong(0L);
-        }
-        transferred.set(bytes);
+        final LongAdder counter = new LongAdder();
+        counter.add(bytes);
+        transferred = counter;
     }
 
     @Override
@@ -0,0 +1,370 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.local.ApplicationBadgeLabeler;
+import ch.cyberduck.core.local.ApplicationBadgeLabelerFactory;
+import ch.cyberduck.core.notification.NotificationService;
+import ch.cyberduck.core.notification.NotificationServiceFactory;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Run transfers on a bounded thread pool with the number of concurrent transfers limited. Transfers waiting for a
+ * slot are kept in a queue ordered by priority and submission without occupying a thread. A global bandwidth budget
+ * is divided between running transfers in proportion to the weight of their priority. Transfers with a lower rate
+ * set than their share leave the remainder to the others.
+ */
+public final class TransferScheduler {
+    private static final Logger log = Logger.getLogger(TransferScheduler.class);
+
+    public enum Priority {
+        low(1),
+        normal(2),
+        high(4);
+
+        /**
+         * Relative share of bandwidth budget
+         */
+        private final int weight;
+
+        Priority(final int weight) {
+            this.weight = weight;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+    }
+
+    private final ApplicationBadgeLabeler label
+        = ApplicationBadgeLabelerFactory.get();
+
+    private final NotificationService notification
+        = NotificationServiceFactory.get();
+
+    private final ThreadPool pool;
+    /**
+     * Run tasks of transfers removed from queue without waiting for a slot
+     */
+    private final ThreadPool canceled;
+
+    /**
+     * Waiting for slot ordered by priority and submission
+     */
+    private final PriorityQueue<Entry<?>> pending = new PriorityQueue<>();
+    private final Set<Entry<?>> running = new LinkedHashSet<>();
+
+    /**
+     * Maximum number of concurrent transfers
+     */
+    private int limit;
+    /**
+     * Bytes per second shared by all running transfers
+     */
+    private float budget;
+    private long sequence = 0L;
+
+    public TransferScheduler() {
+        this(PreferencesFactory.get().getInteger("queue.connections.limit"),
+            PreferencesFactory.get().getFloat("queue.bandwidth.global.bytes"));
+    }
+
+    /**
+     * @param limit  Maximum number of concurrent transfers
+     * @param budget Bytes per second shared by all running transfers or UNLIMITED
+     */
+    public TransferScheduler(final int limit, final float budget) {
+        this.limit = limit;
+        this.budget = budget < 0 ? BandwidthThrottle.UNLIMITED : budget;
+        this.pool = ThreadPoolFactory.get("transfer", limit);
+        this.canceled = ThreadPoolFactory.get("transfer-canceled", 1);
+    }
+
+    /**
+     * Run task for transfer when a slot is available
+     *
+     * @param transfer Transfer
+     * @param priority Order in queue and weight of bandwidth share
+     * @param task     Task to run on pool
+     * @param listener Notified when transfer has to wait
+     * @return Future of task
+     */
+    public <T> Future<T> submit(final Transfer transfer, final Priority priority, final Callable<T> task, final ProgressListener listener) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Add transfer %s to queue", transfer));
+        }
+        final boolean queued;
+        final Entry<T> entry;
+        synchronized(this) {
+            entry = new Entry<>(transfer, priority, sequence++, new FutureTask<>(task));
+            queued = running.size() >= limit;
+            if(queued) {
+                pending.add(entry);
+            }
+            else {
+                this.start(entry);
+            }
+        }
+        if(queued) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Queuing transfer %s", transfer));
+            }
+            listener.message(LocaleFactory.localizedString("Maximum allowed connections exceeded. Waiting", "Status"));
+            notification.notify(transfer.getName(), transfer.getUuid(), "Transfer queued", transfer.getName());
+        }
+        return entry.future;
+    }
+
+    /**
+     * @param transfer Transfer
+     * @return True if transfer is waiting in queue for a slot
+     */
+    public synchronized boolean isQueued(final Transfer transfer) {
+        for(Entry<?> entry : pending) {
+            if(entry.transfer.equals(transfer)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop transfer from queue if not yet started. The task is run without waiting for a slot to let a canceled
+     * action finish and cleanup.
+     *
+     * @param transfer Transfer to drop from queue if not yet started
+     * @return True if transfer was waiting in queue
+     */
+    public synchronized boolean remove(final Transfer transfer) {
+        for(Iterator<Entry<?>> iter = pending.iterator(); iter.hasNext(); ) {
+            final Entry<?> entry = iter.next();
+            if(entry.transfer.equals(transfer)) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Remove %s from queue", transfer));
+                }
+                iter.remove();
+                try {
+                    canceled.execute(() -> {
+                        entry.future.run();
+                        return null;
+                    });
+                }
+                catch(RejectedExecutionException e) {
+                    log.error(String.format("Error scheduling removed transfer %s for execution. %s", transfer, e.getMessage()));
+                    entry.future.cancel(false);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param limit Maximum number of concurrent transfers
+     */
+    public synchronized void resize(final int limit) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Resize queue to %d", limit));
+        }
+        if(pool.executor() instanceof ThreadPoolExecutor) {
+            final ThreadPoolExecutor executor = (ThreadPoolExecutor) pool.executor();
+            if(limit > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(limit);
+                executor.setCorePoolSize(limit);
+            }
+            else {
+                executor.setCorePoolSize(limit);
+                executor.setMaximumPoolSize(limit);
+            }
+        }
+        this.limit = limit;
+        this.poll();
+    }
+
+    /**
+     * @param budget Bytes per second shared by all running transfers or UNLIMITED
+     */
+    public synchronized void setBandwidth(final float budget) {
+        this.budget = budget < 0 ? BandwidthThrottle.UNLIMITED : budget;
+        this.rebalance();
+    }
+
+    public synchronized float getBandwidth() {
+        return budget;
+    }
+
+    private void start(final Entry<?> entry) {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Start transfer %s", entry.transfer));
+        }
+        running.add(entry);
+        try {
+            pool.execute(() -> {
+                try {
+                    entry.future.run();
+                }
+                finally {
+                    this.release(entry);
+                }
+                return null;
+            });
+        }
+        catch(RejectedExecutionException e) {
+            log.error(String.format("Error scheduling transfer %s for execution. %s", entry.transfer, e.getMessage()));
+            running.remove(entry);
+            entry.future.cancel(false);
+        }
+        this.rebalance();
+        label.badge(String.valueOf(running.size()));
+    }
+
+    private synchronized void release(final Entry<?> entry) {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Released transfer %s", entry.transfer));
+        }
+        running.remove(entry);
+        final BandwidthThrottle throttle = entry.transfer.getBandwidth();
+        if(throttle != null) {
+            throttle.setShare(BandwidthThrottle.UNLIMITED);
+        }
+        this.poll();
+        this.rebalance();
+        if(running.isEmpty()) {
+            label.badge(StringUtils.EMPTY);
+        }
+        else {
+            label.badge(String.valueOf(running.size()));
+        }
+    }
+
+    /**
+     * Start waiting transfers with highest priority first
+     */
+    private void poll() {
+        while(running.size() < limit && !pending.isEmpty()) {
+            final Entry<?> next = pending.poll();
+            if(next.future.isDone()) {
+                continue;
+            }
+            this.start(next);
+        }
+    }
+
+    /**
+     * Assign shares of bandwidth budget to running transfers in proportion to the weight of their priority. A
+     * transfer with a lower rate set than its share is limited to its rate and the remaining budget is divided
+     * between the other transfers.
+     */
+    public synchronized void rebalance() {
+        final List<Entry<?>> unassigned = new ArrayList<>();
+        for(Entry<?> entry : running) {
+            if(entry.transfer.getBandwidth() != null) {
+                unassigned.add(entry);
+            }
+        }
+        if(BandwidthThrottle.UNLIMITED == budget) {
+            for(Entry<?> entry : unassigned) {
+                entry.transfer.getBandwidth().setShare(BandwidthThrottle.UNLIMITED);
+            }
+            return;
+        }
+        float remaining = budget;
+        while(!unassigned.isEmpty()) {
+            int weights = 0;
+            for(Entry<?> entry : unassigned) {
+                weights += entry.priority.getWeight();
+            }
+            final float unit = remaining / weights;
+            final List<Entry<?>> limited = new ArrayList<>();
+            for(Entry<?> entry : unassigned) {
+                final float rate = entry.transfer.getBandwidth().getRate();
+                if(BandwidthThrottle.UNLIMITED != rate && rate <= unit * entry.priority.getWeight()) {
+                    limited.add(entry);
+                }
+            }
+            if(limited.isEmpty()) {
+                for(Entry<?> entry : unassigned) {
+                    entry.transfer.getBandwidth().setShare(unit * entry.priority.getWeight());
+                }
+                break;
+            }
+            for(Entry<?> entry : limited) {
+                final float rate = entry.transfer.getBandwidth().getRate();
+                entry.transfer.getBandwidth().setShare(rate);
+                remaining -= rate;
+                unassigned.remove(entry);
+            }
+        }
+        if(log.isDebugEnabled()) {
+            for(Entry<?> entry : running) {
+                log.debug(String.format("Assigned share %s of budget %s to transfer %s", entry.transfer.getBandwidth() == null
+                    ? BandwidthThrottle.UNLIMITED : entry.transfer.getBandwidth().getShare(), budget, entry.transfer));
+            }
+        }
+    }
+
+    private static final class Entry<T> implements Comparable<Entry<?>> {
+        private final Transfer transfer;
+        private final Priority priority;
+        private final long sequence;
+        private final FutureTask<T> future;
+
+        public Entry(final Transfer transfer, final Priority priority, final long sequence, final FutureTask<T> future) {
+            this.transfer = transfer;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.future = future;
+        }
+
+        @Override
+        public int compareTo(final Entry<?> o) {
+            final int c = Integer.compare(o.priority.getWeight(), priority.getWeight());
+            if(c != 0) {
+                return c;
+            }
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TransferScheduler{");
+        sb.append("limit=").append(limit);
+        sb.append(", budget=").append(budget);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -17,22 +17,22 @@ package ch.cyberduck.core.transfer;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
-public final class TransferQueueFactory {
+public final class TransferSchedulerFactory {
 
-    private static TransferQueue instance;
+    private static TransferScheduler instance;
 
     private static final Object lock = new Object();
 
-    public static TransferQueue get() {
+    public static TransferScheduler get() {
         synchronized(lock) {
             if(null == instance) {
-                instance = new TransferQueue();
+                instance = new TransferScheduler();
             }
             return instance;
         }
     }
 
-    private TransferQueueFactory() {
+    private TransferSchedulerFactory() {
         //
     }
 }
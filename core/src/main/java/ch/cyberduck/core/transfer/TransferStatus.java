@@ -80,6 +80,11 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
      */
     private boolean segment = false;
 
+    /**
+     * Segment is written at its offset directly into the target file
+     */
+    private boolean positional = false;
+
     /**
      * Not accepted
      */
@@ -193,6 +198,7 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         this.exists = copy.exists;
         this.append = copy.append;
         this.segment = copy.segment;
+        this.positional = copy.positional;
         this.segments = copy.segments;
         this.rejected = copy.rejected;
         this.hidden = copy.hidden;
@@ -364,6 +370,19 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         return this;
     }
 
+    public boolean isPositional() {
+        return positional;
+    }
+
+    public void setPositional(final boolean positional) {
+        this.positional = positional;
+    }
+
+    public TransferStatus positional(final boolean positional) {
+        this.positional = positional;
+        return this;
+    }
+
     public void setRejected(boolean rejected) {
         this.rejected = rejected;
     }
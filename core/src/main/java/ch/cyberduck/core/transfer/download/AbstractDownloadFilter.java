@@ -58,6 +58,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.NoSuchFileException;
@@ -184,6 +185,10 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             }
             else {
                 permission = attributes.getPermission();
+                if(null != permission && Permission.EMPTY != permission) {
+                    // Copy as instance may be shared with other files and is modified when applied
+                    permission = new Permission(permission);
+                }
             }
             status.setPermission(permission);
         }
@@ -198,7 +203,8 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                 catch(IOException e) {
                     log.warn(String.format("Failure to determine disk space for %s", file.getParent()));
                 }
-                if(status.getLength() * 2 > space) {
+                // Segments are either written in place to the preallocated file or to part files to concatenate
+                if(status.getLength() * (options.inplace ? 1 : 2) > space) {
                     log.warn(String.format("Insufficient free disk space %d for segmented download of %s", space, file));
                 }
                 else {
@@ -220,6 +226,24 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                             final List<TransferStatus> segments = new ArrayList<TransferStatus>();
                             final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
                             for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
+                                // Last part can be less than 5 MB. Adjust part size.
+                                long length = Math.min(partsize, remaining);
+                                if(options.inplace) {
+                                    // Target file to write segment to is set when applying filter after rename
+                                    final TransferStatus segmentStatus = new TransferStatus()
+                                        .segment(true) // Skip completion filter for single segment
+                                        .positional(true) // Write at offset
+                                        .append(true) // Read with offset
+                                        .skip(offset)
+                                        .length(length);
+                                    if(log.isDebugEnabled()) {
+                                        log.debug(String.format("Adding status %s for segment %d", segmentStatus, segmentNumber));
+                                    }
+                                    segments.add(segmentStatus);
+                                    remaining -= length;
+                                    offset += length;
+                                    continue;
+                                }
                                 final Local segmentFile = LocalFactory.get(
                                     segmentsFolder, String.format("%s-%d.cyberducksegment", local.getName(), segmentNumber));
                                 try {
@@ -234,8 +258,6 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                                     segments.clear();
                                     break;
                                 }
-                                // Last part can be less than 5 MB. Adjust part size.
-                                long length = Math.min(partsize, remaining);
                                 final TransferStatus segmentStatus = new TransferStatus()
                                     .segment(true) // Skip completion filter for single segment
                                     .append(true) // Read with offset
@@ -250,6 +272,7 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                                 offset += length;
                             }
                             status.withSegments(segments);
+                            status.setPositional(options.inplace && !segments.isEmpty());
                         }
                     }
                 }
@@ -264,7 +287,48 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(status.isSegmented() && status.isPositional()) {
+            final Local target = status.getRename().local != null ? status.getRename().local : local;
+            long size = 0L;
+            for(TransferStatus segmentStatus : status.getSegments()) {
+                segmentStatus.rename(target);
+                size = Math.max(size, segmentStatus.getOffset() + segmentStatus.getLength());
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Preallocate %d bytes for %s", size, target));
+            }
+            final SegmentJournal journal = new SegmentJournal(target);
+            if(!status.isAppend()) {
+                // Discard ranges recorded from previous attempt
+                journal.delete();
+            }
+            // Persist journal first to mark preallocated file as incomplete until all segments are recorded
+            journal.create();
+            try (RandomAccessFile out = new RandomAccessFile(target.getAbsolute(), "rw")) {
+                if(!status.isAppend()) {
+                    // Discard previous content
+                    out.setLength(0L);
+                }
+                out.setLength(size);
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(String.format("Failure to preallocate %s", target.getAbbreviatedPath()), e);
+            }
+        }
+        else if(!status.isAppend()) {
+            final Local target = status.getRename().local != null ? status.getRename().local : local;
+            final SegmentJournal journal = new SegmentJournal(target);
+            if(journal.exists()) {
+                // Truncate preallocated file from previous attempt before discarding its journal
+                try (RandomAccessFile out = new RandomAccessFile(target.getAbsolute(), "rw")) {
+                    out.setLength(0L);
+                }
+                catch(IOException e) {
+                    throw new LocalAccessDeniedException(String.format("Failure to truncate %s", target.getAbbreviatedPath()), e);
+                }
+                journal.delete();
+            }
+        }
     }
 
     /**
@@ -278,13 +342,23 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             log.debug(String.format("Complete %s with status %s", file.getAbsolute(), status));
         }
         if(status.isSegment()) {
+            if(status.isPositional() && status.isComplete()) {
+                // Written range in preallocated file
+                new SegmentJournal(local).record(status.getOffset() - status.getLength(), status.getLength());
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Skip completion for single segment %s", status));
             }
             return;
         }
         if(status.isComplete()) {
-            if(status.isSegmented()) {
+            if(status.isSegmented() && status.isPositional()) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Completed %d segments written to file %s", status.getSegments().size(), local));
+                }
+                new SegmentJournal(local).delete();
+            }
+            else if(status.isSegmented()) {
                 // Obtain ordered list of segments to reassemble
                 final List<TransferStatus> segments = status.getSegments();
                 if(log.isInfoEnabled()) {
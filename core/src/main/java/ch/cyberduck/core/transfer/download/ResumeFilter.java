@@ -58,6 +58,17 @@ public class ResumeFilter extends AbstractDownloadFilter {
             if(local.exists()) {
                 // Read remote attributes
                 final PathAttributes attributes = attribute.find(file);
+                final SegmentJournal journal = new SegmentJournal(local);
+                if(journal.exists()) {
+                    if(!journal.isComplete(0L, attributes.getSize())) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Resume preallocated file %s with incomplete segments", local));
+                        }
+                        return super.accept(file, local, parent);
+                    }
+                    // All segments written but journal not removed on completion
+                    journal.delete();
+                }
                 if(local.attributes().getSize() == attributes.getSize()) {
                     if(Checksum.NONE != attributes.getChecksum()) {
                         final ChecksumCompute compute = ChecksumComputeFactory.get(attributes.getChecksum().algorithm);
@@ -87,7 +98,23 @@ public class ResumeFilter extends AbstractDownloadFilter {
     @Override
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
-        if(status.isSegmented()) {
+        if(status.isSegmented() && status.isPositional()) {
+            final SegmentJournal journal = new SegmentJournal(local);
+            if(journal.exists()) {
+                for(TransferStatus segmentStatus : status.getSegments()) {
+                    if(journal.isComplete(segmentStatus.getOffset(), segmentStatus.getLength())) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Skip completed part %s", segmentStatus));
+                        }
+                        segmentStatus.setComplete();
+                        // Recalculate transfer length
+                        status.setAppend(true);
+                        status.setLength(status.getLength() - segmentStatus.getLength());
+                    }
+                }
+            }
+        }
+        else if(status.isSegmented()) {
             for(TransferStatus segmentStatus : status.getSegments()) {
                 final Local segmentFile = segmentStatus.getRename().local;
                 if(segmentFile.exists()) {
@@ -108,6 +135,11 @@ public class ResumeFilter extends AbstractDownloadFilter {
                 }
             }
         }
+        else if(new SegmentJournal(local).exists()) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Skip resume from size of preallocated file %s", local));
+            }
+        }
         else {
             if(download.offset(file)) {
                 if(local.isFile()) {
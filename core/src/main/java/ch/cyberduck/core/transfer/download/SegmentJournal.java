@@ -0,0 +1,161 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sidecar file next to a preallocated download target recording byte ranges of completed segments. The target file
+ * cannot be used to determine progress to resume from as it already has its final length from preallocation.
+ */
+public class SegmentJournal {
+    private static final Logger log = Logger.getLogger(SegmentJournal.class);
+
+    private static final Object lock = new Object();
+
+    private final Local journal;
+
+    public SegmentJournal(final Local file) {
+        this.journal = LocalFactory.get(file.getParent(), String.format(".%s.cyberducksegment", file.getName()));
+    }
+
+    public boolean exists() {
+        return journal.exists();
+    }
+
+    /**
+     * Create empty journal persisted to disk prior preallocating the target file. A preallocated file without journal
+     * cannot be told apart from a completed download.
+     */
+    public void create() throws AccessDeniedException {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Create %s", journal));
+        }
+        synchronized(lock) {
+            try (FileChannel channel = FileChannel.open(Paths.get(journal.getAbsolute()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Record completed range
+     *
+     * @param offset Start of segment in file
+     * @param length Number of bytes written
+     */
+    public void record(final long offset, final long length) throws AccessDeniedException {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Record range %d-%d in %s", offset, offset + length, journal));
+        }
+        synchronized(lock) {
+            try {
+                Files.write(Paths.get(journal.getAbsolute()),
+                    String.format("%d-%d%n", offset, offset + length).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * @param offset Start of segment in file
+     * @param length Segment length
+     * @return True if the range is fully covered by recorded segments
+     */
+    public boolean isComplete(final long offset, final long length) {
+        long covered = offset;
+        for(long[] range : this.ranges()) {
+            if(range[0] > covered) {
+                break;
+            }
+            covered = Math.max(covered, range[1]);
+            if(covered >= offset + length) {
+                return true;
+            }
+        }
+        return covered >= offset + length;
+    }
+
+    /**
+     * @return Recorded ranges sorted by start offset
+     */
+    protected List<long[]> ranges() {
+        final List<long[]> ranges = new ArrayList<>();
+        if(!journal.exists()) {
+            return ranges;
+        }
+        synchronized(lock) {
+            try {
+                for(String line : Files.readAllLines(Paths.get(journal.getAbsolute()), StandardCharsets.UTF_8)) {
+                    final String[] range = StringUtils.split(line, '-');
+                    if(range.length != 2) {
+                        log.warn(String.format("Skip malformed line %s in %s", line, journal));
+                        continue;
+                    }
+                    try {
+                        ranges.add(new long[]{Long.parseLong(range[0]), Long.parseLong(range[1])});
+                    }
+                    catch(NumberFormatException e) {
+                        log.warn(String.format("Skip malformed line %s in %s", line, journal));
+                    }
+                }
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure reading %s. %s", journal, e.getMessage()));
+            }
+        }
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        return ranges;
+    }
+
+    public void delete() throws AccessDeniedException, NotfoundException {
+        if(journal.exists()) {
+            journal.delete();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SegmentJournal{");
+        sb.append("journal=").append(journal);
+        sb.append('}');
+        return sb.toString();
+    }
+}
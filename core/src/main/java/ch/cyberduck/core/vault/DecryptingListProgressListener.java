@@ -20,12 +20,21 @@ import ch.cyberduck.core.IndexedListProgressListener;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
-import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Vault;
 
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Decrypts files of every chunk received at once allowing the vault to decrypt filenames concurrently
+ */
 public class DecryptingListProgressListener extends IndexedListProgressListener {
     private static final Logger log = Logger.getLogger(DecryptingListProgressListener.class);
 
@@ -33,6 +42,11 @@ public class DecryptingListProgressListener extends IndexedListProgressListener
     private final Vault vault;
     private final ListProgressListener delegate;
 
+    /**
+     * Decryption in progress for files of current chunk not yet visited
+     */
+    private final Map<Path, Future<Path>> pending = new IdentityHashMap<>();
+
     public DecryptingListProgressListener(final Session<?> session, final Vault vault,
                                           final ListProgressListener delegate) {
         this.session = session;
@@ -41,17 +55,38 @@ public class DecryptingListProgressListener extends IndexedListProgressListener
     }
 
     @Override
-    public void visit(final AttributedList<Path> list, final int index, final Path f) {
+    public void visit(final AttributedList<Path> list, final int index, final Path f) throws ConnectionCanceledException {
+        if(!pending.containsKey(f)) {
+            // Decrypt this and all following files of chunk
+            final List<Path> files = new ArrayList<>(list.size() - index);
+            for(int i = index; i < list.size(); i++) {
+                final Path file = list.get(i);
+                file.getType().add(Path.Type.encrypted);
+                files.add(file);
+            }
+            final List<Future<Path>> decrypted = vault.decrypt(session, files);
+            for(int i = 0; i < files.size(); i++) {
+                pending.put(files.get(i), decrypted.get(i));
+            }
+        }
         try {
-            f.getType().add(Path.Type.encrypted);
-            list.set(index, vault.decrypt(session, f));
+            list.set(index, pending.remove(f).get());
         }
-        catch(BackgroundException e) {
-            log.error(String.format("Failure decrypting %s. %s", f, e));
+        catch(InterruptedException e) {
+            throw new ConnectionCanceledException(e);
+        }
+        catch(ExecutionException e) {
+            log.error(String.format("Failure decrypting %s. %s", f, e.getCause()));
             list.remove(index);
         }
     }
 
+    @Override
+    public IndexedListProgressListener reset() {
+        pending.clear();
+        return super.reset();
+    }
+
     @Override
     public void chunk(final Path folder, final AttributedList<Path> list) throws ConnectionCanceledException {
         super.chunk(folder, list);
@@ -20,6 +20,7 @@ import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.PasswordStore;
 import ch.cyberduck.core.PasswordStoreFactory;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.UrlProvider;
 import ch.cyberduck.core.features.*;
@@ -125,6 +126,9 @@ public class DefaultVaultRegistry extends CopyOnWriteArraySet<Vault> implements
                 .withAutodetect(preferences.getBoolean("cryptomator.vault.autodetect")
                 );
         }
+        if(type == RecursiveListService.class) {
+            return (T) new VaultRegistryRecursiveListService(session, (RecursiveListService) proxy, this);
+        }
         if(type == Find.class) {
             return (T) new VaultRegistryFindFeature(session, (Find) proxy, this,
                 new LoadingVaultLookupListener(this, keychain, prompt))
@@ -191,6 +195,9 @@ public class DefaultVaultRegistry extends CopyOnWriteArraySet<Vault> implements
         if(type == Timestamp.class) {
             return (T) new VaultRegistryTimestampFeature(session, (Timestamp) proxy, this);
         }
+        if(type == Changes.class) {
+            return (T) new VaultRegistryChangesFeature(session, (Changes) proxy, this);
+        }
         if(type == Encryption.class) {
             return (T) new VaultRegistryEncryptionFeature(session, (Encryption) proxy, this);
         }
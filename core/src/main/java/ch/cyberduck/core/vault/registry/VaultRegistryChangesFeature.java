@@ -0,0 +1,84 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.Changes;
+import ch.cyberduck.core.features.Vault;
+import ch.cyberduck.core.vault.VaultRegistry;
+import ch.cyberduck.core.vault.VaultUnlockCancelException;
+
+public class VaultRegistryChangesFeature implements Changes {
+
+    private final Session<?> session;
+    private final Changes proxy;
+    private final VaultRegistry registry;
+
+    public VaultRegistryChangesFeature(final Session<?> session, final Changes proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean isSupported(final Path directory) {
+        try {
+            if(registry.find(session, directory).equals(Vault.DISABLED)) {
+                return proxy.isSupported(directory);
+            }
+        }
+        catch(VaultUnlockCancelException e) {
+            return false;
+        }
+        // Changes are reported for encrypted files only
+        return false;
+    }
+
+    @Override
+    public String getCursor(final Path directory) throws BackgroundException {
+        if(registry.find(session, directory).equals(Vault.DISABLED)) {
+            return proxy.getCursor(directory);
+        }
+        throw new UnsupportedException();
+    }
+
+    @Override
+    public Changeset changes(final Path directory, final String cursor, final ListProgressListener listener) throws BackgroundException {
+        if(registry.find(session, directory).equals(Vault.DISABLED)) {
+            return proxy.changes(directory, cursor, listener);
+        }
+        throw new UnsupportedException();
+    }
+
+    @Override
+    public Changes withCache(final Cache<Path> cache) {
+        proxy.withCache(cache);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryChangesFeature{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -72,6 +72,11 @@ public class VaultRegistryDeleteFeature implements Delete {
         return proxy.isRecursive();
     }
 
+    @Override
+    public int getBatchSize() {
+        return proxy.getBatchSize();
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("VaultRegistryDeleteFeature{");
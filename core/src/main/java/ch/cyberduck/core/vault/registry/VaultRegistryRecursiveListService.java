@@ -0,0 +1,69 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.core.vault.VaultRegistry;
+
+import org.apache.log4j.Logger;
+
+public class VaultRegistryRecursiveListService implements RecursiveListService {
+    private static final Logger log = Logger.getLogger(VaultRegistryRecursiveListService.class);
+
+    private final Session<?> session;
+    private final RecursiveListService proxy;
+    private final VaultRegistry registry;
+
+    public VaultRegistryRecursiveListService(final Session<?> session, final RecursiveListService proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(registry.find(session, directory).contains(directory)) {
+            // Filenames must be decrypted for every directory
+            throw new UnsupportedException();
+        }
+        final AttributedList<Path> list = proxy.list(directory, listener);
+        for(Path file : list) {
+            if(file.getName().equals(DefaultVaultRegistry.DEFAULT_MASTERKEY_FILE_NAME)) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Found vault %s in recursive listing of %s", file.getParent(), directory));
+                }
+                // List by directory to detect vault
+                throw new UnsupportedException();
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryRecursiveListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
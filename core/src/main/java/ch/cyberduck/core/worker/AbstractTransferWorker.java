@@ -22,6 +22,7 @@ import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.BookmarkNameProvider;
 import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocaleFactory;
@@ -39,6 +40,7 @@ import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.TransferBackgroundActionState;
+import ch.cyberduck.core.transfer.SpillingTransferStatusMap;
 import ch.cyberduck.core.transfer.SynchronizingTransferErrorCallback;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
@@ -54,7 +56,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.apache.log4j.Logger;
 
+import java.io.UncheckedIOException;
 import java.text.MessageFormat;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -88,6 +92,11 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private final ProgressListener progress;
     private final StreamListener stream;
     private final Preferences preferences = PreferencesFactory.get();
+    /**
+     * Hand over items to transfer as soon as their status is determined instead of waiting for
+     * the complete tree to be prepared
+     */
+    private final boolean pipeline = preferences.getBoolean("queue.transfer.pipeline.enable");
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
                                   final TransferPrompt prompt, final TransferSpeedometer meter,
@@ -96,7 +105,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                   final StreamListener stream,
                                   final ConnectionCallback connect,
                                   final NotificationService notification) {
-        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, new TransferItemCache(Integer.MAX_VALUE));
+        this(transfer, options, prompt, meter, error, progress, stream, connect, notification,
+            // Bound number of directory listings kept for transfer with status table written to disk
+            new TransferItemCache(PreferencesFactory.get().getBoolean("queue.transfer.table.spill.enable") ?
+                PreferencesFactory.get().getInteger("queue.transfer.table.spill.cache") : Integer.MAX_VALUE));
     }
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
@@ -107,7 +119,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                   final ConnectionCallback connect,
                                   final NotificationService notification,
                                   final Cache<TransferItem> cache) {
-        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, cache, new ConcurrentHashMap<TransferItem, TransferStatus>());
+        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, cache,
+            PreferencesFactory.get().getBoolean("queue.transfer.table.spill.enable") ?
+                new SpillingTransferStatusMap(PreferencesFactory.get().getInteger("queue.transfer.table.spill.threshold")) :
+                new ConcurrentHashMap<TransferItem, TransferStatus>());
     }
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
@@ -163,11 +178,16 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
 
     @Override
     public void reset() {
-        for(TransferStatus status : table.values()) {
-            for(TransferStatus segment : status.getSegments()) {
-                segment.setCanceled();
+        try {
+            for(TransferStatus status : table.values()) {
+                for(TransferStatus segment : status.getSegments()) {
+                    segment.setCanceled();
+                }
             }
         }
+        catch(UncheckedIOException e) {
+            log.warn(String.format("Failure reading transfer status table. %s", e.getMessage()));
+        }
     }
 
     @Override
@@ -212,18 +232,30 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             progress.message(MessageFormat.format(LocaleFactory.localizedString("Prepare {0} ({1})", "Status"), transfer.getName(), action.getTitle()));
             transfer.normalize();
 
-            // Calculate information about the files in advance to give progress information
-            for(TransferItem next : transfer.getRoots()) {
-                this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+            if(pipeline) {
+                meter.reset();
+                // Obtain locks for roots. Bulk features are run for every item once prepared
+                transfer.pre(source, destination, table, connect);
+                // Prepare and transfer files concurrently with total size as a running estimate
+                for(TransferItem next : transfer.getRoots()) {
+                    this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+                }
+                this.await();
             }
-            this.await();
-            meter.reset();
-            transfer.pre(source, destination, table, connect);
-            // Transfer all files sequentially
-            for(TransferItem next : transfer.getRoots()) {
-                this.transfer(next, action);
+            else {
+                // Calculate information about the files in advance to give progress information
+                for(TransferItem next : transfer.getRoots()) {
+                    this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+                }
+                this.await();
+                meter.reset();
+                transfer.pre(source, destination, table, connect);
+                // Transfer all files sequentially
+                for(TransferItem next : transfer.getRoots()) {
+                    this.transfer(next, action);
+                }
+                this.await();
             }
-            this.await();
             transfer.post(source, destination, table, connect);
         }
         finally {
@@ -282,7 +314,13 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 file.getName(), action.getTitle()));
                             // Determine transfer status
                             final TransferStatus status = filter.prepare(file, local, parent, progress);
-                            table.put(new TransferItem(file, local), status);
+                            try {
+                                table.put(new TransferItem(file, local), status);
+                            }
+                            catch(UncheckedIOException e) {
+                                // Status table written to disk
+                                throw new DefaultIOExceptionMappingService().map(e.getCause());
+                            }
                             final TransferItem item = new TransferItem(
                                 status.getRename().remote != null ? status.getRename().remote : file,
                                 status.getRename().local != null ? status.getRename().local : local
@@ -293,8 +331,15 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             transfer.addSize(status.getLength() + status.getOffset());
                             // Add skipped bytes
                             transfer.addTransferred(status.getOffset());
+                            if(pipeline) {
+                                // Bulk preparation for single item
+                                transfer.pre(source, destination, Collections.singletonMap(new TransferItem(file, local), status), connect);
+                                // Submit transfer without waiting for the tree to be completely prepared. Children
+                                // of directories are listed and prepared when the directory itself is transferred
+                                AbstractTransferWorker.this.transfer(new TransferItem(file, local), action);
+                            }
                             // Recursive
-                            if(file.isDirectory()) {
+                            else if(file.isDirectory()) {
                                 final List<TransferItem> children;
                                 // Call recursively for all children
                                 children = transfer.list(source, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
@@ -364,9 +409,16 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         if(this.isCanceled()) {
             throw new TransferCanceledException();
         }
+        final TransferStatus status;
+        try {
+            status = table.get(item);
+        }
+        catch(UncheckedIOException e) {
+            // Status table written to disk
+            throw new DefaultIOExceptionMappingService().map(e.getCause());
+        }
         // Only transfer if accepted by filter and stored in table with transfer status
-        if(table.containsKey(item)) {
-            final TransferStatus status = table.get(item);
+        if(null != status) {
             // Handle submit of one or more segments
             final List<TransferStatus> segments = status.getSegments();
             for(final TransferStatus segment : segments) {
@@ -384,14 +436,28 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         this.retry(segment);
                         // Recursive
                         if(item.remote.isDirectory()) {
-                            if(!cache.isCached(item)) {
-                                log.warn(String.format("Missing entry for %s in cache", item));
+                            if(pipeline) {
+                                // Prepare children once parent directory exists
+                                for(TransferItem f : list(item, status)) {
+                                    prepare(f.remote, f.local, status, action);
+                                }
                             }
-                            for(TransferItem f : cache.get(item)) {
-                                // Recursive
-                                transfer(f, action);
+                            else {
+                                final List<TransferItem> children;
+                                if(cache.isCached(item)) {
+                                    children = cache.get(item).toList();
+                                }
+                                else {
+                                    log.warn(String.format("Missing entry for %s in cache", item));
+                                    // Listing evicted from bounded cache
+                                    children = list(item, status);
+                                }
+                                for(TransferItem f : children) {
+                                    // Recursive
+                                    transfer(f, action);
+                                }
+                                cache.remove(item);
                             }
-                            cache.remove(item);
                         }
                         final Session<?> source = borrow(Connection.source);
                         final Session<?> destination = borrow(Connection.destination);
@@ -408,6 +474,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             release(source, Connection.source, null);
                             release(destination, Connection.destination, null);
                         }
+                        if(!status.isSegmented()) {
+                            // Only segment of file is done. Callable awaiting segments may have run before
+                            update(item, status);
+                        }
                         return segment;
                     }
 
@@ -524,6 +594,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             status.setFailure();
                         }
                     }
+                    if(status.isSegmented()) {
+                        // All segments done
+                        update(item, status);
+                    }
                     return status;
                 }
 
@@ -543,6 +617,54 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return ConcurrentUtils.constantFuture(null);
     }
 
+    /**
+     * Update entry with completed status allowing to release it from memory. Must only be called when no more
+     * segments of the file are transferred.
+     *
+     * @param item   File transferred
+     * @param status Transfer status of file
+     */
+    private void update(final TransferItem item, final TransferStatus status) throws BackgroundException {
+        if(status.isComplete()) {
+            try {
+                table.replace(item, status);
+            }
+            catch(UncheckedIOException e) {
+                // Status table written to disk
+                throw new DefaultIOExceptionMappingService().map(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * List children of directory when preparing and transferring is pipelined
+     *
+     * @param directory Directory transferred
+     * @param status    Transfer status of directory
+     * @return Children to prepare or empty list when failure is ignored
+     */
+    private List<TransferItem> list(final TransferItem directory, final TransferStatus status) throws BackgroundException {
+        final Session<?> source = this.borrow(Connection.source);
+        try {
+            return transfer.list(source, directory.remote, directory.local, new WorkerListProgressListener(this, progress));
+        }
+        catch(ConnectionCanceledException e) {
+            throw e;
+        }
+        catch(BackgroundException e) {
+            // Prompt to continue or abort for application errors
+            if(error.prompt(directory, status, e)) {
+                // Continue
+                log.warn(String.format("Ignore failure listing %s. %s", directory, e));
+                return Collections.emptyList();
+            }
+            throw new ConnectionCanceledException(e);
+        }
+        finally {
+            this.release(source, Connection.source, null);
+        }
+    }
+
     @Override
     public String getActivity() {
         return BookmarkNameProvider.toString(transfer.getSource());
@@ -23,15 +23,20 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.UnsupportedException;
+
+import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.Objects;
 
 public abstract class CalculateSizeWorker extends Worker<Long> {
+    private static final Logger log = Logger.getLogger(CalculateSizeWorker.class);
 
     /**
      * Selected files.
@@ -70,6 +75,22 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
                 p.getName()));
         if(p.isDirectory()) {
+            final RecursiveListService feature = session.getFeature(RecursiveListService.class);
+            if(null != feature) {
+                try {
+                    for(Path next : feature.list(p, new WorkerListProgressListener(this, listener))) {
+                        if(next.isFile()) {
+                            size += this.calculateSize(session, next);
+                        }
+                    }
+                    return size;
+                }
+                catch(UnsupportedException e) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Recursive listing not supported for %s", p));
+                    }
+                }
+            }
             for(Path next : session.getFeature(ListService.class).list(p, new WorkerListProgressListener(this, listener))) {
                 size += this.calculateSize(session, next);
             }
@@ -0,0 +1,369 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.LoginCallback;
+import ch.cyberduck.core.NullFilter;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+
+/**
+ * Delete with directory listings and deletion of batches running concurrently on connections borrowed from a pool.
+ * Any idle connection takes the next pending listing or batch. Files are passed to the delete feature as soon as they
+ * are found and a directory is only deleted after all its children have been removed. Deletes sequentially with the
+ * connection passed for stateful protocols, with concurrency set to 1 or when no directory is selected.
+ */
+public class ConcurrentDeleteWorker extends DeleteWorker {
+    private static final Logger log = Logger.getLogger(ConcurrentDeleteWorker.class);
+
+    private final SessionPool pool;
+    private final List<Path> files;
+    private final LoginCallback prompt;
+    private final Filter<Path> filter;
+    private final ProgressListener listener;
+    private final int connections;
+    /**
+     * Minimum number of files to pass to delete feature at once
+     */
+    private final int size;
+
+    /**
+     * Files deleted per second in last run
+     */
+    private volatile double throughput;
+
+    public ConcurrentDeleteWorker(final SessionPool pool, final LoginCallback prompt, final List<Path> files,
+                                  final Cache<Path> cache, final ProgressListener listener) {
+        this(pool, prompt, files, cache, new NullFilter<Path>(), listener);
+    }
+
+    public ConcurrentDeleteWorker(final SessionPool pool, final LoginCallback prompt, final List<Path> files,
+                                  final Cache<Path> cache, final Filter<Path> filter, final ProgressListener listener) {
+        this(pool, prompt, files, cache, filter, listener,
+            Math.max(1, PreferencesFactory.get().getInteger("delete.concurrency")),
+            PreferencesFactory.get().getInteger("delete.batch.size"));
+    }
+
+    public ConcurrentDeleteWorker(final SessionPool pool, final LoginCallback prompt, final List<Path> files,
+                                  final Cache<Path> cache, final Filter<Path> filter, final ProgressListener listener,
+                                  final int connections, final int size) {
+        super(prompt, files, cache, filter, listener);
+        this.pool = pool;
+        this.files = files;
+        this.prompt = prompt;
+        this.filter = filter;
+        this.listener = listener;
+        this.connections = connections;
+        this.size = size;
+    }
+
+    @Override
+    public List<Path> run(final Session<?> session) throws BackgroundException {
+        if(session.getFeature(Delete.class).isRecursive()) {
+            // No need to list directories
+            return super.run(session);
+        }
+        if(connections < 2) {
+            return super.run(session);
+        }
+        if(session.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful) {
+            // Concurrent connections would require to connect and login again
+            return super.run(session);
+        }
+        if(!this.isRecursive()) {
+            // No directories to list
+            return super.run(session);
+        }
+        final ThreadPool executor = ThreadPoolFactory.get(String.format("%s-delete", new AlphanumericRandomStringService().random()), connections);
+        try {
+            return new Scheduler(session, executor).run();
+        }
+        finally {
+            executor.shutdown(false);
+        }
+    }
+
+    private boolean isRecursive() {
+        for(Path file : files) {
+            if(file.isDirectory()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Result of a task applied on the coordinating thread
+     */
+    private interface Completion {
+        void apply() throws BackgroundException;
+    }
+
+    private static final class Directory {
+        private final Path file;
+        /**
+         * Number of children not yet deleted
+         */
+        private int pending;
+        private boolean listed;
+
+        public Directory(final Path file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * Tracks state only modified on the calling thread with listings and deletions running in the pool
+     */
+    private final class Scheduler {
+        private final Session<?> session;
+        private final Delete delete;
+        private final ListService list;
+        private final CompletionService<Completion> completion;
+        private final ListProgressListener progress;
+        /**
+         * Number of files to pass to delete feature at once
+         */
+        private final int threshold;
+
+        private final Map<SimplePathPredicate, Directory> directories = new HashMap<>();
+        private final Map<Path, TransferStatus> batch = new LinkedHashMap<>();
+        private final List<Path> deleted = new ArrayList<>();
+
+        private int listings = 0;
+        private int outstanding = 0;
+        private final long timestamp = System.currentTimeMillis();
+
+        public Scheduler(final Session<?> session, final ThreadPool executor) {
+            this.session = session;
+            this.delete = session.getFeature(Delete.class);
+            this.list = session.getFeature(ListService.class);
+            // Do not split requests of features deleting multiple files at once
+            this.threshold = Math.max(size, delete.getBatchSize());
+            this.completion = new ExecutorCompletionService<>(executor.executor());
+            this.progress = new WorkerListProgressListener(ConcurrentDeleteWorker.this, listener);
+        }
+
+        public List<Path> run() throws BackgroundException {
+            for(Path file : files) {
+                this.schedule(file);
+            }
+            while(outstanding > 0 || !batch.isEmpty()) {
+                if(batch.size() >= threshold || listings == 0) {
+                    this.flush();
+                }
+                if(outstanding == 0) {
+                    continue;
+                }
+                try {
+                    final Completion result = completion.take().get();
+                    outstanding--;
+                    result.apply();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    if(e.getCause() instanceof BackgroundException) {
+                        throw (BackgroundException) e.getCause();
+                    }
+                    throw new DefaultExceptionMappingService().map(e.getCause());
+                }
+                if(isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+            }
+            throughput = this.getThroughput();
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Deleted %d files in %d ms (%.1f files/s)", deleted.size(),
+                    System.currentTimeMillis() - timestamp, throughput));
+            }
+            return deleted;
+        }
+
+        /**
+         * @return False if file is skipped because of unknown type
+         */
+        private boolean schedule(final Path file) throws BackgroundException {
+            if(file.isFile() || file.isSymbolicLink()) {
+                batch.putAll(compile(session.getHost(), delete, list, progress, file));
+                return true;
+            }
+            if(file.isDirectory()) {
+                directories.put(new SimplePathPredicate(file), new Directory(file));
+                this.list(file);
+                return true;
+            }
+            log.warn(String.format("Skip file %s with unknown type", file));
+            return false;
+        }
+
+        private void list(final Path directory) {
+            listings++;
+            outstanding++;
+            completion.submit(() -> {
+                final Session<?> connection = this.borrow();
+                BackgroundException failure = null;
+                try {
+                    final AttributedList<Path> children = connection.getFeature(ListService.class).list(directory, progress).filter(filter);
+                    return () -> this.listed(directory, children);
+                }
+                catch(BackgroundException e) {
+                    failure = e;
+                    throw e;
+                }
+                finally {
+                    pool.release(connection, failure);
+                }
+            });
+        }
+
+        private void listed(final Path directory, final AttributedList<Path> children) throws BackgroundException {
+            listings--;
+            final Directory parent = directories.get(new SimplePathPredicate(directory));
+            parent.listed = true;
+            for(Path child : children) {
+                if(this.schedule(child)) {
+                    parent.pending++;
+                }
+            }
+            if(parent.pending == 0) {
+                this.ready(parent);
+            }
+        }
+
+        private void flush() {
+            if(batch.isEmpty()) {
+                return;
+            }
+            final Map<Path, TransferStatus> files = new LinkedHashMap<>(batch);
+            batch.clear();
+            outstanding++;
+            completion.submit(() -> {
+                final Session<?> connection = this.borrow();
+                BackgroundException failure = null;
+                try {
+                    connection.getFeature(Delete.class).delete(files, prompt, new Delete.Callback() {
+                        @Override
+                        public void delete(final Path file) {
+                            listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"),
+                                file.getName()));
+                        }
+                    });
+                    return () -> this.deleted(files.keySet());
+                }
+                catch(BackgroundException e) {
+                    failure = e;
+                    throw e;
+                }
+                finally {
+                    pool.release(connection, failure);
+                }
+            });
+        }
+
+        private void deleted(final Iterable<Path> files) {
+            for(Path file : files) {
+                deleted.add(file);
+                directories.remove(new SimplePathPredicate(file));
+                final Directory parent = directories.get(new SimplePathPredicate(file.getParent()));
+                if(null == parent) {
+                    // Selected for deletion
+                    continue;
+                }
+                if(--parent.pending == 0 && parent.listed) {
+                    this.ready(parent);
+                }
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Deleted %d files with %.1f files/s", deleted.size(), this.getThroughput()));
+            }
+        }
+
+        /**
+         * Add parent after children
+         */
+        private void ready(final Directory directory) {
+            batch.put(directory.file, new TransferStatus().withLockId(getLockId(directory.file)));
+        }
+
+        private double getThroughput() {
+            final long elapsed = System.currentTimeMillis() - timestamp;
+            return elapsed > 0 ? deleted.size() * 1000d / elapsed : 0d;
+        }
+
+        private Session<?> borrow() throws BackgroundException {
+            return pool.borrow(new BackgroundActionState() {
+                @Override
+                public boolean isCanceled() {
+                    return ConcurrentDeleteWorker.this.isCanceled();
+                }
+
+                @Override
+                public boolean isRunning() {
+                    return true;
+                }
+            });
+        }
+    }
+
+    /**
+     * @return Files deleted per second in last run or zero if run with recursive delete feature
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConcurrentDeleteWorker{");
+        sb.append("files=").append(files);
+        sb.append(", pool=").append(pool);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,242 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.regex.Pattern;
+
+/**
+ * Search with directory listings for non recursive search features running concurrently on connections
+ * borrowed from a pool. Matches are passed to the listener for every directory when found from the calling thread. Progress
+ * messages from concurrent listings are passed to the listener one at a time. Searches sequentially with the
+ * connection passed for stateful protocols or with concurrency set to 1.
+ */
+public class ConcurrentSearchWorker extends SearchWorker {
+    private static final Logger log = Logger.getLogger(ConcurrentSearchWorker.class);
+
+    private final SessionPool pool;
+    private final Path directory;
+    private final Filter<Path> filter;
+    private final Cache<Path> cache;
+    private final ListProgressListener listener;
+    private final int concurrency;
+
+    public ConcurrentSearchWorker(final SessionPool pool, final Path directory, final Filter<Path> filter,
+                                  final Cache<Path> cache, final ListProgressListener listener) {
+        this(pool, directory, filter, cache, listener,
+            Math.max(1, PreferencesFactory.get().getInteger("browser.search.concurrency")));
+    }
+
+    public ConcurrentSearchWorker(final SessionPool pool, final Path directory, final Filter<Path> filter,
+                                  final Cache<Path> cache, final ListProgressListener listener, final int concurrency) {
+        super(directory, filter, cache, listener);
+        this.pool = pool;
+        this.directory = directory;
+        this.filter = filter;
+        this.cache = cache;
+        this.listener = listener;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public AttributedList<Path> run(final Session<?> session) throws BackgroundException {
+        if(session.getFeature(Search.class).isRecursive()) {
+            return super.run(session);
+        }
+        if(concurrency < 2) {
+            return super.run(session);
+        }
+        if(session.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful) {
+            // Concurrent connections would require to connect and login again
+            return super.run(session);
+        }
+        final ThreadPool executor = ThreadPoolFactory.get(String.format("%s-search", new AlphanumericRandomStringService().random()), concurrency);
+        try {
+            final CompletionService<Result> completion = new ExecutorCompletionService<>(executor.executor());
+            // Results by directory searched
+            final Map<SimplePathPredicate, AttributedList<Path>> results = new HashMap<>();
+            int outstanding = 0;
+            this.submit(completion, directory);
+            outstanding++;
+            while(outstanding > 0) {
+                final Result result;
+                try {
+                    result = completion.take().get();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    if(e.getCause() instanceof BackgroundException) {
+                        throw (BackgroundException) e.getCause();
+                    }
+                    throw new DefaultExceptionMappingService().map(e.getCause());
+                }
+                outstanding--;
+                if(this.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                results.put(new SimplePathPredicate(result.directory), result.list);
+                if(!result.matches.isEmpty()) {
+                    // Copy as list is returned in result
+                    listener.chunk(result.directory, new AttributedList<>(result.matches));
+                }
+                for(Path file : result.list) {
+                    if(file.isDirectory()) {
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Recursively search in %s", file));
+                        }
+                        this.submit(completion, file);
+                        outstanding++;
+                    }
+                }
+            }
+            return this.merge(results, directory);
+        }
+        finally {
+            executor.shutdown(false);
+        }
+    }
+
+    private void submit(final CompletionService<Result> completion, final Path workdir) {
+        completion.submit(() -> {
+            if(this.isCanceled()) {
+                throw new ConnectionCanceledException();
+            }
+            final Session<?> session = pool.borrow(new BackgroundActionState() {
+                @Override
+                public boolean isCanceled() {
+                    return ConcurrentSearchWorker.this.isCanceled();
+                }
+
+                @Override
+                public boolean isRunning() {
+                    return true;
+                }
+            });
+            BackgroundException failure = null;
+            try {
+                final Search search = session.getFeature(Search.class).withCache(cache);
+                // Get filtered list from search with listener for this task only forwarding progress messages
+                final AttributedList<Path> list = search.search(workdir, new RecursiveSearchFilter(filter),
+                    new WorkerListProgressListener(this, new ProgressListener() {
+                        @Override
+                        public void message(final String message) {
+                            // Listener is not required to be thread safe
+                            synchronized(listener) {
+                                listener.message(message);
+                            }
+                        }
+                    }));
+                return new Result(workdir, list, list.filter(new MatchFilter(filter)));
+            }
+            catch(BackgroundException e) {
+                failure = e;
+                throw e;
+            }
+            finally {
+                pool.release(session, failure);
+            }
+        });
+    }
+
+    /**
+     * Combine results in the same order as searching sequentially and omit directories without matches
+     */
+    private AttributedList<Path> merge(final Map<SimplePathPredicate, AttributedList<Path>> results, final Path workdir) {
+        final AttributedList<Path> list = new AttributedList<>(results.get(new SimplePathPredicate(workdir)));
+        for(Path file : results.get(new SimplePathPredicate(workdir))) {
+            if(file.isDirectory()) {
+                final AttributedList<Path> children = this.merge(results, file);
+                list.addAll(children);
+                if(children.isEmpty()) {
+                    list.remove(file);
+                }
+            }
+        }
+        return list;
+    }
+
+    private static final class Result {
+        private final Path directory;
+        private final AttributedList<Path> list;
+        /**
+         * Files matching filter excluding directories
+         */
+        private final AttributedList<Path> matches;
+
+        public Result(final Path directory, final AttributedList<Path> list, final AttributedList<Path> matches) {
+            this.directory = directory;
+            this.list = list;
+            this.matches = matches;
+        }
+    }
+
+    /**
+     * Exclude directories only included to search recursively
+     */
+    private static final class MatchFilter implements Filter<Path> {
+        private final Filter<Path> filter;
+
+        public MatchFilter(final Filter<Path> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean accept(final Path file) {
+            return !file.isDirectory() && filter.accept(file);
+        }
+
+        @Override
+        public Pattern toPattern() {
+            return filter.toPattern();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConcurrentSearchWorker{");
+        sb.append("filter='").append(filter).append('\'');
+        sb.append(", pool=").append(pool);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -25,13 +25,17 @@ import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.RetriableAccessDeniedException;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.DefaultFailureDiagnostics;
+import ch.cyberduck.core.threading.FailureDiagnostics;
 import ch.cyberduck.core.threading.ThreadPool;
 import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.AdaptiveConnectionLimit;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferOptions;
@@ -45,6 +49,8 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConcurrentTransferWorker extends AbstractTransferWorker {
@@ -58,6 +64,13 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
     private final AtomicInteger size = new AtomicInteger();
     private final ThreadPool pool;
 
+    private final Transfer transfer;
+    /**
+     * Null if number of connections is fixed
+     */
+    private final AdaptiveConnectionLimit limit;
+    private final FailureDiagnostics<BackgroundException> diagnostics = new DefaultFailureDiagnostics();
+
     public ConcurrentTransferWorker(final SessionPool source,
                                     final SessionPool destination,
                                     final Transfer transfer,
@@ -88,9 +101,21 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         super(transfer, options, prompt, meter, error, progressListener, streamListener, connect, notification);
         this.source = source;
         this.destination = destination;
+        this.transfer = transfer;
+        final int connections = transfer.getTransferType() == Host.TransferType.newconnection ? 1 : PreferencesFactory.get().getInteger("queue.connections.limit");
         this.pool = ThreadPoolFactory.get(String.format("%s-transfer", new AlphanumericRandomStringService().random()),
-            transfer.getTransferType() == Host.TransferType.newconnection ? 1 : PreferencesFactory.get().getInteger("queue.connections.limit"), priority);
+            connections, priority);
         this.completion = new ExecutorCompletionService<TransferStatus>(pool.executor());
+        if(transfer.getTransferType() != Host.TransferType.newconnection
+            && PreferencesFactory.get().getBoolean("queue.connections.adaptive.enable")
+            && pool.executor() instanceof ThreadPoolExecutor) {
+            // Never exceed number of connections allowed in session pool
+            this.limit = new AdaptiveConnectionLimit(connections, Math.min(PreferencesFactory.get().getInteger("connection.pool.maxtotal"),
+                Math.max(connections, PreferencesFactory.get().getInteger("queue.connections.adaptive.limit"))));
+        }
+        else {
+            this.limit = null;
+        }
     }
 
     @Override
@@ -134,6 +159,12 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
                 destination.release(session, failure);
                 break;
         }
+        if(failure != null && limit != null) {
+            if(diagnostics.determine(failure) == FailureDiagnostics.Type.network
+                || failure instanceof RetriableAccessDeniedException) {
+                limit.failure();
+            }
+        }
     }
 
     @Override
@@ -141,7 +172,18 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         if(log.isInfoEnabled()) {
             log.info(String.format("Submit %s to pool", callable));
         }
-        final Future<TransferStatus> f = completion.submit(callable);
+        final Future<TransferStatus> f;
+        if(null == limit) {
+            f = completion.submit(callable);
+        }
+        else {
+            f = completion.submit(() -> {
+                final long timestamp = System.currentTimeMillis();
+                final TransferStatus status = callable.call();
+                limit.success(System.currentTimeMillis() - timestamp);
+                return status;
+            });
+        }
         size.incrementAndGet();
         return f;
     }
@@ -154,7 +196,22 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Await completion for %d submitted tasks in queue", size.get()));
                 }
-                final TransferStatus status = completion.take().get();
+                final Future<TransferStatus> future;
+                if(null == limit) {
+                    future = completion.take();
+                }
+                else {
+                    // Wake up to sample throughput while transfers are running
+                    future = completion.poll(PreferencesFactory.get().getLong("queue.connections.adaptive.interval"), TimeUnit.MILLISECONDS);
+                    this.resize(limit.sample(System.currentTimeMillis(), transfer.getTransferred()));
+                    if(null == future) {
+                        // No task completed within interval
+                        continue;
+                    }
+                }
+                // Completed task removed from queue
+                size.decrementAndGet();
+                final TransferStatus status = future.get();
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Finished task with return value %s", status));
                 }
@@ -171,9 +228,27 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
                 }
                 throw new DefaultExceptionMappingService().map(e.getCause());
             }
-            finally {
-                size.decrementAndGet();
-            }
+        }
+    }
+
+    /**
+     * @param connections Number of threads running transfers concurrently
+     */
+    private void resize(final int connections) {
+        final ThreadPoolExecutor executor = (ThreadPoolExecutor) pool.executor();
+        if(executor.getCorePoolSize() == connections) {
+            return;
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Change number of connections from %d to %d", executor.getCorePoolSize(), connections));
+        }
+        if(connections > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(connections);
+            executor.setCorePoolSize(connections);
+        }
+        else {
+            executor.setCorePoolSize(connections);
+            executor.setMaximumPoolSize(connections);
         }
     }
 
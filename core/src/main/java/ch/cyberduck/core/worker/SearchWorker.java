@@ -119,7 +119,7 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
         return sb.toString();
     }
 
-    private static final class RecursiveSearchFilter implements Filter<Path> {
+    static final class RecursiveSearchFilter implements Filter<Path> {
         private final Filter<Path> filter;
 
         public RecursiveSearchFilter(final Filter<Path> filter) {
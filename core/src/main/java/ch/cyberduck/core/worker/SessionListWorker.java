@@ -19,6 +19,7 @@ package ch.cyberduck.core.worker;
 
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ChangesListService;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
@@ -27,6 +28,8 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.ListCanceledException;
+import ch.cyberduck.core.features.Changes;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.log4j.Logger;
 
@@ -54,7 +57,16 @@ public class SessionListWorker extends Worker<AttributedList<Path>> {
                 listener.chunk(directory, list);
                 return list;
             }
-            final ListService service = session.getFeature(ListService.class).withCache(cache);
+            final Changes changes = PreferencesFactory.get().getBoolean("browser.cache.changes.enable") ?
+                session.getFeature(Changes.class) : null;
+            final ListService service;
+            if(null == changes) {
+                service = session.getFeature(ListService.class).withCache(cache);
+            }
+            else {
+                // Update previous listing with changes only
+                service = new ChangesListService(session.getFeature(ListService.class), changes).withCache(cache);
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Run with feature %s", service));
             }
@@ -1,13 +1,22 @@
 package ch.cyberduck.core;
 
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.log4j.Logger;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
 
 public class AttributedListTest {
+    private static final Logger log = Logger.getLogger(AttributedListTest.class);
 
     @Test
     public void testPostFilter() {
@@ -80,4 +89,195 @@ public class AttributedListTest {
         assertNotSame(list, list.filter(new NullFilter<>()));
         assertEquals(list, list.filter(new NullFilter<>()));
     }
+
+    @Test
+    public void testIterateSnapshot() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        final Path b = new Path("/b", EnumSet.of(Path.Type.file));
+        final Path c = new Path("/c", EnumSet.of(Path.Type.file));
+        list.add(a);
+        list.add(b);
+        final Iterator<Path> iterator = list.iterator();
+        list.add(c);
+        list.remove(a);
+        list.set(0, c);
+        assertEquals(a, iterator.next());
+        assertEquals(b, iterator.next());
+        assertFalse(iterator.hasNext());
+        int count = 0;
+        for(Path file : list) {
+            list.add(new Path(file.getParent(), String.format("%s-copy", file.getName()), EnumSet.of(Path.Type.file)));
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals(4, list.size());
+    }
+
+    @Test
+    public void testFindIndex() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        for(int i = 0; i < 100; i++) {
+            list.add(new Path(String.format("/t%d", i), EnumSet.of(Path.Type.file)));
+        }
+        final Path t50 = new Path("/t50", EnumSet.of(Path.Type.file));
+        assertEquals(t50, list.find(new DefaultPathPredicate(t50)));
+        assertEquals(t50, list.find(new SimplePathPredicate(t50)));
+        assertEquals(t50, list.get(t50));
+        assertTrue(list.contains(t50));
+        assertEquals(50, list.indexOf(t50));
+        final Path t100 = new Path("/t100", EnumSet.of(Path.Type.file));
+        assertNull(list.find(new DefaultPathPredicate(t100)));
+        // Appended after index is built
+        list.add(t100);
+        assertSame(t100, list.find(new DefaultPathPredicate(t100)));
+        list.remove(t50);
+        assertNull(list.find(new DefaultPathPredicate(t50)));
+        assertNull(list.get(t50));
+        assertFalse(list.contains(t50));
+        // Replaced with different reference
+        final Path version = new Path("/t0", EnumSet.of(Path.Type.file));
+        version.attributes().setVersionId("1");
+        list.set(0, version);
+        assertSame(version, list.find(new DefaultPathPredicate(version)));
+        assertNull(list.find(new DefaultPathPredicate(new Path("/t0", EnumSet.of(Path.Type.file)))));
+        // Inserted
+        final Path t101 = new Path("/t101", EnumSet.of(Path.Type.file));
+        list.add(1, t101);
+        assertSame(t101, list.get(new Path("/t101", EnumSet.of(Path.Type.file))));
+        // Sorted
+        list.toList().sort(Comparator.comparing(Path::getAbsolute).reversed());
+        assertSame(t101, list.find(new DefaultPathPredicate(t101)));
+        assertSame(t100, list.find(new DefaultPathPredicate(t100)));
+        assertTrue(list.removeAll(Collections.singletonList(t101)));
+        assertNull(list.get(t101));
+        list.clear();
+        assertNull(list.find(new DefaultPathPredicate(t100)));
+    }
+
+    @Test
+    public void testFindChangedReference() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        final Path b = new Path("/b", EnumSet.of(Path.Type.file));
+        list.add(a);
+        list.add(b);
+        assertSame(a, list.get(new Path("/a", EnumSet.of(Path.Type.file))));
+        // Reference changed after index is built
+        a.attributes().setVersionId("1");
+        final Path version = new Path("/a", EnumSet.of(Path.Type.file));
+        version.attributes().setVersionId("1");
+        assertSame(a, list.get(version));
+        assertTrue(list.contains(version));
+        assertSame(a, list.find(new DefaultPathPredicate(version)));
+        assertNull(list.get(new Path("/a", EnumSet.of(Path.Type.file))));
+        // Removed with reference it was indexed with
+        assertTrue(list.remove(version));
+        assertFalse(list.contains(version));
+        final Path replacement = new Path("/a", EnumSet.of(Path.Type.file));
+        list.add(replacement);
+        assertSame(replacement, list.get(new Path("/a", EnumSet.of(Path.Type.file))));
+        assertSame(b, list.get(b));
+    }
+
+    @Test
+    public void testFindHashCollision() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/Aa", EnumSet.of(Path.Type.file));
+        final Path b = new Path("/BB", EnumSet.of(Path.Type.file));
+        assertEquals(new DefaultPathPredicate(a).hashCode(), new DefaultPathPredicate(b).hashCode());
+        list.add(a);
+        list.add(b);
+        assertSame(a, list.find(new DefaultPathPredicate(a)));
+        assertSame(b, list.find(new DefaultPathPredicate(b)));
+        assertSame(b, list.get(new Path("/BB", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testFindDuplicate() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        final Path duplicate = new Path("/a", EnumSet.of(Path.Type.file));
+        list.add(a);
+        list.add(duplicate);
+        assertSame(a, list.find(new DefaultPathPredicate(duplicate)));
+        list.remove(0);
+        assertSame(duplicate, list.find(new DefaultPathPredicate(a)));
+        // Inserted before equal element
+        list.add(0, a);
+        assertSame(a, list.get(duplicate));
+        list.toList().sort(Comparator.comparing(System::identityHashCode));
+        assertSame(list.get(0), list.get(duplicate));
+    }
+
+    @Test
+    public void testToList() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        final Path b = new Path("/b", EnumSet.of(Path.Type.file));
+        final List<Path> view = list.toList();
+        view.add(b);
+        view.add(a);
+        assertEquals(2, list.size());
+        view.sort(Comparator.comparing(Path::getAbsolute));
+        assertEquals(a, list.get(0));
+        assertEquals(b, view.remove(1));
+        assertEquals(Collections.singletonList(a), list.toList());
+        assertSame(a, list.find(new DefaultPathPredicate(a)));
+        assertNull(list.find(new DefaultPathPredicate(b)));
+    }
+
+    @Test
+    public void testFilterSort() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        list.add(new Path("/c", EnumSet.of(Path.Type.file)));
+        list.add(new Path("/a", EnumSet.of(Path.Type.file)));
+        list.add(new Path("/b", EnumSet.of(Path.Type.directory)));
+        final AttributedList<Path> filtered = list.filter(Comparator.comparing(Path::getAbsolute), new NullFilter<Path>() {
+            @Override
+            public boolean accept(final Path file) {
+                return file.isFile();
+            }
+        });
+        assertEquals(2, filtered.size());
+        assertEquals("/a", filtered.get(0).getAbsolute());
+        assertEquals("/c", filtered.get(1).getAbsolute());
+        filtered.add(new Path("/d", EnumSet.of(Path.Type.file)));
+        assertEquals(3, filtered.size());
+        assertEquals(3, list.size());
+        assertEquals("/c", list.get(0).getAbsolute());
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testPerformance() {
+        for(int size : new int[]{10000, 100000, 1000000}) {
+            final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+            final Path[] files = new Path[size];
+            for(int i = 0; i < size; i++) {
+                files[i] = new Path(directory, String.format("t%d", i), EnumSet.of(Path.Type.file));
+            }
+            final AttributedList<Path> list = new AttributedList<Path>();
+            final long add = System.nanoTime();
+            for(Path file : files) {
+                list.add(file);
+            }
+            final long added = System.nanoTime() - add;
+            final int lookups = 1000;
+            final long find = System.nanoTime();
+            for(int i = 0; i < lookups; i++) {
+                assertNotNull(list.find(new DefaultPathPredicate(files[(i * 7919) % size])));
+            }
+            final long found = System.nanoTime() - find;
+            final long iterate = System.nanoTime();
+            int count = 0;
+            for(Path ignored : list) {
+                count++;
+            }
+            final long iterated = System.nanoTime() - iterate;
+            assertEquals(size, count);
+            log.info(String.format("List with %d entries. Add %d ns/op, find %d ns/op including index, iterate %d ms", size,
+                added / size, found / lookups, iterated / 1000000));
+        }
+    }
 }
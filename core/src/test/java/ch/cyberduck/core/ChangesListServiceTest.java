@@ -0,0 +1,230 @@
+package ch.cyberduck.core;
+
+import ch.cyberduck.core.cache.ListingValidator;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Changes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ChangesListServiceTest {
+
+    private final Path home = new Path("/home", EnumSet.of(Path.Type.directory));
+    private final Path folder = new Path(home, "folder", EnumSet.of(Path.Type.directory), new PathAttributes().withVersionId("3"));
+    private final Path a = new Path(home, "a", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("1"));
+    private final Path b = new Path(folder, "b", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("2"));
+
+    @Test
+    public void testListSavesCursor() throws Exception {
+        final AtomicInteger listed = new AtomicInteger();
+        final ChangesListService service = new ChangesListService(new Listing(listed), new Feed("c1", null));
+        final AttributedList<Path> list = service.list(home, new DisabledListProgressListener());
+        assertEquals(1, listed.get());
+        assertEquals(2, list.size());
+        assertEquals("c1", list.attributes().getCursor());
+    }
+
+    @Test
+    public void testNewListingReusesParentCursor() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final Feed feed = new Feed("c1", null);
+        final ChangesListService service = new ChangesListService(new Listing(new AtomicInteger()), feed);
+        service.withCache(cache);
+        cache.put(home, service.list(home, new DisabledListProgressListener()));
+        assertEquals(1, feed.requested);
+        feed.cursor = "c2";
+        // Cursor of parent obtained before
+        assertEquals("c1", service.list(folder, new DisabledListProgressListener()).attributes().getCursor());
+        assertEquals(1, feed.requested);
+        // Parent not cached
+        assertEquals("c2", service.list(new Path("/other", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener()).attributes().getCursor());
+        assertEquals(2, feed.requested);
+        assertEquals("c1", cache.get(home).attributes().getCursor());
+    }
+
+    @Test
+    public void testCursorSavedWithListing() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final ListingValidator validator = (d, cached) -> true;
+        final AtomicInteger listed = new AtomicInteger();
+        {
+            final PersistentPathCache cache = new PersistentPathCache(directory, 100L, validator);
+            final ChangesListService service = new ChangesListService(new Listing(listed), new Feed("c1", null));
+            service.withCache(cache);
+            cache.put(home, service.list(home, new DisabledListProgressListener()));
+            cache.flush();
+        }
+        {
+            // Later session
+            final PersistentPathCache cache = new PersistentPathCache(directory, 100L, validator);
+            final Feed feed = new Feed("c1", new Changes.Changeset(Collections.singletonList(Changes.Change.deleted("1")), "c2"));
+            final ChangesListService service = new ChangesListService(new Listing(listed), feed);
+            service.withCache(cache);
+            final AttributedList<Path> list = service.list(home, new DisabledListProgressListener());
+            assertEquals(1, listed.get());
+            assertEquals(Collections.singletonList(folder), list.toList());
+            assertEquals("c2", list.attributes().getCursor());
+            cache.flush();
+        }
+        assertEquals("c2", new PersistentPathCache(directory, 100L, validator).get(home).attributes().getCursor());
+    }
+
+    @Test
+    public void testListAppliesChanges() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final AtomicInteger listed = new AtomicInteger();
+        final Path c = new Path(home, "c", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("4"));
+        final Path moved = new Path(folder, "a", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("1"));
+        final Feed feed = new Feed("c1", new Changes.Changeset(Arrays.asList(
+            Changes.Change.modified(c), Changes.Change.modified(moved), Changes.Change.deleted("2")), "c2"));
+        final ChangesListService service = new ChangesListService(new Listing(listed), feed);
+        service.withCache(cache);
+        cache.put(home, service.list(home, new DisabledListProgressListener()));
+        cache.put(folder, service.list(folder, new DisabledListProgressListener()));
+        assertEquals(2, listed.get());
+        final AttributedList<Path> list = service.list(home, new DisabledListProgressListener());
+        assertEquals(2, listed.get());
+        assertEquals("c1", feed.cursor);
+        assertEquals("c2", list.attributes().getCursor());
+        assertEquals(2, list.size());
+        assertTrue(list.contains(folder));
+        assertTrue(list.contains(c));
+        assertFalse(list.contains(a));
+        // Listing of other directory updated with same changes
+        final AttributedList<Path> children = cache.get(folder);
+        assertEquals("c2", children.attributes().getCursor());
+        assertEquals(Collections.singletonList(moved), children.toList());
+    }
+
+    @Test
+    public void testDeleteDirectoryRemovesListing() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final Feed feed = new Feed("c1", new Changes.Changeset(Collections.singletonList(Changes.Change.deleted(folder)), "c2"));
+        final ChangesListService service = new ChangesListService(new Listing(new AtomicInteger()), feed);
+        service.withCache(cache);
+        cache.put(home, service.list(home, new DisabledListProgressListener()));
+        cache.put(folder, service.list(folder, new DisabledListProgressListener()));
+        final AttributedList<Path> list = service.list(home, new DisabledListProgressListener());
+        assertEquals(Collections.singletonList(a), list.toList());
+        assertFalse(cache.isCached(folder));
+    }
+
+    @Test
+    public void testApplySkipsOutdatedListing() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final Feed feed = new Feed("c1", new Changes.Changeset(Collections.singletonList(Changes.Change.deleted("2")), "c2"));
+        final ChangesListService service = new ChangesListService(new Listing(new AtomicInteger()), feed);
+        service.withCache(cache);
+        cache.put(home, service.list(home, new DisabledListProgressListener()));
+        final AttributedList<Path> outdated = new AttributedList<>(Collections.singletonList(b));
+        outdated.attributes().setCursor("c0");
+        cache.put(folder, outdated);
+        service.list(home, new DisabledListProgressListener());
+        assertSame(outdated, cache.get(folder));
+        assertEquals("c0", outdated.attributes().getCursor());
+    }
+
+    @Test
+    public void testExpiredCursor() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final AtomicInteger listed = new AtomicInteger();
+        final Feed feed = new Feed("c1", null) {
+            @Override
+            public Changeset changes(final Path directory, final String cursor, final ListProgressListener listener) throws BackgroundException {
+                this.cursor = "c3";
+                throw new NotfoundException(cursor);
+            }
+        };
+        final ChangesListService service = new ChangesListService(new Listing(listed), feed);
+        service.withCache(cache);
+        cache.put(home, service.list(home, new DisabledListProgressListener()));
+        final AttributedList<Path> list = service.list(home, new DisabledListProgressListener());
+        assertEquals(2, listed.get());
+        assertEquals("c3", list.attributes().getCursor());
+    }
+
+    @Test
+    public void testUnsupported() throws Exception {
+        final AtomicInteger listed = new AtomicInteger();
+        final ChangesListService service = new ChangesListService(new Listing(listed), new Feed("c1", null) {
+            @Override
+            public boolean isSupported(final Path directory) {
+                return false;
+            }
+        });
+        final AttributedList<Path> list = service.list(home, new DisabledListProgressListener());
+        assertEquals(1, listed.get());
+        assertNull(list.attributes().getCursor());
+    }
+
+    private final class Listing implements ListService {
+        private final AtomicInteger count;
+
+        public Listing(final AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+            count.incrementAndGet();
+            if(directory.equals(home)) {
+                return new AttributedList<>(Arrays.asList(folder, a));
+            }
+            if(directory.equals(folder)) {
+                return new AttributedList<>(Collections.singletonList(b));
+            }
+            return new AttributedList<>();
+        }
+
+        @Override
+        public ListService withCache(final Cache<Path> cache) {
+            return this;
+        }
+    }
+
+    private static class Feed implements Changes {
+        protected String cursor;
+        private final Changeset changeset;
+        /**
+         * Number of cursors obtained
+         */
+        private int requested;
+
+        public Feed(final String cursor, final Changeset changeset) {
+            this.cursor = cursor;
+            this.changeset = changeset;
+        }
+
+        @Override
+        public boolean isSupported(final Path directory) {
+            return true;
+        }
+
+        @Override
+        public String getCursor(final Path directory) {
+            requested++;
+            return cursor;
+        }
+
+        @Override
+        public Changeset changes(final Path directory, final String cursor, final ListProgressListener listener) throws BackgroundException {
+            assertEquals(this.cursor, cursor);
+            return null == changeset ? new Changeset(new ArrayList<>(), cursor) : changeset;
+        }
+
+        @Override
+        public Changes withCache(final Cache<Path> cache) {
+            return this;
+        }
+    }
+}
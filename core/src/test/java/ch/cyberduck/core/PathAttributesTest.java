@@ -67,4 +67,22 @@ public class PathAttributesTest {
         assertEquals(attributes.getRegion(), deserialized.getRegion());
         assertEquals(attributes.getStorageClass(), deserialized.getStorageClass());
     }
+
+    @Test
+    public void testCopyExtended() {
+        final PathAttributes attributes = new PathAttributes();
+        assertEquals(Acl.EMPTY, attributes.getAcl());
+        assertEquals(DescriptiveUrl.EMPTY, attributes.getLink());
+        assertTrue(attributes.getMetadata().isEmpty());
+        assertTrue(attributes.getCustom().isEmpty());
+        assertTrue(attributes.getVersions().isEmpty());
+        assertNull(attributes.getLockId());
+        attributes.setLockId("l");
+        attributes.withCustom("k", "v");
+        final PathAttributes copy = new PathAttributes(attributes);
+        copy.setLockId("c");
+        assertEquals("l", attributes.getLockId());
+        assertEquals("c", copy.getLockId());
+        assertEquals("v", copy.getCustom().get("k"));
+    }
 }
@@ -1,16 +1,21 @@
 package ch.cyberduck.core;
 
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.log4j.Logger;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
 
 public class PathCacheTest {
+    private static final Logger log = Logger.getLogger(PathCacheTest.class);
 
     @Test
     public void testLookup() {
-        final Cache<Path> cache = new ReverseLookupCache<Path>(new PathCache(1), 1);
+        final Cache<Path> cache = new PathCache(1);
         assertNull(cache.lookup(new DefaultPathPredicate(new Path("/", EnumSet.of(Path.Type.directory)))));
         final AttributedList<Path> list = new AttributedList<Path>();
         final Path directory = new Path("p", EnumSet.of(Path.Type.directory));
@@ -23,6 +28,107 @@ public class PathCacheTest {
         assertNotNull(cache.lookup(new DefaultPathPredicate(file2)));
     }
 
+    @Test
+    public void testLookupIndex() {
+        final Cache<Path> cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file1 = new Path(directory, "name1", EnumSet.of(Path.Type.file));
+        final AttributedList<Path> list = new AttributedList<Path>();
+        list.add(file1);
+        cache.put(directory, list);
+        assertSame(file1, cache.lookup(new DefaultPathPredicate(file1)));
+        // Added to cached listing is found by scanning modified listing
+        final Path file2 = new Path(directory, "name2", EnumSet.of(Path.Type.file));
+        list.add(file2);
+        assertSame(file2, cache.lookup(new DefaultPathPredicate(file2)));
+        cache.put(directory, list);
+        assertSame(file2, cache.lookup(new DefaultPathPredicate(file2)));
+        // Removed from cached listing
+        list.remove(file1);
+        assertNull(cache.lookup(new DefaultPathPredicate(file1)));
+        // Replaced listing
+        final Path file3 = new Path(directory, "name3", EnumSet.of(Path.Type.file));
+        final AttributedList<Path> replaced = new AttributedList<Path>();
+        replaced.add(file3);
+        cache.put(directory, replaced);
+        assertNull(cache.lookup(new DefaultPathPredicate(file2)));
+        assertSame(file3, cache.lookup(new DefaultPathPredicate(file3)));
+        // Evicted listing
+        final Path other = new Path("/o", EnumSet.of(Path.Type.directory));
+        cache.put(other, new AttributedList<Path>());
+        assertFalse(cache.isCached(directory));
+        assertNull(cache.lookup(new DefaultPathPredicate(file3)));
+        cache.put(directory, replaced);
+        cache.remove(directory);
+        assertNull(cache.lookup(new DefaultPathPredicate(file3)));
+    }
+
+    @Test
+    public void testLookupAddedAfterCached() {
+        final Cache<Path> cache = new PathCache(2);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<Path>();
+        list.add(new Path(directory, "a", EnumSet.of(Path.Type.file)));
+        cache.put(directory, list);
+        final AttributedList<Path> other = new AttributedList<Path>();
+        cache.put(new Path("/o", EnumSet.of(Path.Type.directory)), other);
+        final Path file = new Path(directory, "b", EnumSet.of(Path.Type.file));
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+        list.add(file);
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        list.remove(file);
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testLookupPerformance() {
+        for(int size : new int[]{10000, 100000, 1000000}) {
+            final PathCache cache = new PathCache(Integer.MAX_VALUE);
+            final int directories = size / 1000;
+            for(int i = 0; i < directories; i++) {
+                final Path directory = new Path(String.format("/d%d", i), EnumSet.of(Path.Type.directory));
+                final AttributedList<Path> list = new AttributedList<Path>();
+                for(int j = 0; j < 1000; j++) {
+                    list.add(new Path(directory, String.format("t%d", j), EnumSet.of(Path.Type.file)));
+                }
+                cache.put(directory, list);
+            }
+            final int lookups = 100;
+            final long start = System.nanoTime();
+            for(int i = 0; i < lookups; i++) {
+                final Path file = new Path(String.format("/d%d/t%d", (i * 7) % directories, (i * 13) % 1000), EnumSet.of(Path.Type.file));
+                assertNotNull(cache.lookup(new DefaultPathPredicate(file)));
+            }
+            final long indexed = System.nanoTime() - start;
+            final long miss = System.nanoTime();
+            for(int i = 0; i < lookups; i++) {
+                final Path file = new Path(String.format("/d%d/m%d", (i * 7) % directories, i), EnumSet.of(Path.Type.file));
+                assertNull(cache.lookup(new DefaultPathPredicate(file)));
+            }
+            final long missed = System.nanoTime() - miss;
+            final long scan = System.nanoTime();
+            for(int i = 0; i < lookups; i++) {
+                final Path file = new Path(String.format("/d%d/t%d", (i * 7) % directories, (i * 13) % 1000), EnumSet.of(Path.Type.file));
+                final DefaultPathPredicate reference = new DefaultPathPredicate(file);
+                Path found = null;
+                for(AttributedList<Path> list : cache.asMap().values()) {
+                    found = list.find(reference);
+                    if(null != found) {
+                        break;
+                    }
+                }
+                assertNotNull(found);
+            }
+            final long linear = System.nanoTime() - scan;
+            log.info(String.format("Lookup in %d cached paths with index %d ns/op, miss %d ns/op and linear scan %d ns/op", size,
+                indexed / lookups, missed / lookups, linear / lookups));
+            // Misses are resolved from the index without scanning cached listings
+            assertTrue(missed < linear);
+            cache.clear();
+        }
+    }
+
     @Test
     public void testIsEmpty() {
         final PathCache cache = new PathCache(1);
@@ -19,14 +19,18 @@ package ch.cyberduck.core;
  */
 
 import ch.cyberduck.core.serializer.PathDictionary;
+import ch.cyberduck.test.IntegrationTest;
 
+import org.apache.log4j.Logger;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
 
 public class PathTest {
+    private static final Logger log = Logger.getLogger(PathTest.class);
 
     @Test
     public void testDictionaryDirectory() {
@@ -155,4 +159,53 @@ public class PathTest {
         assertNotEquals(new Path("19.vcf.gz", EnumSet.of(Path.Type.file)), new Path("0X.vcf.gz", EnumSet.of(Path.Type.file)));
         assertNotEquals(new Path("/d/2R", EnumSet.of(Path.Type.directory)), new Path("/d/33", EnumSet.of(Path.Type.directory)));
     }
+
+    @Test
+    public void testAbsoluteFromParent() {
+        final Path root = new Path("/", EnumSet.of(Path.Type.directory));
+        assertTrue(root.isRoot());
+        final Path directory = new Path(root, "d", EnumSet.of(Path.Type.directory));
+        assertFalse(directory.isRoot());
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        assertEquals("/d/f", file.getAbsolute());
+        // Computed once
+        assertSame(file.getAbsolute(), file.getAbsolute());
+        assertEquals("f", file.getName());
+        assertFalse(file.isRoot());
+        assertEquals("/d/a/f", new Path(directory, "a/f", EnumSet.of(Path.Type.file)).getAbsolute());
+        assertEquals("f", new Path(directory, "a/f", EnumSet.of(Path.Type.file)).getName());
+        assertEquals("/d/f", new Path(directory, "/f", EnumSet.of(Path.Type.file)).getAbsolute());
+        assertEquals("/f", new Path(root, "f", EnumSet.of(Path.Type.file)).getAbsolute());
+        assertEquals(file, new Path(file));
+        assertEquals("/d/f", new Path(file).getAbsolute());
+        assertTrue(new Path(root, "", EnumSet.of(Path.Type.file)).isRoot());
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testMemory() {
+        final int size = 200000;
+        final Path directory = new Path("/bucket/a/b/c", EnumSet.of(Path.Type.directory));
+        final Path[] files = new Path[size];
+        final long before = this.used();
+        for(int i = 0; i < size; i++) {
+            final Path file = new Path(directory, String.format("file-%08d.txt", i), EnumSet.of(Path.Type.file));
+            file.attributes().setSize(i);
+            file.attributes().setModificationDate(i);
+            file.attributes().setETag(String.format("%032x", i));
+            file.attributes().setPermission(Permission.intern(new Permission(644)));
+            files[i] = file;
+        }
+        final long after = this.used();
+        assertEquals(size, files.length);
+        log.info(String.format("Retained %d bytes per file for %d files", (after - before) / size, size));
+    }
+
+    private long used() {
+        final Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 }
@@ -172,4 +172,30 @@ public class PermissionTest {
         assertTrue(new Permission("--------t").getOther().implies(Permission.Action.execute));
         assertFalse(new Permission("--------T").getOther().implies(Permission.Action.execute));
     }
+
+    @Test
+    public void testIntern() {
+        final Permission p = Permission.intern(new Permission(644));
+        assertSame(p, Permission.intern(new Permission(644)));
+        assertSame(p, Permission.intern(new Permission("rw-r--r--")));
+        assertNotSame(p, Permission.intern(new Permission(755)));
+        assertSame(Permission.EMPTY, Permission.intern(Permission.EMPTY));
+        assertNull(Permission.intern(null));
+        assertSame(p, Permission.intern(p));
+        assertEquals(new Permission(644), p);
+        assertSame(Permission.intern(new Permission(7777)), Permission.intern(new Permission("rwsrwsrwt")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInternImmutable() {
+        Permission.intern(new Permission(644)).setUser(Permission.Action.all);
+    }
+
+    @Test
+    public void testInternCopy() {
+        final Permission copy = new Permission(Permission.intern(new Permission(644)));
+        copy.setUser(Permission.Action.all);
+        assertEquals("744", copy.getMode());
+        assertEquals("644", Permission.intern(new Permission(644)).getMode());
+    }
 }
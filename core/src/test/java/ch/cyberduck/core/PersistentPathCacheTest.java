@@ -0,0 +1,203 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.cache.AttributesListingValidator;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class PersistentPathCacheTest {
+
+    @Test
+    public void testLoadSaved() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        directory.attributes().setModificationDate(1000L);
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        file.attributes().setSize(3L);
+        file.attributes().setETag("e");
+        list.add(file);
+        list.add(new Path(directory, "s", EnumSet.of(Path.Type.directory)));
+        final PersistentPathCache writer = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+        writer.put(directory, list);
+        writer.flush();
+        {
+            final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+            // Not read from disk
+            assertFalse(cache.containsKey(directory));
+            assertTrue(cache.isCached(directory));
+            assertTrue(cache.containsKey(directory));
+            assertTrue(cache.isValid(directory));
+            final AttributedList<Path> saved = cache.get(directory);
+            assertEquals(2, saved.size());
+            assertEquals(file, saved.get(0));
+            assertEquals(3L, saved.get(0).attributes().getSize());
+            assertEquals("e", saved.get(0).attributes().getETag());
+            assertSame(directory, saved.get(0).getParent());
+            assertTrue(saved.get(1).isDirectory());
+            assertNotNull(cache.lookup(new DefaultPathPredicate(file)));
+        }
+        {
+            // Modified since saved
+            final Path modified = new Path("/d", EnumSet.of(Path.Type.directory));
+            modified.attributes().setModificationDate(2000L);
+            final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+            assertFalse(cache.isCached(modified));
+            assertTrue(cache.get(modified).isEmpty());
+            cache.flush();
+            // Discarded
+            assertFalse(new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit)).isCached(directory));
+        }
+    }
+
+    @Test
+    public void testModificationDateExplicitTimestamp() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        directory.attributes().setModificationDate(1000L);
+        final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.explicit));
+        cache.put(directory, new AttributedList<>());
+        cache.flush();
+        assertFalse(new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.explicit)).isCached(directory));
+    }
+
+    @Test
+    public void testMemoryLimitedByFiles() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final PersistentPathCache cache = new PersistentPathCache(folder, 10L, new AttributesListingValidator());
+        final Path small = new Path("/s", EnumSet.of(Path.Type.directory));
+        small.attributes().setETag("s");
+        final AttributedList<Path> one = new AttributedList<>();
+        one.add(new Path(small, "f", EnumSet.of(Path.Type.file)));
+        cache.put(small, one);
+        assertTrue(cache.containsKey(small));
+        final Path large = new Path("/l", EnumSet.of(Path.Type.directory));
+        large.attributes().setETag("l");
+        final AttributedList<Path> many = new AttributedList<>();
+        for(int i = 0; i < 20; i++) {
+            many.add(new Path(large, String.valueOf(i), EnumSet.of(Path.Type.file)));
+        }
+        cache.put(large, many);
+        // Exceeds memory limit
+        assertFalse(cache.containsKey(large));
+        assertTrue(cache.isCached(large));
+        assertEquals(20, cache.get(large).size());
+        assertTrue(cache.containsKey(small));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        directory.attributes().setETag("e");
+        final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+        cache.put(directory, new AttributedList<>());
+        cache.invalidate(directory);
+        cache.flush();
+        assertFalse(cache.isValid(directory));
+        assertFalse(new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit)).isCached(directory));
+    }
+
+    @Test
+    public void testNoValidationAttributes() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+        cache.put(directory, new AttributedList<>());
+        cache.flush();
+        assertFalse(new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit)).isCached(directory));
+    }
+
+    @Test
+    public void testMissingAttributesKeepsSaved() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        directory.attributes().setETag("e");
+        final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator());
+        cache.put(directory, new AttributedList<>());
+        cache.flush();
+        {
+            final PersistentPathCache reader = new PersistentPathCache(folder, 100L, new AttributesListingValidator());
+            // No attributes to compare
+            assertFalse(reader.isCached(new Path("/d", EnumSet.of(Path.Type.directory))));
+            reader.flush();
+        }
+        assertTrue(new PersistentPathCache(folder, 100L, new AttributesListingValidator()).isCached(directory));
+        {
+            final PersistentPathCache reader = new PersistentPathCache(folder, 100L, new AttributesListingValidator());
+            final Path modified = new Path("/d", EnumSet.of(Path.Type.directory));
+            modified.attributes().setETag("m");
+            assertFalse(reader.isCached(modified));
+            reader.flush();
+        }
+        // Discarded when outdated
+        assertFalse(new PersistentPathCache(folder, 100L, new AttributesListingValidator()).isCached(directory));
+    }
+
+    @Test
+    public void testSkipVault() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory, Path.Type.decrypted));
+        directory.attributes().setETag("e");
+        final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+        cache.put(directory, new AttributedList<>());
+        cache.flush();
+        assertFalse(folder.exists());
+    }
+
+    @Test
+    public void testCoalesceWrites() throws Exception {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        directory.attributes().setETag("e");
+        final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+        for(int i = 0; i < 10; i++) {
+            final AttributedList<Path> list = new AttributedList<>();
+            list.add(new Path(directory, String.valueOf(i), EnumSet.of(Path.Type.file)));
+            cache.put(directory, list);
+        }
+        cache.flush();
+        final PersistentPathCache saved = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+        assertEquals("9", saved.get(directory).get(0).getName());
+        // No temporary files left
+        assertEquals(1, folder.list().size());
+        cache.remove(directory);
+        cache.flush();
+        assertTrue(folder.list().isEmpty());
+    }
+
+    @Test
+    public void testClearWritesPending() {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        directory.attributes().setModificationDate(1000L);
+        final PersistentPathCache cache = new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit));
+        cache.put(directory, new AttributedList<>());
+        cache.clear();
+        assertFalse(cache.containsKey(directory));
+        assertTrue(new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit)).isCached(directory));
+        // Writer restarted for changes after clear
+        cache.remove(directory);
+        cache.shutdown();
+        assertFalse(new PersistentPathCache(folder, 100L, new AttributesListingValidator(Protocol.DirectoryTimestamp.implicit)).isCached(directory));
+    }
+}
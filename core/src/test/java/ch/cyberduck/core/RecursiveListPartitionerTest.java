@@ -0,0 +1,61 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RecursiveListPartitionerTest {
+
+    @Test
+    public void testPartition() {
+        final Path directory = new Path("/b/d", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> files = new AttributedList<>();
+        files.add(new Path("/b/d/a", EnumSet.of(Path.Type.file)));
+        files.add(new Path("/b/d/p", EnumSet.of(Path.Type.directory)));
+        files.add(new Path("/b/d/p/f", EnumSet.of(Path.Type.file)));
+        files.add(new Path("/b/d/s/t/f", EnumSet.of(Path.Type.file)));
+        files.add(new Path("/b/d/s/g", EnumSet.of(Path.Type.file)));
+        final Map<Path, AttributedList<Path>> listings = new RecursiveListPartitioner().partition(directory, files);
+        assertEquals(4, listings.size());
+        final AttributedList<Path> root = listings.get(directory);
+        assertEquals(3, root.size());
+        assertEquals(new Path("/b/d/a", EnumSet.of(Path.Type.file)), root.get(0));
+        assertEquals(new Path("/b/d/p", EnumSet.of(Path.Type.directory)), root.get(1));
+        assertFalse(root.get(1).getType().contains(Path.Type.placeholder));
+        assertEquals(new Path("/b/d/s", EnumSet.of(Path.Type.directory)), root.get(2));
+        assertTrue(root.get(2).getType().contains(Path.Type.placeholder));
+        assertEquals(1, listings.get(new Path("/b/d/p", EnumSet.of(Path.Type.directory))).size());
+        final AttributedList<Path> s = listings.get(new Path("/b/d/s", EnumSet.of(Path.Type.directory)));
+        assertEquals(2, s.size());
+        assertEquals(new Path("/b/d/s/t", EnumSet.of(Path.Type.directory)), s.get(0));
+        assertEquals(new Path("/b/d/s/g", EnumSet.of(Path.Type.file)), s.get(1));
+        assertEquals(new Path("/b/d/s/t/f", EnumSet.of(Path.Type.file)),
+            listings.get(new Path("/b/d/s/t", EnumSet.of(Path.Type.directory))).get(0));
+    }
+
+    @Test
+    public void testPartitionEmpty() {
+        final Path directory = new Path("/b/d", EnumSet.of(Path.Type.directory));
+        final Map<Path, AttributedList<Path>> listings = new RecursiveListPartitioner().partition(directory, new AttributedList<>());
+        assertEquals(1, listings.size());
+        assertTrue(listings.get(directory).isEmpty());
+    }
+}
@@ -0,0 +1,314 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.DisabledTranscriptListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Scheme;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.proxy.DisabledProxyFinder;
+import ch.cyberduck.core.proxy.Proxy;
+import ch.cyberduck.core.ssl.DefaultX509KeyManager;
+import ch.cyberduck.core.ssl.DisabledX509TrustManager;
+import ch.cyberduck.core.ssl.ThreadLocalHostnameDelegatingTrustManager;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicServerExchangeHandler;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class Http2ClientConnectionManagerTest {
+    private static final Logger log = Logger.getLogger(Http2ClientConnectionManagerTest.class);
+
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private HttpAsyncServer server;
+    private int port;
+
+    private void start(final HttpVersionPolicy policy) throws Exception {
+        server = H2ServerBootstrap.bootstrap()
+            .setVersionPolicy(policy)
+            .setIOSessionListener(new IOSessionListener() {
+                @Override
+                public void connected(final IOSession session) {
+                    connections.incrementAndGet();
+                }
+
+                @Override
+                public void startTls(final IOSession session) {
+                }
+
+                @Override
+                public void inputReady(final IOSession session) {
+                }
+
+                @Override
+                public void outputReady(final IOSession session) {
+                }
+
+                @Override
+                public void timeout(final IOSession session) {
+                }
+
+                @Override
+                public void exception(final IOSession session, final Exception e) {
+                }
+
+                @Override
+                public void disconnected(final IOSession session) {
+                }
+            })
+            .register("*", () -> new AbstractClassicServerExchangeHandler(8192, handlers) {
+                @Override
+                protected void handle(final org.apache.hc.core5.http.HttpRequest request, final InputStream in,
+                                      final org.apache.hc.core5.http.HttpResponse response, final OutputStream out,
+                                      final org.apache.hc.core5.http.protocol.HttpContext context) throws java.io.IOException {
+                    response.setCode(200);
+                    response.setHeader("Content-Type", ContentType.APPLICATION_OCTET_STREAM.toString());
+                    if("PUT".equals(request.getMethod())) {
+                        // Echo request entity
+                        IOUtils.copy(in, out);
+                    }
+                    else if(request.getPath().startsWith("/stall/")) {
+                        // Send partial response exceeding buffer and stop writing to stream
+                        out.write(new byte[Integer.parseInt(StringUtils.substringAfterLast(request.getPath(), "/"))]);
+                        try {
+                            Thread.sleep(60000L);
+                        }
+                        catch(InterruptedException e) {
+                            throw new InterruptedIOException();
+                        }
+                    }
+                    else if(request.getPath().startsWith("/slow/")) {
+                        // Write chunk exceeding buffer every 100ms
+                        for(int i = 0; i < Integer.parseInt(StringUtils.substringAfterLast(request.getPath(), "/")); i++) {
+                            out.write(new byte[16384]);
+                            try {
+                                Thread.sleep(100L);
+                            }
+                            catch(InterruptedException e) {
+                                throw new InterruptedIOException();
+                            }
+                        }
+                    }
+                    else {
+                        out.write(new byte[Integer.parseInt(request.getPath().substring(1))]);
+                    }
+                    out.close();
+                }
+            })
+            .create();
+        server.start();
+        final ListenerEndpoint endpoint = server.listen(new InetSocketAddress("localhost", 0), URIScheme.HTTP).get();
+        port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+    }
+
+    private void stop() {
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    @After
+    public void shutdown() {
+        this.stop();
+        handlers.shutdownNow();
+        PreferencesFactory.get().deleteProperty("http.h2.enable");
+        PreferencesFactory.get().deleteProperty("http.h2.cleartext.enable");
+        PreferencesFactory.get().deleteProperty("connection.timeout.seconds");
+    }
+
+    private CloseableHttpClient client(final boolean multiplex) {
+        PreferencesFactory.get().setProperty("http.h2.enable", multiplex);
+        PreferencesFactory.get().setProperty("http.h2.cleartext.enable", multiplex);
+        final Host host = new Host(new TestProtocol(Scheme.http), "localhost", port);
+        return new HttpConnectionPoolBuilder(host, new ThreadLocalHostnameDelegatingTrustManager(new DisabledX509TrustManager(), host.getHostname()),
+            new DefaultX509KeyManager(), new DisabledProxyFinder()).build(Proxy.DIRECT, new DisabledTranscriptListener(), new DisabledLoginCallback()).build();
+    }
+
+    @Test
+    public void testExchange() throws Exception {
+        this.start(HttpVersionPolicy.FORCE_HTTP_2);
+        try (CloseableHttpClient client = this.client(true)) {
+            final HttpResponse get = client.execute(new HttpGet(String.format("http://localhost:%d/1048576", port)));
+            assertEquals(200, get.getStatusLine().getStatusCode());
+            assertEquals(2, get.getStatusLine().getProtocolVersion().getMajor());
+            assertEquals(1048576, EntityUtils.toByteArray(get.getEntity()).length);
+            final byte[] content = RandomUtils.nextBytes(100000);
+            final HttpPut put = new HttpPut(String.format("http://localhost:%d/", port));
+            put.setEntity(new ByteArrayEntity(content));
+            final HttpResponse response = client.execute(put);
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertArrayEquals(content, EntityUtils.toByteArray(response.getEntity()));
+        }
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void testExpectContinue() throws Exception {
+        this.start(HttpVersionPolicy.FORCE_HTTP_2);
+        try (CloseableHttpClient client = this.client(true)) {
+            final byte[] content = RandomUtils.nextBytes(1000);
+            final HttpPut put = new HttpPut(String.format("http://localhost:%d/", port));
+            put.addHeader(HTTP.EXPECT_DIRECTIVE, HTTP.EXPECT_CONTINUE);
+            put.setEntity(new ByteArrayEntity(content));
+            final long start = System.currentTimeMillis();
+            final HttpResponse response = client.execute(put);
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertArrayEquals(content, EntityUtils.toByteArray(response.getEntity()));
+            // No wait for interim response before sending entity
+            assertTrue(System.currentTimeMillis() - start < 3000L);
+        }
+    }
+
+    @Test
+    public void testConcurrentStreams() throws Exception {
+        this.start(HttpVersionPolicy.FORCE_HTTP_2);
+        try (CloseableHttpClient client = this.client(true)) {
+            final ExecutorService executor = Executors.newFixedThreadPool(20);
+            try {
+                final List<Future<Integer>> results = new ArrayList<>();
+                for(int i = 0; i < 100; i++) {
+                    results.add(executor.submit(() -> EntityUtils.toByteArray(client.execute(
+                        new HttpGet(String.format("http://localhost:%d/65536", port))).getEntity()).length));
+                }
+                for(Future<Integer> result : results) {
+                    assertEquals(65536, result.get().intValue());
+                }
+            }
+            finally {
+                executor.shutdown();
+            }
+        }
+        // All requests multiplexed on single connection
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void testAbortResponse() throws Exception {
+        this.start(HttpVersionPolicy.FORCE_HTTP_2);
+        try (CloseableHttpClient client = this.client(true)) {
+            final HttpGet request = new HttpGet(String.format("http://localhost:%d/10485760", port));
+            final HttpResponse response = client.execute(request);
+            assertEquals(0, response.getEntity().getContent().read());
+            // Reset stream without reading remaining response
+            request.abort();
+            assertEquals(4096, EntityUtils.toByteArray(client.execute(
+                new HttpGet(String.format("http://localhost:%d/4096", port))).getEntity()).length);
+        }
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void testStalledStream() throws Exception {
+        PreferencesFactory.get().setProperty("connection.timeout.seconds", 1);
+        this.start(HttpVersionPolicy.FORCE_HTTP_2);
+        try (CloseableHttpClient client = this.client(true)) {
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                // Keep connection busy with data received on other stream
+                final Future<Integer> slow = executor.submit(() -> EntityUtils.toByteArray(client.execute(
+                    new HttpGet(String.format("http://localhost:%d/slow/40", port))).getEntity()).length);
+                final HttpResponse response = client.execute(new HttpGet(String.format("http://localhost:%d/stall/16384", port)));
+                assertEquals(200, response.getStatusLine().getStatusCode());
+                final InputStream in = response.getEntity().getContent();
+                assertEquals(16384, IOUtils.read(in, new byte[16384]));
+                final long start = System.currentTimeMillis();
+                try {
+                    in.read();
+                    fail();
+                }
+                catch(SocketTimeoutException e) {
+                    assertTrue(System.currentTimeMillis() - start < 3000L);
+                }
+                // Connection not affected by reset of stalled stream
+                assertEquals(40 * 16384, slow.get().intValue());
+            }
+            finally {
+                executor.shutdown();
+            }
+        }
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testThroughput() throws Exception {
+        for(boolean multiplex : new boolean[]{false, true}) {
+            connections.set(0);
+            this.start(multiplex ? HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.FORCE_HTTP_1);
+            try (CloseableHttpClient client = this.client(multiplex)) {
+                final ExecutorService executor = Executors.newFixedThreadPool(32);
+                try {
+                    final long start = System.currentTimeMillis();
+                    final List<Future<Integer>> results = new ArrayList<>();
+                    for(int i = 0; i < 2000; i++) {
+                        results.add(executor.submit(() -> EntityUtils.toByteArray(client.execute(
+                            new HttpGet(String.format("http://localhost:%d/262144", port))).getEntity()).length));
+                    }
+                    for(Future<Integer> result : results) {
+                        assertEquals(262144, result.get().intValue());
+                    }
+                    final long elapsed = System.currentTimeMillis() - start;
+                    log.info(String.format("%s: %d requests with 32 threads in %d ms (%.1f requests/s) on %d connections",
+                        multiplex ? "HTTP/2" : "HTTP/1.1", results.size(), elapsed, results.size() * 1000d / elapsed, connections.get()));
+                }
+                finally {
+                    executor.shutdown();
+                }
+            }
+            finally {
+                this.stop();
+            }
+        }
+    }
+}
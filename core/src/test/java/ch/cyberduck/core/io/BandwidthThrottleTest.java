@@ -0,0 +1,125 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.transfer.Speedometer;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class BandwidthThrottleTest {
+    private static final Logger log = Logger.getLogger(BandwidthThrottleTest.class);
+
+    @Test
+    public void testUnlimited() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+        assertEquals(1048576, throttle.request(1048576));
+    }
+
+    @Test
+    public void testRequest() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(100000f);
+        // Never more than a tick
+        assertEquals(10000, throttle.request(1048576));
+        assertEquals(1, throttle.request(1));
+        // Served from batch reserved for thread
+        assertEquals(100, throttle.request(100));
+    }
+
+    @Test
+    public void testRate() throws Exception {
+        final BandwidthThrottle throttle = new BandwidthThrottle(1048576f);
+        final AtomicLong transferred = new AtomicLong();
+        final long start = System.currentTimeMillis();
+        this.write(throttle, 32, 65536, transferred);
+        final long elapsed = System.currentTimeMillis() - start;
+        // 2MB at 1MB/s with initial burst of a tick
+        assertEquals(32 * 65536L, transferred.get());
+        assertTrue(String.valueOf(elapsed), elapsed >= 1800L);
+        assertTrue(String.valueOf(elapsed), elapsed < 3000L);
+    }
+
+    @Test
+    public void testSetRate() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+        throttle.setRate(1000f);
+        assertEquals(1000f, throttle.getRate(), 0f);
+        assertEquals(100, throttle.request(1000));
+        throttle.setShare(500f);
+        assertEquals(500f, throttle.getShare(), 0f);
+        throttle.setRate(BandwidthThrottle.UNLIMITED);
+        throttle.setShare(BandwidthThrottle.UNLIMITED);
+        assertEquals(1000, throttle.request(1000));
+    }
+
+    /**
+     * Write with concurrent streams sharing throttle
+     *
+     * @param streams Number of streams
+     * @param length  Bytes to write per stream
+     */
+    private void write(final BandwidthThrottle throttle, final int streams, final int length, final AtomicLong transferred) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(streams);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for(int i = 0; i < streams; i++) {
+                futures.add(executor.submit(() -> {
+                    final OutputStream out = new ThrottledOutputStream(new NullOutputStream(), throttle);
+                    final byte[] buffer = new byte[1024];
+                    for(int written = 0; written < length; written += buffer.length) {
+                        out.write(buffer);
+                        transferred.addAndGet(buffer.length);
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testContention() throws Exception {
+        for(float rate : new float[]{BandwidthThrottle.UNLIMITED, 10737418240f}) {
+            final BandwidthThrottle throttle = new BandwidthThrottle(rate);
+            final AtomicLong transferred = new AtomicLong();
+            final Speedometer meter = new Speedometer(System.currentTimeMillis(), true);
+            final long start = System.currentTimeMillis();
+            this.write(throttle, 32, 64 * 1024 * 1024, transferred);
+            final long elapsed = System.currentTimeMillis() - start;
+            log.info(String.format("32 streams with throttle %s: %d bytes in %d ms (%s)", rate, transferred.get(), elapsed,
+                meter.getProgress(true, transferred.get(), transferred.get())));
+        }
+    }
+}
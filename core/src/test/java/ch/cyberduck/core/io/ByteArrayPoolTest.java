@@ -0,0 +1,104 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class ByteArrayPoolTest {
+    private static final Logger log = Logger.getLogger(ByteArrayPoolTest.class);
+
+    @Test
+    public void testReuse() {
+        final ByteArrayPool pool = new ByteArrayPool(1024L);
+        final byte[] buffer = pool.acquire(512);
+        assertEquals(512, buffer.length);
+        pool.release(buffer);
+        assertSame(buffer, pool.acquire(512));
+        assertNotSame(buffer, pool.acquire(512));
+        assertEquals(2, pool.getAllocations());
+        assertEquals(1024L, pool.getAllocated());
+        assertEquals(1, pool.getReuses());
+        // Different length
+        pool.release(buffer);
+        assertNotSame(buffer, pool.acquire(256));
+    }
+
+    @Test
+    public void testCapacity() {
+        final ByteArrayPool pool = new ByteArrayPool(1024L);
+        final byte[] first = pool.acquire(1024);
+        final byte[] second = pool.acquire(1024);
+        pool.release(first);
+        // Discard exceeding capacity
+        pool.release(second);
+        assertSame(first, pool.acquire(1024));
+        assertNotSame(second, pool.acquire(1024));
+    }
+
+    @Test
+    public void testDisabled() {
+        final ByteArrayPool pool = new ByteArrayPool(0L);
+        final byte[] buffer = pool.acquire(1);
+        pool.release(buffer);
+        assertNotSame(buffer, pool.acquire(1));
+        assertEquals(0, pool.getReuses());
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testAllocationRate() throws Exception {
+        final int transfers = 100000;
+        final long unpooled = this.measure(new ByteArrayPool(0L), transfers);
+        final long pooled = this.measure(new ByteArrayPool(1048576L), transfers);
+        assertTrue(pooled < unpooled);
+    }
+
+    private long measure(final ByteArrayPool pool, final int transfers) throws Exception {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long collections = this.collections();
+        final long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        final long start = System.currentTimeMillis();
+        for(int i = 0; i < transfers; i++) {
+            final TransferStatus status = new TransferStatus();
+            new StreamCopier(status, status).withPool(pool).transfer(new NullInputStream(1024L), new NullOutputStream());
+        }
+        final long elapsed = Math.max(1L, System.currentTimeMillis() - start);
+        final long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        log.info(String.format("Allocated %d bytes (%d MB/s) with %d garbage collections for %d transfers with %s",
+            allocated, allocated / 1024 / elapsed, this.collections() - collections, transfers, pool));
+        return allocated;
+    }
+
+    private long collections() {
+        long count = 0L;
+        for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0L, bean.getCollectionCount());
+        }
+        return count;
+    }
+}
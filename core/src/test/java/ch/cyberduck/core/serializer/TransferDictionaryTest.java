@@ -38,6 +38,7 @@ import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
 import ch.cyberduck.core.transfer.TransferItem;
 import ch.cyberduck.core.transfer.TransferOptions;
+import ch.cyberduck.core.transfer.TransferScheduler;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.core.transfer.UploadTransfer;
 import ch.cyberduck.core.worker.SingleTransferWorker;
@@ -73,6 +74,16 @@ public class TransferDictionaryTest {
         assertFalse(serialized.isComplete());
     }
 
+    @Test
+    public void testSerializePriority() {
+        final Path test = new Path("t", EnumSet.of(Path.Type.file));
+        final Transfer t = new DownloadTransfer(new Host(new TestProtocol(), "t"), test, new NullLocal(UUID.randomUUID().toString(), "transfer"));
+        assertEquals(TransferScheduler.Priority.normal, t.getPriority());
+        t.setPriority(TransferScheduler.Priority.high);
+        final Transfer serialized = new TransferDictionary().deserialize(t.serialize(SerializerFactory.get()));
+        assertEquals(TransferScheduler.Priority.high, serialized.getPriority());
+    }
+
     @Test
     public void testSerializeUploadTransfer() {
         final Path test = new Path("t", EnumSet.of(Path.Type.file));
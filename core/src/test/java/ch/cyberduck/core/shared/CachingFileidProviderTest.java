@@ -0,0 +1,341 @@
+package ch.cyberduck.core.shared;
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.IdProvider;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachingFileidProviderTest {
+
+    @Test
+    public void testCache() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) {
+                lookups.incrementAndGet();
+                return file.getName();
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        assertEquals("f", provider.getFileid(new Path(directory, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        assertEquals("f", provider.getFileid(file, new DisabledListProgressListener()));
+        assertEquals("f", file.attributes().getVersionId());
+        assertEquals(1, lookups.get());
+        assertEquals(1L, provider.getHits());
+        assertEquals(1L, provider.getMisses());
+        // Different type
+        provider.getFileid(new Path(directory, "f", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener());
+        assertEquals(2, lookups.get());
+        provider.cache(file, null);
+        provider.getFileid(new Path(directory, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(3, lookups.get());
+        provider.cache(new Path(directory, "g", EnumSet.of(Path.Type.file)), "id");
+        assertEquals("id", provider.getFileid(new Path(directory, "g", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testOverwrite() throws Exception {
+        final Map<String, String> server = new ConcurrentHashMap<>();
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
+                final String id = server.get(file.getAbsolute());
+                if(null == id) {
+                    throw new NotfoundException(file.getAbsolute());
+                }
+                return id;
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        server.put("/d/f", "1");
+        assertEquals("1", provider.getFileid(new Path(directory, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        // Overwrite creates new file ID returned in response to write
+        server.put("/d/f", "2");
+        provider.cache(new Path(directory, "f", EnumSet.of(Path.Type.file)), "2");
+        // Read
+        assertEquals("2", provider.getFileid(new Path(directory, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        // Delete
+        server.remove("/d/f");
+        provider.cache(new Path(directory, "f", EnumSet.of(Path.Type.file)), null);
+        try {
+            provider.getFileid(new Path(directory, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+            fail();
+        }
+        catch(NotfoundException e) {
+            // Expected
+        }
+        // Changed on server and refreshed from listing
+        server.put("/d/f", "3");
+        provider.cache(new Path(directory, "f", EnumSet.of(Path.Type.file)), "3");
+        assertEquals("3", provider.getFileid(new Path(directory, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+    }
+
+    @Test
+    public void testOverwriteDuringLookup() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
+                entered.countDown();
+                try {
+                    release.await();
+                }
+                catch(InterruptedException e) {
+                    throw new NotfoundException(e.getMessage());
+                }
+                return "1";
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        final Path file = new Path("/d/f", EnumSet.of(Path.Type.file));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<String> lookup = executor.submit(() -> provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        provider.cache(file, "2");
+        release.countDown();
+        assertEquals("1", lookup.get(1, TimeUnit.SECONDS));
+        // Stale result of lookup started before overwrite is not cached
+        assertEquals("2", provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testInvalidateChildren() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) {
+                lookups.incrementAndGet();
+                return file.getName();
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path other = new Path("/o", EnumSet.of(Path.Type.directory));
+        provider.getFileid(new Path(new Path(directory, "s", EnumSet.of(Path.Type.directory)), "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        provider.getFileid(new Path(other, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(2, lookups.get());
+        provider.invalidate(new Path("/d", EnumSet.of(Path.Type.directory)));
+        provider.getFileid(new Path(new Path(directory, "s", EnumSet.of(Path.Type.directory)), "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(3, lookups.get());
+        provider.getFileid(new Path(other, "f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
+                lookups.incrementAndGet();
+                entered.countDown();
+                try {
+                    release.await();
+                }
+                catch(InterruptedException e) {
+                    throw new BackgroundException(e);
+                }
+                return "id";
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(10);
+        final List<Future<String>> results = new ArrayList<>();
+        final Callable<String> lookup = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+            }
+        };
+        results.add(executor.submit(lookup));
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        for(int i = 0; i < 9; i++) {
+            results.add(executor.submit(lookup));
+        }
+        // Allow waiting threads to join lookup in progress
+        Thread.sleep(200L);
+        release.countDown();
+        for(Future<String> result : results) {
+            assertEquals("id", result.get());
+        }
+        executor.shutdown();
+        assertEquals(1, lookups.get());
+        assertEquals(1L, provider.getMisses());
+        assertEquals(9L, provider.getHits());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
+                lookups.incrementAndGet();
+                throw new NotfoundException(file.getAbsolute());
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        for(int i = 0; i < 2; i++) {
+            try {
+                provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+                fail();
+            }
+            catch(NotfoundException e) {
+                // Expected
+            }
+        }
+        // Failures are not cached
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testInvalidateDuringLookup() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final Path file = new Path("/d/f", EnumSet.of(Path.Type.file));
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path f, final ListProgressListener listener) {
+                if(lookups.incrementAndGet() == 1) {
+                    // Concurrent delete
+                    this.invalidate(file);
+                }
+                return "id";
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testSharedWithHost() throws Exception {
+        final Host host = new Host(new TestProtocol());
+        final AtomicInteger lookups = new AtomicInteger();
+        final class Provider extends CachingFileidProvider {
+            public Provider(final Host host) {
+                super(host);
+            }
+
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) {
+                lookups.incrementAndGet();
+                return file.getName();
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        }
+        final CachingFileidProvider browser = new Provider(host);
+        final CachingFileidProvider transfer = new Provider(host);
+        final Path file = new Path("/d/f", EnumSet.of(Path.Type.file));
+        browser.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        transfer.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(1, lookups.get());
+        // Delete in other session
+        transfer.invalidate(file);
+        browser.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(2, lookups.get());
+        new Provider(new Host(new TestProtocol())).getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener());
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testCacheDuringLookup() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger lookups = new AtomicInteger();
+        final CachingFileidProvider provider = new CachingFileidProvider(10) {
+            @Override
+            protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
+                lookups.incrementAndGet();
+                if("f".equals(file.getName())) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch(InterruptedException e) {
+                        throw new NotfoundException(e.getMessage());
+                    }
+                }
+                return file.getName();
+            }
+
+            @Override
+            public IdProvider withCache(final Cache<Path> cache) {
+                return this;
+            }
+        };
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<String> lookup = executor.submit(() -> provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        // Listing other file does not discard lookup in progress
+        provider.cache(new Path("/d/g", EnumSet.of(Path.Type.file)), "g");
+        release.countDown();
+        assertEquals("f", lookup.get(1, TimeUnit.SECONDS));
+        assertEquals("f", provider.getFileid(new Path("/d/f", EnumSet.of(Path.Type.file)), new DisabledListProgressListener()));
+        assertEquals(1, lookups.get());
+        executor.shutdown();
+    }
+}
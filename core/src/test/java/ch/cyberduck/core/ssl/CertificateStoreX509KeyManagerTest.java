@@ -28,6 +28,8 @@ import ch.cyberduck.core.exception.ConnectionCanceledException;
 import org.apache.http.auth.BasicUserPrincipal;
 import org.junit.Test;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.X509ExtendedKeyManager;
 import javax.security.auth.x500.X500Principal;
 import java.net.Socket;
 import java.security.Principal;
@@ -65,6 +67,32 @@ public class CertificateStoreX509KeyManagerTest {
         assertTrue(choose.get());
     }
 
+    @Test
+    public void testChooseEngineClientAlias() throws Exception {
+        final AtomicBoolean choose = new AtomicBoolean();
+        final X509KeyManager m = new CertificateStoreX509KeyManager(new DisabledCertificateIdentityCallback(), new Host(new TestProtocol(), "test.cyberduck.ch"), new DisabledCertificateStore() {
+            @Override
+            public X509Certificate choose(final CertificateIdentityCallback prompt, final String[] keyTypes, final Principal[] issuers, final Host bookmark) throws ConnectionCanceledException {
+                choose.set(true);
+                throw new ConnectionCanceledException();
+            }
+        }
+        ).init();
+        assertNull(((X509ExtendedKeyManager) m).chooseEngineClientAlias(new String[]{"RSA", "DSA"},
+                new Principal[]{new X500Principal("CN=StartCom Class 2 Primary Intermediate Client CA")},
+                SSLContext.getDefault().createSSLEngine("test.cyberduck.ch", 443)));
+        assertTrue(choose.get());
+    }
+
+    @Test
+    public void testChooseEngineClientAliasSaved() throws Exception {
+        final Host bookmark = new Host(new TestProtocol(), "test.cyberduck.ch");
+        bookmark.getCredentials().setCertificate("myclient");
+        final X509KeyManager m = new CertificateStoreX509KeyManager(new DisabledCertificateIdentityCallback(), bookmark, new DisabledCertificateStore()).init();
+        assertEquals("myclient", ((X509ExtendedKeyManager) m).chooseEngineClientAlias(new String[]{"RSA"}, null,
+                SSLContext.getDefault().createSSLEngine("test.cyberduck.ch", 443)));
+    }
+
     @Test
     public void testGetCertificateChain() {
         final X509KeyManager m = new CertificateStoreX509KeyManager(new DisabledCertificateIdentityCallback(), new Host(new TestProtocol()), new DisabledCertificateStore()).init();
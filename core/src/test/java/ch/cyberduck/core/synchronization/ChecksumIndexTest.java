@@ -0,0 +1,99 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class ChecksumIndexTest {
+
+    @Test
+    public void testCompute() throws Exception {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "test".getBytes(StandardCharsets.UTF_8));
+        final ChecksumIndex index = new ChecksumIndex(folder, 10);
+        assertNull(index.get(file, HashAlgorithm.md5));
+        final Checksum checksum = index.compute(file, HashAlgorithm.md5);
+        assertEquals(new Checksum(HashAlgorithm.md5, "098f6bcd4621d373cade4e832627b4f6"), checksum);
+        assertEquals(checksum, index.get(file, HashAlgorithm.md5));
+        assertNull(index.get(file, HashAlgorithm.sha256));
+        index.flush();
+        // Load from disk
+        assertEquals(checksum, new ChecksumIndex(folder, 10).get(file, HashAlgorithm.md5));
+        // Invalidate for modified file
+        Files.write(Paths.get(file.getAbsolute()), "modified".getBytes(StandardCharsets.UTF_8));
+        assertNull(index.get(file, HashAlgorithm.md5));
+        assertNotEquals(checksum, index.compute(file, HashAlgorithm.md5));
+        index.invalidate(file);
+        assertNull(index.get(file, HashAlgorithm.md5));
+        file.delete();
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "test".getBytes(StandardCharsets.UTF_8));
+        final ChecksumIndex index = new ChecksumIndex(folder, 10, 60000L);
+        index.compute(file, HashAlgorithm.md5);
+        index.flush();
+        assertEquals(1, folder.list().size());
+        // Used within time to live
+        assertNotNull(new ChecksumIndex(folder, 10, 60000L).get(file, HashAlgorithm.md5));
+        assertEquals(1, folder.list().size());
+        for(Local saved : folder.list()) {
+            saved.attributes().setModificationDate(System.currentTimeMillis() - 120000L);
+        }
+        // Deleted on first use
+        assertNull(new ChecksumIndex(folder, 10, 60000L).get(file, HashAlgorithm.md5));
+        assertTrue(folder.list().isEmpty());
+        file.delete();
+    }
+
+    @Test
+    public void testConcurrentCompute() throws Exception {
+        final Local folder = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final ChecksumIndex index = new ChecksumIndex(folder, 10);
+        final ConcurrentChecksumCompute compute = new ConcurrentChecksumCompute(index, 2);
+        final Local[] files = new Local[10];
+        for(int i = 0; i < files.length; i++) {
+            files[i] = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+            Files.write(Paths.get(files[i].getAbsolute()), "test".getBytes(StandardCharsets.UTF_8));
+            compute.prefetch(files[i], HashAlgorithm.md5);
+        }
+        for(Local file : files) {
+            assertEquals(new Checksum(HashAlgorithm.md5, "098f6bcd4621d373cade4e832627b4f6"), compute.compute(file, HashAlgorithm.md5));
+            assertNotNull(index.get(file, HashAlgorithm.md5));
+        }
+        compute.shutdown();
+        for(Local file : files) {
+            assertNotNull(new ChecksumIndex(folder, 10).get(file, HashAlgorithm.md5));
+            file.delete();
+        }
+    }
+}
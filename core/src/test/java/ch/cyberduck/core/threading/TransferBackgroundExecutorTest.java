@@ -0,0 +1,92 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AbstractController;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.transfer.DownloadTransfer;
+import ch.cyberduck.core.transfer.TransferAdapter;
+import ch.cyberduck.core.transfer.TransferOptions;
+import ch.cyberduck.core.transfer.TransferScheduler;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransferBackgroundExecutorTest {
+
+    @Test
+    public void testCancelQueued() throws Exception {
+        final AbstractController controller = new AbstractController() {
+            @Override
+            public void invoke(final MainAction runnable, final boolean wait) {
+                runnable.run();
+            }
+        };
+        final TransferScheduler scheduler = new TransferScheduler(1, BandwidthThrottle.UNLIMITED);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<Boolean> running = scheduler.submit(new DownloadTransfer(new Host(new TestProtocol()),
+            new Path("/t1", EnumSet.of(Path.Type.directory)), null), TransferScheduler.Priority.normal, () -> {
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        final DownloadTransfer transfer = new DownloadTransfer(new Host(new TestProtocol()),
+            new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final CountDownLatch cleanup = new CountDownLatch(1);
+        final TransferCollectionBackgroundAction action = new TransferCollectionBackgroundAction(controller,
+            SessionPool.DISCONNECTED, SessionPool.DISCONNECTED, new TransferAdapter(), new DisabledProgressListener(),
+            transfer, new TransferOptions()) {
+            @Override
+            public void prepare() {
+                fail();
+            }
+
+            @Override
+            public void finish() {
+                super.finish();
+                finish.countDown();
+            }
+
+            @Override
+            public void cleanup() {
+                cleanup.countDown();
+            }
+        };
+        final BackgroundActionRegistry registry = new BackgroundActionRegistry();
+        new TransferBackgroundExecutor(scheduler, DefaultBackgroundExecutor.get()).execute(controller, registry, action);
+        assertTrue(scheduler.isQueued(transfer));
+        action.cancel();
+        assertTrue(scheduler.remove(transfer));
+        // Canceled action in queue is finished and cleaned up without waiting for slot
+        assertTrue(finish.await(1, TimeUnit.SECONDS));
+        assertTrue(cleanup.await(1, TimeUnit.SECONDS));
+        assertFalse(registry.contains(action));
+        assertFalse(running.isDone());
+        release.countDown();
+        assertTrue(running.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,134 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveConnectionLimitTest {
+
+    private static final long INTERVAL = 1000L;
+
+    /**
+     * Simulated server with fixed throughput per connection sharing a link with limited bandwidth
+     */
+    private static final class Simulation {
+        /**
+         * Bytes per millisecond for single connection
+         */
+        private final long connection;
+        /**
+         * Bytes per millisecond for all connections
+         */
+        private final long bandwidth;
+        /**
+         * Maximum number of connections accepted by server
+         */
+        private final int server;
+
+        private long time = 0L;
+        private long transferred = 0L;
+        private long bytes = 0L;
+        private int maximum = 0;
+
+        public Simulation(final long connection, final long bandwidth, final int server) {
+            this.connection = connection;
+            this.bandwidth = bandwidth;
+            this.server = server;
+        }
+
+        /**
+         * @param windows Number of sample windows to run
+         * @return Bytes transferred in windows
+         */
+        public long run(final AdaptiveConnectionLimit controller, final int windows) {
+            final long start = transferred;
+            maximum = 0;
+            for(int i = 0; i < windows; i++) {
+                final int limit = controller.getLimit();
+                maximum = Math.max(maximum, limit);
+                final int accepted = Math.min(limit, server);
+                for(int j = accepted; j < limit; j++) {
+                    controller.failure();
+                }
+                final long speed = Math.min(accepted * connection, bandwidth);
+                transferred += speed * INTERVAL;
+                // Task duration grows when connections share bandwidth
+                for(int j = 0; j < accepted; j++) {
+                    controller.success(100L * accepted * connection / speed);
+                }
+                time += INTERVAL;
+                controller.sample(time, transferred);
+            }
+            return transferred - start;
+        }
+    }
+
+    @Test
+    public void testConvergeBandwidthLimit() {
+        final Simulation simulation = new Simulation(100L, 500L, Integer.MAX_VALUE);
+        final AdaptiveConnectionLimit controller = new AdaptiveConnectionLimit(2, 10, 0L, INTERVAL, 0.05d, 10);
+        simulation.run(controller, 50);
+        final long transferred = simulation.run(controller, 100);
+        // Within 5% of maximum throughput
+        assertTrue(transferred >= 0.95 * 500L * INTERVAL * 100);
+        // Probe at most one connection above optimum
+        assertTrue(simulation.maximum <= 6);
+        assertTrue(controller.getLimit() >= 4 && controller.getLimit() <= 6);
+    }
+
+    @Test
+    public void testGrowWithoutBandwidthLimit() {
+        final Simulation simulation = new Simulation(100L, Long.MAX_VALUE / INTERVAL, Integer.MAX_VALUE);
+        final AdaptiveConnectionLimit controller = new AdaptiveConnectionLimit(2, 8, 0L, INTERVAL, 0.05d, 10);
+        simulation.run(controller, 10);
+        assertEquals(8, controller.getLimit());
+    }
+
+    @Test
+    public void testRespectServerLimit() {
+        final Simulation simulation = new Simulation(100L, 1000L, 3);
+        final AdaptiveConnectionLimit controller = new AdaptiveConnectionLimit(2, 10, 0L, INTERVAL, 0.05d, 10);
+        simulation.run(controller, 20);
+        simulation.run(controller, 100);
+        // Not exceeding connection limit of server once learned
+        assertEquals(3, simulation.maximum);
+        assertEquals(3, controller.getLimit());
+    }
+
+    @Test
+    public void testDecreaseOnFailure() {
+        final Simulation simulation = new Simulation(100L, 1000L, Integer.MAX_VALUE);
+        final AdaptiveConnectionLimit controller = new AdaptiveConnectionLimit(8, 8, 0L, INTERVAL, 0.05d, 2);
+        simulation.run(controller, 1);
+        controller.failure();
+        simulation.run(controller, 1);
+        assertEquals(4, controller.getLimit());
+        // Recover after hold
+        simulation.run(controller, 10);
+        assertEquals(8, controller.getLimit());
+    }
+
+    @Test
+    public void testIdle() {
+        final AdaptiveConnectionLimit controller = new AdaptiveConnectionLimit(2, 10, 0L, INTERVAL, 0.05d, 10);
+        assertEquals(2, controller.sample(INTERVAL, 0L));
+        assertEquals(2, controller.sample(2 * INTERVAL, 0L));
+        // Within sample window
+        assertEquals(2, controller.sample(2 * INTERVAL + 1, 1000L));
+    }
+}
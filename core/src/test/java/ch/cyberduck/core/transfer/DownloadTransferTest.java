@@ -25,6 +25,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -90,6 +91,74 @@ public class DownloadTransferTest {
         }
     }
 
+    @Test
+    public void testListRecursive() throws Exception {
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Transfer t = new DownloadTransfer(new Host(new TestProtocol()), root, new NullLocal("l"));
+        final AtomicInteger count = new AtomicInteger();
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                fail();
+                return null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == RecursiveListService.class) {
+                    return (T) (RecursiveListService) (file, listener) -> {
+                        count.incrementAndGet();
+                        final AttributedList<Path> children = new AttributedList<Path>();
+                        children.add(new Path("/t/a", EnumSet.of(Path.Type.file)));
+                        children.add(new Path("/t/d/e/f", EnumSet.of(Path.Type.file)));
+                        return children;
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final List<TransferItem> children = t.list(session, root, new NullLocal("t"), new DisabledListProgressListener());
+        assertEquals(2, children.size());
+        assertTrue(children.contains(new TransferItem(new Path("/t/a", EnumSet.of(Path.Type.file)), new NullLocal("t", "a"))));
+        assertTrue(children.contains(new TransferItem(new Path("/t/d", EnumSet.of(Path.Type.directory)), new NullLocal("t", "d"))));
+        final Path d = children.get(children.indexOf(new TransferItem(new Path("/t/d", EnumSet.of(Path.Type.directory)), new NullLocal("t", "d")))).remote;
+        assertTrue(d.getType().contains(Path.Type.placeholder));
+        final List<TransferItem> e = t.list(session, d, new NullLocal("t", "d"), new DisabledListProgressListener());
+        assertEquals(Collections.singletonList(new TransferItem(new Path("/t/d/e", EnumSet.of(Path.Type.directory)), new NullLocal("t/d", "e"))), e);
+        assertEquals(Collections.singletonList(new TransferItem(new Path("/t/d/e/f", EnumSet.of(Path.Type.file)), new NullLocal("t/d/e", "f"))),
+            t.list(session, e.get(0).remote, new NullLocal("t/d", "e"), new DisabledListProgressListener()));
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testListRecursiveDiscardedOnStop() throws Exception {
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Transfer t = new DownloadTransfer(new Host(new TestProtocol()), root, new NullLocal("l"));
+        final AtomicInteger count = new AtomicInteger();
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == RecursiveListService.class) {
+                    return (T) (RecursiveListService) (file, listener) -> {
+                        count.incrementAndGet();
+                        final AttributedList<Path> children = new AttributedList<Path>();
+                        children.add(new Path(file, "d/e", EnumSet.of(Path.Type.file)));
+                        return children;
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final List<TransferItem> children = t.list(session, root, new NullLocal("t"), new DisabledListProgressListener());
+        assertEquals(1, count.get());
+        t.stop();
+        // Listing of subdirectory from previous run not reused
+        t.list(session, children.get(0).remote, new NullLocal("t", "d"), new DisabledListProgressListener());
+        assertEquals(2, count.get());
+    }
+
     @Test
     public void testChildrenEmpty() throws Exception {
         final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
@@ -0,0 +1,323 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.VersionId;
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SpillingTransferStatusMapTest {
+    private static final Logger log = Logger.getLogger(SpillingTransferStatusMapTest.class);
+
+    @Test
+    public void testSpillCompleted() {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(10,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), "f");
+        for(int i = 0; i < 100; i++) {
+            map.put(new TransferItem(new Path(String.format("/d/t%d", i), EnumSet.of(Path.Type.file)), new Local(local, String.valueOf(i))),
+                new TransferStatus().exists(true).length(i));
+        }
+        // Pending when prepared
+        assertEquals(100, map.size());
+        assertEquals(0, map.getSpilled());
+        for(int i = 0; i < 100; i += 2) {
+            final TransferItem item = new TransferItem(new Path(String.format("/d/t%d", i), EnumSet.of(Path.Type.file)), new Local(local, String.valueOf(i)));
+            final TransferStatus status = map.get(item);
+            status.setComplete();
+            // Updated by worker when transfer is complete
+            assertSame(status, map.replace(item, status));
+        }
+        assertEquals(100, map.size());
+        assertEquals(50, map.getSpilled());
+        for(int i = 0; i < 100; i++) {
+            final TransferItem item = new TransferItem(new Path(String.format("/d/t%d", i), EnumSet.of(Path.Type.file)), new Local(local, String.valueOf(i)));
+            assertTrue(map.containsKey(item));
+            final TransferStatus status = map.get(item);
+            assertNotNull(status);
+            assertEquals(i, status.getLength());
+            assertTrue(status.isExists());
+            assertEquals(i % 2 == 0, status.isComplete());
+        }
+        assertFalse(map.containsKey(new TransferItem(new Path("/d/t100", EnumSet.of(Path.Type.file)), new Local(local, "100"))));
+        int count = 0;
+        for(Map.Entry<TransferItem, TransferStatus> entry : map.entrySet()) {
+            assertNotNull(entry.getKey());
+            assertNotNull(entry.getValue());
+            count++;
+        }
+        assertEquals(100, count);
+        final TransferItem removed = new TransferItem(new Path("/d/t0", EnumSet.of(Path.Type.file)), new Local(local, "0"));
+        assertNotNull(map.remove(removed));
+        assertFalse(map.containsKey(removed));
+        assertEquals(99, map.size());
+        assertEquals(99, map.values().size());
+        map.clear();
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testPendingKeptInMemory() {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(1,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final TransferItem item = new TransferItem(new Path("/d/t", EnumSet.of(Path.Type.file)), new Local("/t"));
+        final TransferStatus status = new TransferStatus();
+        map.put(item, status);
+        map.put(new TransferItem(new Path("/d/t2", EnumSet.of(Path.Type.file)), new Local("/t2")), new TransferStatus());
+        assertEquals(0, map.getSpilled());
+        assertSame(status, map.get(item));
+        map.clear();
+    }
+
+    @Test
+    public void testSpilledKeepsKey() {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(1,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setSize(3L);
+        attributes.setRegion("r");
+        attributes.setVersionId("v");
+        final TransferItem item = new TransferItem(new Path("/d/t", EnumSet.of(Path.Type.file), attributes), new Local("/t"));
+        final TransferStatus status = new TransferStatus();
+        map.put(item, status);
+        assertEquals(0, map.getSpilled());
+        map.replace(item, status.complete());
+        assertEquals(1, map.getSpilled());
+        assertTrue(map.containsKey(item));
+        assertNotSame(status, map.get(item));
+        final Map.Entry<TransferItem, TransferStatus> entry = map.entrySet().iterator().next();
+        // Key read back from disk
+        assertNotSame(item, entry.getKey());
+        assertEquals(item, entry.getKey());
+        assertEquals(new Local("/t"), entry.getKey().local);
+        assertEquals("v", entry.getKey().remote.attributes().getVersionId());
+        assertEquals("r", entry.getKey().remote.attributes().getRegion());
+        assertEquals(3L, entry.getKey().remote.attributes().getSize());
+        assertTrue(entry.getValue().isComplete());
+        map.clear();
+    }
+
+    @Test
+    public void testSpillRoundTrip() {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(1,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final TransferItem item = new TransferItem(new Path("/d/t", EnumSet.of(Path.Type.file)), new Local("/t"));
+        final TransferStatus status = new TransferStatus().exists(true).append(true).length(3L)
+            .segment(true).positional(true).reject(true).hidden(true)
+            .rename(new Path("/d/r", EnumSet.of(Path.Type.file))).rename(new Local("/r"))
+            .withDisplayname(new Path("/d/n", EnumSet.of(Path.Type.file))).withDisplayname(new Local("/n"))
+            .withChecksum(new Checksum(HashAlgorithm.md5, "d41d8cd98f00b204e9800998ecf8427e"))
+            .withMime("text/plain").withTimestamp(1L)
+            .withParameters(Collections.singletonMap("p", "v")).withMetadata(Collections.singletonMap("m", "v"))
+            .withHeader(ByteBuffer.wrap(new byte[]{1, 2})).withFileKey(ByteBuffer.wrap(new byte[]{3}))
+            .withVersion(new VersionId("v1"))
+            .withSegments(Arrays.asList(new TransferStatus().length(1L).segment(true).complete(),
+                new TransferStatus().length(2L).segment(true).withChecksum(new Checksum(HashAlgorithm.crc32, "00000000")).complete()));
+        status.setOffset(2L);
+        status.setPart(4);
+        status.setStorageClass("STANDARD");
+        status.setEncryption(new Encryption.Algorithm("AES256", "k"));
+        status.setPermission(new Permission(644));
+        final PathAttributes remote = new PathAttributes();
+        remote.setSize(3L);
+        remote.setModificationDate(5L);
+        remote.setChecksum(new Checksum(HashAlgorithm.sha1, "da39a3ee5e6b4b0d3255bfef95601890afd80709"));
+        remote.setVersionId("v0");
+        remote.setETag("e");
+        remote.setPermission(new Permission(600));
+        status.setRemote(remote);
+        status.setComplete();
+        map.put(item, status);
+        map.put(new TransferItem(new Path("/d/t2", EnumSet.of(Path.Type.file)), new Local("/t2")), new TransferStatus());
+        assertEquals(1, map.getSpilled());
+        final TransferStatus spilled = map.get(item);
+        assertNotSame(status, spilled);
+        assertTrue(spilled.isExists());
+        assertTrue(spilled.isAppend());
+        assertEquals(3L, spilled.getLength());
+        assertEquals(2L, spilled.getOffset());
+        assertTrue(spilled.isSegment());
+        assertTrue(spilled.isPositional());
+        assertTrue(spilled.isRejected());
+        assertTrue(spilled.isHidden());
+        assertTrue(spilled.isComplete());
+        assertEquals(new Path("/d/r", EnumSet.of(Path.Type.file)), spilled.getRename().remote);
+        assertEquals(new Local("/r"), spilled.getRename().local);
+        assertEquals(new Path("/d/n", EnumSet.of(Path.Type.file)), spilled.getDisplayname().remote);
+        assertEquals(new Local("/n"), spilled.getDisplayname().local);
+        assertEquals(status.getChecksum(), spilled.getChecksum());
+        assertEquals("text/plain", spilled.getMime());
+        assertEquals(1L, spilled.getTimestamp(), 0L);
+        assertEquals(Collections.singletonMap("p", "v"), spilled.getParameters());
+        assertEquals(Collections.singletonMap("m", "v"), spilled.getMetadata());
+        assertEquals(ByteBuffer.wrap(new byte[]{1, 2}), spilled.getHeader());
+        assertEquals(ByteBuffer.wrap(new byte[]{3}), spilled.getFilekey());
+        assertEquals(new VersionId("v1"), spilled.getVersion());
+        assertEquals(4, spilled.getPart(), 0L);
+        assertEquals("STANDARD", spilled.getStorageClass());
+        assertEquals(new Encryption.Algorithm("AES256", "k"), spilled.getEncryption());
+        assertEquals(new Permission(644), spilled.getPermission());
+        assertEquals(3L, spilled.getRemote().getSize());
+        assertEquals(5L, spilled.getRemote().getModificationDate());
+        assertEquals(remote.getChecksum(), spilled.getRemote().getChecksum());
+        assertEquals("v0", spilled.getRemote().getVersionId());
+        assertEquals("e", spilled.getRemote().getETag());
+        assertEquals(new Permission(600), spilled.getRemote().getPermission());
+        assertEquals(2, spilled.getSegments().size());
+        assertEquals(1L, spilled.getSegments().get(0).getLength());
+        assertTrue(spilled.getSegments().get(0).isSegment());
+        assertTrue(spilled.getSegments().get(0).isComplete());
+        assertEquals(new Checksum(HashAlgorithm.crc32, "00000000"), spilled.getSegments().get(1).getChecksum());
+        map.clear();
+    }
+
+    @Test
+    public void testDefaultsRoundTrip() {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(1,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final TransferItem item = new TransferItem(new Path("/d/t", EnumSet.of(Path.Type.file)), new Local("/t"));
+        map.put(item, new TransferStatus().complete());
+        map.put(new TransferItem(new Path("/d/t2", EnumSet.of(Path.Type.file)), new Local("/t2")), new TransferStatus());
+        assertEquals(1, map.getSpilled());
+        final TransferStatus spilled = map.get(item);
+        assertNull(spilled.getRename().remote);
+        assertNull(spilled.getRename().local);
+        assertSame(Checksum.NONE, spilled.getChecksum());
+        assertSame(PathAttributes.EMPTY, spilled.getRemote());
+        assertSame(Permission.EMPTY, spilled.getPermission());
+        assertSame(Encryption.Algorithm.NONE, spilled.getEncryption());
+        assertNull(spilled.getTimestamp());
+        assertNull(spilled.getPart());
+        assertNull(spilled.getHeader());
+        assertNull(spilled.getVersion());
+        assertFalse(spilled.isSegmented());
+        map.clear();
+    }
+
+    @Test
+    public void testUnserializableKeptInMemory() {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(1,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final TransferItem item = new TransferItem(new Path("/d/t", EnumSet.of(Path.Type.file)), new Local("/t"));
+        final TransferStatus status = new TransferStatus().withLockId(new Object()).complete();
+        map.put(item, status);
+        map.put(new TransferItem(new Path("/d/t2", EnumSet.of(Path.Type.file)), new Local("/t2")), new TransferStatus());
+        assertEquals(0, map.getSpilled());
+        assertSame(status, map.get(item));
+        map.clear();
+    }
+
+    @Test
+    public void testWriteFailureKeptInMemory() {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(1,
+            new Local(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()), "f"));
+        final TransferItem item = new TransferItem(new Path("/d/t", EnumSet.of(Path.Type.file)), new Local("/t"));
+        final TransferStatus status = new TransferStatus().complete();
+        map.put(item, status);
+        map.put(new TransferItem(new Path("/d/t2", EnumSet.of(Path.Type.file)), new Local("/t2")), new TransferStatus().complete());
+        assertEquals(0, map.getSpilled());
+        assertEquals(2, map.size());
+        assertSame(status, map.get(item));
+        map.clear();
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final SpillingTransferStatusMap map = new SpillingTransferStatusMap(10,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final ExecutorService pool = Executors.newFixedThreadPool(8);
+        final List<Future<?>> futures = new ArrayList<>();
+        for(int t = 0; t < 8; t++) {
+            final int thread = t;
+            futures.add(pool.submit(() -> {
+                for(int i = 0; i < 1000; i++) {
+                    final TransferItem item = new TransferItem(new Path(String.format("/d%d/t%d", thread, i), EnumSet.of(Path.Type.file)), new Local("/t"));
+                    final TransferStatus status = new TransferStatus().length(i);
+                    map.put(item, status);
+                    assertSame(status, map.get(item));
+                    map.replace(item, status.complete());
+                    assertEquals(i, map.get(item).getLength());
+                }
+            }));
+        }
+        for(Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertEquals(8000, map.size());
+        assertTrue(map.getSpilled() > 0);
+        for(int t = 0; t < 8; t++) {
+            for(int i = 0; i < 1000; i++) {
+                final TransferStatus status = map.get(new TransferItem(new Path(String.format("/d%d/t%d", t, i), EnumSet.of(Path.Type.file)), new Local("/t")));
+                assertNotNull(status);
+                assertTrue(status.isComplete());
+            }
+        }
+        map.clear();
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testHeapUsage() {
+        final int size = 1000000;
+        final long spilling = this.measure(new SpillingTransferStatusMap(10000,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString())), size);
+        final long concurrent = this.measure(new ConcurrentHashMap<>(), size);
+        log.info(String.format("Heap usage for %d items with spilling table %d bytes and concurrent hash map %d bytes", size, spilling, concurrent));
+        assertTrue(spilling < concurrent);
+    }
+
+    private long measure(final Map<TransferItem, TransferStatus> map, final int size) {
+        System.gc();
+        final long before = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        final Local local = new Local(System.getProperty("java.io.tmpdir"));
+        for(int i = 0; i < size; i++) {
+            map.put(new TransferItem(new Path(String.format("/d%d/t%d", i % 1000, i), EnumSet.of(Path.Type.file)), new Local(local, String.valueOf(i))),
+                new TransferStatus().length(i).complete());
+        }
+        System.gc();
+        final long after = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        assertEquals(size, map.size());
+        map.clear();
+        return after - before;
+    }
+}
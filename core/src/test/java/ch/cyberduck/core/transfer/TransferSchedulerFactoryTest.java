@@ -21,10 +21,10 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertSame;
 
-public class TransferTransferQueueFactoryTest {
+public class TransferSchedulerFactoryTest {
 
     @Test
     public void testGet() {
-        assertSame(TransferQueueFactory.get(), TransferQueueFactory.get());
+        assertSame(TransferSchedulerFactory.get(), TransferSchedulerFactory.get());
     }
 }
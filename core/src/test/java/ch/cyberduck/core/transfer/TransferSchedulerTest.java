@@ -0,0 +1,164 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.io.BandwidthThrottle;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransferSchedulerTest {
+
+    private static DownloadTransfer transfer(final String name) {
+        return new DownloadTransfer(new Host(new TestProtocol()), new Path(name, EnumSet.of(Path.Type.directory)), null);
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(1, BandwidthThrottle.UNLIMITED);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<Boolean> f1 = scheduler.submit(transfer("/t1"), TransferScheduler.Priority.normal, () -> {
+            started.countDown();
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        final CountDownLatch queued = new CountDownLatch(1);
+        final Future<Boolean> f2 = scheduler.submit(transfer("/t2"), TransferScheduler.Priority.normal, () -> true, new DisabledProgressListener() {
+            @Override
+            public void message(final String message) {
+                queued.countDown();
+            }
+        });
+        assertEquals(0L, queued.getCount());
+        assertFalse(f2.isDone());
+        release.countDown();
+        assertTrue(f1.get(1, TimeUnit.SECONDS));
+        assertTrue(f2.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(1, BandwidthThrottle.UNLIMITED);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.submit(transfer("/t"), TransferScheduler.Priority.normal, () -> {
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        final Future<Boolean> low = scheduler.submit(transfer("/l"), TransferScheduler.Priority.low, () -> order.add("low"), new DisabledProgressListener());
+        scheduler.submit(transfer("/n1"), TransferScheduler.Priority.normal, () -> order.add("normal1"), new DisabledProgressListener());
+        scheduler.submit(transfer("/h"), TransferScheduler.Priority.high, () -> order.add("high"), new DisabledProgressListener());
+        scheduler.submit(transfer("/n2"), TransferScheduler.Priority.normal, () -> order.add("normal2"), new DisabledProgressListener());
+        release.countDown();
+        assertTrue(low.get(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("high", "normal1", "normal2", "low"), order);
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(1, BandwidthThrottle.UNLIMITED);
+        final CountDownLatch release = new CountDownLatch(1);
+        final DownloadTransfer running = transfer("/t1");
+        final DownloadTransfer pending = transfer("/t2");
+        final Future<Boolean> f1 = scheduler.submit(running, TransferScheduler.Priority.normal, () -> {
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        final Future<Boolean> f2 = scheduler.submit(pending, TransferScheduler.Priority.normal, () -> true, new DisabledProgressListener());
+        assertFalse(scheduler.isQueued(running));
+        assertTrue(scheduler.isQueued(pending));
+        assertFalse(scheduler.remove(running));
+        assertTrue(scheduler.remove(pending));
+        assertFalse(scheduler.isQueued(pending));
+        // Task of removed transfer is run without waiting for slot
+        assertTrue(f2.get(1, TimeUnit.SECONDS));
+        assertFalse(f1.isDone());
+        assertFalse(scheduler.remove(pending));
+        release.countDown();
+        assertTrue(f1.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testResize() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(1, BandwidthThrottle.UNLIMITED);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<Boolean> f1 = scheduler.submit(transfer("/t1"), TransferScheduler.Priority.normal, () -> {
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        final Future<Boolean> f2 = scheduler.submit(transfer("/t2"), TransferScheduler.Priority.normal, () -> true, new DisabledProgressListener());
+        assertFalse(f2.isDone());
+        scheduler.resize(2);
+        assertTrue(f2.get(1, TimeUnit.SECONDS));
+        assertFalse(f1.isDone());
+        release.countDown();
+        assertTrue(f1.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRebalance() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(3, 700f);
+        final CountDownLatch release = new CountDownLatch(1);
+        final DownloadTransfer low = transfer("/l");
+        final DownloadTransfer normal = transfer("/n");
+        final DownloadTransfer high = transfer("/h");
+        low.setBandwidth(BandwidthThrottle.UNLIMITED);
+        normal.setBandwidth(BandwidthThrottle.UNLIMITED);
+        high.setBandwidth(BandwidthThrottle.UNLIMITED);
+        final Future<Boolean> f1 = scheduler.submit(low, TransferScheduler.Priority.low, () -> {
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        scheduler.submit(normal, TransferScheduler.Priority.normal, () -> {
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        scheduler.submit(high, TransferScheduler.Priority.high, () -> {
+            release.await();
+            return true;
+        }, new DisabledProgressListener());
+        assertEquals(100f, low.getBandwidth().getShare(), 0.01f);
+        assertEquals(200f, normal.getBandwidth().getShare(), 0.01f);
+        assertEquals(400f, high.getBandwidth().getShare(), 0.01f);
+        // Remainder of transfer limited below share distributed to others
+        high.setBandwidth(100f);
+        scheduler.rebalance();
+        assertEquals(100f, high.getBandwidth().getShare(), 0.01f);
+        assertEquals(200f, low.getBandwidth().getShare(), 0.01f);
+        assertEquals(400f, normal.getBandwidth().getShare(), 0.01f);
+        scheduler.setBandwidth(BandwidthThrottle.UNLIMITED);
+        assertEquals(BandwidthThrottle.UNLIMITED, low.getBandwidth().getShare(), 0f);
+        assertEquals(BandwidthThrottle.UNLIMITED, normal.getBandwidth().getShare(), 0f);
+        release.countDown();
+        f1.get(1, TimeUnit.SECONDS);
+    }
+}
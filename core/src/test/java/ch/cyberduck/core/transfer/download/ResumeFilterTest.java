@@ -2,20 +2,26 @@ package ch.cyberduck.core.transfer.download;
 
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
+import ch.cyberduck.core.NullReadFeature;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.NullTransferSession;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.shared.DefaultDownloadFeature;
+import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
 
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.EnumSet;
+import java.util.UUID;
 
 import static org.junit.Assert.*;
 
@@ -141,4 +147,107 @@ public class ResumeFilterTest {
         final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
         assertFalse(status.isAppend());
     }
+
+    @Test
+    public void testPrepareSegmentsInplace() throws Exception {
+        final DownloadFilterOptions options = new DownloadFilterOptions();
+        options.segments = true;
+        options.inplace = true;
+        final ResumeFilter f = new ResumeFilter(new DisabledDownloadSymlinkResolver(), this.session(), options);
+        final Path p = new Path("a", EnumSet.of(Path.Type.file));
+        p.attributes().setSize(20L * 1024L * 1024L);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
+        assertTrue(status.isSegmented());
+        assertTrue(status.isPositional());
+        f.apply(p, local, status, new DisabledProgressListener());
+        assertTrue(local.exists());
+        assertEquals(p.attributes().getSize(), local.attributes().getSize());
+        for(TransferStatus segment : status.getSegments()) {
+            assertTrue(segment.isPositional());
+            assertEquals(local, segment.getRename().local);
+        }
+        final TransferStatus first = status.getSegments().get(0);
+        first.setOffset(first.getOffset() + first.getLength());
+        first.setComplete();
+        f.complete(p, local, new TransferOptions(), first, new DisabledProgressListener());
+        final SegmentJournal journal = new SegmentJournal(local);
+        assertTrue(journal.exists());
+        // Preallocated file with matching size is not skipped
+        assertTrue(f.accept(p, local, new TransferStatus()));
+        final TransferStatus resume = f.prepare(p, local, new TransferStatus().exists(true), new DisabledProgressListener());
+        assertTrue(resume.isAppend());
+        assertTrue(resume.getSegments().get(0).isComplete());
+        assertFalse(resume.getSegments().get(1).isComplete());
+        assertEquals(p.attributes().getSize() - first.getLength(), resume.getLength());
+        journal.delete();
+        local.delete();
+    }
+
+    @Test
+    public void testAcceptInterruptedBeforeFirstSegment() throws Exception {
+        final DownloadFilterOptions options = new DownloadFilterOptions();
+        options.segments = true;
+        options.inplace = true;
+        final ResumeFilter f = new ResumeFilter(new DisabledDownloadSymlinkResolver(), this.session(), options);
+        final Path p = new Path("a", EnumSet.of(Path.Type.file));
+        p.attributes().setSize(20L * 1024L * 1024L);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
+        assertTrue(status.isPositional());
+        f.apply(p, local, status, new DisabledProgressListener());
+        // Interrupted with no segment completed
+        final SegmentJournal journal = new SegmentJournal(local);
+        assertTrue(journal.exists());
+        assertEquals(p.attributes().getSize(), local.attributes().getSize());
+        assertTrue(f.accept(p, local, new TransferStatus()));
+        final TransferStatus resume = f.prepare(p, local, new TransferStatus().exists(true), new DisabledProgressListener());
+        assertFalse(resume.isAppend());
+        assertEquals(p.attributes().getSize(), resume.getLength());
+        for(TransferStatus segment : resume.getSegments()) {
+            assertFalse(segment.isComplete());
+        }
+        // Journal covering all segments but not removed on completion
+        journal.record(0L, p.attributes().getSize());
+        assertFalse(f.accept(p, local, new TransferStatus()));
+        assertFalse(journal.exists());
+        local.delete();
+    }
+
+    @Test
+    public void testPrepareNotSegmentedWithJournal() throws Exception {
+        final ResumeFilter f = new ResumeFilter(new DisabledDownloadSymlinkResolver(), this.session());
+        final Path p = new Path("a", EnumSet.of(Path.Type.file));
+        p.attributes().setSize(2L);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        // Preallocated with partial content
+        Files.write(Paths.get(local.getAbsolute()), new byte[1]);
+        final SegmentJournal journal = new SegmentJournal(local);
+        journal.create();
+        final TransferStatus status = f.prepare(p, local, new TransferStatus().exists(true), new DisabledProgressListener());
+        // Size of preallocated file is no offset to resume from
+        assertFalse(status.isAppend());
+        f.apply(p, local, status, new DisabledProgressListener());
+        assertFalse(journal.exists());
+        assertEquals(0L, local.attributes().getSize());
+        local.delete();
+    }
+
+    private NullSession session() {
+        return new NullTransferSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getFeature(final Class<T> type, final T feature) {
+                if(type == Read.class) {
+                    return (T) new NullReadFeature() {
+                        @Override
+                        public boolean offset(final Path file) {
+                            return true;
+                        }
+                    };
+                }
+                return super.getFeature(type, feature);
+            }
+        };
+    }
 }
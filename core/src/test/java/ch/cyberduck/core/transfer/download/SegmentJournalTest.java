@@ -0,0 +1,46 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class SegmentJournalTest {
+
+    @Test
+    public void testRecord() throws Exception {
+        final SegmentJournal journal = new SegmentJournal(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        assertFalse(journal.exists());
+        assertFalse(journal.isComplete(0L, 10L));
+        journal.record(10L, 10L);
+        assertTrue(journal.exists());
+        assertFalse(journal.isComplete(0L, 10L));
+        assertTrue(journal.isComplete(10L, 10L));
+        journal.record(0L, 5L);
+        journal.record(5L, 5L);
+        // Adjacent ranges are merged
+        assertTrue(journal.isComplete(0L, 20L));
+        assertFalse(journal.isComplete(0L, 21L));
+        assertTrue(journal.isComplete(3L, 4L));
+        journal.delete();
+        assertFalse(journal.exists());
+    }
+}
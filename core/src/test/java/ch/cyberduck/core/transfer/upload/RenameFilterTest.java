@@ -26,7 +26,7 @@ public class RenameFilterTest {
         RenameFilter f = new RenameFilter(new DisabledUploadSymlinkResolver(), new NullSession(new Host(new TestProtocol())));
         final Path t = new Path("t", EnumSet.of(Path.Type.file));
         f.prepare(t, new NullLocal("t"), new TransferStatus(), new DisabledProgressListener());
-        assertNotSame("t", t.getName());
+        assertEquals("t", t.getName());
     }
 
     @Test
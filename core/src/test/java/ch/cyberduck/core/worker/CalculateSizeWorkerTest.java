@@ -1,18 +1,23 @@
 package ch.cyberduck.core.worker;
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.TestProtocol;
 
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class CalculateSizeWorkerTest {
 
@@ -46,4 +51,42 @@ public class CalculateSizeWorkerTest {
             }
         }.run(new NullSession(new Host(new TestProtocol()))), 0L);
     }
+
+    @Test
+    public void testRunRecursive() throws Exception {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                fail();
+                return null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == RecursiveListService.class) {
+                    return (T) (RecursiveListService) (file, listener) -> {
+                        final AttributedList<Path> list = new AttributedList<>();
+                        final Path a = new Path("/d/a", EnumSet.of(Path.Type.file));
+                        a.attributes().setSize(1L);
+                        list.add(a);
+                        list.add(new Path("/d/p", EnumSet.of(Path.Type.directory)));
+                        final Path b = new Path("/d/p/s/b", EnumSet.of(Path.Type.file));
+                        b.attributes().setSize(3L);
+                        list.add(b);
+                        return list;
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        assertEquals(4L, new CalculateSizeWorker(Collections.singletonList(directory), new DisabledProgressListener()) {
+            @Override
+            protected void update(final long size) {
+                //
+            }
+        }.run(session), 0L);
+        assertEquals(4L, directory.attributes().getSize());
+    }
 }
@@ -0,0 +1,120 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledPasswordCallback;
+import ch.cyberduck.core.DisabledTranscriptListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.TestLoginConnectionService;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.pool.DefaultSessionPool;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.ssl.DefaultX509KeyManager;
+import ch.cyberduck.core.ssl.DisabledX509TrustManager;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.ui.browser.SearchFilter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentSearchWorkerTest {
+
+    @Test
+    public void testRun() throws Exception {
+        final PathCache cache = new PathCache(Integer.MAX_VALUE);
+        final AttributedList<Path> root = new AttributedList<>();
+        root.add(new Path("/t1.png", EnumSet.of(Path.Type.file)));
+        root.add(new Path("/t1.gif", EnumSet.of(Path.Type.file)));
+        root.add(new Path("/folder", EnumSet.of(Path.Type.directory)));
+        root.add(new Path("/folder2", EnumSet.of(Path.Type.directory)));
+        cache.put(new Path("/", EnumSet.of(Path.Type.directory)), root);
+        final AttributedList<Path> folder = new AttributedList<>();
+        folder.add(new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.png", EnumSet.of(Path.Type.file)));
+        folder.add(new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.gif", EnumSet.of(Path.Type.file)));
+        folder.add(new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/sub", EnumSet.of(Path.Type.directory)));
+        cache.put(new Path("/folder", EnumSet.of(Path.Type.directory)), folder);
+        final AttributedList<Path> sub = new AttributedList<>();
+        sub.add(new Path(new Path("/folder/sub", EnumSet.of(Path.Type.directory)), "/t3.png", EnumSet.of(Path.Type.file)));
+        cache.put(new Path("/folder/sub", EnumSet.of(Path.Type.directory)), sub);
+        cache.put(new Path("/folder2", EnumSet.of(Path.Type.directory)), new AttributedList<>());
+        final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+        final DefaultSessionPool pool = new DefaultSessionPool(new TestLoginConnectionService(), new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+            new DefaultVaultRegistry(new DisabledPasswordCallback()), PathCache.empty(), new DisabledTranscriptListener(), host);
+        final List<Path> chunks = new ArrayList<>();
+        final Set<Thread> threads = new HashSet<>();
+        final ConcurrentSearchWorker search = new ConcurrentSearchWorker(pool, new Path("/", EnumSet.of(Path.Type.directory)),
+            new SearchFilter(".png"), cache, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path parent, final AttributedList<Path> list) {
+                threads.add(Thread.currentThread());
+                for(Path f : list) {
+                    chunks.add(f);
+                }
+            }
+        }, 3);
+        final AttributedList<Path> found = search.run(new NullSession(host));
+        assertTrue(found.contains(new Path("/t1.png", EnumSet.of(Path.Type.file))));
+        assertFalse(found.contains(new Path("/t1.gif", EnumSet.of(Path.Type.file))));
+        assertTrue(found.contains(new Path("/folder", EnumSet.of(Path.Type.directory))));
+        assertTrue(found.contains(new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.png", EnumSet.of(Path.Type.file))));
+        assertFalse(found.contains(new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.gif", EnumSet.of(Path.Type.file))));
+        assertTrue(found.contains(new Path("/folder/sub", EnumSet.of(Path.Type.directory))));
+        assertTrue(found.contains(new Path("/folder/sub/t3.png", EnumSet.of(Path.Type.file))));
+        assertFalse(found.contains(new Path("/folder2", EnumSet.of(Path.Type.directory))));
+        assertEquals(3, chunks.size());
+        assertTrue(chunks.contains(new Path("/folder/sub/t3.png", EnumSet.of(Path.Type.file))));
+        // Matches only passed to listener from calling thread
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testRunStatefulSequential() throws Exception {
+        final PathCache cache = new PathCache(Integer.MAX_VALUE);
+        final AttributedList<Path> root = new AttributedList<>();
+        root.add(new Path("/t1.png", EnumSet.of(Path.Type.file)));
+        root.add(new Path("/folder", EnumSet.of(Path.Type.directory)));
+        cache.put(new Path("/", EnumSet.of(Path.Type.directory)), root);
+        final AttributedList<Path> folder = new AttributedList<>();
+        folder.add(new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.png", EnumSet.of(Path.Type.file)));
+        cache.put(new Path("/folder", EnumSet.of(Path.Type.directory)), folder);
+        final Host host = new Host(new TestProtocol() {
+            @Override
+            public Statefulness getStatefulness() {
+                return Statefulness.stateful;
+            }
+        }, "test.cyberduck.ch");
+        // No additional connections borrowed from pool
+        final ConcurrentSearchWorker search = new ConcurrentSearchWorker(SessionPool.DISCONNECTED, new Path("/", EnumSet.of(Path.Type.directory)),
+            new SearchFilter(".png"), cache, new DisabledListProgressListener(), 3);
+        final AttributedList<Path> found = search.run(new NullSession(host));
+        assertTrue(found.contains(new Path("/t1.png", EnumSet.of(Path.Type.file))));
+        assertTrue(found.contains(new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.png", EnumSet.of(Path.Type.file))));
+    }
+}
@@ -22,11 +22,13 @@ import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.DisabledNotificationService;
 import ch.cyberduck.core.pool.DefaultSessionPool;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
 import ch.cyberduck.core.ssl.DisabledX509TrustManager;
 import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
 import ch.cyberduck.core.transfer.DisabledTransferPrompt;
 import ch.cyberduck.core.transfer.DownloadTransfer;
+import ch.cyberduck.core.transfer.SpillingTransferStatusMap;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
 import ch.cyberduck.core.transfer.TransferItem;
@@ -44,12 +46,14 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -210,6 +214,88 @@ public class ConcurrentTransferWorkerTest {
         worker.cleanup(true);
     }
 
+    @Test
+    public void testSpillCompletedStatus() throws Exception {
+        PreferencesFactory.get().setProperty("queue.transfer.table.spill.enable", true);
+        PreferencesFactory.get().setProperty("queue.transfer.table.spill.threshold", 5);
+        try {
+            final int files = 20;
+            final List<TransferItem> list = new ArrayList<TransferItem>();
+            for(int i = 1; i <= files; i++) {
+                list.add(new TransferItem(new Path("/t" + i, EnumSet.of(Path.Type.file)), new NullLocal("/t" + i)));
+            }
+            final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+            final AtomicInteger spilled = new AtomicInteger();
+            final Transfer t = new DownloadTransfer(host, list) {
+                @Override
+                public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                     final TransferOptions options, final TransferStatus status,
+                                     final ConnectionCallback connectionCallback,
+                                     final ProgressListener listener, final StreamListener streamListener) {
+                    status.setComplete();
+                }
+
+                @Override
+                public void post(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) {
+                    assertTrue(files instanceof SpillingTransferStatusMap);
+                    spilled.set(((SpillingTransferStatusMap) files).getSpilled());
+                    for(Map.Entry<TransferItem, TransferStatus> entry : files.entrySet()) {
+                        assertTrue(entry.getValue().isComplete());
+                    }
+                }
+
+                @Override
+                public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                    return new AbstractDownloadFilter(new DisabledDownloadSymlinkResolver(), source, null) {
+                        @Override
+                        public boolean accept(final Path file, final Local local, final TransferStatus parent) {
+                            return true;
+                        }
+
+                        @Override
+                        public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) {
+                            return new TransferStatus();
+                        }
+
+                        @Override
+                        public void apply(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                            //
+                        }
+
+                        @Override
+                        public void complete(final Path file, final Local local, final TransferOptions options, final TransferStatus status, final ProgressListener listener) {
+                            //
+                        }
+                    };
+                }
+            };
+            final LoginConnectionService connection = new TestLoginConnectionService();
+            final DefaultSessionPool pool = new DefaultSessionPool(connection, new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+                new DefaultVaultRegistry(new DisabledPasswordCallback()),
+                PathCache.empty(), new DisabledTranscriptListener(), host);
+            final ConcurrentTransferWorker worker = new ConcurrentTransferWorker(
+                pool, SessionPool.DISCONNECTED, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+                @Override
+                public TransferAction prompt(final TransferItem file) {
+                    return TransferAction.overwrite;
+                }
+            }, new DisabledTransferErrorCallback(),
+                new DisabledLoginCallback(), new DisabledProgressListener(), new DisabledStreamListener(), new DisabledNotificationService()
+            );
+            pool.withMaxTotal(3);
+            final Session<?> session = worker.borrow(ConcurrentTransferWorker.Connection.source);
+            assertTrue(worker.run(session));
+            worker.release(session, ConcurrentTransferWorker.Connection.source, null);
+            // Completed entries written to disk once working set exceeds threshold
+            assertTrue(spilled.get() > 0);
+            worker.cleanup(true);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.transfer.table.spill.enable");
+            PreferencesFactory.get().deleteProperty("queue.transfer.table.spill.threshold");
+        }
+    }
+
     @Test
     public void testBorrowTimeoutNoSessionAvailable() throws Exception {
         final Host host = new Host(new TestProtocol(), "localhost", new Credentials("u", "p"));
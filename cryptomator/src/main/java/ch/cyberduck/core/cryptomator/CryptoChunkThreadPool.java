@@ -0,0 +1,38 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+/**
+ * Worker threads shared by all streams to encrypt and decrypt file content chunks and by listings to decrypt filenames
+ */
+final class CryptoChunkThreadPool {
+
+    private CryptoChunkThreadPool() {
+    }
+
+    private static final class Holder {
+        private static final ThreadPool instance = ThreadPoolFactory.get("cryptomator",
+            Math.max(1, PreferencesFactory.get().getInteger("cryptomator.vault.chunks.threads")));
+    }
+
+    public static ThreadPool get() {
+        return Holder.instance;
+    }
+}
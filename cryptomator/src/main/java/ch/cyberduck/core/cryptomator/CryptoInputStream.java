@@ -15,6 +15,10 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.io.ByteArrayPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ProxyInputStream;
 import org.cryptomator.cryptolib.api.CryptoException;
@@ -23,8 +27,17 @@ import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+/**
+ * Decrypts file content in chunks. Ciphertext chunks are read ahead from the proxy and authenticated and decrypted
+ * concurrently on a shared worker pool with a bounded number of chunks in progress. Cleartext is returned in order.
+ */
 public class CryptoInputStream extends ProxyInputStream {
 
     private final InputStream proxy;
@@ -33,27 +46,63 @@ public class CryptoInputStream extends ProxyInputStream {
 
     private ByteBuffer buffer = ByteBuffer.allocate(0);
 
+    private final ByteArrayPool pool = ByteArrayPool.get();
+    /**
+     * Reused for reading ciphertext chunks when decrypting on calling thread
+     */
+    private byte[] ciphertext;
+
     /**
      * Position proxy content cryptor
      */
     private long chunkIndexOffset;
     private final int chunkSize;
 
+    private final ThreadPool executor;
+    private final int window;
+    /**
+     * Chunks read ahead in order of chunk index
+     */
+    private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+    /**
+     * End of ciphertext reached in proxy
+     */
+    private boolean eof;
+    private boolean closed;
+
     public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset) {
+        this(proxy, cryptor, header, chunkIndexOffset, CryptoChunkThreadPool.get(),
+            PreferencesFactory.get().getInteger("cryptomator.vault.chunks.window"));
+    }
+
+    /**
+     * @param executor Worker threads to decrypt chunks
+     * @param window   Maximum number of chunks read ahead. Decrypt on calling thread if 1
+     */
+    public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset,
+                             final ThreadPool executor, final int window) {
         super(proxy);
         this.proxy = proxy;
         this.cryptor = cryptor;
         this.header = header;
         this.chunkSize = cryptor.ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.executor = executor;
+        this.window = window;
+        if(window <= 1) {
+            this.ciphertext = pool.acquire(chunkSize);
+        }
     }
 
     @Override
     public int read() throws IOException {
         if(!buffer.hasRemaining()) {
-            this.readNextChunk();
+            final int read = this.readNextChunk();
+            if(read == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
         }
-        return buffer.get();
+        return buffer.get() & 0xff;
     }
 
     @Override
@@ -79,20 +128,84 @@ public class CryptoInputStream extends ProxyInputStream {
         return IOUtils.skip(this, len);
     }
 
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        }
+        finally {
+            closed = true;
+            for(Future<ByteBuffer> chunk : pending) {
+                chunk.cancel(false);
+            }
+            pending.clear();
+            pool.release(ciphertext);
+            ciphertext = null;
+        }
+    }
+
+    /**
+     * @return Number of cleartext bytes available or EOF
+     */
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
-        final int read = IOUtils.read(proxy, ciphertextBuf.array());
-        if(read == 0) {
+        if(closed) {
+            throw new IOException("Stream closed");
+        }
+        if(window <= 1) {
+            final int read = IOUtils.read(proxy, ciphertext);
+            if(read == 0) {
+                return IOUtils.EOF;
+            }
+            buffer = this.decrypt(ByteBuffer.wrap(ciphertext, 0, read), chunkIndexOffset++);
+            return buffer.remaining();
+        }
+        // Read ahead up to window
+        while(!eof && pending.size() < window) {
+            final byte[] chunk = pool.acquire(chunkSize);
+            final int read = IOUtils.read(proxy, chunk);
+            if(read == 0) {
+                pool.release(chunk);
+                eof = true;
+                break;
+            }
+            if(read < chunkSize) {
+                // Last chunk
+                eof = true;
+            }
+            final long chunkIndex = chunkIndexOffset++;
+            pending.add(executor.execute(() -> {
+                try {
+                    return this.decrypt(ByteBuffer.wrap(chunk, 0, read), chunkIndex);
+                }
+                finally {
+                    pool.release(chunk);
+                }
+            }));
+        }
+        if(pending.isEmpty()) {
             return IOUtils.EOF;
         }
-        ciphertextBuf.position(read);
-        ciphertextBuf.flip();
         try {
-            buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+            buffer = pending.remove().get();
+        }
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        return buffer.remaining();
+    }
+
+    private ByteBuffer decrypt(final ByteBuffer ciphertext, final long chunkIndex) throws IOException {
+        try {
+            return cryptor.decryptChunk(ciphertext, chunkIndex, header, true);
         }
         catch(CryptoException e) {
             throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
         }
-        return read;
     }
 }
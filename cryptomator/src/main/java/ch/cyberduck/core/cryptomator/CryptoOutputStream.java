@@ -16,9 +16,12 @@ package ch.cyberduck.core.cryptomator;
  */
 
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.ByteArrayPool;
 import ch.cyberduck.core.io.MemorySegementingOutputStream;
 import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.random.NonceGenerator;
+import ch.cyberduck.core.threading.ThreadPool;
 
 import org.apache.commons.io.output.ProxyOutputStream;
 import org.cryptomator.cryptolib.api.CryptoException;
@@ -26,17 +29,35 @@ import org.cryptomator.cryptolib.api.FileContentCryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+/**
+ * Encrypts file content in chunks. Chunks are encrypted concurrently on a shared worker pool with a bounded number of
+ * chunks in progress and written to the proxy in order.
+ */
 public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
     private final StatusOutputStream<Reply> proxy;
 
     public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final FileContentCryptor cryptor, final FileHeader header,
                               final NonceGenerator nonces, final long chunkIndexOffset) {
-        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
+        this(proxy, cryptor, header, nonces, chunkIndexOffset, CryptoChunkThreadPool.get(),
+            PreferencesFactory.get().getInteger("cryptomator.vault.chunks.window"));
+    }
+
+    /**
+     * @param pool   Worker threads to encrypt chunks
+     * @param window Maximum number of chunks encrypted concurrently. Encrypt on calling thread if 1
+     */
+    public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final FileContentCryptor cryptor, final FileHeader header,
+                              final NonceGenerator nonces, final long chunkIndexOffset, final ThreadPool pool, final int window) {
+        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset, pool, window),
             cryptor.cleartextChunkSize()));
         this.proxy = proxy;
     }
@@ -63,14 +84,27 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
         private final NonceGenerator nonces;
         private long chunkIndexOffset;
 
+        private final ThreadPool pool;
+        private final int window;
+        /**
+         * Chunks in progress in order of chunk index
+         */
+        private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+        /**
+         * Reused for copies of cleartext chunks
+         */
+        private final ByteArrayPool buffers = ByteArrayPool.get();
+
         public EncryptingOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
-                                      final NonceGenerator nonces, final long chunkIndexOffset) {
+                                      final NonceGenerator nonces, final long chunkIndexOffset, final ThreadPool pool, final int window) {
             super(proxy);
             this.cryptor = cryptor;
             this.header = header;
             this.chunksize = cryptor.cleartextChunkSize();
             this.nonces = nonces;
             this.chunkIndexOffset = chunkIndexOffset;
+            this.pool = pool;
+            this.window = window;
         }
 
         @Override
@@ -80,18 +114,87 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
-            try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
-                    int chunkLen = Math.min(chunksize, len - chunkOffset);
-                    final ByteBuffer encryptedChunk = cryptor.encryptChunk(
-                        ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
-                        chunkIndexOffset++, header, nonces.next());
-                    super.write(encryptedChunk.array());
+            for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += chunksize) {
+                final int chunkLen = Math.min(chunksize, off + len - chunkOffset);
+                if(window <= 1) {
+                    // Encrypt from slice of input without copy
+                    this.write(this.encrypt(ByteBuffer.wrap(b, chunkOffset, chunkLen).slice(), chunkIndexOffset++, nonces.next()));
+                    continue;
+                }
+                // Copy as input buffer is reused by caller
+                final byte[] cleartext = buffers.acquire(chunksize);
+                System.arraycopy(b, chunkOffset, cleartext, 0, chunkLen);
+                final long chunkIndex = chunkIndexOffset++;
+                final byte[] nonce = nonces.next();
+                pending.add(pool.execute(() -> {
+                    try {
+                        return cryptor.encryptChunk(ByteBuffer.wrap(cleartext, 0, chunkLen), chunkIndex, header, nonce);
+                    }
+                    finally {
+                        buffers.release(cleartext);
+                    }
+                }));
+                while(pending.size() >= window) {
+                    this.write(this.await(pending.remove()));
                 }
             }
+        }
+
+        private ByteBuffer encrypt(final ByteBuffer cleartext, final long chunkIndex, final byte[] nonce) throws IOException {
+            try {
+                return cryptor.encryptChunk(cleartext, chunkIndex, header, nonce);
+            }
             catch(CryptoException e) {
                 throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
             }
         }
+
+        private ByteBuffer await(final Future<ByteBuffer> chunk) throws IOException {
+            try {
+                return chunk.get();
+            }
+            catch(InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            catch(ExecutionException e) {
+                if(e.getCause() instanceof CryptoException) {
+                    throw new IOException(e.getCause().getMessage(), new CryptoAuthenticationException(e.getCause().getMessage(), (CryptoException) e.getCause()));
+                }
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        private void write(final ByteBuffer encryptedChunk) throws IOException {
+            super.write(encryptedChunk.array());
+        }
+
+        /**
+         * Write all chunks in progress
+         */
+        private void drain() throws IOException {
+            while(!pending.isEmpty()) {
+                this.write(this.await(pending.remove()));
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.drain();
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.drain();
+            }
+            finally {
+                for(Future<ByteBuffer> chunk : pending) {
+                    chunk.cancel(false);
+                }
+                pending.clear();
+                super.close();
+            }
+        }
     }
 }
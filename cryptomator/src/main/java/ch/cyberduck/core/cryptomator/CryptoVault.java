@@ -15,6 +15,7 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.Credentials;
 import ch.cyberduck.core.DescriptiveUrl;
 import ch.cyberduck.core.Host;
@@ -26,6 +27,7 @@ import ch.cyberduck.core.PasswordStore;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.Protocol;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.UrlProvider;
@@ -36,6 +38,7 @@ import ch.cyberduck.core.cryptomator.impl.CryptoFilenameV6Provider;
 import ch.cyberduck.core.cryptomator.impl.CryptoFilenameV7Provider;
 import ch.cyberduck.core.cryptomator.random.FastSecureRandomProvider;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.LoginCanceledException;
 import ch.cyberduck.core.features.*;
@@ -43,11 +46,14 @@ import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultTouchFeature;
 import ch.cyberduck.core.shared.DefaultUrlProvider;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.unicode.NFCNormalizer;
 import ch.cyberduck.core.vault.DefaultVaultRegistry;
 import ch.cyberduck.core.vault.VaultCredentials;
 import ch.cyberduck.core.vault.VaultException;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
 
 import org.apache.log4j.Logger;
 import org.cryptomator.cryptolib.Cryptors;
@@ -61,8 +67,15 @@ import org.cryptomator.cryptolib.api.KeyFile;
 
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -421,7 +434,13 @@ public class CryptoVault implements Vault {
             log.warn(String.format("Skip file %s because it is marked as an internal vault path", file));
             return file;
         }
-        final Path inflated = this.inflate(session, file);
+        return this.decrypt(file, this.inflate(session, file));
+    }
+
+    /**
+     * @param inflated File with full length encrypted filename
+     */
+    private Path decrypt(final Path file, final Path inflated) throws BackgroundException {
         final Pattern pattern = vaultVersion == VAULT_VERSION_DEPRECATED ? BASE32_PATTERN : BASE64URL_PATTERN;
         final Matcher m = pattern.matcher(inflated.getName());
         if(m.matches()) {
@@ -432,10 +451,14 @@ public class CryptoVault implements Vault {
                     ciphertext, file.getParent().attributes().getDirectoryId().getBytes(StandardCharsets.UTF_8));
                 final PathAttributes attributes = new PathAttributes(file.attributes());
                 if(this.isDirectory(inflated)) {
-                    final Permission permission = attributes.getPermission();
-                    permission.setUser(permission.getUser().or(Permission.Action.execute));
-                    permission.setGroup(permission.getGroup().or(Permission.Action.execute));
-                    permission.setOther(permission.getOther().or(Permission.Action.execute));
+                    if(Permission.EMPTY != attributes.getPermission()) {
+                        // Copy as instance may be shared with other files
+                        final Permission permission = new Permission(attributes.getPermission());
+                        permission.setUser(permission.getUser().or(Permission.Action.execute));
+                        permission.setGroup(permission.getGroup().or(Permission.Action.execute));
+                        permission.setOther(permission.getOther().or(Permission.Action.execute));
+                        attributes.setPermission(permission);
+                    }
                     // Reset size for folders
                     attributes.setSize(-1L);
                     attributes.setVersionId(null);
@@ -470,6 +493,122 @@ public class CryptoVault implements Vault {
         }
     }
 
+    /**
+     * Decrypt filenames concurrently in batches per worker thread. Metadata files of shortened filenames are read
+     * before, concurrently on a separate bounded pool only for protocols allowing concurrent requests on a single
+     * connection. Worker threads shared with content encryption never read from the session.
+     */
+    @Override
+    public List<Future<Path>> decrypt(final Session<?> session, final List<Path> files) {
+        final long timestamp = System.currentTimeMillis();
+        final ThreadPool pool = CryptoChunkThreadPool.get();
+        final List<CompletableFuture<Path>> decrypted = new ArrayList<>(files.size());
+        for(int i = 0; i < files.size(); i++) {
+            decrypted.add(new CompletableFuture<>());
+        }
+        final boolean concurrent = Protocol.Statefulness.stateless == session.getHost().getProtocol().getStatefulness();
+        // Inflated filenames to decrypt
+        final Path[] inflated = new Path[files.size()];
+        final Map<Integer, Future<String>> prefetch = new LinkedHashMap<>();
+        // Created when first shortened filename is found
+        ThreadPool readers = null;
+        for(int i = 0; i < files.size(); i++) {
+            final Path file = files.get(i);
+            if(file.getType().contains(Path.Type.decrypted) || file.getType().contains(Path.Type.vault)) {
+                try {
+                    decrypted.get(i).complete(this.decrypt(session, file));
+                }
+                catch(BackgroundException e) {
+                    decrypted.get(i).completeExceptionally(e);
+                }
+                continue;
+            }
+            final String name = file.getName();
+            if(filenameProvider.isDeflated(name)) {
+                if(concurrent) {
+                    if(null == readers) {
+                        readers = ThreadPoolFactory.get(String.format("%s-inflate", new AlphanumericRandomStringService().random()),
+                            Math.max(1, PreferencesFactory.get().getInteger("cryptomator.vault.list.inflate.threads")));
+                    }
+                    prefetch.put(i, readers.execute(() -> filenameProvider.inflate(session, name)));
+                }
+                else {
+                    try {
+                        inflated[i] = this.inflate(session, file);
+                    }
+                    catch(BackgroundException e) {
+                        decrypted.get(i).completeExceptionally(e);
+                    }
+                }
+            }
+            else {
+                inflated[i] = file;
+            }
+        }
+        for(Map.Entry<Integer, Future<String>> entry : prefetch.entrySet()) {
+            final int i = entry.getKey();
+            try {
+                inflated[i] = this.inflate(files.get(i), entry.getValue().get());
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                entry.getValue().cancel(true);
+                decrypted.get(i).completeExceptionally(new ConnectionCanceledException(e));
+            }
+            catch(ExecutionException e) {
+                if(e.getCause() instanceof BackgroundException) {
+                    decrypted.get(i).completeExceptionally(e.getCause());
+                }
+                else {
+                    decrypted.get(i).completeExceptionally(new DefaultExceptionMappingService().map(e.getCause()));
+                }
+            }
+        }
+        if(readers != null) {
+            readers.shutdown(false);
+        }
+        final long reading = System.currentTimeMillis();
+        final int threads = Math.max(1, PreferencesFactory.get().getInteger("cryptomator.vault.chunks.threads"));
+        final int size = Math.max(PreferencesFactory.get().getInteger("cryptomator.vault.list.batch.size"),
+            (files.size() + threads - 1) / threads);
+        for(int from = 0; from < files.size(); from += size) {
+            final int start = from;
+            final int end = Math.min(files.size(), from + size);
+            if(end == files.size()) {
+                // Last batch on calling thread
+                this.decrypt(files, inflated, decrypted, start, end);
+            }
+            else {
+                pool.execute(() -> {
+                    this.decrypt(files, inflated, decrypted, start, end);
+                    return null;
+                });
+            }
+        }
+        CompletableFuture.allOf(decrypted.toArray(new CompletableFuture[0])).whenComplete((result, failure) -> {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Decrypted %d filenames in %d ms with %d ms reading metadata files for shortened filenames. %s",
+                    files.size(), System.currentTimeMillis() - timestamp, reading - timestamp, fileNameCryptor));
+            }
+        });
+        return new ArrayList<>(decrypted);
+    }
+
+    private void decrypt(final List<Path> files, final Path[] inflated, final List<CompletableFuture<Path>> decrypted,
+                         final int start, final int end) {
+        for(int i = start; i < end; i++) {
+            if(decrypted.get(i).isDone()) {
+                continue;
+            }
+            try {
+                decrypted.get(i).complete(this.decrypt(files.get(i), inflated[i]));
+            }
+            catch(BackgroundException | RuntimeException e) {
+                decrypted.get(i).completeExceptionally(e);
+            }
+        }
+    }
+
     private boolean isDirectory(final Path p) {
         if(vaultVersion == VAULT_VERSION_DEPRECATED) {
             return p.getName().startsWith(DIR_PREFIX);
@@ -505,12 +644,15 @@ public class CryptoVault implements Vault {
     private Path inflate(final Session<?> session, final Path file) throws BackgroundException {
         final String fileName = file.getName();
         if(filenameProvider.isDeflated(fileName)) {
-            final String filename = filenameProvider.inflate(session, fileName);
-            return new Path(file.getParent(), filename, EnumSet.of(Path.Type.file), file.attributes());
+            return this.inflate(file, filenameProvider.inflate(session, fileName));
         }
         return file;
     }
 
+    private Path inflate(final Path file, final String filename) {
+        return new Path(file.getParent(), filename, EnumSet.of(Path.Type.file), file.attributes());
+    }
+
     public Path getHome() {
         return home;
     }
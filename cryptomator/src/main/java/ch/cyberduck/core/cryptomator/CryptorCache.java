@@ -16,41 +16,67 @@ package ch.cyberduck.core.cryptomator;
  */
 
 import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.cryptomator.cryptolib.api.AuthenticationFailedException;
 import org.cryptomator.cryptolib.api.FileNameCryptor;
 
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.io.BaseEncoding;
 
+/**
+ * Caches filenames encrypted and decrypted. Safe for concurrent use.
+ */
 public class CryptorCache {
 
     public static final BaseEncoding BASE32 = BaseEncoding.base32();
 
-    private final LRUCache<String, String> directoryIdCache = LRUCache.build(250);
-    private final LRUCache<CacheKey, String> decryptCache = LRUCache.build(5000);
-    private final LRUCache<CacheKey, String> encryptCache = LRUCache.build(5000);
+    private final LRUCache<String, String> directoryIdCache;
+    private final LRUCache<CacheKey, String> decryptCache;
+    private final LRUCache<CacheKey, String> encryptCache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
 
     private FileNameCryptor impl;
 
     public CryptorCache(final FileNameCryptor impl) {
+        this(impl, PreferencesFactory.get().getLong("cryptomator.cache.size"),
+            PreferencesFactory.get().getLong("cryptomator.cache.directoryid.size"));
+    }
+
+    /**
+     * @param size            Number of filenames to cache for encryption and decryption each
+     * @param directoryIdSize Number of hashed directory IDs to cache
+     */
+    public CryptorCache(final FileNameCryptor impl, final long size, final long directoryIdSize) {
         this.impl = impl;
+        this.directoryIdCache = LRUCache.build(directoryIdSize);
+        this.decryptCache = LRUCache.build(size);
+        this.encryptCache = LRUCache.build(size);
     }
 
     public String hashDirectoryId(final String cleartextDirectoryId) {
-        if(!directoryIdCache.contains(cleartextDirectoryId)) {
-            directoryIdCache.put(cleartextDirectoryId, impl.hashDirectoryId(cleartextDirectoryId));
+        final String cached = directoryIdCache.get(cleartextDirectoryId);
+        if(cached != null) {
+            return cached;
         }
-        return directoryIdCache.get(cleartextDirectoryId);
+        final String hashed = impl.hashDirectoryId(cleartextDirectoryId);
+        directoryIdCache.put(cleartextDirectoryId, hashed);
+        return hashed;
     }
 
     public String encryptFilename(final BaseEncoding encoding, final String cleartextName, final byte[] associatedData) {
         final CacheKey key = new CacheKey(encoding, cleartextName, associatedData);
-        if(encryptCache.contains(key)) {
-            return encryptCache.get(key);
+        final String cached = encryptCache.get(key);
+        if(cached != null) {
+            hits.incrementAndGet();
+            return cached;
         }
+        misses.incrementAndGet();
         final String ciphertextName = impl.encryptFilename(encoding, cleartextName, associatedData);
         encryptCache.put(key, ciphertextName);
         decryptCache.put(new CacheKey(encoding, ciphertextName, associatedData), cleartextName);
@@ -59,15 +85,32 @@ public class CryptorCache {
 
     public String decryptFilename(final BaseEncoding encoding, final String ciphertextName, final byte[] associatedData) throws AuthenticationFailedException {
         final CacheKey key = new CacheKey(encoding, ciphertextName, associatedData);
-        if(decryptCache.contains(key)) {
-            return decryptCache.get(key);
+        final String cached = decryptCache.get(key);
+        if(cached != null) {
+            hits.incrementAndGet();
+            return cached;
         }
+        misses.incrementAndGet();
         final String cleartextName = impl.decryptFilename(encoding, ciphertextName, associatedData);
         decryptCache.put(key, cleartextName);
         encryptCache.put(new CacheKey(encoding, cleartextName, associatedData), ciphertextName);
         return cleartextName;
     }
 
+    /**
+     * @return Number of filenames found in cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of filenames encrypted or decrypted not found in cache
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
     private static class CacheKey {
         private final BaseEncoding encoding;
         private final String value;
@@ -100,4 +143,13 @@ public class CryptorCache {
             return result;
         }
     }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CryptorCache{");
+        sb.append("hits=").append(hits);
+        sb.append(", misses=").append(misses);
+        sb.append('}');
+        return sb.toString();
+    }
 }
@@ -120,6 +120,11 @@ public class CryptoDeleteV6Feature implements Delete {
         return proxy.isRecursive();
     }
 
+    @Override
+    public int getBatchSize() {
+        return proxy.getBatchSize();
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("CryptoDeleteFeature{");
@@ -115,6 +115,11 @@ public class CryptoDeleteV7Feature implements Delete {
         return proxy.isRecursive();
     }
 
+    @Override
+    public int getBatchSize() {
+        return proxy.getBatchSize();
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("CryptoDeleteFeature{");
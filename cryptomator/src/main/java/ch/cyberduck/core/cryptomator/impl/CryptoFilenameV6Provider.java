@@ -49,6 +49,11 @@ public class CryptoFilenameV6Provider implements CryptoFilename {
 
     private final LRUCache<String, String> cache = LRUCache.build(
         PreferencesFactory.get().getLong("browser.cache.size"));
+    /**
+     * Filenames read from metadata files by shortened name. Never changes as shortened name is hash of filename
+     */
+    private final LRUCache<String, String> inflated = LRUCache.build(
+        PreferencesFactory.get().getLong("browser.cache.size"));
 
     public CryptoFilenameV6Provider(final Path vault) {
         this.metadataRoot = new Path(vault, METADATA_DIR_NAME, vault.getType());
@@ -61,7 +66,13 @@ public class CryptoFilenameV6Provider implements CryptoFilename {
 
     @Override
     public String inflate(final Session<?> session, final String shortName) throws BackgroundException {
-        return new ContentReader(session).read(this.resolve(shortName));
+        final String cached = inflated.get(shortName);
+        if(cached != null) {
+            return cached;
+        }
+        final String filename = new ContentReader(session).read(this.resolve(shortName));
+        inflated.put(shortName, filename);
+        return filename;
     }
 
     @Override
@@ -111,10 +122,12 @@ public class CryptoFilenameV6Provider implements CryptoFilename {
     @Override
     public void invalidate(final String filename) {
         cache.remove(filename);
+        inflated.remove(filename);
     }
 
     @Override
     public void destroy() {
         cache.clear();
+        inflated.clear();
     }
 }
@@ -0,0 +1,197 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledPasswordStore;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.features.Directory;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultCredentials;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.log4j.Logger;
+import org.cryptomator.cryptolib.api.FileHeader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class CryptoInputStreamTest {
+    private static final Logger log = Logger.getLogger(CryptoInputStreamTest.class);
+
+    private ThreadPool pool;
+
+    @Before
+    public void setup() {
+        pool = ThreadPoolFactory.get("cryptomator", 4);
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown(false);
+    }
+
+    private CryptoVault getVault() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Directory.class) {
+                    return (T) new Directory() {
+
+                        @Override
+                        public Path mkdir(final Path folder, final String region, final TransferStatus status) {
+                            assertTrue(folder.equals(home) || folder.isChild(home));
+                            return folder;
+                        }
+
+                        @Override
+                        public Directory withWriter(final Write writer) {
+                            return this;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final CryptoVault vault = new CryptoVault(home);
+        vault.create(session, null, new VaultCredentials("test"), new DisabledPasswordStore());
+        return vault;
+    }
+
+    private byte[] encrypt(final CryptoVault vault, final FileHeader header, final byte[] cleartext) throws IOException {
+        final ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(ciphertext) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0, pool, 1);
+        stream.write(cleartext);
+        stream.close();
+        return ciphertext.toByteArray();
+    }
+
+    @Test
+    public void testReadAhead() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 20 + 100);
+        final byte[] ciphertext = this.encrypt(vault, header, cleartext);
+        final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext), vault.getFileContentCryptor(), header, 0, pool, 3);
+        final ByteArrayOutputStream read = new ByteArrayOutputStream();
+        // Read with buffer not aligned to chunk size
+        final byte[] buffer = new byte[10000];
+        int len;
+        while((len = stream.read(buffer)) != IOUtils.EOF) {
+            read.write(buffer, 0, len);
+        }
+        assertEquals(IOUtils.EOF, stream.read());
+        stream.close();
+        assertArrayEquals(cleartext, read.toByteArray());
+    }
+
+    @Test
+    public void testReadOffset() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final byte[] cleartext = RandomUtils.nextBytes(chunksize * 10);
+        final byte[] ciphertext = this.encrypt(vault, header, cleartext);
+        // Start in fourth chunk as when resuming download
+        final long offset = chunksize * 3L + 500L;
+        final int aligned = vault.getFileContentCryptor().ciphertextChunkSize() * 3;
+        final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext, aligned, ciphertext.length - aligned),
+            vault.getFileContentCryptor(), header, 3, pool, 4);
+        assertEquals(500L, stream.skip(500L));
+        final byte[] read = IOUtils.toByteArray(stream);
+        stream.close();
+        assertArrayEquals(Arrays.copyOfRange(cleartext, (int) offset, cleartext.length), read);
+    }
+
+    @Test
+    public void testReadByte() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = new byte[]{(byte) 0xff, 0x01};
+        final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(this.encrypt(vault, header, cleartext)),
+            vault.getFileContentCryptor(), header, 0, pool, 4);
+        assertEquals(0xff, stream.read());
+        assertEquals(0x01, stream.read());
+        assertEquals(IOUtils.EOF, stream.read());
+        stream.close();
+    }
+
+    @Test
+    public void testAuthenticationFailure() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final byte[] cleartext = RandomUtils.nextBytes(chunksize * 8);
+        final byte[] ciphertext = this.encrypt(vault, header, cleartext);
+        // Modify payload of sixth chunk
+        ciphertext[vault.getFileContentCryptor().ciphertextChunkSize() * 5 + 100] ^= 0x01;
+        final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext), vault.getFileContentCryptor(), header, 0, pool, 4);
+        final byte[] read = new byte[chunksize * 5];
+        IOUtils.readFully(stream, read);
+        assertArrayEquals(Arrays.copyOfRange(cleartext, 0, read.length), read);
+        try {
+            stream.read();
+            fail();
+        }
+        catch(IOException e) {
+            assertTrue(e.getCause() instanceof CryptoAuthenticationException);
+        }
+        stream.close();
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testThroughput() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] ciphertext = this.encrypt(vault, header, RandomUtils.nextBytes(64 * 1024 * 1024));
+        for(int window : new int[]{1, 2 * Runtime.getRuntime().availableProcessors()}) {
+            final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext), vault.getFileContentCryptor(), header, 0,
+                CryptoChunkThreadPool.get(), window);
+            final long start = System.currentTimeMillis();
+            final long length = IOUtils.skip(stream, Long.MAX_VALUE);
+            stream.close();
+            final long elapsed = System.currentTimeMillis() - start;
+            log.info(String.format("Decrypted %d bytes with %d chunks read ahead in %d ms (%.1f MB/s)",
+                length, window, elapsed, length / 1024d / 1024d * 1000d / elapsed));
+        }
+    }
+}
@@ -24,13 +24,19 @@ import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
 import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.vault.VaultCredentials;
+import ch.cyberduck.test.IntegrationTest;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.RandomUtils;
+import org.apache.log4j.Logger;
 import org.cryptomator.cryptolib.api.FileHeader;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -40,6 +46,7 @@ import java.util.EnumSet;
 import static org.junit.Assert.*;
 
 public class CryptoOutputStreamTest {
+    private static final Logger log = Logger.getLogger(CryptoOutputStreamTest.class);
 
     private CryptoVault getVault() throws Exception {
         final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
@@ -144,4 +151,57 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testWriteConcurrentChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final ThreadPool pool = ThreadPoolFactory.get("cryptomator", 4);
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(cipherText) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0, pool, 3);
+        // Not aligned to chunk size and written in parts
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 20 + 100);
+        for(int offset = 0; offset < cleartext.length; offset += 10000) {
+            stream.write(cleartext, offset, Math.min(10000, cleartext.length - offset));
+        }
+        stream.close();
+        pool.shutdown(false);
+        assertEquals(vault.toCiphertextSize(cleartext.length) - vault.getFileHeaderCryptor().headerSize(), cipherText.size());
+
+        final byte[] read = new byte[cleartext.length];
+        final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0);
+        IOUtils.readFully(cryptoInputStream, read);
+        cryptoInputStream.close();
+
+        assertArrayEquals(cleartext, read);
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testThroughput() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = RandomUtils.nextBytes(64 * 1024 * 1024);
+        for(int window : new int[]{1, 2 * Runtime.getRuntime().availableProcessors()}) {
+            final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(new NullOutputStream()) {
+                @Override
+                public Void getStatus() {
+                    return null;
+                }
+            }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0, CryptoChunkThreadPool.get(), window);
+            final long start = System.currentTimeMillis();
+            for(int offset = 0; offset < cleartext.length; offset += 32768) {
+                stream.write(cleartext, offset, 32768);
+            }
+            stream.close();
+            final long elapsed = System.currentTimeMillis() - start;
+            log.info(String.format("Encrypted %d bytes with %d chunks in progress in %d ms (%.1f MB/s)",
+                cleartext.length, window, elapsed, cleartext.length / 1024d / 1024d * 1000d / elapsed));
+        }
+    }
 }
@@ -15,8 +15,10 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.Credentials;
+import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.DisabledPasswordCallback;
 import ch.cyberduck.core.DisabledPasswordStore;
 import ch.cyberduck.core.Host;
@@ -30,17 +32,28 @@ import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.features.Vault;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.serializer.PathDictionary;
 import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.DecryptingListProgressListener;
 import ch.cyberduck.core.vault.VaultCredentials;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
@@ -124,6 +137,235 @@ public class CryptoVaultTest {
         assertEquals(Vault.State.closed, vault.getState());
     }
 
+    @Test
+    public void testDecryptBatch() throws Exception {
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Read.class) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                            if("masterkey.cryptomator".equals(file.getName())) {
+                                final String masterKey = "{\n" +
+                                    "  \"scryptSalt\": \"NrC7QGG/ouc=\",\n" +
+                                    "  \"scryptCostParam\": 16384,\n" +
+                                    "  \"scryptBlockSize\": 8,\n" +
+                                    "  \"primaryMasterKey\": \"Q7pGo1l0jmZssoQh9rXFPKJE9NIXvPbL+HcnVSR9CHdkeR8AwgFtcw==\",\n" +
+                                    "  \"hmacMasterKey\": \"xzBqT4/7uEcQbhHFLC0YmMy4ykVKbuvJEA46p1Xm25mJNuTc20nCbw==\",\n" +
+                                    "  \"versionMac\": \"hlNr3dz/CmuVajhaiGyCem9lcVIUjDfSMLhjppcXOrM=\",\n" +
+                                    "  \"version\": 5\n" +
+                                    "}";
+                                return IOUtils.toInputStream(masterKey, Charset.defaultCharset());
+                            }
+                            return new NullInputStream(0L);
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final Path home = new Path("/", EnumSet.of((Path.Type.directory)));
+        final CryptoVault vault = new CryptoVault(home);
+        vault.load(session, new DisabledPasswordCallback() {
+            @Override
+            public Credentials prompt(final Host bookmark, final String title, final String reason, final LoginOptions options) {
+                return new VaultCredentials("vault");
+            }
+        }, new DisabledPasswordStore());
+        // Decrypt in multiple batches
+        PreferencesFactory.get().setProperty("cryptomator.vault.list.batch.size", 100);
+        final List<Path> files = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            files.add(vault.encrypt(session, new Path(home, String.format("f%d", i), EnumSet.of(Path.Type.file))));
+        }
+        final Path parent = files.get(0).getParent();
+        files.add(new Path(parent, "invalid", EnumSet.of(Path.Type.file)));
+        final List<Future<Path>> decrypted = vault.decrypt(session, files);
+        assertEquals(files.size(), decrypted.size());
+        for(int i = 0; i < 1000; i++) {
+            assertEquals(String.format("f%d", i), decrypted.get(i).get().getName());
+            assertTrue(decrypted.get(i).get().getType().contains(Path.Type.decrypted));
+        }
+        try {
+            decrypted.get(1000).get();
+            fail();
+        }
+        catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof CryptoFilenameMismatchException);
+        }
+        // Listing with failure removed
+        final AttributedList<Path> list = new AttributedList<>();
+        for(Path file : files) {
+            list.add(new Path(parent, file.getName(), file.getType()));
+        }
+        new DecryptingListProgressListener(session, vault, new DisabledListProgressListener()).chunk(parent, list);
+        assertEquals(1000, list.size());
+        assertEquals("f0", list.get(0).getName());
+        assertEquals("f999", list.get(999).getName());
+        PreferencesFactory.get().deleteProperty("cryptomator.vault.list.batch.size");
+        vault.close();
+    }
+
+    @Test
+    public void testDecryptBatchShortenedStateful() throws Exception {
+        final Map<String, String> metadata = new ConcurrentHashMap<>();
+        final Set<Thread> readers = ConcurrentHashMap.newKeySet();
+        final NullSession session = new NullSession(new Host(new TestProtocol() {
+            @Override
+            public Statefulness getStatefulness() {
+                return Statefulness.stateful;
+            }
+        })) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Read.class) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                            if("masterkey.cryptomator".equals(file.getName())) {
+                                final String masterKey = "{\n" +
+                                    "  \"scryptSalt\": \"NrC7QGG/ouc=\",\n" +
+                                    "  \"scryptCostParam\": 16384,\n" +
+                                    "  \"scryptBlockSize\": 8,\n" +
+                                    "  \"primaryMasterKey\": \"Q7pGo1l0jmZssoQh9rXFPKJE9NIXvPbL+HcnVSR9CHdkeR8AwgFtcw==\",\n" +
+                                    "  \"hmacMasterKey\": \"xzBqT4/7uEcQbhHFLC0YmMy4ykVKbuvJEA46p1Xm25mJNuTc20nCbw==\",\n" +
+                                    "  \"versionMac\": \"hlNr3dz/CmuVajhaiGyCem9lcVIUjDfSMLhjppcXOrM=\",\n" +
+                                    "  \"version\": 5\n" +
+                                    "}";
+                                return IOUtils.toInputStream(masterKey, Charset.defaultCharset());
+                            }
+                            // Metadata file for shortened filename
+                            readers.add(Thread.currentThread());
+                            return IOUtils.toInputStream(metadata.get(file.getName()), Charset.defaultCharset());
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        // Cache for inflated filenames smaller than listing
+        PreferencesFactory.get().setProperty("browser.cache.size", 10);
+        final Path home = new Path("/", EnumSet.of((Path.Type.directory)));
+        final CryptoVault vault = new CryptoVault(home);
+        vault.load(session, new DisabledPasswordCallback() {
+            @Override
+            public Credentials prompt(final Host bookmark, final String title, final String reason, final LoginOptions options) {
+                return new VaultCredentials("vault");
+            }
+        }, new DisabledPasswordStore());
+        // Decrypt in multiple batches
+        PreferencesFactory.get().setProperty("cryptomator.vault.chunks.threads", 4);
+        PreferencesFactory.get().setProperty("cryptomator.vault.list.batch.size", 10);
+        final List<Path> files = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            final Path encrypted = vault.encrypt(session, new Path(home, String.format("f%d", i), EnumSet.of(Path.Type.file)));
+            final String shortened = String.format("%s%d.lng", StringUtils.repeat("A", 32), i);
+            metadata.put(shortened, encrypted.getName());
+            files.add(new Path(encrypted.getParent(), shortened, encrypted.getType()));
+        }
+        final List<Future<Path>> decrypted = vault.decrypt(session, files);
+        for(int i = 0; i < 100; i++) {
+            assertEquals(String.format("f%d", i), decrypted.get(i).get().getName());
+        }
+        // No concurrent reads on stateful connection
+        assertEquals(Collections.singleton(Thread.currentThread()), readers);
+        PreferencesFactory.get().deleteProperty("cryptomator.vault.chunks.threads");
+        PreferencesFactory.get().deleteProperty("cryptomator.vault.list.batch.size");
+        PreferencesFactory.get().deleteProperty("browser.cache.size");
+        vault.close();
+    }
+
+    @Test
+    public void testDecryptBatchShortenedStateless() throws Exception {
+        final Map<String, String> metadata = new ConcurrentHashMap<>();
+        final Set<Thread> readers = ConcurrentHashMap.newKeySet();
+        final NullSession session = new NullSession(new Host(new TestProtocol() {
+            @Override
+            public Statefulness getStatefulness() {
+                return Statefulness.stateless;
+            }
+        })) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Read.class) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                            if("masterkey.cryptomator".equals(file.getName())) {
+                                final String masterKey = "{\n" +
+                                    "  \"scryptSalt\": \"NrC7QGG/ouc=\",\n" +
+                                    "  \"scryptCostParam\": 16384,\n" +
+                                    "  \"scryptBlockSize\": 8,\n" +
+                                    "  \"primaryMasterKey\": \"Q7pGo1l0jmZssoQh9rXFPKJE9NIXvPbL+HcnVSR9CHdkeR8AwgFtcw==\",\n" +
+                                    "  \"hmacMasterKey\": \"xzBqT4/7uEcQbhHFLC0YmMy4ykVKbuvJEA46p1Xm25mJNuTc20nCbw==\",\n" +
+                                    "  \"versionMac\": \"hlNr3dz/CmuVajhaiGyCem9lcVIUjDfSMLhjppcXOrM=\",\n" +
+                                    "  \"version\": 5\n" +
+                                    "}";
+                                return IOUtils.toInputStream(masterKey, Charset.defaultCharset());
+                            }
+                            // Metadata file for shortened filename
+                            readers.add(Thread.currentThread());
+                            return IOUtils.toInputStream(metadata.get(file.getName()), Charset.defaultCharset());
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        // Cache for inflated filenames smaller than listing
+        PreferencesFactory.get().setProperty("browser.cache.size", 10);
+        final Path home = new Path("/", EnumSet.of((Path.Type.directory)));
+        final CryptoVault vault = new CryptoVault(home);
+        vault.load(session, new DisabledPasswordCallback() {
+            @Override
+            public Credentials prompt(final Host bookmark, final String title, final String reason, final LoginOptions options) {
+                return new VaultCredentials("vault");
+            }
+        }, new DisabledPasswordStore());
+        // Decrypt in multiple batches
+        PreferencesFactory.get().setProperty("cryptomator.vault.chunks.threads", 4);
+        PreferencesFactory.get().setProperty("cryptomator.vault.list.batch.size", 10);
+        final List<Path> files = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            final Path encrypted = vault.encrypt(session, new Path(home, String.format("f%d", i), EnumSet.of(Path.Type.file)));
+            final String shortened = String.format("%s%d.lng", StringUtils.repeat("A", 32), i);
+            metadata.put(shortened, encrypted.getName());
+            files.add(new Path(encrypted.getParent(), shortened, encrypted.getType()));
+        }
+        final List<Future<Path>> decrypted = vault.decrypt(session, files);
+        for(int i = 0; i < 100; i++) {
+            assertEquals(String.format("f%d", i), decrypted.get(i).get().getName());
+        }
+        // Read on separate pool and not on threads shared with content encryption
+        assertFalse(readers.isEmpty());
+        for(Thread reader : readers) {
+            assertTrue(reader.getName(), reader.getName().contains("-inflate"));
+        }
+        PreferencesFactory.get().deleteProperty("cryptomator.vault.chunks.threads");
+        PreferencesFactory.get().deleteProperty("cryptomator.vault.list.batch.size");
+        PreferencesFactory.get().deleteProperty("browser.cache.size");
+        vault.close();
+    }
+
     @Test
     public void testFind() throws Exception {
         final NullSession session = new NullSession(new Host(new TestProtocol())) {
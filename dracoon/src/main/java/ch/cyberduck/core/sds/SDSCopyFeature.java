@@ -56,6 +56,8 @@ public class SDSCopyFeature implements Copy {
                 // Target Parent Node ID
                 Long.parseLong(nodeid.getFileid(target.getParent(), new DisabledListProgressListener())),
                 StringUtils.EMPTY, null);
+            // Overwritten target replaced with new node
+            nodeid.cache(target, null);
             return new Path(target.getParent(), target.getName(), target.getType(),
                 new SDSAttributesFinderFeature(session, nodeid).toAttributes(node));
         }
@@ -61,6 +61,7 @@ public class SDSDirectoryFeature implements Directory<VersionId> {
                 }
                 roomRequest.setName(folder.getName());
                 final Node r = new NodesApi(session.getClient()).createRoom(roomRequest, StringUtils.EMPTY, null);
+                nodeid.cache(folder, String.valueOf(r.getId()));
                 return new Path(folder.getParent(), folder.getName(), EnumSet.of(Path.Type.directory, Path.Type.volume),
                     new SDSAttributesFinderFeature(session, nodeid).toAttributes(r));
             }
@@ -69,6 +70,7 @@ public class SDSDirectoryFeature implements Directory<VersionId> {
                 folderRequest.setParentId(Long.parseLong(nodeid.getFileid(folder.getParent(), new DisabledListProgressListener())));
                 folderRequest.setName(folder.getName());
                 final Node f = new NodesApi(session.getClient()).createFolder(folderRequest, StringUtils.EMPTY, null);
+                nodeid.cache(folder, String.valueOf(f.getId()));
                 return new Path(folder.getParent(), folder.getName(), folder.getType(),
                     new SDSAttributesFinderFeature(session, nodeid).toAttributes(f));
             }
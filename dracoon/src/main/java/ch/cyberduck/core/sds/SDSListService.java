@@ -76,6 +76,8 @@ public class SDSListService implements ListService {
                     final PathAttributes attributes = feature.toAttributes(node);
                     final EnumSet<Path.Type> type = feature.toType(node);
                     final Path file = new Path(directory, node.getName(), type, attributes);
+                    // Refresh cached node ID
+                    nodeid.cache(file, String.valueOf(node.getId()));
                     if(references && node.getCntDeletedVersions() != null && node.getCntDeletedVersions() > 0) {
                         try {
                             final AttributedList<Path> versions = feature.versions(file);
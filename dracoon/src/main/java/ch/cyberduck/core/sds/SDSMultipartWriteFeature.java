@@ -125,7 +125,7 @@ public class SDSMultipartWriteFeature implements MultipartWrite<VersionId> {
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
             try {
-                final byte[] content = Arrays.copyOfRange(b, off, len);
+                final byte[] content = Arrays.copyOfRange(b, off, off + len);
                 final HttpEntity entity = EntityBuilder.create().setBinary(content).build();
                 new DefaultRetryCallable<Void>(session.getHost(), new BackgroundExceptionCallable<Void>() {
                     @Override
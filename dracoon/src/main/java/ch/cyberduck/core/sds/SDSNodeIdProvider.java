@@ -27,13 +27,13 @@ import ch.cyberduck.core.URIEncoder;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Encryption;
-import ch.cyberduck.core.features.IdProvider;
 import ch.cyberduck.core.sds.io.swagger.client.ApiException;
 import ch.cyberduck.core.sds.io.swagger.client.api.NodesApi;
 import ch.cyberduck.core.sds.io.swagger.client.model.FileKey;
 import ch.cyberduck.core.sds.io.swagger.client.model.Node;
 import ch.cyberduck.core.sds.io.swagger.client.model.NodeList;
 import ch.cyberduck.core.sds.triplecrypt.TripleCryptConverter;
+import ch.cyberduck.core.shared.CachingFileidProvider;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.unicode.NFCNormalizer;
 import ch.cyberduck.core.unicode.UnicodeNormalizer;
@@ -48,7 +48,7 @@ import java.nio.ByteBuffer;
 import com.dracoon.sdk.crypto.Crypto;
 import com.fasterxml.jackson.databind.ObjectWriter;
 
-public class SDSNodeIdProvider implements IdProvider {
+public class SDSNodeIdProvider extends CachingFileidProvider {
     private static final Logger log = Logger.getLogger(SDSNodeIdProvider.class);
 
     private static final UnicodeNormalizer normalizer = new NFCNormalizer();
@@ -59,6 +59,7 @@ public class SDSNodeIdProvider implements IdProvider {
     private Cache<Path> cache = PathCache.empty();
 
     public SDSNodeIdProvider(final SDSSession session) {
+        super(session.getHost());
         this.session = session;
     }
 
@@ -73,6 +74,11 @@ public class SDSNodeIdProvider implements IdProvider {
         if(file.isRoot()) {
             return ROOT_NODE_ID;
         }
+        return super.getFileid(file, listener);
+    }
+
+    @Override
+    protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
         if(cache.isCached(file.getParent())) {
             final AttributedList<Path> list = cache.get(file.getParent());
             final Path found = list.find(new SimplePathPredicate(file));
@@ -110,11 +116,6 @@ public class SDSNodeIdProvider implements IdProvider {
         }
     }
 
-    protected String set(final Path file, final String id) {
-        file.attributes().setVersionId(id);
-        return id;
-    }
-
     public boolean isEncrypted(final Path file) {
         if(file.isRoot()) {
             return false;
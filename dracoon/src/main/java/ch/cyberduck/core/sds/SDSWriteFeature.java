@@ -183,6 +183,8 @@ public class SDSWriteFeature extends AbstractHttpWriteFeature<VersionId> {
                 body.setFileKey(TripleCryptConverter.toSwaggerFileKey(encryptFileKey));
             }
             final Node upload = new UploadsApi(client).completeFileUploadByToken(uploadToken, null, body);
+            // Overwrite creates new node
+            nodeid.cache(file, String.valueOf(upload.getId()));
             return new VersionId(String.valueOf(upload.getId()));
         }
         catch(ApiException e) {
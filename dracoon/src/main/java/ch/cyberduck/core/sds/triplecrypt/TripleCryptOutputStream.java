@@ -86,8 +86,8 @@ public class TripleCryptOutputStream<VersionId> extends HttpResponseOutputStream
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
             try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += SDSSession.DEFAULT_CHUNKSIZE) {
-                    int chunkLen = Math.min(SDSSession.DEFAULT_CHUNKSIZE, len - chunkOffset);
+                for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += SDSSession.DEFAULT_CHUNKSIZE) {
+                    int chunkLen = Math.min(SDSSession.DEFAULT_CHUNKSIZE, off + len - chunkOffset);
                     final byte[] bytes = Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen);
                     final PlainDataContainer data = createPlainDataContainer(bytes, bytes.length);
                     final EncryptedDataContainer encrypted = cipher.processBytes(data);
@@ -0,0 +1,123 @@
+package ch.cyberduck.core.dropbox;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Changes;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import com.dropbox.core.DbxException;
+import com.dropbox.core.v2.files.DbxUserFilesRequests;
+import com.dropbox.core.v2.files.DeletedMetadata;
+import com.dropbox.core.v2.files.FileMetadata;
+import com.dropbox.core.v2.files.FolderMetadata;
+import com.dropbox.core.v2.files.ListFolderContinueErrorException;
+import com.dropbox.core.v2.files.ListFolderResult;
+import com.dropbox.core.v2.files.Metadata;
+
+/**
+ * Changes to all files in the account using a recursive list_folder cursor
+ */
+public class DropboxChangesFeature implements Changes {
+    private static final Logger log = Logger.getLogger(DropboxChangesFeature.class);
+
+    private final DropboxSession session;
+    private final DropboxAttributesFinderFeature attributes;
+
+    public DropboxChangesFeature(final DropboxSession session) {
+        this.session = session;
+        this.attributes = new DropboxAttributesFinderFeature(session);
+    }
+
+    @Override
+    public boolean isSupported(final Path directory) {
+        return true;
+    }
+
+    @Override
+    public String getCursor(final Path directory) throws BackgroundException {
+        try {
+            return new DbxUserFilesRequests(session.getClient()).listFolderGetLatestCursorBuilder(StringUtils.EMPTY)
+                    .withRecursive(true).withIncludeDeleted(true).start().getCursor();
+        }
+        catch(DbxException e) {
+            throw new DropboxExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    @Override
+    public Changeset changes(final Path directory, final String cursor, final ListProgressListener listener) throws BackgroundException {
+        try {
+            final List<Change> changes = new ArrayList<>();
+            ListFolderResult result;
+            this.parse(changes, result = new DbxUserFilesRequests(session.getClient()).listFolderContinue(cursor));
+            while(result.getHasMore()) {
+                this.parse(changes, result = new DbxUserFilesRequests(session.getClient()).listFolderContinue(result.getCursor()));
+            }
+            return new Changeset(changes, result.getCursor());
+        }
+        catch(ListFolderContinueErrorException e) {
+            if(e.errorValue.isReset()) {
+                // The cursor has been invalidated. Call list_folder to obtain a new cursor.
+                throw new NotfoundException(e.getMessage());
+            }
+            throw new DropboxExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+        catch(DbxException e) {
+            throw new DropboxExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    protected void parse(final List<Change> changes, final ListFolderResult result) {
+        for(Metadata metadata : result.getEntries()) {
+            if(null == metadata.getPathDisplay()) {
+                log.warn(String.format("Skip file %s not mounted", metadata));
+                continue;
+            }
+            final String path = PathNormalizer.normalize(metadata.getPathDisplay());
+            if(metadata instanceof FileMetadata) {
+                changes.add(Change.modified(new Path(path, EnumSet.of(Path.Type.file), attributes.toAttributes(metadata))));
+            }
+            else if(metadata instanceof FolderMetadata) {
+                changes.add(Change.modified(new Path(path, EnumSet.of(Path.Type.directory), attributes.toAttributes(metadata))));
+            }
+            else if(metadata instanceof DeletedMetadata) {
+                // Type of deleted file is not known
+                changes.add(Change.deleted(new Path(path, EnumSet.of(Path.Type.file))));
+                changes.add(Change.deleted(new Path(path, EnumSet.of(Path.Type.directory))));
+            }
+            else {
+                log.warn(String.format("Skip file %s", metadata));
+            }
+        }
+    }
+
+    @Override
+    public Changes withCache(final Cache<Path> cache) {
+        return this;
+    }
+}
@@ -26,6 +26,7 @@ import ch.cyberduck.core.UrlProvider;
 import ch.cyberduck.core.UseragentProvider;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Changes;
 import ch.cyberduck.core.features.Copy;
 import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Directory;
@@ -185,6 +186,9 @@ public class DropboxSession extends HttpSession<DbxRawClientV2> {
         if(type == Search.class) {
             return (T) new DropboxSearchFeature(this);
         }
+        if(type == Changes.class) {
+            return (T) new DropboxChangesFeature(this);
+        }
         return super._getFeature(type);
     }
 }
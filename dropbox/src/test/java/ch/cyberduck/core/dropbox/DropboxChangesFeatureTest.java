@@ -0,0 +1,162 @@
+package ch.cyberduck.core.dropbox;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Changes;
+import ch.cyberduck.core.ssl.DefaultX509KeyManager;
+import ch.cyberduck.core.ssl.DisabledX509TrustManager;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.dropbox.core.DbxHost;
+import com.dropbox.core.DbxRequestConfig;
+import com.dropbox.core.http.HttpRequestor;
+import com.dropbox.core.v2.DbxRawClientV2;
+import com.dropbox.core.v2.common.PathRoot;
+
+import static org.junit.Assert.*;
+
+public class DropboxChangesFeatureTest {
+
+    @Test
+    public void testChanges() throws Exception {
+        final RecordedHttpRequestor requestor = new RecordedHttpRequestor();
+        requestor.responses.add(new Recorded(200, "/list_folder_continue.1.json"));
+        requestor.responses.add(new Recorded(200, "/list_folder_continue.2.json"));
+        final Path home = new Path("/Home", EnumSet.of(Path.Type.directory));
+        final Changes.Changeset changeset = new DropboxChangesFeature(this.session(requestor))
+            .changes(home, "c1", new DisabledListProgressListener());
+        assertEquals("AAHfVvP6IpRYh2l6BfB4ZhvbH0XyYbqZnVe1sRwJ1MaKb5FjIQ", changeset.getCursor());
+        // Continued with cursor of previous page
+        assertEquals(2, requestor.requests.size());
+        assertTrue(requestor.requests.get(0).contains("\"cursor\":\"c1\""));
+        assertTrue(requestor.requests.get(1).contains("\"cursor\":\"ZtkX9_EHj3x7PMkVuFIhwKYXEpwpLwyxp9vMKomUhllil9q7eWiAu\""));
+        final List<Changes.Change> changes = changeset.getChanges();
+        assertEquals(4, changes.size());
+        assertEquals(Changes.Change.Type.modified, changes.get(0).getType());
+        assertTrue(new SimplePathPredicate(new Path(home, "a.txt", EnumSet.of(Path.Type.file))).test(changes.get(0).getFile()));
+        assertEquals(7L, changes.get(0).getFile().attributes().getSize());
+        assertEquals(Changes.Change.Type.modified, changes.get(1).getType());
+        assertTrue(new SimplePathPredicate(new Path(home, "folder", EnumSet.of(Path.Type.directory))).test(changes.get(1).getFile()));
+        // Deleted with both file and directory type
+        assertEquals(Changes.Change.Type.deleted, changes.get(2).getType());
+        assertTrue(new SimplePathPredicate(new Path(home, "b", EnumSet.of(Path.Type.file))).test(changes.get(2).getFile()));
+        assertEquals(Changes.Change.Type.deleted, changes.get(3).getType());
+        assertTrue(new SimplePathPredicate(new Path(home, "b", EnumSet.of(Path.Type.directory))).test(changes.get(3).getFile()));
+    }
+
+    @Test(expected = NotfoundException.class)
+    public void testChangesCursorReset() throws Exception {
+        final RecordedHttpRequestor requestor = new RecordedHttpRequestor();
+        requestor.responses.add(new Recorded(409, "/list_folder_continue.reset.json"));
+        new DropboxChangesFeature(this.session(requestor))
+            .changes(new Path("/Home", EnumSet.of(Path.Type.directory)), "c1", new DisabledListProgressListener());
+    }
+
+    private DropboxSession session(final HttpRequestor requestor) {
+        final DbxRawClientV2 client = new DbxRawClientV2(DbxRequestConfig.newBuilder("cyberduck")
+            .withAutoRetryDisabled()
+            .withHttpRequestor(requestor).build(), DbxHost.DEFAULT, null, null) {
+            @Override
+            protected void addAuthHeaders(final List<HttpRequestor.Header> headers) {
+                //
+            }
+
+            @Override
+            protected DbxRawClientV2 withPathRoot(final PathRoot pathRoot) {
+                return null;
+            }
+        };
+        return new DropboxSession(new Host(new DropboxProtocol()), new DisabledX509TrustManager(), new DefaultX509KeyManager()) {
+            @Override
+            public DbxRawClientV2 getClient() {
+                return client;
+            }
+        };
+    }
+
+    private static final class Recorded {
+        private final int status;
+        private final String resource;
+
+        public Recorded(final int status, final String resource) {
+            this.status = status;
+            this.resource = resource;
+        }
+    }
+
+    /**
+     * Reply to requests in order with responses recorded from API
+     */
+    private final class RecordedHttpRequestor extends HttpRequestor {
+        private final LinkedList<Recorded> responses = new LinkedList<>();
+        private final List<String> requests = new ArrayList<>();
+
+        @Override
+        public Response doGet(final String url, final Iterable<Header> headers) {
+            throw new UnsupportedOperationException(url);
+        }
+
+        @Override
+        public Uploader startPost(final String url, final Iterable<Header> headers) {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            return new Uploader() {
+                @Override
+                public OutputStream getBody() {
+                    return body;
+                }
+
+                @Override
+                public void close() {
+                    //
+                }
+
+                @Override
+                public void abort() {
+                    //
+                }
+
+                @Override
+                public Response finish() throws IOException {
+                    requests.add(new String(body.toByteArray(), StandardCharsets.UTF_8));
+                    final Recorded recorded = responses.removeFirst();
+                    return new Response(recorded.status, DropboxChangesFeatureTest.class.getResourceAsStream(recorded.resource),
+                        Collections.singletonMap("Content-Type", Collections.singletonList("application/json")));
+                }
+            };
+        }
+
+        @Override
+        public Uploader startPut(final String url, final Iterable<Header> headers) {
+            throw new UnsupportedOperationException(url);
+        }
+    }
+}
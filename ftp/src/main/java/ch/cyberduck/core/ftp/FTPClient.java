@@ -174,21 +174,17 @@ public class FTPClient extends FTPSClient {
     }
 
     public List<String> list(final FTPCmd command, final String pathname) throws IOException {
-        this.pret(command, pathname);
-
-        Socket socket = _openDataConnection_(command, pathname);
-
-        BufferedReader reader = new BufferedReader(
-                new InputStreamReader(socket.getInputStream(), getControlEncoding()));
+        final BufferedReader reader = this.listStream(command, pathname);
+        if(null == reader) {
+            throw new FTPException(this.getReplyCode(), this.getReplyString());
+        }
         ArrayList<String> results = new ArrayList<String>();
         String line;
         while((line = reader.readLine()) != null) {
-            _commandSupport_.fireReplyReceived(-1, line);
             results.add(line);
         }
 
         reader.close();
-        socket.close();
 
         if(!this.completePendingCommand()) {
             throw new FTPException(this.getReplyCode(), this.getReplyString());
@@ -196,6 +192,41 @@ public class FTPClient extends FTPSClient {
         return results;
     }
 
+    /**
+     * Open data connection to read lines of listing as they are received. The caller must close the reader
+     * and then call {@link #completePendingCommand()} to finish the command.
+     *
+     * @return Reader closing the data connection or null if the data connection cannot be opened
+     */
+    public BufferedReader listStream(final FTPCmd command, final String pathname) throws IOException {
+        this.pret(command, pathname);
+
+        final Socket socket = _openDataConnection_(command, pathname);
+        if(null == socket) {
+            return null;
+        }
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), getControlEncoding())) {
+            @Override
+            public String readLine() throws IOException {
+                final String line = super.readLine();
+                if(line != null) {
+                    _commandSupport_.fireReplyReceived(-1, line);
+                }
+                return line;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                }
+                finally {
+                    socket.close();
+                }
+            }
+        };
+    }
+
     /**
      * Query the server for a supported feature, and returns its values (if any).
      * Caches the parsed response to avoid resending the command repeatedly.
@@ -0,0 +1,156 @@
+package ch.cyberduck.core.ftp.list;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Parse lines of a listing one at a time. Lines read from the data connection are parsed as they are received
+ * and the files found are passed to the listener in chunks while the listing continues. The first line is passed
+ * to {@link #preParse(List)} as a header that may determine the format of the listing. Listings of parsers that
+ * require all lines in {@link #preParse(List)} are read completely before parsing.
+ */
+public abstract class AbstractFTPDataResponseReader implements FTPDataResponseReader {
+    private static final Logger log = Logger.getLogger(AbstractFTPDataResponseReader.class);
+
+    /**
+     * Number of parsed files to pass to listener at once
+     */
+    private final int size;
+    /**
+     * Maximum time in milliseconds to wait for more files before notifying listener
+     */
+    private final long interval;
+
+    public AbstractFTPDataResponseReader() {
+        this(PreferencesFactory.get().getInteger("ftp.listing.chunksize"),
+            PreferencesFactory.get().getLong("ftp.listing.chunk.interval"));
+    }
+
+    /**
+     * @param size     Number of parsed files to pass to listener at once
+     * @param interval Maximum time in milliseconds to wait for more files before notifying listener
+     */
+    public AbstractFTPDataResponseReader(final int size, final long interval) {
+        this.size = size;
+        this.interval = interval;
+    }
+
+    @Override
+    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws FTPInvalidListException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // At least one entry successfully parsed
+        boolean success = false;
+        for(String line : this.preParse(replies)) {
+            if(this.parse(directory, line, children, success)) {
+                success = true;
+            }
+        }
+        if(!success) {
+            throw new FTPInvalidListException(children);
+        }
+        return children;
+    }
+
+    @Override
+    public AttributedList<Path> read(final Path directory, final BufferedReader replies, final ListProgressListener listener) throws IOException, ConnectionCanceledException, FTPInvalidListException {
+        if(this.isBuffered()) {
+            final List<String> lines = new ArrayList<String>();
+            String line;
+            while((line = replies.readLine()) != null) {
+                lines.add(line);
+            }
+            final AttributedList<Path> children = this.read(directory, lines, listener);
+            listener.chunk(directory, children);
+            return children;
+        }
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // At least one entry successfully parsed
+        boolean success = false;
+        // Number of files already passed to listener
+        int notified = 0;
+        long timestamp = System.currentTimeMillis();
+        final List<String> header = new ArrayList<String>();
+        final String first = replies.readLine();
+        if(null != first) {
+            header.add(first);
+        }
+        // Header line may be removed or determine the format of the following lines
+        final Iterator<String> preparsed = this.preParse(header).iterator();
+        String line;
+        while((line = preparsed.hasNext() ? preparsed.next() : replies.readLine()) != null) {
+            if(this.parse(directory, line, children, success)) {
+                success = true;
+            }
+            if(!success || children.size() == notified) {
+                continue;
+            }
+            final long now = System.currentTimeMillis();
+            if(children.size() - notified >= size || now - timestamp >= interval) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Notify listener with %d files parsed in %s", children.size(), directory));
+                }
+                listener.chunk(directory, children);
+                notified = children.size();
+                timestamp = now;
+            }
+        }
+        if(!success) {
+            throw new FTPInvalidListException(children);
+        }
+        listener.chunk(directory, children);
+        return children;
+    }
+
+    /**
+     * Hook for parsers to inspect lines of the listing before parsing. Only passed the first line when reading from
+     * the data connection unless {@link #isBuffered()}.
+     *
+     * @param replies Lines of listing
+     * @return Lines to parse
+     */
+    protected List<String> preParse(final List<String> replies) {
+        return replies;
+    }
+
+    /**
+     * @return True if all lines of the listing must be passed to {@link #preParse(List)} before parsing
+     */
+    protected boolean isBuffered() {
+        return false;
+    }
+
+    /**
+     * @param directory Parent directory
+     * @param line      Line of listing
+     * @param children  Add parsed files
+     * @param success   True if any previous line was a valid entry
+     * @return True if line is a valid entry
+     */
+    protected abstract boolean parse(Path directory, String line, AttributedList<Path> children, boolean success);
+}
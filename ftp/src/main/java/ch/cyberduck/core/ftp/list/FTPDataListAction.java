@@ -0,0 +1,91 @@
+package ch.cyberduck.core.ftp.list;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.ftp.DataConnectionAction;
+import ch.cyberduck.core.ftp.FTPException;
+import ch.cyberduck.core.ftp.FTPExceptionMappingService;
+import ch.cyberduck.core.ftp.FTPSession;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.net.ftp.FTPCmd;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Send listing command and parse lines while they are read from the data connection
+ */
+public class FTPDataListAction implements DataConnectionAction<AttributedList<Path>> {
+    private static final Logger log = Logger.getLogger(FTPDataListAction.class);
+
+    private final FTPSession session;
+    private final FTPDataResponseReader reader;
+    private final Path directory;
+    private final FTPCmd command;
+    private final String arg;
+    private final ListProgressListener listener;
+
+    public FTPDataListAction(final FTPSession session, final FTPDataResponseReader reader, final Path directory,
+                             final FTPCmd command, final String arg, final ListProgressListener listener) {
+        this.session = session;
+        this.reader = reader;
+        this.directory = directory;
+        this.command = command;
+        this.arg = arg;
+        this.listener = listener;
+    }
+
+    @Override
+    public AttributedList<Path> execute() throws BackgroundException {
+        try {
+            final BufferedReader replies = session.getClient().listStream(command, arg);
+            if(null == replies) {
+                throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
+            }
+            final AttributedList<Path> list;
+            try {
+                list = reader.read(directory, replies, listener);
+            }
+            catch(BackgroundException e) {
+                // Invalid listing or canceled by listener
+                IOUtils.closeQuietly(replies);
+                // Read reply for transfer completed or aborted by closing data connection
+                if(!session.getClient().completePendingCommand()) {
+                    log.warn(String.format("Unexpected reply %s after reading listing", session.getClient().getReplyString()));
+                }
+                throw e;
+            }
+            catch(IOException e) {
+                IOUtils.closeQuietly(replies);
+                throw e;
+            }
+            replies.close();
+            if(!session.getClient().completePendingCommand()) {
+                throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
+            }
+            return list;
+        }
+        catch(IOException e) {
+            throw new FTPExceptionMappingService().map(e);
+        }
+    }
+}
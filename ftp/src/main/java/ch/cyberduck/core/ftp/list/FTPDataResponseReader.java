@@ -18,10 +18,22 @@ package ch.cyberduck.core.ftp.list;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.util.List;
 
 public interface FTPDataResponseReader {
 
     AttributedList<Path> read(Path parent, List<String> replies, ListProgressListener listener) throws FTPInvalidListException;
+
+    /**
+     * Parse lines as they are read and pass chunks of parsed files to the listener
+     *
+     * @param parent   Directory
+     * @param replies  Lines read from data connection
+     * @param listener Notified with files parsed so far
+     */
+    AttributedList<Path> read(Path parent, BufferedReader replies, ListProgressListener listener) throws IOException, ConnectionCanceledException, FTPInvalidListException;
 }
@@ -17,22 +17,23 @@ package ch.cyberduck.core.ftp.list;
 
 import ch.cyberduck.core.AbstractPath;
 import ch.cyberduck.core.AttributedList;
-import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
 import ch.cyberduck.core.ftp.parser.FTPExtendedFile;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.apache.commons.net.ftp.parser.VMSVersioningFTPEntryParser;
 import org.apache.log4j.Logger;
 
 import java.util.Calendar;
 import java.util.EnumSet;
 import java.util.List;
 
-public class FTPListResponseReader implements FTPDataResponseReader {
+public class FTPListResponseReader extends AbstractFTPDataResponseReader {
     private static final Logger log = Logger.getLogger(FTPListResponseReader.class);
 
     private final FTPFileEntryParser parser;
@@ -47,122 +48,149 @@ public class FTPListResponseReader implements FTPDataResponseReader {
         this.lenient = lenient;
     }
 
+    /**
+     * @param size     Number of parsed files to pass to listener at once
+     * @param interval Maximum time in milliseconds to wait for more files before notifying listener
+     */
+    public FTPListResponseReader(final FTPFileEntryParser parser, final boolean lenient, final int size, final long interval) {
+        super(size, interval);
+        this.parser = parser;
+        this.lenient = lenient;
+    }
+
     @Override
-    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws FTPInvalidListException {
-        final AttributedList<Path> children = new AttributedList<Path>();
-        // At least one entry successfully parsed
-        boolean success = false;
+    protected List<String> preParse(final List<String> replies) {
         // Call hook for those implementors which need to perform some action upon the list after it has been created
         // from the server stream, but before any clients see the list
-        parser.preParse(replies);
-        for(String line : replies) {
-            final FTPFile f = parser.parseFTPEntry(line);
-            if(null == f) {
-                continue;
-            }
-            final String name = f.getName();
-            if(!success) {
-                if(lenient) {
-                    // Workaround for #2410. STAT only returns ls of directory itself
-                    // Workaround for #2434. STAT of symbolic link directory only lists the directory itself.
-                    if(directory.getName().equals(name)) {
-                        log.warn(String.format("Skip %s matching parent directory name", f.getName()));
-                        continue;
-                    }
-                    if(name.contains(String.valueOf(Path.DELIMITER))) {
-                        if(!name.startsWith(directory.getAbsolute() + Path.DELIMITER)) {
-                            // Workaround for #2434.
-                            log.warn(String.format("Skip %s with delimiter in name", name));
-                            continue;
-                        }
-                    }
+        return parser.preParse(replies);
+    }
+
+    @Override
+    protected boolean isBuffered() {
+        return isBuffered(parser);
+    }
+
+    /**
+     * @return True if parser removes all but the latest version of files from the complete listing
+     */
+    private static boolean isBuffered(final FTPFileEntryParser parser) {
+        if(parser instanceof VMSVersioningFTPEntryParser) {
+            return true;
+        }
+        if(parser instanceof CompositeFileEntryParser) {
+            for(FTPFileEntryParser p : ((CompositeFileEntryParser) parser).getParsers()) {
+                if(isBuffered(p)) {
+                    return true;
                 }
             }
-            success = true;
-            if(name.equals(".") || name.equals("..")) {
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Skip %s", f.getName()));
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean parse(final Path directory, final String line, final AttributedList<Path> children, final boolean success) {
+        final FTPFile f = parser.parseFTPEntry(line);
+        if(null == f) {
+            return false;
+        }
+        final String name = f.getName();
+        if(!success) {
+            if(lenient) {
+                // Workaround for #2410. STAT only returns ls of directory itself
+                // Workaround for #2434. STAT of symbolic link directory only lists the directory itself.
+                if(directory.getName().equals(name)) {
+                    log.warn(String.format("Skip %s matching parent directory name", f.getName()));
+                    return false;
                 }
-                continue;
-            }
-            final Path parsed = new Path(directory, PathNormalizer.name(name), f.getType() == FTPFile.DIRECTORY_TYPE ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file));
-            switch(f.getType()) {
-                case FTPFile.SYMBOLIC_LINK_TYPE:
-                    parsed.setType(EnumSet.of(Path.Type.file, Path.Type.symboliclink));
-                    // Symbolic link target may be an absolute or relative path
-                    final String target = f.getLink();
-                    if(StringUtils.isBlank(target)) {
-                        log.warn(String.format("Missing symbolic link target for %s", parsed));
-                        final EnumSet<Path.Type> type = parsed.getType();
-                        type.remove(AbstractPath.Type.symboliclink);
-                    }
-                    else if(StringUtils.startsWith(target, String.valueOf(Path.DELIMITER))) {
-                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
-                    }
-                    else if(StringUtils.equals("..", target)) {
-                        parsed.setSymlinkTarget(directory);
+                if(name.contains(String.valueOf(Path.DELIMITER))) {
+                    if(!name.startsWith(directory.getAbsolute() + Path.DELIMITER)) {
+                        // Workaround for #2434.
+                        log.warn(String.format("Skip %s with delimiter in name", name));
+                        return false;
                     }
-                    else if(StringUtils.equals(".", target)) {
-                        parsed.setSymlinkTarget(parsed);
-                    }
-                    else {
-                        parsed.setSymlinkTarget(new Path(directory, target, EnumSet.of(Path.Type.file)));
-                    }
-                    break;
-            }
-            if(parsed.isFile()) {
-                parsed.attributes().setSize(f.getSize());
-            }
-            parsed.attributes().setOwner(f.getUser());
-            parsed.attributes().setGroup(f.getGroup());
-            Permission.Action u = Permission.Action.none;
-            if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION)) {
-                u = u.or(Permission.Action.read);
-            }
-            if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION)) {
-                u = u.or(Permission.Action.write);
-            }
-            if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
-                u = u.or(Permission.Action.execute);
-            }
-            Permission.Action g = Permission.Action.none;
-            if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.READ_PERMISSION)) {
-                g = g.or(Permission.Action.read);
-            }
-            if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.WRITE_PERMISSION)) {
-                g = g.or(Permission.Action.write);
-            }
-            if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
-                g = g.or(Permission.Action.execute);
-            }
-            Permission.Action o = Permission.Action.none;
-            if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.READ_PERMISSION)) {
-                o = o.or(Permission.Action.read);
-            }
-            if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.WRITE_PERMISSION)) {
-                o = o.or(Permission.Action.write);
-            }
-            if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
-                o = o.or(Permission.Action.execute);
-            }
-            final Permission permission = new Permission(u, g, o);
-            if(f instanceof FTPExtendedFile) {
-                permission.setSetuid(((FTPExtendedFile) f).isSetuid());
-                permission.setSetgid(((FTPExtendedFile) f).isSetgid());
-                permission.setSticky(((FTPExtendedFile) f).isSticky());
-            }
-            if(!Permission.EMPTY.equals(permission)) {
-                parsed.attributes().setPermission(permission);
+                }
             }
-            final Calendar timestamp = f.getTimestamp();
-            if(timestamp != null) {
-                parsed.attributes().setModificationDate(timestamp.getTimeInMillis());
+        }
+        if(name.equals(".") || name.equals("..")) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip %s", f.getName()));
             }
-            children.add(parsed);
+            return true;
         }
-        if(!success) {
-            throw new FTPInvalidListException(children);
+        final Path parsed = new Path(directory, PathNormalizer.name(name), f.getType() == FTPFile.DIRECTORY_TYPE ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file));
+        switch(f.getType()) {
+            case FTPFile.SYMBOLIC_LINK_TYPE:
+                parsed.setType(EnumSet.of(Path.Type.file, Path.Type.symboliclink));
+                // Symbolic link target may be an absolute or relative path
+                final String target = f.getLink();
+                if(StringUtils.isBlank(target)) {
+                    log.warn(String.format("Missing symbolic link target for %s", parsed));
+                    final EnumSet<Path.Type> type = parsed.getType();
+                    type.remove(AbstractPath.Type.symboliclink);
+                }
+                else if(StringUtils.startsWith(target, String.valueOf(Path.DELIMITER))) {
+                    parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
+                }
+                else if(StringUtils.equals("..", target)) {
+                    parsed.setSymlinkTarget(directory);
+                }
+                else if(StringUtils.equals(".", target)) {
+                    parsed.setSymlinkTarget(parsed);
+                }
+                else {
+                    parsed.setSymlinkTarget(new Path(directory, target, EnumSet.of(Path.Type.file)));
+                }
+                break;
+        }
+        if(parsed.isFile()) {
+            parsed.attributes().setSize(f.getSize());
+        }
+        parsed.attributes().setOwner(f.getUser());
+        parsed.attributes().setGroup(f.getGroup());
+        Permission.Action u = Permission.Action.none;
+        if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION)) {
+            u = u.or(Permission.Action.read);
+        }
+        if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION)) {
+            u = u.or(Permission.Action.write);
+        }
+        if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
+            u = u.or(Permission.Action.execute);
+        }
+        Permission.Action g = Permission.Action.none;
+        if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.READ_PERMISSION)) {
+            g = g.or(Permission.Action.read);
+        }
+        if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.WRITE_PERMISSION)) {
+            g = g.or(Permission.Action.write);
+        }
+        if(f.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
+            g = g.or(Permission.Action.execute);
+        }
+        Permission.Action o = Permission.Action.none;
+        if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.READ_PERMISSION)) {
+            o = o.or(Permission.Action.read);
+        }
+        if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.WRITE_PERMISSION)) {
+            o = o.or(Permission.Action.write);
+        }
+        if(f.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.EXECUTE_PERMISSION)) {
+            o = o.or(Permission.Action.execute);
+        }
+        final Permission permission = new Permission(u, g, o);
+        if(f instanceof FTPExtendedFile) {
+            permission.setSetuid(((FTPExtendedFile) f).isSetuid());
+            permission.setSetgid(((FTPExtendedFile) f).isSetgid());
+            permission.setSticky(((FTPExtendedFile) f).isSticky());
+        }
+        if(!Permission.EMPTY.equals(permission)) {
+            parsed.attributes().setPermission(Permission.intern(permission));
+        }
+        final Calendar timestamp = f.getTimestamp();
+        if(timestamp != null) {
+            parsed.attributes().setModificationDate(timestamp.getTimeInMillis());
         }
-        return children;
+        children.add(parsed);
+        return true;
     }
 }
@@ -65,6 +65,13 @@ public abstract class CommonUnixFTPEntryParser extends ConfigurableFTPFileEntryP
     }
 
     protected FTPFile parseFTPEntry(String typeStr, String usr, String grp, long filesize, String datestr, String name, String endtoken) {
+        return this.parseFTPEntry(typeStr, group(2), usr, grp, filesize, datestr, name, endtoken);
+    }
+
+    /**
+     * @param permissions Nine characters with read, write and execute flags for user, group and others
+     */
+    protected FTPFile parseFTPEntry(String typeStr, String permissions, String usr, String grp, long filesize, String datestr, String name, String endtoken) {
         final FTPExtendedFile file = new FTPExtendedFile();
         int type;
         try {
@@ -96,26 +103,26 @@ public abstract class CommonUnixFTPEntryParser extends ConfigurableFTPFileEntryP
         file.setUser(usr);
         file.setGroup(grp);
 
-        int g = 4;
-        for(int access = 0; access < 3; access++, g += 4) {
+        int g = 0;
+        for(int access = 0; access < 3; access++, g += 3) {
             // Use != '-' to avoid having to check for suid and sticky bits.
-            file.setPermission(access, FTPFile.READ_PERMISSION, (!group(g).equals("-")));
-            file.setPermission(access, FTPFile.WRITE_PERMISSION, (!group(g + 1).equals("-")));
+            file.setPermission(access, FTPFile.READ_PERMISSION, permissions.charAt(g) != '-');
+            file.setPermission(access, FTPFile.WRITE_PERMISSION, permissions.charAt(g + 1) != '-');
 
-            String execPerm = group(g + 2);
-            if(execPerm.equals("-")) {
+            final char execPerm = permissions.charAt(g + 2);
+            if(execPerm == '-') {
                 file.setPermission(access, FTPFile.EXECUTE_PERMISSION, false);
             }
             else {
-                file.setPermission(access, FTPFile.EXECUTE_PERMISSION, Character.isLowerCase(execPerm.charAt(0)));
+                file.setPermission(access, FTPFile.EXECUTE_PERMISSION, Character.isLowerCase(execPerm));
                 if(0 == access) {
-                    file.setSetuid(execPerm.charAt(0) == 's' || execPerm.charAt(0) == 'S');
+                    file.setSetuid(execPerm == 's' || execPerm == 'S');
                 }
                 if(1 == access) {
-                    file.setSetgid(execPerm.charAt(0) == 's' || execPerm.charAt(0) == 'S');
+                    file.setSetgid(execPerm == 's' || execPerm == 'S');
                 }
                 if(2 == access) {
-                    file.setSticky(execPerm.charAt(0) == 't' || execPerm.charAt(0) == 'T');
+                    file.setSticky(execPerm == 't' || execPerm == 'T');
                 }
             }
         }
@@ -69,6 +69,10 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
         return current;
     }
 
+    public List<? extends FTPFileEntryParser> getParsers() {
+        return parsers;
+    }
+
     @Override
     public void configure(final FTPClientConfig config) {
         for(FTPFileEntryParser parser : parsers) {
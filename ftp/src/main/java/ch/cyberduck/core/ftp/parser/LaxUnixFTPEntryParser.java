@@ -61,12 +61,32 @@ public class LaxUnixFTPEntryParser extends CommonUnixFTPEntryParser {
                      */
                     + "(\\s*\\S+)(\\s*.*)";
 
+    /**
+     * Parse lines in the common format without regular expression
+     */
+    private final boolean tokenize;
+
     public LaxUnixFTPEntryParser() {
+        this(true);
+    }
+
+    /**
+     * @param tokenize Try to parse lines in the common format with user, group, numeric size and month, day and
+     *                 time or year with hand written tokenizer before matching the regular expression
+     */
+    public LaxUnixFTPEntryParser(final boolean tokenize) {
         super(REGEX_WHITESPACE_AWARE);
+        this.tokenize = tokenize;
     }
 
     @Override
     public FTPFile parseFTPEntry(String entry) {
+        if(tokenize) {
+            final FTPFile parsed = this.tokenize(entry);
+            if(null != parsed) {
+                return parsed;
+            }
+        }
         if(matches(entry)) {
             String typeStr = group(1);
             String usr = group(16);
@@ -99,4 +119,175 @@ public class LaxUnixFTPEntryParser extends CommonUnixFTPEntryParser {
         }
         return null;
     }
+
+    /**
+     * Parse line in the form <code>drwxr-xr-x 2 user group 4096 Mar 11 20:56 name</code> with the same result as
+     * matching the regular expression. Lines with missing group, human readable size, numeric date or with more than
+     * a single space before the filename are left to the regular expression.
+     *
+     * @param entry Line from listing
+     * @return Null if line is not in the common format
+     */
+    protected FTPFile tokenize(final String entry) {
+        final int length = entry.length();
+        if(length < 11) {
+            return null;
+        }
+        if("bcdlfmpSs-".indexOf(entry.charAt(0)) == -1) {
+            return null;
+        }
+        for(int i = 1; i < 10; i += 3) {
+            if(entry.charAt(i) != 'r' && entry.charAt(i) != '-') {
+                return null;
+            }
+            if(entry.charAt(i + 1) != 'w' && entry.charAt(i + 1) != '-') {
+                return null;
+            }
+            if("xsStTL-".indexOf(entry.charAt(i + 2)) == -1) {
+                return null;
+            }
+        }
+        int index = 10;
+        if(entry.charAt(index) == '+') {
+            index++;
+        }
+        // Hard link count
+        final int links = this.skip(entry, index);
+        if(links == index) {
+            return null;
+        }
+        final int linksEnd = this.token(entry, links);
+        if(!this.isDigits(entry, links, linksEnd)) {
+            return null;
+        }
+        final int usr = this.skip(entry, linksEnd);
+        final int usrEnd = this.token(entry, usr);
+        final int grp = this.skip(entry, usrEnd);
+        final int grpEnd = this.token(entry, grp);
+        final int size = this.skip(entry, grpEnd);
+        final int sizeEnd = this.token(entry, size);
+        if(!this.isDigits(entry, size, sizeEnd)) {
+            return null;
+        }
+        final int month = this.skip(entry, sizeEnd);
+        final int monthEnd = this.token(entry, month);
+        if(month == monthEnd || Character.isDigit(entry.charAt(month))) {
+            // Numeric date format
+            return null;
+        }
+        final int day = this.skip(entry, monthEnd);
+        final int dayEnd = this.token(entry, day);
+        final int time = this.skip(entry, dayEnd);
+        final int timeEnd = this.token(entry, time);
+        if(!this.isTime(entry, time, timeEnd)) {
+            return null;
+        }
+        // Single whitespace before filename
+        final int name = timeEnd + 1;
+        if(name >= length || this.isWhitespace(entry.charAt(name))) {
+            return null;
+        }
+        if(usr == usrEnd || grp == grpEnd || day == dayEnd) {
+            return null;
+        }
+        for(int i = name; i < length; i++) {
+            if(this.isLineTerminator(entry.charAt(i))) {
+                return null;
+            }
+        }
+        final int nameEnd = this.token(entry, name);
+        return this.parseFTPEntry(entry.substring(0, 1), entry.substring(1, 10),
+            entry.substring(usr, usrEnd), entry.substring(grp, grpEnd),
+            this.toLong(entry, size, sizeEnd),
+            entry.substring(month, dayEnd) + " " + entry.substring(time, timeEnd),
+            entry.substring(name, nameEnd), entry.substring(nameEnd));
+    }
+
+    /**
+     * @return Index of next non whitespace character
+     */
+    private int skip(final String entry, int index) {
+        while(index < entry.length() && this.isWhitespace(entry.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return Index of next whitespace character or end of line
+     */
+    private int token(final String entry, int index) {
+        while(index < entry.length() && !this.isWhitespace(entry.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private boolean isDigits(final String entry, final int start, final int end) {
+        if(start == end) {
+            return false;
+        }
+        for(int i = start; i < end; i++) {
+            if(!this.isDigit(entry.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True for year with four digits or time with hour and minutes
+     */
+    private boolean isTime(final String entry, final int start, final int end) {
+        switch(end - start) {
+            case 4:
+                if(entry.charAt(start + 1) == ':') {
+                    return this.isDigit(entry.charAt(start)) && this.isDigits(entry, start + 2, end);
+                }
+                return this.isDigits(entry, start, end);
+            case 5:
+                return entry.charAt(start + 2) == ':'
+                    && this.isDigits(entry, start, start + 2) && this.isDigits(entry, start + 3, end);
+            default:
+                return false;
+        }
+    }
+
+    private long toLong(final String entry, final int start, final int end) {
+        if(end - start > 18) {
+            // Possible overflow
+            try {
+                return Long.parseLong(entry.substring(start, end));
+            }
+            catch(NumberFormatException e) {
+                return -1L;
+            }
+        }
+        long value = 0L;
+        for(int i = start; i < end; i++) {
+            value = value * 10 + (entry.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Same as \d in regular expression
+     */
+    private boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Characters not matched by . in regular expression
+     */
+    private boolean isLineTerminator(final char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Same as \s in regular expression
+     */
+    private boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 }
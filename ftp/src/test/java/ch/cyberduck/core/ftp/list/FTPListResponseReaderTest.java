@@ -24,10 +24,14 @@ import ch.cyberduck.core.ftp.FTPParserSelector;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
 import ch.cyberduck.test.IntegrationTest;
 
+import org.apache.commons.net.ftp.parser.MVSFTPEntryParser;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -49,6 +53,56 @@ public class FTPListResponseReaderTest {
         );
     }
 
+    @Test
+    public void testReadStream() throws Exception {
+        final Path directory = new Path("/", EnumSet.of(Path.Type.directory));
+        final StringBuilder listing = new StringBuilder();
+        for(int i = 0; i < 25; i++) {
+            listing.append(String.format("-rw-r--r--   1 user     group     %d Jan  1 12:00 f%d\r\n", i, i));
+        }
+        final List<Integer> chunks = new ArrayList<>();
+        final AttributedList<Path> list = new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"), false, 10, Long.MAX_VALUE)
+            .read(directory, new BufferedReader(new StringReader(listing.toString())), new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path folder, final AttributedList<Path> list) {
+                    assertEquals(directory, folder);
+                    chunks.add(list.size());
+                }
+            });
+        assertEquals(25, list.size());
+        assertEquals("f24", list.get(24).getName());
+        assertEquals(24L, list.get(24).attributes().getSize());
+        assertEquals(Arrays.asList(10, 20, 25), chunks);
+    }
+
+    @Test
+    public void testReadStreamHeader() throws Exception {
+        final Path directory = new Path("/", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new FTPListResponseReader(new CompositeFileEntryParser(Collections.singletonList(new MVSFTPEntryParser())))
+            .read(directory, new BufferedReader(new StringReader(
+                "Volume Unit    Referred Ext Used Recfm Lrecl BlkSz Dsorg Dsname\r\n" +
+                    "SAVE00 3390   2004/06/23  1    1  FB     128  6144  PS    INCOMING.RPTBM023.D061704\r\n" +
+                    "SAVE01 3390   2004/06/23  1    1  FB     128  6144  PO    INCOMING.RPTBM024.D061704\r\n")),
+                new DisabledListProgressListener());
+        assertEquals(2, list.size());
+        assertEquals("INCOMING.RPTBM023.D061704", list.get(0).getName());
+        assertTrue(list.get(0).isFile());
+        assertEquals("INCOMING.RPTBM024.D061704", list.get(1).getName());
+        assertTrue(list.get(1).isDirectory());
+    }
+
+    @Test(expected = FTPInvalidListException.class)
+    public void testReadStreamInvalid() throws Exception {
+        final Path directory = new Path("/", EnumSet.of(Path.Type.directory));
+        new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"), false, 1, 0L)
+            .read(directory, new BufferedReader(new StringReader("invalid\r\n")), new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path folder, final AttributedList<Path> list) {
+                    fail();
+                }
+            });
+    }
+
     @Test
     public void testParseSymbolicLink() throws Exception {
         Path path = new Path("/", EnumSet.of(Path.Type.directory));
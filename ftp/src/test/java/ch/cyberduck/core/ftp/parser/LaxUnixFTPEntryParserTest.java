@@ -0,0 +1,123 @@
+package ch.cyberduck.core.ftp.parser;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LaxUnixFTPEntryParserTest {
+    private static final Logger log = Logger.getLogger(LaxUnixFTPEntryParserTest.class);
+
+    private static final List<String> LINES = Arrays.asList(
+        "drw-rw-rw-   1 user      ftp             0  DEC 11 20:56 ADMIN_Documentation",
+        "drwxr-xr-x    3 ftp      ftp           512 Mar 15  2004 doc",
+        "-rw-r--r--   1 ftp      ftp      12345678 Jan  1 1:02 file with spaces.txt",
+        "-rw-r--r--+  1 user     staff        1024 Feb 29 12:00 acl",
+        "lrwxrwxrwx    1 mk basicgrp       27 Sep 23  2004 www -> /www/basic/mk",
+        "-rwsr-sr-t   1 root     wheel        100 Oct  5 09:30 setuid",
+        "-rwSr-Sr-T   1 root     wheel        100 Oct  5 09:30 setuid",
+        "brw-rw----   1 root     disk      8,   0 Jul 17 12:00 sda",
+        "-rw-r--r--   1 user     group     15.6k Jan  1 12:00 human",
+        "-rw-r--r--   1 user          1024 Jan  1 12:00 nogroup",
+        "-rw-r--r--   1 user     group     1024 2011-03-28 12:00 numeric",
+        "-rw-r--r--   1 user     group     1024 Jan  1 12:00  leadingspace",
+        "-rw-r--r--   1 user     group     1024 Jan  1 2004  leadingspace",
+        "-rw-r--r--   1 user     group     1024 Jan  1 12:00 trailingspace ",
+        "-rw-r--r--   1 user     group     99999999999999999999 Jan  1 12:00 overflow",
+        "total 12"
+    );
+
+    @Test
+    public void testTokenize() {
+        final LaxUnixFTPEntryParser tokenizer = new LaxUnixFTPEntryParser(true);
+        tokenizer.configure(null);
+        final LaxUnixFTPEntryParser regex = new LaxUnixFTPEntryParser(false);
+        regex.configure(null);
+        for(String line : LINES) {
+            final FTPFile expected = regex.parseFTPEntry(line);
+            final FTPFile parsed = tokenizer.parseFTPEntry(line);
+            if(null == expected) {
+                assertNull(line, parsed);
+                continue;
+            }
+            assertNotNull(line, parsed);
+            assertEquals(line, expected.getType(), parsed.getType());
+            assertEquals(line, expected.getName(), parsed.getName());
+            assertEquals(line, expected.getLink(), parsed.getLink());
+            assertEquals(line, expected.getUser(), parsed.getUser());
+            assertEquals(line, expected.getGroup(), parsed.getGroup());
+            assertEquals(line, expected.getSize(), parsed.getSize());
+            assertEquals(line, expected.getTimestamp(), parsed.getTimestamp());
+            for(int access = FTPFile.USER_ACCESS; access <= FTPFile.WORLD_ACCESS; access++) {
+                for(int permission = FTPFile.READ_PERMISSION; permission <= FTPFile.EXECUTE_PERMISSION; permission++) {
+                    assertEquals(line, expected.hasPermission(access, permission), parsed.hasPermission(access, permission));
+                }
+            }
+            assertEquals(line, ((FTPExtendedFile) expected).isSetuid(), ((FTPExtendedFile) parsed).isSetuid());
+            assertEquals(line, ((FTPExtendedFile) expected).isSetgid(), ((FTPExtendedFile) parsed).isSetgid());
+            assertEquals(line, ((FTPExtendedFile) expected).isSticky(), ((FTPExtendedFile) parsed).isSticky());
+        }
+    }
+
+    @Test
+    public void testTokenizeCommonFormatOnly() {
+        final LaxUnixFTPEntryParser parser = new LaxUnixFTPEntryParser();
+        parser.configure(null);
+        assertNotNull(parser.tokenize("drwxr-xr-x    3 ftp      ftp           512 Mar 15  2004 doc"));
+        assertNotNull(parser.tokenize("lrwxrwxrwx    1 mk basicgrp       27 Sep 23  2004 www -> /www/basic/mk"));
+        assertNull(parser.tokenize("-rw-r--r--   1 user     group     15.6k Jan  1 12:00 human"));
+        assertNull(parser.tokenize("-rw-r--r--   1 user          1024 Jan  1 12:00 nogroup"));
+        assertNull(parser.tokenize("-rw-r--r--   1 user     group     1024 2011-03-28 12:00 numeric"));
+        assertNull(parser.tokenize("-rw-r--r--   1 user     group     1024 Jan  1 12:00  leadingspace"));
+        assertNull(parser.tokenize("total 12"));
+    }
+
+    @Test
+    @Category(IntegrationTest.class)
+    public void testParseThroughput() {
+        final List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 100000; i++) {
+            lines.add(String.format("-rw-r--r--   1 user     group     %d Jan %2d %02d:%02d file-%d.txt", i * 31, i % 28 + 1, i % 24, i % 60, i));
+        }
+        for(boolean tokenize : new boolean[]{false, true}) {
+            final LaxUnixFTPEntryParser parser = new LaxUnixFTPEntryParser(tokenize);
+            parser.configure(null);
+            // Warmup
+            for(String line : lines) {
+                assertNotNull(parser.parseFTPEntry(line));
+            }
+            final long start = System.nanoTime();
+            for(int run = 0; run < 5; run++) {
+                for(String line : lines) {
+                    parser.parseFTPEntry(line);
+                }
+            }
+            final long elapsed = System.nanoTime() - start;
+            log.info(String.format("Parsed %d lines in %d ms (%.0f lines/s) with %s", lines.size() * 5,
+                elapsed / 1000000, lines.size() * 5 * 1e9 / elapsed, tokenize ? "tokenizer" : "regular expression"));
+        }
+    }
+}
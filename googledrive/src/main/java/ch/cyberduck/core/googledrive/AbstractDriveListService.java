@@ -88,25 +88,16 @@ public abstract class AbstractDriveListService implements ListService {
                     log.debug(String.format("Chunk of %d retrieved", list.getFiles().size()));
                 }
                 for(File f : list.getFiles()) {
-                    final PathAttributes properties = attributes.toAttributes(f);
-                    final String filename;
-                    if(!DRIVE_FOLDER.equals(f.getMimeType()) && StringUtils.startsWith(f.getMimeType(), GOOGLE_APPS_PREFIX)) {
-                        filename = String.format("%s.%s", PathNormalizer.name(f.getName()), urlFileWriter.getExtension());
-                    }
-                    else {
-                        filename = f.getName();
-                    }
-                    if(StringUtils.equals(filename, String.valueOf(Path.DELIMITER))) {
+                    final Path child = this.toPath(directory, f);
+                    if(null == child) {
                         continue;
                     }
-                    // Use placeholder type to mark Google Apps document to download as web link file
-                    final EnumSet<Path.Type> type = DRIVE_FOLDER.equals(f.getMimeType()) ? EnumSet.of(Path.Type.directory) :
-                        StringUtils.startsWith(f.getMimeType(), GOOGLE_APPS_PREFIX)
-                            ? EnumSet.of(Path.Type.file, Path.Type.placeholder) : EnumSet.of(Path.Type.file);
-
-                    final Path child = new Path(directory, filename, type, properties);
                     if(children.find(new DriveFileidProvider.IgnoreTrashedPathPredicate(child)) != null) {
-                        properties.setDuplicate(true);
+                        child.attributes().setDuplicate(true);
+                    }
+                    if(!child.attributes().isDuplicate()) {
+                        // Refresh cached file ID
+                        fileid.cache(child, child.attributes().getVersionId());
                     }
                     children.add(child);
                 }
@@ -124,6 +115,30 @@ public abstract class AbstractDriveListService implements ListService {
         }
     }
 
+    /**
+     * @param directory Parent directory
+     * @param f         File metadata
+     * @return Null if file has no valid filename
+     */
+    protected Path toPath(final Path directory, final File f) {
+        final PathAttributes properties = attributes.toAttributes(f);
+        final String filename;
+        if(!DRIVE_FOLDER.equals(f.getMimeType()) && StringUtils.startsWith(f.getMimeType(), GOOGLE_APPS_PREFIX)) {
+            filename = String.format("%s.%s", PathNormalizer.name(f.getName()), urlFileWriter.getExtension());
+        }
+        else {
+            filename = f.getName();
+        }
+        if(StringUtils.equals(filename, String.valueOf(Path.DELIMITER))) {
+            return null;
+        }
+        // Use placeholder type to mark Google Apps document to download as web link file
+        final EnumSet<Path.Type> type = DRIVE_FOLDER.equals(f.getMimeType()) ? EnumSet.of(Path.Type.directory) :
+            StringUtils.startsWith(f.getMimeType(), GOOGLE_APPS_PREFIX)
+                ? EnumSet.of(Path.Type.file, Path.Type.placeholder) : EnumSet.of(Path.Type.file);
+        return new Path(directory, filename, type, properties);
+    }
+
     protected abstract String query(final Path directory, final ListProgressListener listener) throws BackgroundException;
 
     @Override
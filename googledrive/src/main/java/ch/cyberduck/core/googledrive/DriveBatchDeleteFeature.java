@@ -85,6 +85,11 @@ public class DriveBatchDeleteFeature implements Delete {
             catch(IOException e) {
                 throw new DriveExceptionMappingService().map(e);
             }
+            finally {
+                for(Path file : files.keySet()) {
+                    fileid.cache(file, null);
+                }
+            }
             for(BackgroundException e : failures) {
                 throw e;
             }
@@ -0,0 +1,210 @@
+package ch.cyberduck.core.googledrive;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Changes;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.api.services.drive.model.ChangeList;
+import com.google.api.services.drive.model.File;
+
+/**
+ * Changes to files in My Drive. Changed files are only identified by ID and parent folder ID and are resolved to a path
+ * using the cached listings.
+ */
+public class DriveChangesFeature implements Changes {
+    private static final Logger log = Logger.getLogger(DriveChangesFeature.class);
+
+    private static final String FIELDS = "changes(fileId,removed,file(createdTime,explicitlyTrashed,id,md5Checksum,mimeType,modifiedTime,name,parents,size,webViewLink)),newStartPageToken,nextPageToken";
+
+    private final DriveSession session;
+    private final DriveFileidProvider fileid;
+    private final AbstractDriveListService parser;
+    private final int pagesize;
+
+    private Cache<Path> cache = PathCache.empty();
+
+    /**
+     * Actual file ID of My Drive folder
+     */
+    private String root;
+
+    public DriveChangesFeature(final DriveSession session, final DriveFileidProvider fileid) {
+        this(session, fileid, PreferencesFactory.get().getInteger("googledrive.list.limit"));
+    }
+
+    public DriveChangesFeature(final DriveSession session, final DriveFileidProvider fileid, final int pagesize) {
+        this.session = session;
+        this.fileid = fileid;
+        this.parser = new DriveDefaultListService(session, fileid);
+        this.pagesize = pagesize;
+    }
+
+    @Override
+    public boolean isSupported(final Path directory) {
+        return directory.equals(DriveHomeFinderService.MYDRIVE_FOLDER) || directory.isChild(DriveHomeFinderService.MYDRIVE_FOLDER);
+    }
+
+    @Override
+    public String getCursor(final Path directory) throws BackgroundException {
+        try {
+            return session.getClient().changes().getStartPageToken()
+                .setSupportsTeamDrives(PreferencesFactory.get().getBoolean("googledrive.teamdrive.enable"))
+                .execute().getStartPageToken();
+        }
+        catch(IOException e) {
+            throw new DriveExceptionMappingService().map("Listing directory failed", e, directory);
+        }
+    }
+
+    @Override
+    public Changeset changes(final Path directory, final String cursor, final ListProgressListener listener) throws BackgroundException {
+        try {
+            final List<ChangeList> pages = new ArrayList<>();
+            String page = cursor;
+            do {
+                final ChangeList list = session.getClient().changes().list(page)
+                    .setIncludeRemoved(true)
+                    .setRestrictToMyDrive(true)
+                    .setSupportsTeamDrives(PreferencesFactory.get().getBoolean("googledrive.teamdrive.enable"))
+                    .setFields(FIELDS)
+                    .setPageSize(pagesize).execute();
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Chunk of %d changes retrieved", list.getChanges().size()));
+                }
+                pages.add(list);
+                page = list.getNextPageToken();
+            }
+            while(page != null);
+            return this.toChangeset(pages);
+        }
+        catch(IOException e) {
+            throw new DriveExceptionMappingService().map("Listing directory failed", e, directory);
+        }
+    }
+
+    /**
+     * @param pages Pages of change feed in order
+     * @return Changes with cursor from last page
+     */
+    protected Changeset toChangeset(final List<ChangeList> pages) throws BackgroundException {
+        // Directories and files in cached listings by file ID
+        final Map<String, Path> directories = new HashMap<>();
+        final Map<String, Path> files = new HashMap<>();
+        for(Map.Entry<Path, AttributedList<Path>> entry : cache.asMap().entrySet()) {
+            if(StringUtils.isNotBlank(entry.getKey().attributes().getVersionId())) {
+                directories.put(entry.getKey().attributes().getVersionId(), entry.getKey());
+            }
+            for(Path file : entry.getValue()) {
+                if(StringUtils.isNotBlank(file.attributes().getVersionId())) {
+                    files.put(file.attributes().getVersionId(), file);
+                    if(file.isDirectory()) {
+                        directories.put(file.attributes().getVersionId(), file);
+                    }
+                }
+            }
+        }
+        final List<Change> changes = new ArrayList<>();
+        String cursor = null;
+        for(ChangeList list : pages) {
+            for(com.google.api.services.drive.model.Change change : list.getChanges()) {
+                if(null == change.getFileId()) {
+                    // Change to Team Drive
+                    continue;
+                }
+                final Path previous = files.remove(change.getFileId());
+                if(null != previous) {
+                    fileid.cache(previous, null);
+                }
+                final Path file = this.toPath(directories, change);
+                if(null == file) {
+                    directories.remove(change.getFileId());
+                    changes.add(Change.deleted(change.getFileId()));
+                }
+                else {
+                    files.put(change.getFileId(), file);
+                    if(file.isDirectory()) {
+                        directories.put(change.getFileId(), file);
+                    }
+                    fileid.cache(file, change.getFileId());
+                    changes.add(Change.modified(file));
+                }
+            }
+            cursor = list.getNewStartPageToken();
+        }
+        return new Changeset(changes, cursor);
+    }
+
+    /**
+     * @return Null if file is removed or moved to a folder not cached
+     */
+    private Path toPath(final Map<String, Path> directories, final com.google.api.services.drive.model.Change change) throws BackgroundException {
+        if(Boolean.TRUE.equals(change.getRemoved())) {
+            return null;
+        }
+        final File f = change.getFile();
+        if(null == f || null == f.getParents()) {
+            return null;
+        }
+        for(String id : f.getParents()) {
+            final Path parent = StringUtils.equals(this.getRoot(), id) ? DriveHomeFinderService.MYDRIVE_FOLDER : directories.get(id);
+            if(null != parent) {
+                return parser.toPath(parent, f);
+            }
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("No cached parent folder for file %s", f.getId()));
+        }
+        return null;
+    }
+
+    /**
+     * @return File ID of My Drive folder used as parent reference instead of its alias
+     */
+    protected String getRoot() throws BackgroundException {
+        if(null == root) {
+            try {
+                root = session.getClient().files().get(DriveHomeFinderService.ROOT_FOLDER_ID).setFields("id").execute().getId();
+            }
+            catch(IOException e) {
+                throw new DriveExceptionMappingService().map("Listing directory failed", e, DriveHomeFinderService.MYDRIVE_FOLDER);
+            }
+        }
+        return root;
+    }
+
+    @Override
+    public Changes withCache(final Cache<Path> cache) {
+        this.cache = cache;
+        fileid.withCache(cache);
+        return this;
+    }
+}
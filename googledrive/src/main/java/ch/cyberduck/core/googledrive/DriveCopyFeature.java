@@ -46,6 +46,7 @@ public class DriveCopyFeature implements Copy {
                 .setParents(Collections.singletonList(fileid.getFileid(target.getParent(), new DisabledListProgressListener())))
                 .setName(target.getName()))
                 .setSupportsTeamDrives(PreferencesFactory.get().getBoolean("googledrive.teamdrive.enable")).execute();
+            fileid.cache(target, copy.getId());
             return new Path(target.getParent(), target.getName(), target.getType(),
                     new PathAttributes(target.attributes()).withVersionId(copy.getId()));
         }
@@ -50,6 +50,7 @@ public class DriveDirectoryFeature implements Directory<VersionId> {
                 final TeamDrive execute = session.getClient().teamdrives().create(
                     new UUIDRandomStringService().random(), new TeamDrive().setName(folder.getName())
                 ).execute();
+                fileid.cache(folder, execute.getId());
                 return new Path(folder.getParent(), folder.getName(), folder.getType(),
                     new PathAttributes(folder.attributes()).withVersionId(execute.getId()));
             }
@@ -61,6 +62,7 @@ public class DriveDirectoryFeature implements Directory<VersionId> {
                     .setParents(Collections.singletonList(fileid.getFileid(folder.getParent(), new DisabledListProgressListener()))));
                 final File execute = insert
                     .setSupportsTeamDrives(PreferencesFactory.get().getBoolean("googledrive.teamdrive.enable")).execute();
+                fileid.cache(folder, execute.getId());
                 return new Path(folder.getParent(), folder.getName(), folder.getType(),
                     new DriveAttributesFinderFeature(session, fileid).toAttributes(execute));
             }
@@ -24,18 +24,19 @@ import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
-import ch.cyberduck.core.features.IdProvider;
+import ch.cyberduck.core.shared.CachingFileidProvider;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 
-public class DriveFileidProvider implements IdProvider {
+public class DriveFileidProvider extends CachingFileidProvider {
 
     private final DriveSession session;
 
     private Cache<Path> cache = PathCache.empty();
 
     public DriveFileidProvider(final DriveSession session) {
+        super(session.getHost());
         this.session = session;
     }
 
@@ -50,6 +51,11 @@ public class DriveFileidProvider implements IdProvider {
             || file.equals(DriveHomeFinderService.TEAM_DRIVES_NAME)) {
             return DriveHomeFinderService.ROOT_FOLDER_ID;
         }
+        return super.getFileid(file, listener);
+    }
+
+    @Override
+    protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
         if(cache.isCached(file.getParent())) {
             final AttributedList<Path> list = cache.get(file.getParent());
             final Path found = list.find(new IgnoreTrashedPathPredicate(file));
@@ -83,11 +89,6 @@ public class DriveFileidProvider implements IdProvider {
         return this.set(file, found.attributes().getVersionId());
     }
 
-    protected String set(final Path file, final String id) {
-        file.attributes().setVersionId(id);
-        return id;
-    }
-
     @Override
     public DriveFileidProvider withCache(final Cache<Path> cache) {
         this.cache = cache;
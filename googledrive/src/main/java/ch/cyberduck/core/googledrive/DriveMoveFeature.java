@@ -76,6 +76,8 @@ public class DriveMoveFeature implements Move {
                 .setFields("id, parents")
                 .setSupportsTeamDrives(PreferencesFactory.get().getBoolean("googledrive.teamdrive.enable"))
                 .execute();
+            fileid.cache(file, null);
+            fileid.cache(renamed, id);
             return new Path(renamed.getParent(), renamed.getName(), renamed.getType(),
                 new DriveAttributesFinderFeature(session, fileid).find(renamed));
         }
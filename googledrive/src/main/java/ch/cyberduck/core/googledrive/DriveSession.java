@@ -169,6 +169,9 @@ public class DriveSession extends HttpSession<Drive> {
         if(type == AttributesFinder.class) {
             return (T) new DriveAttributesFinderFeature(this, fileid);
         }
+        if(type == Changes.class) {
+            return (T) new DriveChangesFeature(this, fileid);
+        }
         return super._getFeature(type);
     }
 
@@ -48,6 +48,7 @@ public class DriveTouchFeature implements Touch<VersionId> {
                 .setMimeType(status.getMime())
                 .setParents(Collections.singletonList(fileid.getFileid(file.getParent(), new DisabledListProgressListener()))));
             final File execute = insert.setSupportsTeamDrives(PreferencesFactory.get().getBoolean("googledrive.teamdrive.enable")).execute();
+            fileid.cache(file, execute.getId());
             return new Path(file.getParent(), file.getName(), file.getType(),
                 new DriveAttributesFinderFeature(session, fileid).toAttributes(execute));
         }
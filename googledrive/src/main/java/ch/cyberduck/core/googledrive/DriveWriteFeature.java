@@ -161,6 +161,7 @@ public class DriveWriteFeature extends AbstractHttpWriteFeature<VersionId> imple
                                                     case "id":
                                                         final VersionId version = new VersionId(value);
                                                         status.setVersion(version);
+                                                        fileid.cache(file, value);
                                                         return version;
                                                 }
                                             }
@@ -0,0 +1,91 @@
+package ch.cyberduck.core.googledrive;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.features.Changes;
+import ch.cyberduck.core.ssl.DefaultX509KeyManager;
+import ch.cyberduck.core.ssl.DisabledX509TrustManager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.services.drive.model.ChangeList;
+
+import static org.junit.Assert.*;
+
+public class DriveChangesFeatureTest {
+
+    @Test
+    public void testToChangeset() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final Path folder = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, "folder", EnumSet.of(Path.Type.directory),
+            new PathAttributes().withVersionId("1FoLdErIdQvNqPzOeKd9LmJcHbGfEaW0Y"));
+        final Path a = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, "a.txt", EnumSet.of(Path.Type.file),
+            new PathAttributes().withVersionId("1a2rW0Yp3t6xQvNqPzOeKd9LmJcHbGfEa"));
+        final Path b = new Path(folder, "b.txt", EnumSet.of(Path.Type.file),
+            new PathAttributes().withVersionId("1b3sX1Zq4u7yRwOrQaPfLe0MnKdIcHgFb"));
+        cache.put(DriveHomeFinderService.MYDRIVE_FOLDER, new AttributedList<>(Arrays.asList(folder, a)));
+        cache.put(folder, new AttributedList<>(Collections.singletonList(b)));
+        final DriveSession session = new DriveSession(new Host(new DriveProtocol(), ""), new DisabledX509TrustManager(), new DefaultX509KeyManager());
+        final DriveFileidProvider fileid = new DriveFileidProvider(session);
+        final DriveChangesFeature feature = new DriveChangesFeature(session, fileid, 100) {
+            @Override
+            protected String getRoot() {
+                return "0AHrOoTfOlDeRiDUk9PVA";
+            }
+        };
+        feature.withCache(cache);
+        final ChangeList page = new JacksonFactory().fromInputStream(
+            this.getClass().getResourceAsStream("/changes.list.json"), ChangeList.class);
+        final Changes.Changeset changeset = feature.toChangeset(Collections.singletonList(page));
+        assertEquals("4712", changeset.getCursor());
+        final List<Changes.Change> changes = changeset.getChanges();
+        assertEquals(5, changes.size());
+        // Moved to cached folder
+        assertEquals(Changes.Change.Type.modified, changes.get(0).getType());
+        assertTrue(new SimplePathPredicate(new Path(folder, "a-renamed.txt", EnumSet.of(Path.Type.file))).test(changes.get(0).getFile()));
+        assertEquals("1a2rW0Yp3t6xQvNqPzOeKd9LmJcHbGfEa", changes.get(0).getId());
+        assertEquals(3L, changes.get(0).getFile().attributes().getSize());
+        // Deleted
+        assertEquals(Changes.Change.Type.deleted, changes.get(1).getType());
+        assertNull(changes.get(1).getFile());
+        assertEquals("1b3sX1Zq4u7yRwOrQaPfLe0MnKdIcHgFb", changes.get(1).getId());
+        // Folder created in My Drive referenced with actual root folder ID
+        final Path c = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, "c", EnumSet.of(Path.Type.directory));
+        assertEquals(Changes.Change.Type.modified, changes.get(2).getType());
+        assertTrue(new SimplePathPredicate(c).test(changes.get(2).getFile()));
+        // Created in folder from same changeset
+        assertEquals(Changes.Change.Type.modified, changes.get(3).getType());
+        assertTrue(new SimplePathPredicate(new Path(c, "e.txt", EnumSet.of(Path.Type.file))).test(changes.get(3).getFile()));
+        // Parent folder not cached
+        assertEquals(Changes.Change.Type.deleted, changes.get(4).getType());
+        assertEquals("1d5uZ3Bs6w9aTyQtScRhNg2OpMfKeJiHd", changes.get(4).getId());
+        // File IDs of new locations
+        assertEquals("1c4tY2Ar5v8zSxPsRbQgMf1NoLeJdIhGc", fileid.getFileid(new Path(DriveHomeFinderService.MYDRIVE_FOLDER, "c", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener()));
+    }
+}
@@ -61,7 +61,7 @@ public class LocalAttributesFinderFeature implements AttributesFinder {
         if(isPosix) {
             attributes.setOwner(((PosixFileAttributes) a).owner().getName());
             attributes.setGroup(((PosixFileAttributes) a).group().getName());
-            attributes.setPermission(new Permission(PosixFilePermissions.toString(((PosixFileAttributes) a).permissions())));
+            attributes.setPermission(Permission.intern(new Permission(PosixFilePermissions.toString(((PosixFileAttributes) a).permissions()))));
         }
         else {
             Permission.Action actions = Permission.Action.none;
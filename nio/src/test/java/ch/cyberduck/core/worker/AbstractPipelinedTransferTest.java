@@ -0,0 +1,184 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DisabledCancelCallback;
+import ch.cyberduck.core.DisabledHostKeyCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
+import ch.cyberduck.core.nio.LocalAttributesFinderFeature;
+import ch.cyberduck.core.nio.LocalDeleteFeature;
+import ch.cyberduck.core.nio.LocalHomeFinderFeature;
+import ch.cyberduck.core.nio.LocalProtocol;
+import ch.cyberduck.core.nio.LocalSession;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.proxy.Proxy;
+import ch.cyberduck.core.transfer.DisabledTransferPrompt;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferAction;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferPrompt;
+import ch.cyberduck.core.transfer.UploadTransfer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Upload of synthetic tree with 20 folders of 100 files each with preparing and transferring pipelined
+ */
+public abstract class AbstractPipelinedTransferTest {
+
+    protected LocalSession session;
+    protected Path directory;
+    protected Local localDirectory;
+
+    protected final byte[] content = RandomUtils.nextBytes(1024);
+    protected final List<Path> files = new ArrayList<>();
+    protected final List<Path> folders = new ArrayList<>();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicInteger prepared = new AtomicInteger();
+    /**
+     * Released when the first bytes are sent
+     */
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final AtomicBoolean pipelined = new AtomicBoolean();
+
+    /**
+     * Count bytes sent
+     */
+    protected final StreamListener stream = new DisabledStreamListener() {
+        @Override
+        public void sent(final long bytes) {
+            sent.addAndGet(bytes);
+            started.countDown();
+        }
+    };
+
+    /**
+     * Block preparing the last file until a transfer has started
+     */
+    protected final ProgressListener progress = new DisabledProgressListener() {
+        @Override
+        public void message(final String message) {
+            if(message.matches("Prepare t\\d+ .*")) {
+                if(prepared.incrementAndGet() == files.size()) {
+                    try {
+                        pipelined.set(started.await(30L, TimeUnit.SECONDS));
+                    }
+                    catch(InterruptedException e) {
+                        pipelined.set(false);
+                    }
+                }
+            }
+        }
+    };
+
+    @Before
+    public void setup() throws Exception {
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline.enable", String.valueOf(true));
+        session = new LocalSession(new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname()));
+        session.open(Proxy.DIRECT, new DisabledHostKeyCallback(), new DisabledLoginCallback());
+        session.login(Proxy.DIRECT, new DisabledLoginCallback(), new DisabledCancelCallback());
+        final Path home = new LocalHomeFinderFeature(session).find();
+        final String name = new AlphanumericRandomStringService().random();
+        directory = new Path(home, name, EnumSet.of(Path.Type.directory));
+        localDirectory = new Local(System.getProperty("java.io.tmpdir"), name);
+        for(int i = 0; i < 20; i++) {
+            final Path folder = new Path(directory, String.format("f%d", i), EnumSet.of(Path.Type.directory));
+            final Local localFolder = new Local(localDirectory, folder.getName());
+            new DefaultLocalDirectoryFeature().mkdir(localFolder);
+            for(int j = 0; j < 100; j++) {
+                final Path file = new Path(folder, String.format("t%d", j), EnumSet.of(Path.Type.file));
+                final OutputStream out = new Local(localFolder, file.getName()).getOutputStream(false);
+                IOUtils.write(content, out);
+                out.close();
+                files.add(file);
+            }
+            folders.add(folder);
+        }
+    }
+
+    @After
+    public void teardown() throws Exception {
+        try {
+            final List<Path> delete = new ArrayList<>(files);
+            delete.addAll(folders);
+            delete.add(directory);
+            new LocalDeleteFeature(session).delete(delete, new DisabledLoginCallback(), new Delete.DisabledCallback());
+            FileUtils.deleteDirectory(new File(localDirectory.getAbsolute()));
+            session.close();
+        }
+        finally {
+            PreferencesFactory.get().setProperty("queue.transfer.pipeline.enable", String.valueOf(false));
+        }
+    }
+
+    protected Transfer transfer() {
+        return new UploadTransfer(new Host(new TestProtocol()), directory, localDirectory);
+    }
+
+    protected TransferPrompt prompt() {
+        return new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        };
+    }
+
+    /**
+     * @param t Completed transfer
+     */
+    protected void verify(final Transfer t) throws Exception {
+        // Last file prepared after transfer of other files has started
+        assertTrue(pipelined.get());
+        assertEquals(files.size(), prepared.get());
+        assertEquals(files.size() * content.length, sent.get());
+        assertEquals(files.size() * content.length, t.getSize(), 0L);
+        assertEquals(files.size() * content.length, t.getTransferred(), 0L);
+        for(Path file : files) {
+            assertEquals(content.length, new LocalAttributesFinderFeature(session).find(file).getSize());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledCancelCallback;
+import ch.cyberduck.core.DisabledHostKeyCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.DisabledPasswordCallback;
+import ch.cyberduck.core.DisabledPasswordStore;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.DisabledTranscriptListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.LoginConnectionService;
+import ch.cyberduck.core.NullFilter;
+import ch.cyberduck.core.PasswordCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.nio.LocalDeleteFeature;
+import ch.cyberduck.core.nio.LocalDirectoryFeature;
+import ch.cyberduck.core.nio.LocalFindFeature;
+import ch.cyberduck.core.nio.LocalHomeFinderFeature;
+import ch.cyberduck.core.nio.LocalListService;
+import ch.cyberduck.core.nio.LocalProtocol;
+import ch.cyberduck.core.nio.LocalSession;
+import ch.cyberduck.core.nio.LocalTouchFeature;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.pool.StatelessSessionPool;
+import ch.cyberduck.core.proxy.Proxy;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentDeleteWorkerTest {
+
+    @Test
+    public void testDeleteRecursive() throws Exception {
+        final LocalSession session = new LocalSession(new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname()));
+        session.open(Proxy.DIRECT, new DisabledHostKeyCallback(), new DisabledLoginCallback());
+        session.login(Proxy.DIRECT, new DisabledLoginCallback(), new DisabledCancelCallback());
+        final Path home = new LocalHomeFinderFeature(session).find();
+        final Path directory = new LocalDirectoryFeature(session).mkdir(
+            new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        int count = 1;
+        // Synthetic tree with 10 folders each containing 5 folders of 20 files
+        for(int i = 0; i < 10; i++) {
+            final Path folder = new LocalDirectoryFeature(session).mkdir(
+                new Path(directory, String.format("f%d", i), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+            count++;
+            for(int j = 0; j < 5; j++) {
+                final Path subfolder = new LocalDirectoryFeature(session).mkdir(
+                    new Path(folder, String.format("s%d", j), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+                count++;
+                for(int k = 0; k < 20; k++) {
+                    new LocalTouchFeature(session).touch(new Path(subfolder, String.format("t%d", k), EnumSet.of(Path.Type.file)), new TransferStatus());
+                    count++;
+                }
+            }
+            // Empty folder
+            new LocalDirectoryFeature(session).mkdir(
+                new Path(folder, "e", EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+            count++;
+        }
+        final SessionPool pool = new StatelessSessionPool(new LoginConnectionService(new DisabledLoginCallback(), new DisabledHostKeyCallback(),
+            new DisabledPasswordStore(), new DisabledProgressListener()), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final ConcurrentDeleteWorker worker = new ConcurrentDeleteWorker(pool, new DisabledLoginCallback(), Collections.singletonList(directory),
+            PathCache.empty(), new NullFilter<>(), new DisabledProgressListener(), 4, 16);
+        // Fails deleting non empty directory if parent is not ordered after children
+        final List<Path> deleted = worker.run(session);
+        assertEquals(count, deleted.size());
+        assertEquals(directory, deleted.get(deleted.size() - 1));
+        assertFalse(new LocalFindFeature(session).find(directory));
+        session.close();
+    }
+
+    @Test
+    public void testDeleteChildUnknownType() throws Exception {
+        final LocalSession session = new LocalSession(new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == ListService.class) {
+                    return (T) new LocalListService(this) {
+                        @Override
+                        public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+                            final AttributedList<Path> list = super.list(directory, listener);
+                            // Neither file, symbolic link nor directory
+                            list.add(new Path(directory, "u", EnumSet.noneOf(Path.Type.class)));
+                            return list;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        session.open(Proxy.DIRECT, new DisabledHostKeyCallback(), new DisabledLoginCallback());
+        session.login(Proxy.DIRECT, new DisabledLoginCallback(), new DisabledCancelCallback());
+        final Path home = new LocalHomeFinderFeature(session).find();
+        final Path directory = new LocalDirectoryFeature(session).mkdir(
+            new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        new LocalTouchFeature(session).touch(new Path(directory, "t", EnumSet.of(Path.Type.file)), new TransferStatus());
+        final SessionPool pool = new StatelessSessionPool(new LoginConnectionService(new DisabledLoginCallback(), new DisabledHostKeyCallback(),
+            new DisabledPasswordStore(), new DisabledProgressListener()), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final ConcurrentDeleteWorker worker = new ConcurrentDeleteWorker(pool, new DisabledLoginCallback(), Collections.singletonList(directory),
+            PathCache.empty(), new NullFilter<>(), new DisabledProgressListener(), 2, 16);
+        // Parent is deleted after skipping child with unknown type
+        final List<Path> deleted = worker.run(session);
+        assertEquals(2, deleted.size());
+        assertEquals(directory, deleted.get(deleted.size() - 1));
+        assertFalse(new LocalFindFeature(session).find(directory));
+        session.close();
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        // Simulated round trip for every listing and deleted file
+        final long latency = 5L;
+        final LocalSession session = new LocalSession(new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == ListService.class) {
+                    return (T) new LocalListService(this) {
+                        @Override
+                        public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+                            sleep(latency);
+                            return super.list(directory, listener);
+                        }
+                    };
+                }
+                if(type == Delete.class) {
+                    return (T) new LocalDeleteFeature(this) {
+                        @Override
+                        public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) throws BackgroundException {
+                            sleep(latency * files.size());
+                            super.delete(files, prompt, callback);
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        session.open(Proxy.DIRECT, new DisabledHostKeyCallback(), new DisabledLoginCallback());
+        session.login(Proxy.DIRECT, new DisabledLoginCallback(), new DisabledCancelCallback());
+        final Path home = new LocalHomeFinderFeature(session).find();
+        final Path directory = new LocalDirectoryFeature(session).mkdir(
+            new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        int count = 1;
+        int listings = 1;
+        for(int i = 0; i < 8; i++) {
+            final Path folder = new LocalDirectoryFeature(session).mkdir(
+                new Path(directory, String.format("f%d", i), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+            count++;
+            listings++;
+            for(int k = 0; k < 25; k++) {
+                new LocalTouchFeature(session).touch(new Path(folder, String.format("t%d", k), EnumSet.of(Path.Type.file)), new TransferStatus());
+                count++;
+            }
+        }
+        final SessionPool pool = new StatelessSessionPool(new LoginConnectionService(new DisabledLoginCallback(), new DisabledHostKeyCallback(),
+            new DisabledPasswordStore(), new DisabledProgressListener()), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final ConcurrentDeleteWorker worker = new ConcurrentDeleteWorker(pool, new DisabledLoginCallback(), Collections.singletonList(directory),
+            PathCache.empty(), new NullFilter<>(), new DisabledProgressListener(), 4, 16);
+        assertEquals(count, worker.run(session).size());
+        assertFalse(new LocalFindFeature(session).find(directory));
+        // Files per second when listing and deleting one after another
+        final double sequential = count * 1000d / ((listings + count) * latency);
+        // Parents wait for children deleted and limit the speedup possible with 4 connections
+        assertTrue(String.format("Throughput %.1f files/s below %.1f files/s", worker.getThroughput(), 1.5 * sequential),
+            worker.getThroughput() > 1.5 * sequential);
+        session.close();
+    }
+
+    @Test
+    public void testDeleteStatefulSequential() throws Exception {
+        final LocalSession session = new LocalSession(new Host(new LocalProtocol() {
+            @Override
+            public Statefulness getStatefulness() {
+                return Statefulness.stateful;
+            }
+        }, new LocalProtocol().getDefaultHostname()));
+        session.open(Proxy.DIRECT, new DisabledHostKeyCallback(), new DisabledLoginCallback());
+        session.login(Proxy.DIRECT, new DisabledLoginCallback(), new DisabledCancelCallback());
+        final Path home = new LocalHomeFinderFeature(session).find();
+        final Path directory = new LocalDirectoryFeature(session).mkdir(
+            new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        new LocalTouchFeature(session).touch(new Path(directory, "t", EnumSet.of(Path.Type.file)), new TransferStatus());
+        // No additional connections borrowed from pool
+        final ConcurrentDeleteWorker worker = new ConcurrentDeleteWorker(SessionPool.DISCONNECTED, new DisabledLoginCallback(), Collections.singletonList(directory),
+            PathCache.empty(), new NullFilter<>(), new DisabledProgressListener(), 4, 16);
+        assertEquals(2, worker.run(session).size());
+        assertFalse(new LocalFindFeature(session).find(directory));
+        session.close();
+    }
+
+    private static void sleep(final long millis) throws ConnectionCanceledException {
+        try {
+            Thread.sleep(millis);
+        }
+        catch(InterruptedException e) {
+            throw new ConnectionCanceledException(e);
+        }
+    }
+}
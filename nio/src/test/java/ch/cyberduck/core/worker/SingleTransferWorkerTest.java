@@ -0,0 +1,38 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.notification.DisabledNotificationService;
+import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferOptions;
+import ch.cyberduck.core.transfer.TransferSpeedometer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class SingleTransferWorkerTest extends AbstractPipelinedTransferTest {
+
+    @Test
+    public void testUploadPipelined() throws Exception {
+        final Transfer t = this.transfer();
+        assertTrue(new SingleTransferWorker(session, session, t, new TransferOptions(), new TransferSpeedometer(t), this.prompt(),
+            new DisabledTransferErrorCallback(), progress, stream, new DisabledLoginCallback(), new DisabledNotificationService()).run(session));
+        this.verify(t);
+    }
+}
@@ -22,7 +22,9 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.UrlProvider;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Changes;
 import ch.cyberduck.core.features.PromptUrlProvider;
+import ch.cyberduck.core.onedrive.features.GraphChangesFeature;
 import ch.cyberduck.core.ssl.X509KeyManager;
 import ch.cyberduck.core.ssl.X509TrustManager;
 
@@ -102,6 +104,9 @@ public class OneDriveSession extends GraphSession {
         if(type == PromptUrlProvider.class) {
             return (T) new OneDriveSharingLinkUrlProvider(this);
         }
+        if(type == Changes.class) {
+            return (T) new GraphChangesFeature(this);
+        }
         return super._getFeature(type);
     }
 }
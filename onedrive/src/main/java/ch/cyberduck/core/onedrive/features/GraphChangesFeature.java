@@ -0,0 +1,295 @@
+package ch.cyberduck.core.onedrive.features;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.DescriptiveUrl;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Changes;
+import ch.cyberduck.core.http.DefaultHttpResponseExceptionMappingService;
+import ch.cyberduck.core.onedrive.GraphCommonsHttpRequestExecutor;
+import ch.cyberduck.core.onedrive.GraphSession;
+import ch.cyberduck.core.webloc.UrlFileWriter;
+import ch.cyberduck.core.webloc.UrlFileWriterFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Changes to files in the default drive using delta queries. The cursor is the delta link returned. Changed items
+ * are only identified by ID and parent folder ID and are resolved to a path using the cached listings.
+ */
+public class GraphChangesFeature implements Changes {
+    private static final Logger log = Logger.getLogger(GraphChangesFeature.class);
+
+    private final GraphSession session;
+    private final UrlFileWriter urlFileWriter = UrlFileWriterFactory.get();
+
+    private Cache<Path> cache = PathCache.empty();
+
+    /**
+     * Drive and item ID of root folder
+     */
+    private String root;
+
+    public GraphChangesFeature(final GraphSession session) {
+        this.session = session;
+    }
+
+    @Override
+    public boolean isSupported(final Path directory) {
+        for(Path parent = directory; !parent.isRoot(); parent = parent.getParent()) {
+            if(parent.getType().contains(Path.Type.shared)) {
+                // Changes to items shared from other drives are not reported
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getCursor(final Path directory) throws BackgroundException {
+        final JsonObject response = this.get(String.format("%s/me/drive/root/delta?token=latest", session.getClient().getBaseURL()));
+        if(!response.has("@odata.deltaLink")) {
+            throw new NotfoundException(directory.getAbsolute());
+        }
+        return response.get("@odata.deltaLink").getAsString();
+    }
+
+    @Override
+    public Changeset changes(final Path directory, final String cursor, final ListProgressListener listener) throws BackgroundException {
+        final List<JsonObject> pages = new ArrayList<>();
+        String link = cursor;
+        do {
+            final JsonObject page = this.get(link);
+            pages.add(page);
+            link = page.has("@odata.nextLink") ? page.get("@odata.nextLink").getAsString() : null;
+        }
+        while(link != null);
+        return this.toChangeset(pages);
+    }
+
+    /**
+     * @param pages Pages of delta query in order
+     * @return Changes with delta link from last page
+     */
+    protected Changeset toChangeset(final List<JsonObject> pages) throws BackgroundException {
+        // Directories and files in cached listings by drive and item ID
+        final Map<String, Path> directories = new HashMap<>();
+        final Map<String, Path> files = new HashMap<>();
+        for(Map.Entry<Path, AttributedList<Path>> entry : cache.asMap().entrySet()) {
+            for(Path file : entry.getValue()) {
+                if(StringUtils.isNotBlank(file.attributes().getVersionId())) {
+                    final String id = this.toId(file.attributes().getVersionId());
+                    files.put(id, file);
+                    if(file.isDirectory()) {
+                        directories.put(id, file);
+                    }
+                }
+            }
+        }
+        final List<Change> changes = new ArrayList<>();
+        String cursor = null;
+        for(JsonObject page : pages) {
+            for(JsonElement element : page.getAsJsonArray("value")) {
+                final JsonObject item = element.getAsJsonObject();
+                if(item.has("root")) {
+                    continue;
+                }
+                final JsonObject reference = item.getAsJsonObject("parentReference");
+                if(null == reference) {
+                    continue;
+                }
+                final String id = String.join(String.valueOf(Path.DELIMITER),
+                    reference.get("driveId").getAsString(), item.get("id").getAsString());
+                final Path previous = files.remove(id);
+                final Path file = item.has("deleted") ? null : this.toPath(directories, reference, item);
+                if(null == file) {
+                    directories.remove(id);
+                    changes.add(Change.deleted(null == previous ? id : previous.attributes().getVersionId()));
+                }
+                else {
+                    files.put(id, file);
+                    if(file.isDirectory()) {
+                        directories.put(id, file);
+                    }
+                    changes.add(Change.modified(file));
+                }
+            }
+            if(page.has("@odata.deltaLink")) {
+                cursor = page.get("@odata.deltaLink").getAsString();
+            }
+        }
+        return new Changeset(changes, cursor);
+    }
+
+    /**
+     * @return Null if parent folder is not cached
+     */
+    private Path toPath(final Map<String, Path> directories, final JsonObject reference, final JsonObject item) throws BackgroundException {
+        final String parentId = String.join(String.valueOf(Path.DELIMITER),
+            reference.get("driveId").getAsString(), reference.get("id").getAsString());
+        final Path parent = StringUtils.equals(this.getRoot(), parentId) ?
+            new Path(String.valueOf(Path.DELIMITER), EnumSet.of(Path.Type.volume, Path.Type.directory)) : directories.get(parentId);
+        if(null == parent) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("No cached parent folder for item %s", item.get("id")));
+            }
+            return null;
+        }
+        final String name = item.get("name").getAsString();
+        final EnumSet<Path.Type> type = this.toType(item);
+        final String filename = item.has("package") ? String.format("%s.%s", PathNormalizer.name(name), urlFileWriter.getExtension()) : name;
+        return new Path(parent, filename, type, this.toAttributes(reference, item));
+    }
+
+    private EnumSet<Path.Type> toType(final JsonObject item) {
+        if(item.has("package")) {
+            return EnumSet.of(Path.Type.file, Path.Type.placeholder);
+        }
+        if(item.has("remoteItem")) {
+            final EnumSet<Path.Type> type = this.toType(item.getAsJsonObject("remoteItem"));
+            type.add(Path.Type.shared);
+            return type;
+        }
+        if(item.has("folder")) {
+            return EnumSet.of(Path.Type.directory);
+        }
+        return EnumSet.of(Path.Type.file);
+    }
+
+    /**
+     * Same attributes as read from item metadata
+     *
+     * @see GraphAttributesFinderFeature#toAttributes(org.nuxeo.onedrive.client.OneDriveItem.Metadata)
+     */
+    private PathAttributes toAttributes(final JsonObject reference, final JsonObject item) {
+        final PathAttributes attributes = new PathAttributes();
+        if(item.has("eTag")) {
+            attributes.setETag(item.get("eTag").getAsString());
+        }
+        if(item.has("size")) {
+            attributes.setSize(item.get("size").getAsLong());
+        }
+        if(item.has("remoteItem")) {
+            final JsonObject remote = item.getAsJsonObject("remoteItem");
+            attributes.setVersionId(String.join(String.valueOf(Path.DELIMITER),
+                reference.get("driveId").getAsString(), item.get("id").getAsString(),
+                remote.getAsJsonObject("parentReference").get("driveId").getAsString(), remote.get("id").getAsString()));
+        }
+        else {
+            attributes.setVersionId(String.join(String.valueOf(Path.DELIMITER),
+                reference.get("driveId").getAsString(), item.get("id").getAsString()));
+        }
+        if(item.has("webUrl")) {
+            attributes.setLink(new DescriptiveUrl(URI.create(item.get("webUrl").getAsString()), DescriptiveUrl.Type.http));
+        }
+        final JsonObject info = item.has("fileSystemInfo") ? item.getAsJsonObject("fileSystemInfo") : item;
+        if(info.has("lastModifiedDateTime")) {
+            attributes.setModificationDate(OffsetDateTime.parse(info.get("lastModifiedDateTime").getAsString()).toInstant().toEpochMilli());
+        }
+        if(info.has("createdDateTime")) {
+            attributes.setCreationDate(OffsetDateTime.parse(info.get("createdDateTime").getAsString()).toInstant().toEpochMilli());
+        }
+        return attributes;
+    }
+
+    /**
+     * @param versionId Drive and item ID optionally followed by drive and item ID of remote item
+     * @return Drive and item ID in default drive
+     */
+    private String toId(final String versionId) {
+        final String[] parts = StringUtils.split(versionId, Path.DELIMITER);
+        if(parts.length > 2) {
+            return String.join(String.valueOf(Path.DELIMITER), parts[0], parts[1]);
+        }
+        return versionId;
+    }
+
+    /**
+     * @return Drive and item ID of root folder referenced as parent of items in root
+     */
+    protected String getRoot() throws BackgroundException {
+        if(null == root) {
+            final JsonObject response = this.get(String.format("%s/me/drive/root?$select=id,parentReference", session.getClient().getBaseURL()));
+            root = String.join(String.valueOf(Path.DELIMITER),
+                response.getAsJsonObject("parentReference").get("driveId").getAsString(), response.get("id").getAsString());
+        }
+        return root;
+    }
+
+    private JsonObject get(final String url) throws BackgroundException {
+        final HttpGet request = new HttpGet(url);
+        // Placeholder replaced with access token
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer");
+        try {
+            final HttpResponse response = ((GraphCommonsHttpRequestExecutor) session.getClient().getExecutor()).getClient().execute(request);
+            try {
+                switch(response.getStatusLine().getStatusCode()) {
+                    case HttpStatus.SC_OK:
+                        return new JsonParser().parse(new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8)).getAsJsonObject();
+                    case HttpStatus.SC_GONE:
+                        // Delta link expired and a full enumeration is required
+                        throw new NotfoundException(response.getStatusLine().getReasonPhrase());
+                    default:
+                        throw new DefaultHttpResponseExceptionMappingService().map(
+                            new HttpResponseException(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase()));
+                }
+            }
+            finally {
+                EntityUtils.consume(response.getEntity());
+            }
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+    }
+
+    @Override
+    public Changes withCache(final Cache<Path> cache) {
+        this.cache = cache;
+        return this;
+    }
+}
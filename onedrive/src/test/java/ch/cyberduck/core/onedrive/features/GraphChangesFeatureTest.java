@@ -0,0 +1,102 @@
+package ch.cyberduck.core.onedrive.features;
+
+/*
+ * Copyright (c) 2002-2018 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.features.Changes;
+import ch.cyberduck.core.onedrive.OneDriveProtocol;
+import ch.cyberduck.core.onedrive.OneDriveSession;
+import ch.cyberduck.core.ssl.DefaultX509KeyManager;
+import ch.cyberduck.core.ssl.DisabledX509TrustManager;
+
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import static org.junit.Assert.*;
+
+public class GraphChangesFeatureTest {
+
+    @Test
+    public void testToChangeset() throws Exception {
+        final PathCache cache = new PathCache(10);
+        final Path root = new Path("/", EnumSet.of(Path.Type.volume, Path.Type.directory));
+        final Path folder = new Path(root, "folder", EnumSet.of(Path.Type.directory),
+            new PathAttributes().withVersionId("27bd2abb5c6db391/27BD2ABB5C6DB391!103"));
+        final Path a = new Path(root, "a.txt", EnumSet.of(Path.Type.file),
+            new PathAttributes().withVersionId("27bd2abb5c6db391/27BD2ABB5C6DB391!102"));
+        final Path b = new Path(folder, "b.txt", EnumSet.of(Path.Type.file),
+            new PathAttributes().withVersionId("27bd2abb5c6db391/27BD2ABB5C6DB391!104"));
+        cache.put(root, new AttributedList<>(Arrays.asList(folder, a)));
+        cache.put(folder, new AttributedList<>(Collections.singletonList(b)));
+        final GraphChangesFeature feature = new GraphChangesFeature(new OneDriveSession(new Host(new OneDriveProtocol()), new DisabledX509TrustManager(), new DefaultX509KeyManager())) {
+            @Override
+            protected String getRoot() {
+                return "27bd2abb5c6db391/27BD2ABB5C6DB391!101";
+            }
+        };
+        feature.withCache(cache);
+        final JsonObject page = new JsonParser().parse(new InputStreamReader(
+            this.getClass().getResourceAsStream("/delta.json"), StandardCharsets.UTF_8)).getAsJsonObject();
+        final Changes.Changeset changeset = feature.toChangeset(Collections.singletonList(page));
+        assertEquals("https://graph.microsoft.com/v1.0/me/drive/root/delta?token=aTE09NjM2NzU2MjA0NzYxNDM7SUQ9MjdCRDJBQkI1QzZEQjM5MSE3Nzg", changeset.getCursor());
+        final List<Changes.Change> changes = changeset.getChanges();
+        assertEquals(5, changes.size());
+        // Moved to cached folder
+        assertEquals(Changes.Change.Type.modified, changes.get(0).getType());
+        assertTrue(new SimplePathPredicate(new Path(folder, "a-renamed.txt", EnumSet.of(Path.Type.file))).test(changes.get(0).getFile()));
+        assertEquals("27bd2abb5c6db391/27BD2ABB5C6DB391!102", changes.get(0).getId());
+        assertEquals(3L, changes.get(0).getFile().attributes().getSize());
+        assertEquals(1538471560120L, changes.get(0).getFile().attributes().getModificationDate());
+        // Deleted
+        assertEquals(Changes.Change.Type.deleted, changes.get(1).getType());
+        assertEquals("27bd2abb5c6db391/27BD2ABB5C6DB391!104", changes.get(1).getId());
+        // Folder created in root
+        final Path c = new Path(root, "c", EnumSet.of(Path.Type.directory));
+        assertEquals(Changes.Change.Type.modified, changes.get(2).getType());
+        assertTrue(new SimplePathPredicate(c).test(changes.get(2).getFile()));
+        // Created in folder from same changeset
+        assertEquals(Changes.Change.Type.modified, changes.get(3).getType());
+        assertTrue(new SimplePathPredicate(new Path(c, "e.txt", EnumSet.of(Path.Type.file))).test(changes.get(3).getFile()));
+        // Parent folder not cached
+        assertEquals(Changes.Change.Type.deleted, changes.get(4).getType());
+        assertEquals("27bd2abb5c6db391/27BD2ABB5C6DB391!107", changes.get(4).getId());
+    }
+
+    @Test
+    public void testIsSupported() {
+        final GraphChangesFeature feature = new GraphChangesFeature(new OneDriveSession(new Host(new OneDriveProtocol()), new DisabledX509TrustManager(), new DefaultX509KeyManager()));
+        final Path root = new Path("/", EnumSet.of(Path.Type.volume, Path.Type.directory));
+        assertTrue(feature.isSupported(root));
+        assertTrue(feature.isSupported(new Path(root, "folder", EnumSet.of(Path.Type.directory))));
+        final Path shared = new Path(root, "shared", EnumSet.of(Path.Type.directory, Path.Type.shared));
+        assertFalse(feature.isSupported(shared));
+        assertFalse(feature.isSupported(new Path(shared, "folder", EnumSet.of(Path.Type.directory))));
+    }
+}
@@ -130,4 +130,9 @@ public class SwiftMultipleDeleteFeature implements Delete {
     public boolean isRecursive() {
         return false;
     }
+
+    @Override
+    public int getBatchSize() {
+        return PreferencesFactory.get().getInteger("openstack.delete.multiple.partition");
+    }
 }
@@ -87,13 +87,13 @@ import ch.cyberduck.core.transfer.UploadTransfer;
 import ch.cyberduck.core.vault.DefaultVaultRegistry;
 import ch.cyberduck.core.vault.VaultCredentials;
 import ch.cyberduck.core.vault.VaultFactory;
+import ch.cyberduck.core.worker.ConcurrentSearchWorker;
 import ch.cyberduck.core.worker.CopyWorker;
 import ch.cyberduck.core.worker.CreateDirectoryWorker;
 import ch.cyberduck.core.worker.CreateSymlinkWorker;
 import ch.cyberduck.core.worker.CreateVaultWorker;
 import ch.cyberduck.core.worker.DownloadShareWorker;
 import ch.cyberduck.core.worker.MountWorker;
-import ch.cyberduck.core.worker.SearchWorker;
 import ch.cyberduck.core.worker.SessionListWorker;
 import ch.cyberduck.core.worker.TouchWorker;
 import ch.cyberduck.ui.browser.BookmarkColumn;
@@ -210,7 +210,7 @@ public class BrowserController extends WindowController implements NSToolbar.Del
      * Caching files listings of previously listed directories
      */
     private final Cache<Path> cache
-        = new ReverseLookupCache<Path>(new PathCache(preferences.getInteger("browser.cache.size")), preferences.getInteger("browser.cache.size"));
+        = new PathCache(preferences.getInteger("browser.cache.size"));
 
     private Scheduler scheduler;
 
@@ -1726,7 +1726,7 @@ public class BrowserController extends WindowController implements NSToolbar.Del
                                     if(returncode == DEFAULT_OPTION) {
                                         // Delay render until path is cached in the background
                                         background(new WorkerBackgroundAction<AttributedList<Path>>(BrowserController.this, pool,
-                                            new SearchWorker(workdir, filenameFilter, cache, listener) {
+                                            new ConcurrentSearchWorker(pool, workdir, filenameFilter, cache, listener) {
                                                 @Override
                                                 public void cleanup(final AttributedList<Path> list) {
                                                     super.cleanup(list);
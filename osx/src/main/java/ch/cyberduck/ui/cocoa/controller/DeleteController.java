@@ -22,8 +22,9 @@ import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.LoginCallbackFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.threading.WorkerBackgroundAction;
-import ch.cyberduck.core.worker.DeleteWorker;
+import ch.cyberduck.core.worker.ConcurrentDeleteWorker;
 
 import java.text.MessageFormat;
 import java.util.Collections;
@@ -75,8 +76,9 @@ public class DeleteController extends ProxyController {
     }
 
     private void run(final List<Path> files) {
-        parent.background(new WorkerBackgroundAction<List<Path>>(parent, parent.getSession(),
-            new DeleteWorker(LoginCallbackFactory.get(parent), files, parent.getCache(), parent) {
+        final SessionPool pool = parent.getSession();
+        parent.background(new WorkerBackgroundAction<List<Path>>(parent, pool,
+            new ConcurrentDeleteWorker(pool, LoginCallbackFactory.get(parent), files, parent.getCache(), parent) {
                     @Override
                     public void cleanup(final List<Path> deleted) {
                         super.cleanup(deleted);
@@ -57,6 +57,7 @@ import ch.cyberduck.core.threading.BackgroundAction;
 import ch.cyberduck.core.threading.ControllerMainAction;
 import ch.cyberduck.core.threading.DefaultMainAction;
 import ch.cyberduck.core.threading.TransferBackgroundAction;
+import ch.cyberduck.core.threading.TransferBackgroundExecutor;
 import ch.cyberduck.core.threading.TransferCollectionBackgroundAction;
 import ch.cyberduck.core.threading.WindowMainAction;
 import ch.cyberduck.core.transfer.DownloadTransfer;
@@ -66,8 +67,7 @@ import ch.cyberduck.core.transfer.TransferItem;
 import ch.cyberduck.core.transfer.TransferListener;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferProgress;
-import ch.cyberduck.core.transfer.TransferQueue;
-import ch.cyberduck.core.transfer.TransferQueueFactory;
+import ch.cyberduck.core.transfer.TransferSchedulerFactory;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.ui.browser.DownloadDirectoryFinder;
 import ch.cyberduck.ui.cocoa.datasource.TransferTableDataSource;
@@ -90,6 +90,7 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.Future;
 
 public final class TransferController extends WindowController implements TransferListener, NSToolbar.Delegate, NSMenu.Validation {
     private static final Logger log = Logger.getLogger(TransferController.class);
@@ -263,8 +264,7 @@ public final class TransferController extends WindowController implements Transf
     public void connectionsPopupChanged(final NSMenuItem sender) {
         final Integer connections = Integer.valueOf(sender.representedObject());
         preferences.setProperty("queue.connections.limit", connections);
-        final TransferQueue queue = TransferQueueFactory.get();
-        queue.resize(connections);
+        TransferSchedulerFactory.get().resize(connections);
     }
 
     public NSTextField getFilterField() {
@@ -318,6 +318,16 @@ public final class TransferController extends WindowController implements Transf
                 }
             }
         }
+        // Redistribute global bandwidth with changed rates
+        TransferSchedulerFactory.get().rebalance();
+    }
+
+    /**
+     * Transfers wait in the scheduler queue for a slot without blocking a thread
+     */
+    @Override
+    public <T> Future<T> background(final BackgroundAction<T> action) {
+        return this.background(action, new TransferBackgroundExecutor());
     }
 
     @Override
@@ -668,12 +678,19 @@ public final class TransferController extends WindowController implements Transf
         }
     }
 
+    /**
+     * @return True if transfer is running or waiting in queue for a slot
+     */
+    private boolean isActive(final Transfer transfer) {
+        return transfer.isRunning() || TransferSchedulerFactory.get().isQueued(transfer);
+    }
+
     @Action
     public void stopButtonClicked(final ID sender) {
         final NSIndexSet selected = transferTable.selectedRowIndexes();
         for(NSUInteger index = selected.firstIndex(); !index.equals(NSIndexSet.NSNotFound); index = selected.indexGreaterThanIndex(index)) {
             final Transfer transfer = transferTableModel.getSource().get(index.intValue());
-            if(transfer.isRunning()) {
+            if(this.isActive(transfer)) {
                 // Find matching background task
                 for(BackgroundAction action : registry.toArray(new BackgroundAction[registry.size()])) {
                     if(action instanceof TransferBackgroundAction) {
@@ -691,7 +708,7 @@ public final class TransferController extends WindowController implements Transf
     public void stopAllButtonClicked(final ID sender) {
         final Collection<Transfer> transfers = transferTableModel.getSource();
         for(final Transfer transfer : transfers) {
-            if(transfer.isRunning()) {
+            if(this.isActive(transfer)) {
                 // Find matching background task
                 for(BackgroundAction action : registry.toArray(new BackgroundAction[registry.size()])) {
                     if(action instanceof TransferBackgroundAction) {
@@ -711,7 +728,7 @@ public final class TransferController extends WindowController implements Transf
         for(NSUInteger index = selected.firstIndex(); !index.equals(NSIndexSet.NSNotFound); index = selected.indexGreaterThanIndex(index)) {
             final Collection<Transfer> transfers = transferTableModel.getSource();
             final Transfer transfer = transfers.get(index.intValue());
-            if(!transfer.isRunning()) {
+            if(!this.isActive(transfer)) {
                 final TransferOptions options = new TransferOptions();
                 options.resumeRequested = true;
                 options.reloadRequested = false;
@@ -726,7 +743,7 @@ public final class TransferController extends WindowController implements Transf
         for(NSUInteger index = selected.firstIndex(); !index.equals(NSIndexSet.NSNotFound); index = selected.indexGreaterThanIndex(index)) {
             final Collection<Transfer> transfers = transferTableModel.getSource();
             final Transfer transfer = transfers.get(index.intValue());
-            if(!transfer.isRunning()) {
+            if(!this.isActive(transfer)) {
                 final TransferOptions options = new TransferOptions();
                 options.resumeRequested = false;
                 options.reloadRequested = true;
@@ -766,7 +783,7 @@ public final class TransferController extends WindowController implements Transf
         final List<Transfer> remove = new ArrayList<Transfer>();
         for(NSUInteger index = selected.firstIndex(); !index.equals(NSIndexSet.NSNotFound); index = selected.indexGreaterThanIndex(index)) {
             final Transfer t = transfers.get(index.intValue() - i);
-            if(!t.isRunning()) {
+            if(!this.isActive(t)) {
                 remove.add(t);
             }
         }
@@ -786,7 +803,7 @@ public final class TransferController extends WindowController implements Transf
         final Collection<Transfer> transfers = transferTableModel.getSource();
         for(NSUInteger index = selected.firstIndex(); !index.equals(NSIndexSet.NSNotFound); index = selected.indexGreaterThanIndex(index)) {
             final Transfer transfer = transfers.get(index.intValue());
-            if(!transfer.isRunning()) {
+            if(!this.isActive(transfer)) {
                 for(TransferItem l : transfer.getRoots()) {
                     try {
                         LocalTrashFactory.get().trash(l.local);
@@ -251,6 +251,10 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 status.setNonces(overall.getNonces());
                 switch(session.getSignatureVersion()) {
                     case AWS4HMACSHA256:
+                        if(session.isUnsignedPayload()) {
+                            // Upload with single read of part relying on TLS for payload integrity
+                            break;
+                        }
                         status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
                         break;
                 }
@@ -17,17 +17,21 @@ package ch.cyberduck.core.s3;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.Credentials;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
-import ch.cyberduck.core.collections.Partition;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Versioning;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
@@ -41,7 +45,15 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 
+/**
+ * Delete keys in batches with multiple requests in flight. Failures for single keys do not abort deleting the
+ * remaining batches and the first failure is reported after all batches have completed.
+ */
 public class S3MultipleDeleteFeature implements Delete {
     private static final Logger log = Logger.getLogger(S3MultipleDeleteFeature.class);
 
@@ -54,53 +66,63 @@ public class S3MultipleDeleteFeature implements Delete {
 
     private final Versioning versioningService;
 
+    /**
+     * Number of keys in a single request
+     */
+    private final int partition;
+    /**
+     * Maximum number of requests in flight
+     */
+    private final int concurrency;
+
     public S3MultipleDeleteFeature(final S3Session session) {
         this(session, new S3DefaultMultipartService(session));
     }
 
     public S3MultipleDeleteFeature(final S3Session session, final S3MultipartService multipartService) {
+        this(session, multipartService,
+            PreferencesFactory.get().getInteger("s3.delete.multiple.partition"),
+            PreferencesFactory.get().getInteger("s3.delete.multiple.concurrency"));
+    }
+
+    public S3MultipleDeleteFeature(final S3Session session, final S3MultipartService multipartService, final int partition, final int concurrency) {
         this.session = session;
         this.multipartService = multipartService;
         this.versioningService = session.getFeature(Versioning.class);
+        this.partition = partition;
+        this.concurrency = concurrency;
     }
 
     public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) throws BackgroundException {
-        final Map<Path, List<ObjectKeyAndVersion>> map = new HashMap<Path, List<ObjectKeyAndVersion>>();
         final List<Path> containers = new ArrayList<Path>();
-        for(Path file : files.keySet()) {
-            if(containerService.isContainer(file)) {
-                containers.add(file);
-                continue;
-            }
-            callback.delete(file);
-            if(file.getType().contains(Path.Type.upload)) {
-                // In-progress multipart upload
-                try {
-                    multipartService.delete(new MultipartUpload(file.attributes().getVersionId(),
-                        containerService.getContainer(file).getName(), containerService.getKey(file)));
-                }
-                catch(NotfoundException ignored) {
-                    log.warn(String.format("Ignore failure deleting multipart upload %s", file));
+        final Pipeline pipeline = new Pipeline(prompt);
+        try {
+            for(Path file : files.keySet()) {
+                if(containerService.isContainer(file)) {
+                    containers.add(file);
+                    continue;
                 }
-            }
-            else {
-                final Path container = containerService.getContainer(file);
-                final List<ObjectKeyAndVersion> keys = new ArrayList<ObjectKeyAndVersion>();
-                // Always returning 204 even if the key does not exist. Does not return 404 for non-existing keys
-                keys.add(new ObjectKeyAndVersion(containerService.getKey(file), file.attributes().getVersionId()));
-                if(map.containsKey(container)) {
-                    map.get(container).addAll(keys);
+                callback.delete(file);
+                if(file.getType().contains(Path.Type.upload)) {
+                    // In-progress multipart upload
+                    try {
+                        multipartService.delete(new MultipartUpload(file.attributes().getVersionId(),
+                            containerService.getContainer(file).getName(), containerService.getKey(file)));
+                    }
+                    catch(NotfoundException ignored) {
+                        log.warn(String.format("Ignore failure deleting multipart upload %s", file));
+                    }
                 }
                 else {
-                    map.put(container, keys);
+                    // Always returning 204 even if the key does not exist. Does not return 404 for non-existing keys
+                    pipeline.add(containerService.getContainer(file),
+                        new ObjectKeyAndVersion(containerService.getKey(file), file.attributes().getVersionId()));
                 }
             }
+            pipeline.await();
         }
-        // Iterate over all containers and delete list of keys
-        for(Map.Entry<Path, List<ObjectKeyAndVersion>> entry : map.entrySet()) {
-            final Path container = entry.getKey();
-            final List<ObjectKeyAndVersion> keys = entry.getValue();
-            this.delete(container, keys, prompt);
+        finally {
+            pipeline.shutdown();
         }
         for(Path file : containers) {
             callback.delete(file);
@@ -124,52 +146,54 @@ public class S3MultipleDeleteFeature implements Delete {
      */
     public void delete(final Path container, final List<ObjectKeyAndVersion> keys, final PasswordCallback prompt)
         throws BackgroundException {
+        final Pipeline pipeline = new Pipeline(prompt);
         try {
-            if(versioningService != null
-                && versioningService.getConfiguration(container).isMultifactor()) {
-                final Credentials factor = versioningService.getToken(StringUtils.EMPTY, prompt);
-                final MultipleDeleteResult result = session.getClient().deleteMultipleObjectsWithMFA(container.getName(),
+            for(ObjectKeyAndVersion key : keys) {
+                pipeline.add(container, key);
+            }
+            pipeline.await();
+        }
+        finally {
+            pipeline.shutdown();
+        }
+    }
+
+    /**
+     * @return Failures for single keys
+     */
+    private List<BackgroundException> delete(final Path container, final List<ObjectKeyAndVersion> keys, final Credentials factor)
+        throws BackgroundException {
+        try {
+            final MultipleDeleteResult result;
+            if(null != factor) {
+                result = session.getClient().deleteMultipleObjectsWithMFA(container.getName(),
                     keys.toArray(new ObjectKeyAndVersion[keys.size()]),
                     factor.getUsername(),
                     factor.getPassword(),
                     // Only include errors in response
                     true);
-                if(result.hasErrors()) {
-                    for(MultipleDeleteResult.ErrorResult error : result.getErrorResults()) {
-                        if(StringUtils.equals("ObjectNotFound", error.getErrorCode())) {
-                            // Ignore failure deleting placeholder
-                            continue;
-                        }
-                        final ServiceException failure = new ServiceException();
-                        failure.setErrorCode(error.getErrorCode());
-                        failure.setErrorMessage(error.getMessage());
-                        throw new S3ExceptionMappingService().map("Cannot delete {0}", failure,
-                            new Path(container, error.getKey(), EnumSet.of(Path.Type.file)));
-                    }
-                }
             }
             else {
-                // Request contains a list of up to 1000 keys that you want to delete
-                for(List<ObjectKeyAndVersion> partition : new Partition<ObjectKeyAndVersion>(keys, PreferencesFactory.get().getInteger("s3.delete.multiple.partition"))) {
-                    final MultipleDeleteResult result = session.getClient().deleteMultipleObjects(container.getName(),
-                        partition.toArray(new ObjectKeyAndVersion[partition.size()]),
-                        // Only include errors in response
-                        true);
-                    if(result.hasErrors()) {
-                        for(MultipleDeleteResult.ErrorResult error : result.getErrorResults()) {
-                            if(StringUtils.equals("ObjectNotFound", error.getErrorCode())) {
-                                // Ignore failure deleting placeholder
-                                continue;
-                            }
-                            final ServiceException failure = new ServiceException();
-                            failure.setErrorCode(error.getErrorCode());
-                            failure.setErrorMessage(error.getMessage());
-                            throw new S3ExceptionMappingService().map("Cannot delete {0}", failure,
-                                new Path(container, error.getKey(), EnumSet.of(Path.Type.file)));
-                        }
+                result = session.getClient().deleteMultipleObjects(container.getName(),
+                    keys.toArray(new ObjectKeyAndVersion[keys.size()]),
+                    // Only include errors in response
+                    true);
+            }
+            final List<BackgroundException> failures = new ArrayList<>();
+            if(result.hasErrors()) {
+                for(MultipleDeleteResult.ErrorResult error : result.getErrorResults()) {
+                    if(StringUtils.equals("ObjectNotFound", error.getErrorCode())) {
+                        // Ignore failure deleting placeholder
+                        continue;
                     }
+                    final ServiceException failure = new ServiceException();
+                    failure.setErrorCode(error.getErrorCode());
+                    failure.setErrorMessage(error.getMessage());
+                    failures.add(new S3ExceptionMappingService().map("Cannot delete {0}", failure,
+                        new Path(container, error.getKey(), EnumSet.of(Path.Type.file))));
                 }
             }
+            return failures;
         }
         catch(ServiceException e) {
             throw new S3ExceptionMappingService().map("Cannot delete {0}", e, container);
@@ -180,4 +204,169 @@ public class S3MultipleDeleteFeature implements Delete {
     public boolean isRecursive() {
         return false;
     }
+
+    /**
+     * @return Keys to fill all requests in flight
+     */
+    @Override
+    public int getBatchSize() {
+        return partition * concurrency;
+    }
+
+    /**
+     * Collects keys by bucket and submits a request as soon as a batch is complete. Adding keys blocks while the
+     * maximum number of requests is in flight.
+     */
+    private final class Pipeline {
+        private final PasswordCallback prompt;
+
+        /**
+         * Incomplete batch by bucket
+         */
+        private final Map<Path, List<ObjectKeyAndVersion>> batches = new HashMap<>();
+        /**
+         * Keys for buckets requiring MFA are deleted with a single request and token
+         */
+        private final Map<Path, List<ObjectKeyAndVersion>> multifactor = new HashMap<>();
+        private final Map<Path, Boolean> configuration = new HashMap<>();
+        private final List<BackgroundException> failures = new ArrayList<>();
+
+        private ThreadPool pool;
+        private CompletionService<List<BackgroundException>> completion;
+        /**
+         * Requests in flight with number of keys
+         */
+        private final Map<Future<List<BackgroundException>>, Integer> pending = new HashMap<>();
+
+        private long deleted = 0L;
+        private final long timestamp = System.currentTimeMillis();
+
+        public Pipeline(final PasswordCallback prompt) {
+            this.prompt = prompt;
+        }
+
+        public void add(final Path container, final ObjectKeyAndVersion key) throws BackgroundException {
+            if(this.isMultifactor(container)) {
+                multifactor.computeIfAbsent(container, c -> new ArrayList<>()).add(key);
+                return;
+            }
+            final List<ObjectKeyAndVersion> batch = batches.computeIfAbsent(container, c -> new ArrayList<>());
+            batch.add(key);
+            if(batch.size() >= partition) {
+                batches.remove(container);
+                this.submit(container, batch);
+            }
+        }
+
+        /**
+         * Submit remaining keys and wait for all requests to complete
+         *
+         * @throws BackgroundException First failure deleting a key
+         */
+        public void await() throws BackgroundException {
+            for(Map.Entry<Path, List<ObjectKeyAndVersion>> entry : batches.entrySet()) {
+                this.submit(entry.getKey(), entry.getValue());
+            }
+            batches.clear();
+            while(!pending.isEmpty()) {
+                this.take();
+            }
+            for(Map.Entry<Path, List<ObjectKeyAndVersion>> entry : multifactor.entrySet()) {
+                final Credentials factor = versioningService.getToken(StringUtils.EMPTY, prompt);
+                failures.addAll(S3MultipleDeleteFeature.this.delete(entry.getKey(), entry.getValue(), factor));
+                deleted += entry.getValue().size();
+            }
+            multifactor.clear();
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Deleted %d keys in %d ms (%.1f keys/s) with %d failures", deleted,
+                    System.currentTimeMillis() - timestamp, this.getThroughput(), failures.size()));
+            }
+            if(!failures.isEmpty()) {
+                for(BackgroundException failure : failures) {
+                    log.warn(String.format("Failure %s deleting %s", failure, failure.getFile()));
+                }
+                throw failures.get(0);
+            }
+        }
+
+        private boolean isMultifactor(final Path container) throws BackgroundException {
+            if(null == versioningService) {
+                return false;
+            }
+            Boolean mfa = configuration.get(container);
+            if(null == mfa) {
+                mfa = versioningService.getConfiguration(container).isMultifactor();
+                configuration.put(container, mfa);
+            }
+            return mfa;
+        }
+
+        private void submit(final Path container, final List<ObjectKeyAndVersion> keys) throws BackgroundException {
+            if(null == pool) {
+                pool = ThreadPoolFactory.get(String.format("%s-delete", new AlphanumericRandomStringService().random()), concurrency);
+                completion = new ExecutorCompletionService<>(pool.executor());
+            }
+            while(pending.size() >= concurrency) {
+                this.take();
+            }
+            pending.put(completion.submit(() -> {
+                final List<BackgroundException> result = S3MultipleDeleteFeature.this.delete(container, keys, (Credentials) null);
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Deleted %d keys in %s", keys.size(), container));
+                }
+                return result;
+            }), keys.size());
+        }
+
+        /**
+         * Wait for next request to complete
+         */
+        private void take() throws BackgroundException {
+            final Future<List<BackgroundException>> future;
+            try {
+                future = completion.take();
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            final Integer keys = pending.remove(future);
+            try {
+                failures.addAll(future.get());
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            catch(ExecutionException e) {
+                if(e.getCause() instanceof BackgroundException) {
+                    throw (BackgroundException) e.getCause();
+                }
+                throw new DefaultExceptionMappingService().map(e.getCause());
+            }
+            deleted += keys;
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Deleted %d keys with %.1f keys/s", deleted, this.getThroughput()));
+            }
+        }
+
+        private double getThroughput() {
+            final long elapsed = System.currentTimeMillis() - timestamp;
+            return elapsed > 0 ? deleted * 1000d / elapsed : 0d;
+        }
+
+        /**
+         * Cancel requests not yet started after a failure and wait for requests in flight to complete
+         */
+        public void shutdown() {
+            if(null != pool) {
+                if(!pending.isEmpty()) {
+                    log.warn(String.format("Cancel %d pending requests", pending.size()));
+                    for(Future<List<BackgroundException>> future : pending.keySet()) {
+                        future.cancel(false);
+                    }
+                    pending.clear();
+                }
+                pool.shutdown(true);
+            }
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.VersioningConfiguration;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.Versioning;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+/**
+ * List all keys with prefix of directory without delimiter in a single paginated listing
+ */
+public class S3RecursiveListService implements RecursiveListService {
+
+    private final PathContainerService containerService
+        = new S3PathContainerService();
+
+    private final S3Session session;
+
+    public S3RecursiveListService(final S3Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(directory.isRoot()) {
+            // List of buckets
+            throw new UnsupportedException();
+        }
+        final VersioningConfiguration versioning = null != session.getFeature(Versioning.class) ? session.getFeature(Versioning.class).getConfiguration(
+            containerService.getContainer(directory)
+        ) : VersioningConfiguration.empty();
+        if(versioning.isEnabled()) {
+            // Previous versions only included in listing by directory
+            throw new UnsupportedException();
+        }
+        return new S3ObjectListService(session).list(directory, listener, null,
+            PreferencesFactory.get().getInteger("s3.listing.chunksize"));
+    }
+}
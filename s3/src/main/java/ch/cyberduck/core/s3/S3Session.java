@@ -29,6 +29,7 @@ import ch.cyberduck.core.LoginCallback;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.Scheme;
 import ch.cyberduck.core.UrlProvider;
 import ch.cyberduck.core.analytics.AnalyticsProvider;
@@ -128,6 +129,18 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
         this.authenticationHeaderSignatureVersion = authenticationHeaderSignatureVersion;
     }
 
+    /**
+     * @return True if the request payload is excluded from the AWS4 signature. The content is then read only once
+     * when uploading instead of an additional pass to compute the SHA-256 hash. Only used for secure connections.
+     */
+    public boolean isUnsignedPayload() {
+        switch(authenticationHeaderSignatureVersion) {
+            case AWS4HMACSHA256:
+                return host.getProtocol().isSecure() && preferences.getBoolean("s3.upload.payload.unsigned");
+        }
+        return false;
+    }
+
     /**
      * @return header prefix for general Google Storage headers: x-goog-.
      */
@@ -268,6 +281,12 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
         if(type == ListService.class) {
             return (T) new S3ListService(this);
         }
+        if(type == RecursiveListService.class) {
+            if(preferences.getBoolean("s3.listing.recursive.enable")) {
+                return (T) new S3RecursiveListService(this);
+            }
+            return null;
+        }
         if(type == Read.class) {
             return (T) new S3ReadFeature(this);
         }
@@ -59,6 +59,10 @@ public class S3SingleUploadService extends HttpUploadFeature<StorageObject, Mess
         final S3Protocol.AuthenticationHeaderSignatureVersion signatureVersion = session.getSignatureVersion();
         switch(signatureVersion) {
             case AWS4HMACSHA256:
+                if(session.isUnsignedPayload()) {
+                    // Skip reading content to compute payload hash
+                    break;
+                }
                 if(!HashAlgorithm.sha256.equals(status.getChecksum().algorithm)) {
                     // Checksum not set in upload filter
                     status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
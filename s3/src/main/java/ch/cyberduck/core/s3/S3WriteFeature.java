@@ -65,6 +65,11 @@ public class S3WriteFeature extends AbstractHttpWriteFeature<StorageObject> impl
     private final PathContainerService containerService
         = new S3PathContainerService();
 
+    /**
+     * Value for x-amz-content-sha256 header when the payload is not signed
+     */
+    public static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
     private final S3Session session;
     private final S3MultipartService multipartService;
     private final Find finder;
@@ -135,6 +140,12 @@ public class S3WriteFeature extends AbstractHttpWriteFeature<StorageObject> impl
                     break;
             }
         }
+        if(!HashAlgorithm.sha256.equals(checksum.algorithm)) {
+            if(session.isUnsignedPayload()) {
+                // Payload not included in signature to avoid reading content twice
+                object.addMetadata("x-amz-content-sha256", UNSIGNED_PAYLOAD);
+            }
+        }
         if(StringUtils.isNotBlank(status.getStorageClass())) {
             if(!S3Object.STORAGE_CLASS_STANDARD.equals(status.getStorageClass())) {
                 // The default setting is STANDARD.
@@ -199,6 +210,10 @@ public class S3WriteFeature extends AbstractHttpWriteFeature<StorageObject> impl
                 return new DisabledChecksumCompute();
             }
         }
+        if(session.isUnsignedPayload()) {
+            // Do not calculate checksum when payload is not signed
+            return new DisabledChecksumCompute();
+        }
         return ChecksumComputeFactory.get(HashAlgorithm.sha256);
     }
 }
@@ -12,13 +12,16 @@ import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.DisabledStreamListener;
 import ch.cyberduck.core.kms.KMSEncryptionFeature;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.test.IntegrationTest;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.input.ProxyInputStream;
 import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.text.RandomStringGenerator;
+import org.apache.log4j.Logger;
 import org.jets3t.service.model.S3Object;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -31,11 +34,13 @@ import java.util.EnumSet;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.*;
 
 @Category(IntegrationTest.class)
 public class S3MultipartUploadServiceTest extends AbstractS3Test {
+    private static final Logger log = Logger.getLogger(S3MultipartUploadServiceTest.class);
 
     @Test
     public void testUploadSinglePart() throws Exception {
@@ -274,4 +279,54 @@ public class S3MultipartUploadServiceTest extends AbstractS3Test {
         new S3DefaultDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
         local.delete();
     }
+
+    @Test
+    public void testMultiplePartsUnsignedPayloadBytesRead() throws Exception {
+        final Path container = new Path("test-eu-central-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final String name = UUID.randomUUID().toString();
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), name);
+        final int length = 2 * 5242880 + 1;
+        final byte[] content = RandomUtils.nextBytes(length);
+        IOUtils.write(content, local.getOutputStream(false));
+        final AtomicLong read = new AtomicLong();
+        final Local counting = new Local(System.getProperty("java.io.tmpdir"), name) {
+            @Override
+            public InputStream getInputStream() throws AccessDeniedException {
+                return new ProxyInputStream(super.getInputStream()) {
+                    @Override
+                    protected void afterRead(final int n) {
+                        if(n > 0) {
+                            read.addAndGet(n);
+                        }
+                    }
+                };
+            }
+        };
+        for(boolean unsigned : new boolean[]{false, true}) {
+            PreferencesFactory.get().setProperty("s3.upload.payload.unsigned", unsigned);
+            try {
+                read.set(0L);
+                final Path test = new Path(container, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+                final TransferStatus status = new TransferStatus();
+                status.setLength(content.length);
+                new S3MultipartUploadService(session, new S3WriteFeature(session, new S3DisabledMultipartService()), 5242880L, 5).upload(
+                    test, counting, new BandwidthThrottle(BandwidthThrottle.UNLIMITED), new DisabledStreamListener(), status, new DisabledConnectionCallback());
+                assertTrue(status.isComplete());
+                assertEquals(content.length, new S3AttributesFinderFeature(session).find(test).getSize());
+                final byte[] buffer = new byte[content.length];
+                final InputStream in = new S3ReadFeature(session).read(test, new TransferStatus(), new DisabledConnectionCallback());
+                IOUtils.readFully(in, buffer);
+                in.close();
+                assertArrayEquals(content, buffer);
+                log.info(String.format("Read %d bytes from disk for %d bytes uploaded (%.2f) with unsigned payload %s",
+                    read.get(), content.length, (double) read.get() / content.length, unsigned));
+                assertEquals(unsigned ? content.length : 2L * content.length, read.get());
+                new S3DefaultDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
+            }
+            finally {
+                PreferencesFactory.get().deleteProperty("s3.upload.payload.unsigned");
+            }
+        }
+        local.delete();
+    }
 }
@@ -108,6 +108,21 @@ public class S3MultipleDeleteFeatureTest extends AbstractS3Test {
         new S3MultipleDeleteFeature(session).delete(container, keys, new DisabledLoginCallback());
     }
 
+    @Test
+    public void testDeleteConcurrentBatches() throws Exception {
+        final Path container = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final List<Path> files = new ArrayList<Path>();
+        for(int i = 0; i < 25; i++) {
+            final Path test = new Path(container, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+            new S3TouchFeature(session).touch(test, new TransferStatus());
+            files.add(test);
+        }
+        new S3MultipleDeleteFeature(session, new S3DefaultMultipartService(session), 2, 4).delete(files, new DisabledLoginCallback(), new Delete.DisabledCallback());
+        for(Path test : files) {
+            assertFalse(new S3FindFeature(session).find(test));
+        }
+    }
+
     @Test(expected = NotfoundException.class)
     public void testDeleteNotFoundBucket() throws Exception {
         final Path container = new Path(UUID.randomUUID().toString(), EnumSet.of(Path.Type.directory, Path.Type.volume));
@@ -0,0 +1,85 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DisabledHostKeyCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.DisabledPasswordCallback;
+import ch.cyberduck.core.DisabledPasswordStore;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.DisabledTranscriptListener;
+import ch.cyberduck.core.LoginConnectionService;
+import ch.cyberduck.core.NullFilter;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.TranscriptListener;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.pool.StatelessSessionPool;
+import ch.cyberduck.core.s3.AbstractS3Test;
+import ch.cyberduck.core.s3.S3DirectoryFeature;
+import ch.cyberduck.core.s3.S3DisabledMultipartService;
+import ch.cyberduck.core.s3.S3FindFeature;
+import ch.cyberduck.core.s3.S3TouchFeature;
+import ch.cyberduck.core.s3.S3WriteFeature;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@Category(IntegrationTest.class)
+public class ConcurrentDeleteWorkerTest extends AbstractS3Test {
+
+    @Test
+    public void testDeleteMultipleRequests() throws Exception {
+        final Path container = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final Path directory = new S3DirectoryFeature(session, new S3WriteFeature(session, new S3DisabledMultipartService())).mkdir(
+            new Path(container, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        for(int i = 0; i < 1010; i++) {
+            new S3TouchFeature(session).touch(new Path(directory, String.format("t%d", i), EnumSet.of(Path.Type.file)), new TransferStatus());
+        }
+        final AtomicInteger requests = new AtomicInteger();
+        session.withListener(new TranscriptListener() {
+            @Override
+            public void log(final Type request, final String message) {
+                switch(request) {
+                    case request:
+                        if(message.startsWith("POST") && message.contains("?delete")) {
+                            requests.incrementAndGet();
+                        }
+                }
+            }
+        });
+        final SessionPool pool = new StatelessSessionPool(new LoginConnectionService(new DisabledLoginCallback(), new DisabledHostKeyCallback(),
+            new DisabledPasswordStore(), new DisabledProgressListener()), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final ConcurrentDeleteWorker worker = new ConcurrentDeleteWorker(pool, new DisabledLoginCallback(), Collections.singletonList(directory),
+            PathCache.empty(), new NullFilter<>(), new DisabledProgressListener(), 5, 100);
+        assertEquals(1011, worker.run(session).size());
+        assertFalse(new S3FindFeature(session).find(directory));
+        // Full requests of 1000 keys for files found and a single request for the placeholder deleted last
+        assertEquals(3, requests.get());
+    }
+}
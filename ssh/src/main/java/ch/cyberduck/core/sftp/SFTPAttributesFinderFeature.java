@@ -81,7 +81,7 @@ public class SFTPAttributesFinderFeature implements AttributesFinder {
                 attributes.setSize(stat.getSize());
         }
         if(0 != stat.getMode().getPermissionsMask()) {
-            attributes.setPermission(new Permission(Integer.toString(stat.getMode().getPermissionsMask(), 8)));
+            attributes.setPermission(Permission.intern(new Permission(Integer.toString(stat.getMode().getPermissionsMask(), 8))));
         }
         if(0 != stat.getUID()) {
             attributes.setOwner(String.valueOf(stat.getUID()));
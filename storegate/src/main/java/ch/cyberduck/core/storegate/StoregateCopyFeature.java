@@ -45,6 +45,7 @@ public class StoregateCopyFeature implements Copy {
                 .mode(CopyFileRequest.ModeEnum.NUMBER_1); // Overwrite
             final File file = new FilesApi(session.getClient()).filesCopy(
                 fileid.getFileid(source, new DisabledListProgressListener()), copy);
+            fileid.cache(target, file.getId());
             return new Path(target.getParent(), target.getName(), target.getType(),
                 new StoregateAttributesFinderFeature(session, fileid).toAttributes(file));
         }
@@ -62,6 +62,7 @@ public class StoregateDeleteFeature implements Delete {
                 try {
                     switch(response.getStatusLine().getStatusCode()) {
                         case HttpStatus.SC_NO_CONTENT:
+                            fileid.cache(file.getKey(), null);
                             break;
                         default:
                             throw new StoregateExceptionMappingService().map(new ApiException(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase()));
@@ -45,6 +45,7 @@ public class StoregateDirectoryFeature implements Directory<VersionId> {
             request.setName(folder.getName());
             request.setParentID(fileid.getFileid(folder.getParent(), new DisabledListProgressListener()));
             final File f = files.filesCreateFolder(request);
+            fileid.cache(folder, f.getId());
             return new Path(folder.getParent(), folder.getName(), folder.getType(),
                 new StoregateAttributesFinderFeature(session, fileid).toAttributes(f));
         }
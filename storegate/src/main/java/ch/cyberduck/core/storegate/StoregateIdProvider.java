@@ -22,7 +22,7 @@ import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathRelativizer;
 import ch.cyberduck.core.URIEncoder;
 import ch.cyberduck.core.exception.BackgroundException;
-import ch.cyberduck.core.features.IdProvider;
+import ch.cyberduck.core.shared.CachingFileidProvider;
 import ch.cyberduck.core.storegate.io.swagger.client.ApiException;
 import ch.cyberduck.core.storegate.io.swagger.client.api.FilesApi;
 import ch.cyberduck.core.storegate.io.swagger.client.model.RootFolder;
@@ -30,33 +30,43 @@ import ch.cyberduck.core.storegate.io.swagger.client.model.RootFolder;
 import java.util.HashMap;
 import java.util.Map;
 
-public class StoregateIdProvider implements IdProvider {
+public class StoregateIdProvider extends CachingFileidProvider {
 
     public static final String KEY_NODE_ID = "node_id";
 
     private final StoregateSession session;
 
     public StoregateIdProvider(final StoregateSession session) {
+        super(session.getHost());
         this.session = session;
     }
 
     @Override
     public String getFileid(final Path file, final ListProgressListener listener) throws BackgroundException {
+        if(file.attributes().getCustom().containsKey(KEY_NODE_ID)) {
+            return file.attributes().getCustom().get(KEY_NODE_ID);
+        }
+        return super.getFileid(file, listener);
+    }
+
+    @Override
+    protected String resolve(final Path file, final ListProgressListener listener) throws BackgroundException {
         try {
-            if(file.attributes().getCustom().containsKey(KEY_NODE_ID)) {
-                return file.attributes().getCustom().get(KEY_NODE_ID);
-            }
-            final String id = new FilesApi(session.getClient()).filesGet_1(URIEncoder.encode(this.getPrefixedPath(file))).getId();
-            final Map<String, String> custom = new HashMap<>(file.attributes().getCustom());
-            custom.put(KEY_NODE_ID, id);
-            file.attributes().setCustom(custom);
-            return id;
+            return this.set(file, new FilesApi(session.getClient()).filesGet_1(URIEncoder.encode(this.getPrefixedPath(file))).getId());
         }
         catch(ApiException e) {
             throw new StoregateExceptionMappingService().map("Failure to read attributes of {0}", e, file);
         }
     }
 
+    @Override
+    protected String set(final Path file, final String id) {
+        final Map<String, String> custom = new HashMap<>(file.attributes().getCustom());
+        custom.put(KEY_NODE_ID, id);
+        file.attributes().setCustom(custom);
+        return id;
+    }
+
     @Override
     public StoregateIdProvider withCache(final Cache<Path> cache) {
         return this;
@@ -84,6 +84,8 @@ public class StoregateListService implements ListService {
                             EnumSet.of(Path.Type.directory) :
                             EnumSet.of(Path.Type.file);
                         final Path p = new Path(directory, f.getName(), type, attrs);
+                        // Refresh cached file ID
+                        fileid.cache(p, f.getId());
                         children.add(p);
                         listener.chunk(directory, children);
                     }
@@ -72,6 +72,7 @@ public class StoregateMoveFeature implements Move {
             try {
                 switch(response.getStatusLine().getStatusCode()) {
                     case HttpStatus.SC_NO_CONTENT:
+                        fileid.cache(file, null);
                         // Copy original file attributes
                         return new Path(renamed.getParent(), renamed.getName(), renamed.getType(),
                             new PathAttributes(renamed.attributes()));
@@ -193,7 +193,7 @@ public class StoregateMultipartWriteFeature implements MultipartWrite<VersionId>
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
             try {
-                final byte[] content = Arrays.copyOfRange(b, off, len);
+                final byte[] content = Arrays.copyOfRange(b, off, off + len);
                 new DefaultRetryCallable<Void>(session.getHost(), new BackgroundExceptionCallable<Void>() {
                     @Override
                     public Void call() throws BackgroundException {
@@ -221,6 +221,7 @@ public class StoregateMultipartWriteFeature implements MultipartWrite<VersionId>
                                         final FileMetadata result = new JSON().getContext(FileMetadata.class).readValue(new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8),
                                             FileMetadata.class);
                                         overall.setVersion(new VersionId(result.getId()));
+                                        fileid.cache(file, result.getId());
                                     case HttpStatus.SC_NO_CONTENT:
                                         // Upload complete
                                         offset += content.length;
@@ -274,6 +275,7 @@ public class StoregateMultipartWriteFeature implements MultipartWrite<VersionId>
                                 final FileMetadata result = new JSON().getContext(FileMetadata.class).readValue(new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8),
                                     FileMetadata.class);
                                 overall.setVersion(new VersionId(result.getId()));
+                                fileid.cache(file, result.getId());
                             case HttpStatus.SC_NO_CONTENT:
                                 break;
                             default:
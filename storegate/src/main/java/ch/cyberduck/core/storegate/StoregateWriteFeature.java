@@ -182,6 +182,7 @@ public class StoregateWriteFeature extends AbstractHttpWriteFeature<VersionId> {
                                         FileMetadata.class);
                                     final VersionId version = new VersionId(result.getId());
                                     status.setVersion(version);
+                                    fileid.cache(file, result.getId());
                                     return version;
                                 default:
                                     throw new StoregateExceptionMappingService().map(new ApiException(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase(), Collections.emptyMap(),
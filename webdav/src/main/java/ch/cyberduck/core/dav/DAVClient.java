@@ -32,12 +32,14 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.log4j.Logger;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineImpl;
@@ -45,6 +47,8 @@ import com.github.sardine.impl.handler.MultiStatusResponseHandler;
 import com.github.sardine.impl.handler.VoidResponseHandler;
 import com.github.sardine.impl.methods.HttpPropFind;
 import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.ObjectFactory;
+import com.github.sardine.model.Prop;
 import com.github.sardine.model.Propfind;
 import com.github.sardine.model.Response;
 import com.github.sardine.util.SardineUtil;
@@ -61,24 +65,23 @@ public class DAVClient extends SardineImpl {
 
     @Override
     public <T> T execute(final HttpRequestBase request, final ResponseHandler<T> responseHandler) throws IOException {
-        if(StringUtils.isNotBlank(request.getURI().getRawQuery())) {
-            request.setURI(URI.create(String.format("%s%s?%s", uri, request.getURI().getRawPath(), request.getURI().getRawQuery())));
-        }
-        else {
-            request.setURI(URI.create(String.format("%s%s", uri, request.getURI().getRawPath())));
-        }
+        this.resolve(request);
         return super.execute(request, responseHandler);
     }
 
     @Override
     protected HttpResponse execute(final HttpRequestBase request) throws IOException {
+        this.resolve(request);
+        return super.execute(request);
+    }
+
+    private void resolve(final HttpRequestBase request) {
         if(StringUtils.isNotBlank(request.getURI().getRawQuery())) {
             request.setURI(URI.create(String.format("%s%s?%s", uri, request.getURI().getRawPath(), request.getURI().getRawQuery())));
         }
         else {
             request.setURI(URI.create(String.format("%s%s", uri, request.getURI().getRawPath())));
         }
-        return super.execute(request);
     }
 
     @Override
@@ -86,7 +89,62 @@ public class DAVClient extends SardineImpl {
         HttpPropFind entity = new HttpPropFind(url);
         entity.setDepth(depth < 0 ? "infinity" : Integer.toString(depth));
         entity.setEntity(new StringEntity(SardineUtil.toXml(body), StandardCharsets.UTF_8));
-        Multistatus multistatus = this.execute(entity, PreferencesFactory.get().getBoolean("webdav.list.handler.sax") ? new SaxPropFindResponseHandler() : new MultiStatusResponseHandler());
+        return this.toResources(this.execute(entity, PreferencesFactory.get().getBoolean("webdav.list.handler.sax") ? new SaxPropFindResponseHandler() : new MultiStatusResponseHandler()));
+    }
+
+    /**
+     * PROPFIND with depth infinity passing every response to the callback when parsed without waiting for the
+     * complete multistatus response
+     *
+     * @param url      Collection
+     * @param props    Custom properties to request in addition to the default properties
+     * @param callback Receives every response parsed
+     */
+    public void propfind(final String url, final Set<QName> props, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        HttpPropFind entity = new HttpPropFind(url);
+        entity.setDepth("infinity");
+        entity.setEntity(new StringEntity(SardineUtil.toXml(this.toPropfind(props)), StandardCharsets.UTF_8));
+        this.execute(entity, new SaxPropFindResponseHandler(callback));
+    }
+
+    /**
+     * List with a separate HTTP context to allow concurrent requests with this client. Credentials and authentication
+     * cache are inherited from the client context.
+     *
+     * @param url   Collection
+     * @param depth Depth header
+     * @param props Custom properties to request in addition to the default properties
+     */
+    public List<DavResource> list(final String url, final int depth, final Set<QName> props, final HttpClientContext context) throws IOException {
+        HttpPropFind entity = new HttpPropFind(url);
+        entity.setDepth(Integer.toString(depth));
+        entity.setEntity(new StringEntity(SardineUtil.toXml(this.toPropfind(props)), StandardCharsets.UTF_8));
+        this.resolve(entity);
+        return this.toResources(this.execute(context, entity, PreferencesFactory.get().getBoolean("webdav.list.handler.sax") ? new SaxPropFindResponseHandler() : new MultiStatusResponseHandler()));
+    }
+
+    /**
+     * Same default properties as requested with list
+     */
+    private Propfind toPropfind(final Set<QName> props) {
+        final Propfind body = new Propfind();
+        final Prop prop = new Prop();
+        final ObjectFactory factory = new ObjectFactory();
+        prop.setGetcontentlength(factory.createGetcontentlength());
+        prop.setGetlastmodified(factory.createGetlastmodified());
+        prop.setCreationdate(factory.createCreationdate());
+        prop.setDisplayname(factory.createDisplayname());
+        prop.setGetcontenttype(factory.createGetcontenttype());
+        prop.setResourcetype(factory.createResourcetype());
+        prop.setGetetag(factory.createGetetag());
+        for(QName property : props) {
+            prop.getAny().add(SardineUtil.createElement(property));
+        }
+        body.setProp(prop);
+        return body;
+    }
+
+    private List<DavResource> toResources(final Multistatus multistatus) {
         List<Response> responses = multistatus.getResponse();
         List<DavResource> resources = new ArrayList<DavResource>(responses.size());
         for(Response response : responses) {
@@ -30,9 +30,11 @@ import ch.cyberduck.core.http.HttpExceptionMappingService;
 
 import org.apache.log4j.Logger;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -42,6 +44,14 @@ import com.github.sardine.impl.SardineException;
 public class DAVListService implements ListService {
     private static final Logger log = Logger.getLogger(DAVListService.class);
 
+    /**
+     * Custom properties requested in listings
+     */
+    static final Set<QName> PROPERTIES = Stream.of(
+        DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
+        DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
+        collect(Collectors.toSet());
+
     private final DAVSession session;
     private final DAVAttributesFinderFeature attributes;
 
@@ -86,11 +96,7 @@ public class DAVListService implements ListService {
     }
 
     protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
-            Stream.of(
-                DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
-                DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                collect(Collectors.toSet()));
+        return session.getClient().list(new DAVPathEncoder().encode(directory), 1, PROPERTIES);
     }
 
     @Override
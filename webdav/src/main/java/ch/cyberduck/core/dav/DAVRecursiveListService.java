@@ -0,0 +1,283 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.log4j.Logger;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.impl.SardineException;
+import com.github.sardine.model.Response;
+
+/**
+ * List all files below a collection with a single PROPFIND request with depth infinity. Responses are passed to the
+ * listener in chunks while the multistatus response is parsed. When the server refuses depth infinity or the request fails
+ * with a timeout or connection reset, collections are listed with depth 1 requests running concurrently instead.
+ */
+public class DAVRecursiveListService implements RecursiveListService {
+    private static final Logger log = Logger.getLogger(DAVRecursiveListService.class);
+
+    private final DAVSession session;
+    private final DAVAttributesFinderFeature attributes;
+    private final int concurrency;
+
+    /**
+     * Server refused PROPFIND with depth infinity before
+     */
+    private volatile boolean refused;
+
+    public DAVRecursiveListService(final DAVSession session, final DAVAttributesFinderFeature attributes) {
+        this(session, attributes, PreferencesFactory.get().getInteger("webdav.listing.recursive.concurrency"));
+    }
+
+    /**
+     * @param concurrency Number of concurrent depth 1 requests when depth infinity is not supported
+     */
+    public DAVRecursiveListService(final DAVSession session, final DAVAttributesFinderFeature attributes, final int concurrency) {
+        this.session = session;
+        this.attributes = attributes;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(!refused) {
+            try {
+                return this.infinity(directory, listener);
+            }
+            catch(SardineException e) {
+                switch(e.getStatusCode()) {
+                    case HttpStatus.SC_BAD_REQUEST:
+                    case HttpStatus.SC_FORBIDDEN:
+                    case HttpStatus.SC_NOT_IMPLEMENTED:
+                        // Finite depth precondition
+                        log.warn(String.format("PROPFIND with depth infinity refused with %s. List with depth 1 instead.", e.getResponsePhrase()));
+                        refused = true;
+                        break;
+                    default:
+                        throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
+                }
+            }
+            catch(IOException e) {
+                // Connection timeout or reset while the server computes or sends the complete response
+                log.warn(String.format("PROPFIND with depth infinity failed with %s. List with depth 1 instead.", e.getMessage()));
+                refused = true;
+            }
+        }
+        return this.crawl(directory, listener);
+    }
+
+    private AttributedList<Path> infinity(final Path directory, final ListProgressListener listener) throws IOException, BackgroundException {
+        final StreamingListing listing = new StreamingListing(directory, listener);
+        try {
+            session.getClient().propfind(new DAVPathEncoder().encode(directory), DAVListService.PROPERTIES, listing);
+        }
+        catch(IOException e) {
+            if(listing.failure != null) {
+                throw listing.failure;
+            }
+            throw e;
+        }
+        listing.flush();
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Listed %d files in %s with depth infinity", listing.children.size(), directory));
+        }
+        return listing.children;
+    }
+
+    /**
+     * List every collection with depth 1 on concurrent connections
+     */
+    private AttributedList<Path> crawl(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final ThreadPool pool = ThreadPoolFactory.get(String.format("%s-propfind", new AlphanumericRandomStringService().random()), concurrency);
+        try {
+            final CompletionService<AttributedList<Path>> completion = new ExecutorCompletionService<>(pool.executor());
+            final AttributedList<Path> children = new AttributedList<>();
+            this.submit(completion, directory);
+            int outstanding = 1;
+            while(outstanding > 0) {
+                final AttributedList<Path> list;
+                try {
+                    list = completion.take().get();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    if(e.getCause() instanceof BackgroundException) {
+                        throw (BackgroundException) e.getCause();
+                    }
+                    throw new DefaultExceptionMappingService().map(e.getCause());
+                }
+                outstanding--;
+                for(Path file : list) {
+                    children.add(file);
+                    if(file.isDirectory()) {
+                        this.submit(completion, file);
+                        outstanding++;
+                    }
+                }
+                listener.chunk(directory, children);
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Listed %d files in %s with depth 1", children.size(), directory));
+            }
+            return children;
+        }
+        finally {
+            pool.shutdown(false);
+        }
+    }
+
+    private void submit(final CompletionService<AttributedList<Path>> completion, final Path directory) {
+        completion.submit(() -> new DAVListService(session, attributes) {
+            @Override
+            protected List<DavResource> list(final Path directory) throws IOException {
+                // Separate context for concurrent requests
+                return session.getClient().list(new DAVPathEncoder().encode(directory), 1, PROPERTIES,
+                    HttpClientContext.adapt(new BasicHttpContext(session.getClient().context())));
+            }
+        }.list(directory, new DisabledListProgressListener()));
+    }
+
+    /**
+     * Add files to listing for every response parsed
+     */
+    private final class StreamingListing implements SaxPropFindResponseHandler.Callback {
+        private final Path directory;
+        private final ListProgressListener listener;
+        private final AttributedList<Path> children = new AttributedList<>();
+        /**
+         * Collections found by absolute path to reuse as parent
+         */
+        private final Map<String, Path> parents = new HashMap<>();
+
+        /**
+         * Number of files and milliseconds elapsed before notifying listener
+         */
+        private final int size = PreferencesFactory.get().getInteger("webdav.listing.chunksize");
+        private final long interval = PreferencesFactory.get().getLong("webdav.listing.chunksize.interval");
+        /**
+         * Number of files in listing passed to listener
+         */
+        private int notified;
+        private long timestamp = System.currentTimeMillis();
+
+        private BackgroundException failure;
+
+        public StreamingListing(final Path directory, final ListProgressListener listener) {
+            this.directory = directory;
+            this.listener = listener;
+            this.parents.put(directory.getAbsolute(), directory);
+        }
+
+        @Override
+        public void response(final Response response) throws SAXException {
+            final DavResource resource;
+            try {
+                resource = new DavResource(response);
+            }
+            catch(URISyntaxException e) {
+                log.warn(String.format("Ignore resource with invalid URI %s", response.getHref()));
+                return;
+            }
+            // Try to parse as RFC 2396
+            final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
+            if(href.equals(directory.getAbsolute())) {
+                // Do not include self
+                if(!resource.isDirectory()) {
+                    this.abort(new NotfoundException(directory.getAbsolute()));
+                }
+                return;
+            }
+            if(!directory.isRoot() && !href.startsWith(directory.getAbsolute() + Path.DELIMITER)) {
+                log.warn(String.format("Ignore resource %s outside of %s", href, directory));
+                return;
+            }
+            final Path file = new Path(this.parent(PathNormalizer.parent(href, Path.DELIMITER)), PathNormalizer.name(href),
+                resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attributes.toAttributes(resource));
+            if(file.isDirectory()) {
+                parents.put(file.getAbsolute(), file);
+            }
+            children.add(file);
+            if(children.size() - notified >= size || System.currentTimeMillis() - timestamp >= interval) {
+                try {
+                    this.flush();
+                }
+                catch(BackgroundException e) {
+                    this.abort(e);
+                }
+            }
+        }
+
+        /**
+         * Pass files not yet notified to listener
+         */
+        public void flush() throws BackgroundException {
+            if(children.size() == notified) {
+                return;
+            }
+            notified = children.size();
+            timestamp = System.currentTimeMillis();
+            listener.chunk(directory, children);
+        }
+
+        private Path parent(final String absolute) {
+            final Path parent = parents.get(absolute);
+            if(null == parent) {
+                // Response for collection not yet received
+                final Path placeholder = new Path(absolute, EnumSet.of(Path.Type.directory));
+                parents.put(absolute, placeholder);
+                return placeholder;
+            }
+            return parent;
+        }
+
+        private void abort(final BackgroundException e) throws SAXException {
+            failure = e;
+            throw new SAXException(e);
+        }
+    }
+}
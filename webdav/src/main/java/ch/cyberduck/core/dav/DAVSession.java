@@ -30,6 +30,7 @@ import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.LoginCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProtocolFactory;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.Scheme;
 import ch.cyberduck.core.dav.microsoft.MicrosoftIISDAVAttributesFinderFeature;
 import ch.cyberduck.core.dav.microsoft.MicrosoftIISDAVFindFeature;
@@ -92,6 +93,7 @@ public class DAVSession extends HttpSession<DAVClient> {
         = PreferencesFactory.get();
 
     private ListService list = new DAVListService(this, new DAVAttributesFinderFeature(this));
+    private RecursiveListService recursive = new DAVRecursiveListService(this, new DAVAttributesFinderFeature(this));
     private Read read = new DAVReadFeature(this);
     private Timestamp timestamp = new DAVTimestampFeature(this);
     private AttributesFinder attributes = new DAVAttributesFinderFeature(this);
@@ -195,6 +197,8 @@ public class DAVSession extends HttpSession<DAVClient> {
                                 log.debug("Microsoft-IIS backend detected");
                             }
                             list = new MicrosoftIISDAVListService(DAVSession.this, new MicrosoftIISDAVAttributesFinderFeature(DAVSession.this));
+                            // Depth infinity not supported
+                            recursive = null;
                             timestamp = new MicrosoftIISDAVTimestampFeature(DAVSession.this);
                             attributes = new MicrosoftIISDAVAttributesFinderFeature(DAVSession.this);
                             if(preferences.getBoolean("webdav.microsoftiis.header.translate")) {
@@ -316,6 +320,12 @@ public class DAVSession extends HttpSession<DAVClient> {
         if(type == ListService.class) {
             return (T) list;
         }
+        if(type == RecursiveListService.class) {
+            if(preferences.getBoolean("webdav.listing.recursive.enable")) {
+                return (T) recursive;
+            }
+            return null;
+        }
         if(type == Directory.class) {
             return (T) new DAVDirectoryFeature(this);
         }
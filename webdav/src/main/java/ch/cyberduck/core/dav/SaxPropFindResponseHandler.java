@@ -40,6 +40,19 @@ import com.github.sardine.util.SardineUtil;
 public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
     private static final Logger log = Logger.getLogger(SaxPropFindResponseHandler.class);
 
+    private final Callback callback;
+
+    public SaxPropFindResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * @param callback Receives every response when parsed instead of collecting all responses in the multistatus
+     */
+    public SaxPropFindResponseHandler(final Callback callback) {
+        this.callback = callback;
+    }
+
     @Override
     protected Multistatus getMultistatus(final InputStream stream) throws IOException {
         final SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -47,7 +60,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         try {
             final SAXParser saxParser = spf.newSAXParser();
             final XMLReader xmlReader = saxParser.getXMLReader();
-            final SaxHandler handler = new SaxHandler();
+            final SaxHandler handler = new SaxHandler(callback);
             xmlReader.setContentHandler(handler);
             xmlReader.setErrorHandler(new LoggingErrorHandler());
             xmlReader.parse(new InputSource(stream));
@@ -58,8 +71,21 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
     }
 
+    /**
+     * Streaming of responses from large multistatus results
+     */
+    public interface Callback {
+        /**
+         * @param response Parsed response element
+         * @throws SAXException Abort parsing
+         */
+        void response(Response response) throws SAXException;
+    }
+
     private static final class SaxHandler extends DefaultHandler {
 
+        private final Callback callback;
+
         private Multistatus multistatus;
         private Response response;
         private Propstat propstat;
@@ -72,6 +98,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         private final StringBuilder text = new StringBuilder();
         private final Element root = SardineUtil.createElement(SardineUtil.createQNameWithCustomNamespace("root"));
 
+        public SaxHandler(final Callback callback) {
+            this.callback = callback;
+        }
+
         @Override
         public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
             switch(localName) {
@@ -80,7 +110,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
                 case "response":
                     response = new Response();
-                    if(multistatus != null) {
+                    if(multistatus != null && callback == null) {
                         multistatus.getResponse().add(response);
                     }
                     break;
@@ -134,7 +164,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
 
         @Override
-        public void endElement(final String uri, final String localName, final String qName) {
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if(callback != null && response != null && "response".equals(localName)) {
+                callback.response(response);
+            }
             if(StringUtils.isBlank(text.toString())) {
                 return;
             }
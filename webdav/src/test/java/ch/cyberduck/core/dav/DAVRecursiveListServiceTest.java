@@ -0,0 +1,66 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ListCanceledException;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.shared.DefaultHomeFinderService;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class DAVRecursiveListServiceTest extends AbstractDAVTest {
+
+    @Test
+    public void testList() throws Exception {
+        final Path directory = new DAVDirectoryFeature(session).mkdir(new Path(new DefaultHomeFinderService(session).find(),
+            UUID.randomUUID().toString(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path folder = new DAVDirectoryFeature(session).mkdir(new Path(directory,
+            UUID.randomUUID().toString(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path file = new DAVTouchFeature(session).touch(new Path(folder,
+            UUID.randomUUID().toString(), EnumSet.of(Path.Type.file)), new TransferStatus());
+        final AtomicInteger chunks = new AtomicInteger();
+        final AttributedList<Path> list = new DAVRecursiveListService(session, new DAVAttributesFinderFeature(session), 2).list(directory,
+            new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path parent, final AttributedList<Path> list) throws ListCanceledException {
+                    assertEquals(directory, parent);
+                    chunks.incrementAndGet();
+                }
+            });
+        assertEquals(2, list.size());
+        assertTrue(list.contains(folder));
+        assertTrue(list.contains(file));
+        assertEquals(folder, list.get(file).getParent());
+        assertNotEquals(0, chunks.get());
+        new DAVDeleteFeature(session).delete(Collections.singletonList(directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+}
@@ -0,0 +1,88 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.Response;
+
+import static org.junit.Assert.*;
+
+public class SaxPropFindResponseHandlerTest {
+
+    private static final String MULTISTATUS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+        "<d:multistatus xmlns:d=\"DAV:\">\n" +
+        "  <d:response>\n" +
+        "    <d:href>/d/</d:href>\n" +
+        "    <d:propstat>\n" +
+        "      <d:prop><d:resourcetype><d:collection/></d:resourcetype></d:prop>\n" +
+        "      <d:status>HTTP/1.1 200 OK</d:status>\n" +
+        "    </d:propstat>\n" +
+        "  </d:response>\n" +
+        "  <d:response>\n" +
+        "    <d:href>/d/a/</d:href>\n" +
+        "    <d:propstat>\n" +
+        "      <d:prop><d:resourcetype><d:collection/></d:resourcetype></d:prop>\n" +
+        "      <d:status>HTTP/1.1 200 OK</d:status>\n" +
+        "    </d:propstat>\n" +
+        "  </d:response>\n" +
+        "  <d:response>\n" +
+        "    <d:href>/d/a/f</d:href>\n" +
+        "    <d:propstat>\n" +
+        "      <d:prop><d:getcontentlength>3</d:getcontentlength><d:resourcetype/></d:prop>\n" +
+        "      <d:status>HTTP/1.1 200 OK</d:status>\n" +
+        "    </d:propstat>\n" +
+        "  </d:response>\n" +
+        "</d:multistatus>";
+
+    @Test
+    public void testMultistatus() throws Exception {
+        final Multistatus multistatus = new SaxPropFindResponseHandler().getMultistatus(
+            new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, multistatus.getResponse().size());
+    }
+
+    @Test
+    public void testCallback() throws Exception {
+        final List<Response> responses = new ArrayList<>();
+        final Multistatus multistatus = new SaxPropFindResponseHandler(responses::add).getMultistatus(
+            new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+        // Not collected
+        assertTrue(multistatus.getResponse().isEmpty());
+        assertEquals(3, responses.size());
+        assertEquals("/d/", responses.get(0).getHref().get(0));
+        assertEquals("/d/a/f", responses.get(2).getHref().get(0));
+        assertEquals("3", responses.get(2).getPropstat().get(0).getProp().getGetcontentlength().getContent().get(0));
+        assertNull(responses.get(2).getPropstat().get(0).getProp().getResourcetype().getCollection());
+        assertNotNull(responses.get(1).getPropstat().get(0).getProp().getResourcetype().getCollection());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCallbackAbort() throws Exception {
+        new SaxPropFindResponseHandler(response -> {
+            throw new SAXException("abort");
+        }).getMultistatus(new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -208,7 +208,7 @@ namespace Ch.Cyberduck.Ui.Controller
             foreach (IProgressView progressView in View.SelectedTransfers)
             {
                 Transfer transfer = GetTransferFromView(progressView);
-                if (!transfer.isRunning())
+                if (!IsActive(transfer))
                 {
                     for (int i = 0; i < transfer.getRoots().size(); i++)
                     {
@@ -284,12 +284,12 @@ namespace Ch.Cyberduck.Ui.Controller
 
         private bool View_ValidateStopEvent()
         {
-            return ValidateToolbarItem(transfer => transfer.isRunning());
+            return ValidateToolbarItem(transfer => IsActive(transfer));
         }
 
         private bool View_ValidateReloadEvent()
         {
-            return ValidateToolbarItem(transfer => (transfer.getType().isReloadable() && !transfer.isRunning()));
+            return ValidateToolbarItem(transfer => (transfer.getType().isReloadable() && !IsActive(transfer)));
         }
 
         /// <summary>
@@ -314,7 +314,7 @@ namespace Ch.Cyberduck.Ui.Controller
         {
             return ValidateToolbarItem(delegate(Transfer transfer)
             {
-                if (transfer.isRunning())
+                if (IsActive(transfer))
                 {
                     return false;
                 }
@@ -341,8 +341,7 @@ namespace Ch.Cyberduck.Ui.Controller
         {
             int connections = View.QueueSize;
             _preferences.setProperty("queue.connections.limit", connections);
-            TransferQueue queue = TransferQueueFactory.get();
-            queue.resize(connections);
+            TransferSchedulerFactory.get().resize(connections);
         }
 
         private void View_BandwidthChangedEvent()
@@ -370,6 +369,8 @@ namespace Ch.Cyberduck.Ui.Controller
                 }
             }
             UpdateBandwidthPopup();
+            // Redistribute global bandwidth with changed rates
+            TransferSchedulerFactory.get().rebalance();
         }
 
         private void View_SelectionChangedEvent()
@@ -517,7 +518,7 @@ namespace Ch.Cyberduck.Ui.Controller
             foreach (IProgressView progressView in View.SelectedTransfers)
             {
                 Transfer transfer = GetTransferFromView(progressView);
-                if (!transfer.isRunning())
+                if (!IsActive(transfer))
                 {
                     _collection.remove(transfer);
                 }
@@ -531,7 +532,7 @@ namespace Ch.Cyberduck.Ui.Controller
             {
                 Transfer transfer = GetTransferFromView(progressView);
                 BackgroundActionRegistry registry = getRegistry();
-                if (transfer.isRunning())
+                if (IsActive(transfer))
                 {
                     // Find matching background task
                     for (int i = 0; i < registry.size(); i++)
@@ -554,7 +555,7 @@ namespace Ch.Cyberduck.Ui.Controller
             foreach (IProgressView progressView in View.SelectedTransfers)
             {
                 Transfer transfer = GetTransferFromView(progressView);
-                if (!transfer.isRunning())
+                if (!IsActive(transfer))
                 {
                     TransferOptions options = new TransferOptions();
                     options.resumeRequested = false;
@@ -564,6 +565,12 @@ namespace Ch.Cyberduck.Ui.Controller
             }
         }
 
+        /// <returns>True if transfer is running or waiting in queue for a slot</returns>
+        private static bool IsActive(Transfer transfer)
+        {
+            return transfer.isRunning() || TransferSchedulerFactory.get().isQueued(transfer);
+        }
+
         private Transfer GetTransferFromView(IProgressView view)
         {
             foreach (KeyValuePair<Transfer, ProgressController> pair in _transferMap)
@@ -578,7 +585,7 @@ namespace Ch.Cyberduck.Ui.Controller
             foreach (IProgressView progressView in View.SelectedTransfers)
             {
                 Transfer transfer = GetTransferFromView(progressView);
-                if (!transfer.isRunning())
+                if (!IsActive(transfer))
                 {
                     TransferOptions options = new TransferOptions();
                     options.resumeRequested = true;
@@ -632,7 +639,9 @@ namespace Ch.Cyberduck.Ui.Controller
             ProgressController progressController;
             _transferMap.TryGetValue(transfer, out progressController);
             PathCache cache = new PathCache(_preferences.getInteger("transfer.cache.size"));
-            background(new TransferBackgroundAction(this, transfer.withCache(cache), options, callback, cache, progressController));
+            // Wait in the scheduler queue for a slot without blocking a thread
+            background(new TransferBackgroundAction(this, transfer.withCache(cache), options, callback, cache, progressController),
+                new TransferBackgroundExecutor());
         }
 
         public void TaskbarOverlayIcon(Icon icon, string description)